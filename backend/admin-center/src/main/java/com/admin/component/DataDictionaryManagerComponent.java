@@ -1,43 +1,99 @@
 package com.admin.component;
 
 import com.admin.entity.Dictionary;
+import com.admin.entity.DictionaryDataSource;
 import com.admin.entity.DictionaryItem;
 import com.admin.entity.DictionaryVersion;
 import com.admin.enums.DictionaryStatus;
 import com.admin.enums.DictionaryType;
 import com.admin.exception.AdminBusinessException;
+import com.admin.repository.DictionaryDataSourceRepository;
 import com.admin.repository.DictionaryItemRepository;
 import com.admin.repository.DictionaryRepository;
 import com.admin.repository.DictionaryVersionRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 数据字典管理组件
  * 负责字典分类管理、字典项管理、多语言支持和版本控制
+ *
+ * 本地化字典项按字典缓存：加载时一次生成所有语言的列表，按字典的 cacheTtl（秒，0表示不缓存）过期，
+ * 关联外部数据源的字典按数据源的 cacheTtl 过期并由后台定时刷新；字典或字典项变更后只失效对应字典。
+ * 同一字典同时只加载一次，并发的未命中等待这次加载的结果；后台刷新在独立的线程池中执行。
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DataDictionaryManagerComponent {
     
+    /** 支持的语言，未知语言使用默认名称 */
+    private static final List<String> LANGUAGES = List.of("en", "zh-CN", "zh-TW");
+    
     private final DictionaryRepository dictionaryRepository;
     private final DictionaryItemRepository itemRepository;
     private final DictionaryVersionRepository versionRepository;
+    private final DictionaryDataSourceRepository dataSourceRepository;
+    private final DictionaryDataSourceLoader dataSourceLoader;
     private final ObjectMapper objectMapper;
     
+    @Value("${admin.cache.dictionary-ttl-minutes:120}")
+    private long defaultTtlMinutes = 120;
+    
+    @Value("${admin.dictionary.cache.max-entries:500}")
+    private int maxCachedDictionaries = 500;
+    
+    @Value("${admin.dictionary.refresh-interval-ms:30000}")
+    private long refreshIntervalMs = 30000;
+    
+    @Value("${admin.dictionary.refresh-threads:2}")
+    private int refreshThreads = 2;
+    
+    /** 字典ID到已加载的本地化字典项 */
+    private final Map<String, ServedDictionary> servedDictionaries = new ConcurrentHashMap<>();
+    
+    /** 字典ID到失效次数，加载期间发生失效时不写入缓存 */
+    private final Map<String, Long> servedGenerations = new ConcurrentHashMap<>();
+    
+    /** 字典ID到进行中的加载 */
+    private final Map<String, CompletableFuture<ServedDictionary>> loading = new ConcurrentHashMap<>();
+    
+    /** 已提交后台刷新、尚未完成的字典ID */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    
+    private volatile ThreadPoolExecutor refreshExecutor;
+    
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+    
     // ==================== 字典管理 ====================
     
     /**
@@ -114,6 +170,7 @@ public class DataDictionaryManagerComponent {
         dictionary.incrementVersion();
         
         dictionary = dictionaryRepository.save(dictionary);
+        invalidateServedDictionary(id);
         log.info("Dictionary updated: {}", dictionary.getId());
         return dictionary;
     }
@@ -141,6 +198,7 @@ public class DataDictionaryManagerComponent {
         
         // 删除字典
         dictionaryRepository.delete(dictionary);
+        invalidateServedDictionary(id);
         log.info("Dictionary deleted: {}", id);
     }
     
@@ -199,6 +257,7 @@ public class DataDictionaryManagerComponent {
         Dictionary dictionary = getDictionaryById(id);
         dictionary.setStatus(DictionaryStatus.ACTIVE);
         dictionary.setUpdatedBy(operatorId);
+        invalidateServedDictionary(id);
         return dictionaryRepository.save(dictionary);
     }
     
@@ -216,6 +275,7 @@ public class DataDictionaryManagerComponent {
         
         dictionary.setStatus(DictionaryStatus.INACTIVE);
         dictionary.setUpdatedBy(operatorId);
+        invalidateServedDictionary(id);
         return dictionaryRepository.save(dictionary);
     }
 
@@ -226,7 +286,6 @@ public class DataDictionaryManagerComponent {
      * 创建字典项
      */
     @Transactional
-    @CacheEvict(value = "dictionaryItems", key = "#dictionaryId")
     public DictionaryItem createDictionaryItem(String dictionaryId, DictionaryItemRequest request, String creatorId) {
         log.info("Creating dictionary item: {} for dictionary: {}", request.getItemCode(), dictionaryId);
         
@@ -268,6 +327,7 @@ public class DataDictionaryManagerComponent {
         dictionary.incrementVersion();
         dictionary.setUpdatedBy(creatorId);
         dictionaryRepository.save(dictionary);
+        invalidateServedDictionary(dictionaryId);
         
         log.info("Dictionary item created: {}", item.getId());
         return item;
@@ -277,7 +337,6 @@ public class DataDictionaryManagerComponent {
      * 更新字典项
      */
     @Transactional
-    @CacheEvict(value = "dictionaryItems", allEntries = true)
     public DictionaryItem updateDictionaryItem(String itemId, DictionaryItemRequest request, String updaterId) {
         log.info("Updating dictionary item: {}", itemId);
         
@@ -322,6 +381,7 @@ public class DataDictionaryManagerComponent {
         dictionary.incrementVersion();
         dictionary.setUpdatedBy(updaterId);
         dictionaryRepository.save(dictionary);
+        invalidateServedDictionary(dictionary.getId());
         
         log.info("Dictionary item updated: {}", item.getId());
         return item;
@@ -331,7 +391,6 @@ public class DataDictionaryManagerComponent {
      * 删除字典项
      */
     @Transactional
-    @CacheEvict(value = "dictionaryItems", allEntries = true)
     public void deleteDictionaryItem(String itemId, String operatorId) {
         log.info("Deleting dictionary item: {}", itemId);
         
@@ -349,6 +408,7 @@ public class DataDictionaryManagerComponent {
         dictionary.incrementVersion();
         dictionary.setUpdatedBy(operatorId);
         dictionaryRepository.save(dictionary);
+        invalidateServedDictionary(dictionary.getId());
         
         log.info("Dictionary item deleted: {}", itemId);
     }
@@ -364,7 +424,6 @@ public class DataDictionaryManagerComponent {
     /**
      * 获取字典的所有字典项
      */
-    @Cacheable(value = "dictionaryItems", key = "#dictionaryId")
     public List<DictionaryItem> getDictionaryItems(String dictionaryId) {
         return itemRepository.findByDictionaryIdOrderBySortOrder(dictionaryId);
     }
@@ -394,11 +453,11 @@ public class DataDictionaryManagerComponent {
      * 启用字典项
      */
     @Transactional
-    @CacheEvict(value = "dictionaryItems", allEntries = true)
     public DictionaryItem activateDictionaryItem(String itemId, String operatorId) {
         DictionaryItem item = getDictionaryItemById(itemId);
         item.setStatus(DictionaryStatus.ACTIVE);
         item.setUpdatedBy(operatorId);
+        invalidateServedDictionary(item);
         return itemRepository.save(item);
     }
     
@@ -406,11 +465,11 @@ public class DataDictionaryManagerComponent {
      * 禁用字典项
      */
     @Transactional
-    @CacheEvict(value = "dictionaryItems", allEntries = true)
     public DictionaryItem deactivateDictionaryItem(String itemId, String operatorId) {
         DictionaryItem item = getDictionaryItemById(itemId);
         item.setStatus(DictionaryStatus.INACTIVE);
         item.setUpdatedBy(operatorId);
+        invalidateServedDictionary(item);
         return itemRepository.save(item);
     }
 
@@ -419,25 +478,16 @@ public class DataDictionaryManagerComponent {
     
     /**
      * 获取指定语言的字典项列表
+     * 返回缓存中预先生成的只读列表
      */
     public List<DictionaryItemLocalized> getDictionaryItemsLocalized(String dictionaryId, String language) {
-        List<DictionaryItem> items = getValidDictionaryItems(dictionaryId);
-        return items.stream()
-                .map(item -> DictionaryItemLocalized.builder()
-                        .id(item.getId())
-                        .itemCode(item.getItemCode())
-                        .name(item.getNameByLanguage(language))
-                        .value(item.getValue())
-                        .sortOrder(item.getSortOrder())
-                        .build())
-                .collect(Collectors.toList());
+        return servedDictionary(dictionaryId).localized(language);
     }
     
     /**
      * 批量更新字典项的多语言名称
      */
     @Transactional
-    @CacheEvict(value = "dictionaryItems", allEntries = true)
     public void updateItemTranslations(String itemId, Map<String, String> translations, String updaterId) {
         DictionaryItem item = getDictionaryItemById(itemId);
         
@@ -453,6 +503,7 @@ public class DataDictionaryManagerComponent {
         
         item.setUpdatedBy(updaterId);
         itemRepository.save(item);
+        invalidateServedDictionary(item);
     }
     
     // ==================== 版本控制 ====================
@@ -498,7 +549,7 @@ public class DataDictionaryManagerComponent {
      * 回滚到指定版本
      */
     @Transactional
-    @CacheEvict(value = {"dictionaries", "dictionaryItems"}, allEntries = true)
+    @CacheEvict(value = "dictionaries", allEntries = true)
     public Dictionary rollbackToVersion(String dictionaryId, Integer targetVersion, String operatorId) {
         log.info("Rolling back dictionary {} to version {}", dictionaryId, targetVersion);
         
@@ -536,6 +587,7 @@ public class DataDictionaryManagerComponent {
             dictionary.incrementVersion();
             dictionary.setUpdatedBy(operatorId);
             dictionary = dictionaryRepository.save(dictionary);
+            invalidateServedDictionary(dictionaryId);
             
             log.info("Dictionary rolled back to version {}", targetVersion);
             return dictionary;
@@ -547,6 +599,251 @@ public class DataDictionaryManagerComponent {
     }
 
     
+    // ==================== 字典项缓存 ====================
+    
+    /**
+     * 后台刷新关联外部数据源的字典：已过期或在下一轮刷新前过期的提前重新加载，
+     * 读取时不必等待外部数据源；加载失败时保留旧数据，下一轮再试。
+     * 加载提交到独立线程池，慢数据源不占用定时任务线程
+     */
+    @Scheduled(fixedDelayString = "${admin.dictionary.refresh-interval-ms:30000}")
+    public void refreshExternalDictionaries() {
+        long deadline = System.currentTimeMillis() + refreshIntervalMs;
+        for (Map.Entry<String, ServedDictionary> entry : servedDictionaries.entrySet()) {
+            String dictionaryId = entry.getKey();
+            if (!entry.getValue().external || entry.getValue().expiresAt > deadline
+                    || !refreshing.add(dictionaryId)) {
+                continue;
+            }
+            try {
+                refreshExecutor().execute(() -> {
+                    try {
+                        loadAndCache(dictionaryId);
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to refresh dictionary {} from external source: {}",
+                                dictionaryId, e.getMessage());
+                    } finally {
+                        refreshing.remove(dictionaryId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.remove(dictionaryId);
+                log.warn("Dictionary refresh executor is shut down, skipping {}", dictionaryId);
+            }
+        }
+    }
+    
+    /**
+     * 字典的本地化字典项，过期时重新加载
+     * 外部数据源的过期数据在一个TTL内继续使用，由后台刷新，超出后同步加载
+     */
+    private ServedDictionary servedDictionary(String dictionaryId) {
+        long now = System.currentTimeMillis();
+        ServedDictionary served = servedDictionaries.get(dictionaryId);
+        if (served != null && (now < served.expiresAt
+                || served.external && now < served.expiresAt + served.ttlMillis)) {
+            served.lastAccess = now;
+            return served;
+        }
+        return loadAndCache(dictionaryId);
+    }
+    
+    /**
+     * 加载字典并写入缓存，同一字典已在加载时等待其结果
+     */
+    private ServedDictionary loadAndCache(String dictionaryId) {
+        CompletableFuture<ServedDictionary> flight = new CompletableFuture<>();
+        CompletableFuture<ServedDictionary> existing = loading.putIfAbsent(dictionaryId, flight);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            ServedDictionary served = loadAndStore(dictionaryId);
+            flight.complete(served);
+            return served;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(dictionaryId, flight);
+        }
+    }
+    
+    private ServedDictionary loadAndStore(String dictionaryId) {
+        // 先取失效次数再读库：加载期间有变更提交时不写入，避免缓存旧数据
+        Long generation = servedGenerations.get(dictionaryId);
+        ServedDictionary served = loadServedDictionary(dictionaryId);
+        if (served.ttlMillis <= 0) {
+            return served;
+        }
+        servedGenerations.compute(dictionaryId, (id, current) -> {
+            if (Objects.equals(current, generation)) {
+                servedDictionaries.put(id, served);
+            }
+            return current;
+        });
+        if (servedDictionaries.size() > maxCachedDictionaries) {
+            evictLeastRecentlyUsed(dictionaryId);
+        }
+        return served;
+    }
+    
+    private ServedDictionary loadServedDictionary(String dictionaryId) {
+        long now = System.currentTimeMillis();
+        Dictionary dictionary = dictionaryRepository.findById(dictionaryId).orElse(null);
+        DictionaryDataSource source = dictionary != null
+                && DictionaryDataSourceLoader.isExternal(dictionary.getDataSourceType())
+                ? dataSourceRepository.findByDictionaryIdAndEnabled(dictionaryId, true).orElse(null)
+                : null;
+        
+        List<DictionaryItem> items;
+        long ttlMillis;
+        long expiresAt;
+        if (source != null) {
+            items = dataSourceLoader.load(source);
+            ttlMillis = source.getCacheTtl() != null ? source.getCacheTtl() * 1000L : ttlMillis(dictionary);
+            expiresAt = now + ttlMillis;
+        } else {
+            items = itemRepository.findValidItems(dictionaryId);
+            // 不存在的字典不缓存
+            ttlMillis = dictionary != null ? ttlMillis(dictionary) : 0;
+            expiresAt = now + ttlMillis;
+            // 有字典项到期或生效时提前过期
+            for (DictionaryItem item : items) {
+                if (item.getValidTo() != null) {
+                    expiresAt = Math.min(expiresAt, item.getValidTo().toEpochMilli());
+                }
+            }
+            if (dictionary != null) {
+                Instant nextValidFrom = itemRepository.findNextValidFrom(dictionaryId);
+                if (nextValidFrom != null) {
+                    expiresAt = Math.min(expiresAt, nextValidFrom.toEpochMilli());
+                }
+            }
+        }
+        return new ServedDictionary(localize(items), source != null, ttlMillis, expiresAt, now);
+    }
+    
+    private long ttlMillis(Dictionary dictionary) {
+        if (dictionary.getCacheTtl() == null) {
+            return defaultTtlMinutes * 60_000;
+        }
+        return dictionary.getCacheTtl() * 1000L;
+    }
+    
+    /**
+     * 一次遍历生成所有语言的列表，键为空字符串的是默认名称列表
+     */
+    private static Map<String, List<DictionaryItemLocalized>> localize(List<DictionaryItem> items) {
+        Map<String, List<DictionaryItemLocalized>> localized = new HashMap<>();
+        List<String> keys = new ArrayList<>(LANGUAGES);
+        keys.add("");
+        for (String language : keys) {
+            List<DictionaryItemLocalized> list = new ArrayList<>(items.size());
+            for (DictionaryItem item : items) {
+                list.add(DictionaryItemLocalized.builder()
+                        .id(item.getId())
+                        .itemCode(item.getItemCode())
+                        .name(item.getNameByLanguage(language))
+                        .value(item.getValue())
+                        .sortOrder(item.getSortOrder())
+                        .build());
+            }
+            localized.put(language, Collections.unmodifiableList(list));
+        }
+        return localized;
+    }
+    
+    private ThreadPoolExecutor refreshExecutor() {
+        ThreadPoolExecutor executor = refreshExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (refreshExecutor == null) {
+                    AtomicInteger index = new AtomicInteger();
+                    int threads = Math.max(1, refreshThreads);
+                    // 每个字典最多排队一次，队列长度不超过缓存条目数
+                    refreshExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), r -> {
+                                Thread thread = new Thread(r, "dictionary-refresh-" + index.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+                    refreshExecutor.allowCoreThreadTimeOut(true);
+                }
+                executor = refreshExecutor;
+            }
+        }
+        return executor;
+    }
+    
+    private void evictLeastRecentlyUsed(String keep) {
+        servedDictionaries.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(keep))
+                .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                .ifPresent(entry -> servedDictionaries.remove(entry.getKey(), entry.getValue()));
+    }
+    
+    private void invalidateServedDictionary(DictionaryItem item) {
+        if (item.getDictionary() != null) {
+            invalidateServedDictionary(item.getDictionary().getId());
+        }
+    }
+    
+    /**
+     * 失效单个字典的缓存（事务提交后生效）
+     */
+    private void invalidateServedDictionary(String dictionaryId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictServedDictionary(dictionaryId);
+                }
+            });
+        } else {
+            evictServedDictionary(dictionaryId);
+        }
+    }
+    
+    private void evictServedDictionary(String dictionaryId) {
+        servedGenerations.compute(dictionaryId, (id, current) -> {
+            servedDictionaries.remove(id);
+            return current == null ? 1L : current + 1;
+        });
+    }
+    
+    /**
+     * 已加载的字典：各语言的本地化字典项及过期时间
+     */
+    private static final class ServedDictionary {
+        private final Map<String, List<DictionaryItemLocalized>> localized;
+        private final boolean external;
+        private final long ttlMillis;
+        private final long expiresAt;
+        private volatile long lastAccess;
+        
+        private ServedDictionary(Map<String, List<DictionaryItemLocalized>> localized, boolean external,
+                                 long ttlMillis, long expiresAt, long lastAccess) {
+            this.localized = localized;
+            this.external = external;
+            this.ttlMillis = ttlMillis;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+        
+        private List<DictionaryItemLocalized> localized(String language) {
+            List<DictionaryItemLocalized> items = language != null ? localized.get(language) : null;
+            return items != null ? items : localized.get("");
+        }
+    }
+    
     // ==================== 内部类 ====================
     
     /**
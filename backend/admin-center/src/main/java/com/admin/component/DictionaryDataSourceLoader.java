@@ -0,0 +1,252 @@
+package com.admin.component;
+
+import com.admin.entity.DictionaryDataSource;
+import com.admin.entity.DictionaryItem;
+import com.admin.enums.DataSourceType;
+import com.admin.enums.DictionaryStatus;
+import com.admin.exception.AdminBusinessException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 字典外部数据源加载组件
+ * 从关联的数据库表或API接口读取字典项
+ *
+ * 数据库数据源按连接复用只读连接池：connectionString 为 jdbc: 开头的URL，
+ * 或 admin.dictionary.connections.{name}.url/username/password 中配置的连接名，
+ * 为空时在本服务数据源的只读事务中查询。API数据源通过共享的 RestTemplate 访问。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DictionaryDataSourceLoader {
+
+    /** 表名和字段名只允许标识符（可带 schema 前缀），不拼接任意SQL */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RestTemplate restTemplate;
+    private final Environment environment;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${admin.dictionary.external.pool-size:2}")
+    private int poolSize = 2;
+
+    @Value("${admin.dictionary.external.connection-timeout-ms:5000}")
+    private long connectionTimeoutMs = 5000;
+
+    @Value("${admin.dictionary.external.query-timeout-seconds:30}")
+    private int queryTimeoutSeconds = 30;
+
+    /** 连接串（URL或连接名）到连接池 */
+    private final Map<String, HikariDataSource> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 是否为需要从外部读取的数据源类型
+     */
+    public static boolean isExternal(DataSourceType type) {
+        return type == DataSourceType.DATABASE || type == DataSourceType.API;
+    }
+
+    /**
+     * 读取外部数据源的字典项，按数据源的排序字段或返回顺序排列
+     * 返回的字典项不是持久化实体
+     */
+    public List<DictionaryItem> load(DictionaryDataSource source) {
+        long start = System.currentTimeMillis();
+        List<DictionaryItem> items = switch (source.getSourceType()) {
+            case DATABASE -> loadFromDatabase(source);
+            case API -> loadFromApi(source);
+            default -> throw new AdminBusinessException("UNSUPPORTED_DATA_SOURCE",
+                    "不支持的字典数据源类型: " + source.getSourceType());
+        };
+        log.debug("Loaded {} items for dictionary {} from {} source in {} ms", items.size(),
+                source.getDictionaryId(), source.getSourceType(), System.currentTimeMillis() - start);
+        return items;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(HikariDataSource::close);
+        pools.clear();
+    }
+
+    // ==================== 数据库 ====================
+
+    private List<DictionaryItem> loadFromDatabase(DictionaryDataSource source) {
+        String codeField = identifier(source.getCodeField(), "代码字段");
+        String nameField = source.getNameField() != null ? identifier(source.getNameField(), "名称字段") : codeField;
+        String valueField = source.getValueField() != null ? identifier(source.getValueField(), "值字段") : codeField;
+
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(codeField).append(", ").append(nameField).append(", ").append(valueField)
+                .append(" FROM ").append(identifier(source.getTableName(), "表名"));
+        if (source.getFilterCondition() != null && !source.getFilterCondition().isBlank()) {
+            sql.append(" WHERE ").append(filterCondition(source.getFilterCondition()));
+        }
+        if (source.getOrderByField() != null && !source.getOrderByField().isBlank()) {
+            sql.append(" ORDER BY ").append(identifier(source.getOrderByField(), "排序字段"));
+        }
+
+        String connection = source.getConnectionString();
+        JdbcTemplate template = jdbcTemplateFor(connection);
+        List<DictionaryItem> items = new ArrayList<>();
+        RowCallbackHandler handler = rs -> {
+            items.add(externalItem(source, rs.getString(1), rs.getString(2), rs.getString(3), items.size()));
+        };
+        try {
+            if (connection == null || connection.isBlank()) {
+                // 本服务数据源可读写，过滤条件只能在只读事务中执行
+                readOnlyTransaction().executeWithoutResult(status -> template.query(sql.toString(), handler));
+            } else {
+                template.query(sql.toString(), handler);
+            }
+        } catch (DataAccessException | TransactionException e) {
+            throw new AdminBusinessException("DATA_SOURCE_ERROR",
+                    "读取字典数据源失败: " + source.getDictionaryId(), e);
+        }
+        return items;
+    }
+
+    private JdbcTemplate jdbcTemplateFor(String connection) {
+        JdbcTemplate template = new JdbcTemplate(connection == null || connection.isBlank()
+                ? jdbcTemplate.getDataSource()
+                : pools.computeIfAbsent(connection, this::createPool));
+        template.setQueryTimeout(queryTimeoutSeconds);
+        return template;
+    }
+
+    /**
+     * 新开的只读事务，不加入调用方可能存在的读写事务
+     */
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+        transaction.setTimeout(queryTimeoutSeconds);
+        return transaction;
+    }
+
+    private HikariDataSource createPool(String connection) {
+        HikariConfig config = new HikariConfig();
+        if (connection.startsWith("jdbc:")) {
+            config.setJdbcUrl(connection);
+        } else {
+            String prefix = "admin.dictionary.connections." + connection + ".";
+            String url = environment.getProperty(prefix + "url");
+            if (url == null) {
+                throw new AdminBusinessException("DATA_SOURCE_NOT_CONFIGURED", "字典数据库连接未配置: " + connection);
+            }
+            config.setJdbcUrl(url);
+            config.setUsername(environment.getProperty(prefix + "username"));
+            config.setPassword(environment.getProperty(prefix + "password"));
+        }
+        config.setPoolName("dictionary-" + pools.size());
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(0);
+        config.setReadOnly(true);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        log.info("Creating connection pool {} for dictionary data source", config.getPoolName());
+        return new HikariDataSource(config);
+    }
+
+    // ==================== API ====================
+
+    /**
+     * 接口返回JSON数组，或 data 字段为数组的对象
+     */
+    private List<DictionaryItem> loadFromApi(DictionaryDataSource source) {
+        String url = source.getConnectionString() + (source.getTableName() != null ? source.getTableName() : "");
+        if (source.getFilterCondition() != null && !source.getFilterCondition().isBlank()) {
+            url += (url.contains("?") ? "&" : "?") + source.getFilterCondition();
+        }
+
+        JsonNode body;
+        try {
+            body = restTemplate.getForObject(url, JsonNode.class);
+        } catch (RestClientException e) {
+            throw new AdminBusinessException("DATA_SOURCE_ERROR",
+                    "读取字典数据源失败: " + source.getDictionaryId(), e);
+        }
+        JsonNode rows = body != null && body.has("data") ? body.get("data") : body;
+        if (rows == null || !rows.isArray()) {
+            throw new AdminBusinessException("DATA_SOURCE_ERROR", "字典数据源返回格式不正确: " + source.getDictionaryId());
+        }
+
+        String codeField = source.getCodeField();
+        String nameField = source.getNameField() != null ? source.getNameField() : codeField;
+        String valueField = source.getValueField() != null ? source.getValueField() : codeField;
+        List<JsonNode> ordered = new ArrayList<>();
+        rows.forEach(ordered::add);
+        if (source.getOrderByField() != null && !source.getOrderByField().isBlank()) {
+            ordered.sort(Comparator.comparing(row -> row.path(source.getOrderByField()).asText(""),
+                    Comparator.naturalOrder()));
+        }
+
+        List<DictionaryItem> items = new ArrayList<>(ordered.size());
+        for (JsonNode row : ordered) {
+            items.add(externalItem(source, text(row, codeField), text(row, nameField), text(row, valueField),
+                    items.size()));
+        }
+        return items;
+    }
+
+    private static String text(JsonNode row, String field) {
+        JsonNode node = row.get(field);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private static DictionaryItem externalItem(DictionaryDataSource source, String code, String name, String value,
+                                               int sortOrder) {
+        return DictionaryItem.builder()
+                .id(source.getDictionaryId() + ":" + code)
+                .itemCode(code)
+                .name(name != null ? name : code)
+                .value(value)
+                .status(DictionaryStatus.ACTIVE)
+                .sortOrder(sortOrder)
+                .build();
+    }
+
+    private static String identifier(String value, String label) {
+        if (value == null || !IDENTIFIER.matcher(value).matches()) {
+            throw new AdminBusinessException("INVALID_DATA_SOURCE", "字典数据源" + label + "不合法: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * 过滤条件是管理员配置的SQL片段，只在只读连接或只读事务中执行，拒绝语句分隔和注释
+     */
+    private static String filterCondition(String condition) {
+        if (condition.contains(";") || condition.contains("--") || condition.contains("/*")) {
+            throw new AdminBusinessException("INVALID_DATA_SOURCE", "字典数据源过滤条件不合法");
+        }
+        return condition;
+    }
+}
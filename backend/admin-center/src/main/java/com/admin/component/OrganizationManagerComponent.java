@@ -11,16 +11,28 @@ import com.admin.repository.BusinessUnitRepository;
 import com.admin.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * 组织架构管理组件
  * 负责业务单元的创建、编辑、层级调整、删除等核心功能
+ *
+ * 层级以物化路径（/根ID/.../自身ID）保存，路径列上有前缀索引：
+ * 后代查询和子树移动都是一条按路径前缀的语句。
+ * 业务单元树在内存中缓存，任何层级变更提交后本地版本号和Redis中的共享版本号都加1，
+ * 本实例和其他实例的缓存随之失效；Redis不可用时缓存最多保留 tree-cache-ttl-seconds。
  */
 @Slf4j
 @Component
@@ -29,9 +41,23 @@ public class OrganizationManagerComponent {
     
     private final BusinessUnitRepository businessUnitRepository;
     private final UserRepository userRepository;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
     
     private static final Pattern CODE_PATTERN = Pattern.compile("^[A-Za-z0-9_-]+$");
     
+    /** 各实例共享的层级版本号 */
+    private static final String HIERARCHY_VERSION_KEY = "admin:organization:hierarchy-version";
+    
+    /** 业务单元树缓存的最长保留时间（秒） */
+    @Value("${admin.organization.tree-cache-ttl-seconds:300}")
+    private long treeCacheTtlSeconds = 300;
+    
+    /** 层级版本号，业务单元变更提交后递增 */
+    private final AtomicLong hierarchyVersion = new AtomicLong();
+    
+    /** 缓存的树结构（不含成员数量），只用于复制，不直接返回 */
+    private volatile TreeSnapshot treeSnapshot;
+    
     /**
      * 创建业务单元
      */
@@ -80,6 +106,7 @@ public class OrganizationManagerComponent {
                 .build();
         
         businessUnitRepository.save(businessUnit);
+        invalidateTreeAfterCommit();
         
         log.info("Business unit created successfully: {}", unitId);
         return BusinessUnitResult.success(unitId, request.getCode());
@@ -110,12 +137,14 @@ public class OrganizationManagerComponent {
         }
         
         businessUnitRepository.save(businessUnit);
+        invalidateTreeAfterCommit();
         
         log.info("Business unit updated successfully: {}", unitId);
     }
     
     /**
      * 调整业务单元层级 - 检测循环依赖
+     * 后代的路径和层级由一条 UPDATE 按路径前缀整体改写
      */
     @Transactional
     public void moveBusinessUnit(String unitId, String newParentId) {
@@ -129,12 +158,8 @@ public class OrganizationManagerComponent {
             throw new CircularDependencyException(unitId, newParentId);
         }
         
-        // 检测循环依赖
-        if (wouldCreateCycle(unitId, newParentId)) {
-            throw new CircularDependencyException(unitId, newParentId);
-        }
-        
         String oldPath = businessUnit.getPath();
+        int oldLevel = businessUnit.getLevel();
         int newLevel;
         String newPath;
         
@@ -145,6 +170,10 @@ public class OrganizationManagerComponent {
         } else {
             BusinessUnit newParent = businessUnitRepository.findById(newParentId)
                     .orElseThrow(() -> new BusinessUnitNotFoundException(newParentId));
+            // 检测循环依赖：新父业务单元不能是当前业务单元的后代
+            if (newParent.isDescendantOf(businessUnit)) {
+                throw new CircularDependencyException(unitId, newParentId);
+            }
             newLevel = newParent.getLevel() + 1;
             newPath = newParent.getPath() + "/" + unitId;
         }
@@ -156,9 +185,14 @@ public class OrganizationManagerComponent {
         businessUnitRepository.save(businessUnit);
         
         // 更新所有子业务单元的路径和层级
-        updateDescendantPaths(unitId, oldPath, newPath, newLevel);
+        int moved = 0;
+        if (oldPath != null && !oldPath.equals(newPath)) {
+            moved = businessUnitRepository.moveDescendants(escapeLike(oldPath) + "/%", oldPath.length() + 1,
+                    newPath, newLevel - oldLevel, Instant.now());
+        }
+        invalidateTreeAfterCommit();
         
-        log.info("Business unit moved successfully: {} to {}", unitId, newParentId);
+        log.info("Business unit moved successfully: {} to {} ({} descendants)", unitId, newParentId, moved);
     }
     
     /**
@@ -182,6 +216,7 @@ public class OrganizationManagerComponent {
         }
         
         businessUnitRepository.delete(businessUnit);
+        invalidateTreeAfterCommit();
         
         log.info("Business unit deleted successfully: {}", unitId);
     }
@@ -224,18 +259,32 @@ public class OrganizationManagerComponent {
     
     /**
      * 获取业务单元树
+     * 树结构取自缓存，成员数量每次用一条分组查询获取
      */
     public List<BusinessUnitTree> getBusinessUnitTree() {
-        List<BusinessUnit> allUnits = businessUnitRepository.findAllActive();
+        TreeSnapshot snapshot = treeSnapshot;
+        long version = hierarchyVersion.get();
+        String sharedVersion = readSharedVersion();
+        long now = System.currentTimeMillis();
+        if (snapshot == null || snapshot.version != version
+                || !Objects.equals(snapshot.sharedVersion, sharedVersion) || now >= snapshot.expiresAt) {
+            // 先取版本再读库：读库期间有变更提交时版本已前进，下次调用会重建
+            snapshot = new TreeSnapshot(version, sharedVersion, now + treeCacheTtlSeconds * 1000,
+                    buildBusinessUnitTree(businessUnitRepository.findAllActive(), Map.of()));
+            treeSnapshot = snapshot;
+        }
         
         // 获取每个业务单元的成员数量（通过关联表）
         Map<String, Long> memberCounts = new HashMap<>();
-        for (BusinessUnit unit : allUnits) {
-            memberCounts.put(unit.getId(), userRepository.countMembersByBusinessUnitId(unit.getId()));
+        for (Object[] row : userRepository.countMembersGroupByBusinessUnit()) {
+            memberCounts.put((String) row[0], (Long) row[1]);
         }
         
-        // 构建树形结构
-        return buildBusinessUnitTree(allUnits, memberCounts);
+        List<BusinessUnitTree> roots = new ArrayList<>(snapshot.roots.size());
+        for (BusinessUnitTree root : snapshot.roots) {
+            roots.add(copyTree(root, memberCounts));
+        }
+        return roots;
     }
     
     /**
@@ -265,6 +314,9 @@ public class OrganizationManagerComponent {
         if (newParentId == null || newParentId.isEmpty()) {
             return false;
         }
+        if (unitId.equals(newParentId)) {
+            return true;
+        }
         
         // 检查新父业务单元是否是当前业务单元的后代
         BusinessUnit newParent = businessUnitRepository.findById(newParentId).orElse(null);
@@ -277,8 +329,8 @@ public class OrganizationManagerComponent {
             return false;
         }
         
-        // 如果新父业务单元的路径包含当前业务单元的ID，则会造成循环
-        return newParent.getPath() != null && newParent.getPath().contains("/" + unitId);
+        // 按路径前缀判断，避免ID互为前缀时误判
+        return newParent.isDescendantOf(current);
     }
     
     /**
@@ -317,21 +369,72 @@ public class OrganizationManagerComponent {
     }
     
     /**
-     * 更新后代业务单元的路径和层级
+     * 转义 LIKE 模式中的特殊字符，转义符为 !
      */
-    private void updateDescendantPaths(String unitId, String oldPath, String newPath, int parentLevel) {
-        List<BusinessUnit> descendants = businessUnitRepository.findByPathStartingWith(oldPath + "/");
-        
-        for (BusinessUnit descendant : descendants) {
-            String updatedPath = descendant.getPath().replace(oldPath, newPath);
-            int levelDiff = parentLevel - (descendant.getLevel() - 1);
-            
-            descendant.setPath(updatedPath);
-            descendant.setLevel(descendant.getLevel() + levelDiff);
-            businessUnitRepository.save(descendant);
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+    
+    /**
+     * 事务提交后使本实例和其他实例的业务单元树缓存失效；回滚时缓存保持不变
+     */
+    private void invalidateTreeAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advanceHierarchyVersion();
+                }
+            });
+        } else {
+            advanceHierarchyVersion();
+        }
+    }
+    
+    private void advanceHierarchyVersion() {
+        hierarchyVersion.incrementAndGet();
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().increment(HIERARCHY_VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("Failed to advance shared hierarchy version, other instances refresh within {}s: {}",
+                    treeCacheTtlSeconds, e.getMessage());
         }
     }
     
+    /**
+     * 读取共享层级版本号，Redis不可用时返回null，只依靠缓存TTL
+     */
+    private String readSharedVersion() {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(HIERARCHY_VERSION_KEY);
+        } catch (Exception e) {
+            log.debug("Failed to read shared hierarchy version: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 复制缓存中的节点并填入成员数量，调用方可以自由修改返回的树
+     */
+    private BusinessUnitTree copyTree(BusinessUnitTree source, Map<String, Long> memberCounts) {
+        List<BusinessUnitTree> children = new ArrayList<>(source.getChildren().size());
+        for (BusinessUnitTree child : source.getChildren()) {
+            children.add(copyTree(child, memberCounts));
+        }
+        return source.toBuilder()
+                .memberCount(memberCounts.getOrDefault(source.getId(), 0L))
+                .children(children)
+                .build();
+    }
+    
     /**
      * 构建业务单元树形结构
      */
@@ -382,4 +485,21 @@ public class OrganizationManagerComponent {
         
         return roots;
     }
+    
+    /**
+     * 某个层级版本下构建的树
+     */
+    private static final class TreeSnapshot {
+        private final long version;
+        private final String sharedVersion;
+        private final long expiresAt;
+        private final List<BusinessUnitTree> roots;
+        
+        private TreeSnapshot(long version, String sharedVersion, long expiresAt, List<BusinessUnitTree> roots) {
+            this.version = version;
+            this.sharedVersion = sharedVersion;
+            this.expiresAt = expiresAt;
+            this.roots = roots;
+        }
+    }
 }
@@ -2,22 +2,31 @@ package com.admin.component;
 
 import com.admin.dto.request.ConflictResolutionRequest;
 import com.admin.dto.response.ConflictDetectionResult;
+import com.admin.dto.response.PageResult;
 import com.admin.entity.Permission;
 import com.admin.entity.PermissionConflict;
 import com.admin.entity.Role;
 import com.admin.enums.ConflictResolutionStrategy;
 import com.admin.exception.AdminBusinessException;
 import com.admin.repository.PermissionConflictRepository;
+import com.admin.repository.PermissionRepository;
+import com.admin.repository.RolePermissionRepository;
 import com.admin.repository.RoleRepository;
+import com.admin.repository.UserRoleRepository;
 import com.admin.service.AuditService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 权限冲突管理组件
@@ -28,10 +37,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PermissionConflictComponent {
     
+    /** 批量扫描单页最多检测的用户数 */
+    private static final int MAX_SCAN_PAGE_SIZE = 500;
+    
     private final PermissionConflictRepository conflictRepository;
     private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    private final RolePermissionRepository rolePermissionRepository;
+    private final UserRoleRepository userRoleRepository;
     private final AuditService auditService;
     
+    @Value("${admin.cache.permission-ttl-minutes:60}")
+    private long indexTtlMinutes = 60;
+    
+    /** 权限、角色权限或角色状态变更时递增，冲突索引按版本失效 */
+    private final AtomicLong indexVersion = new AtomicLong();
+    
+    private volatile PermissionConflictIndex conflictIndex;
+    
     /**
      * 检测用户权限冲突
      */
@@ -45,149 +68,139 @@ public class PermissionConflictComponent {
             return ConflictDetectionResult.noConflicts();
         }
         
-        List<ConflictDetectionResult.ConflictInfo> conflicts = new ArrayList<>();
-        
-        // 检测角色间的权限冲突
-        for (int i = 0; i < userRoles.size(); i++) {
-            for (int j = i + 1; j < userRoles.size(); j++) {
-                Role role1 = userRoles.get(i);
-                Role role2 = userRoles.get(j);
-                
-                List<ConflictDetectionResult.ConflictInfo> roleConflicts = 
-                        detectRoleConflicts(userId, role1, role2);
-                conflicts.addAll(roleConflicts);
-            }
+        List<String> roleIds = new ArrayList<>(userRoles.size());
+        Map<String, String> roleNames = new HashMap<>();
+        for (Role role : userRoles) {
+            roleIds.add(role.getId());
+            roleNames.put(role.getId(), role.getName());
         }
+        Collections.sort(roleIds);
         
-        if (conflicts.isEmpty()) {
-            return ConflictDetectionResult.noConflicts();
-        }
-        
-        // 推荐解决策略
-        ConflictResolutionStrategy recommendedStrategy = recommendResolutionStrategy(conflicts);
-        
-        return ConflictDetectionResult.withConflicts(conflicts, recommendedStrategy);
+        return detectConflicts(currentIndex(), userId, roleIds, roleNames, Instant.now());
     }
     
     /**
-     * 检测两个角色之间的权限冲突
+     * 分页批量检测用户的权限冲突
+     * 按用户ID分页遍历拥有至少两个有效角色的用户，一次读取本页用户的角色关联，在同一份冲突索引上逐用户求交集
+     *
+     * @return 本页中存在冲突的用户的检测结果，总数为待检测用户数
      */
-    private List<ConflictDetectionResult.ConflictInfo> detectRoleConflicts(String userId, Role role1, Role role2) {
-        List<ConflictDetectionResult.ConflictInfo> conflicts = new ArrayList<>();
+    public PageResult<ConflictDetectionResult> detectAllUserPermissionConflicts(int page, int size) {
+        long start = System.currentTimeMillis();
+        PermissionConflictIndex index = currentIndex();
         
-        // 检测互斥权限冲突
-        Set<Permission> role1Permissions = getEffectivePermissions(role1);
-        Set<Permission> role2Permissions = getEffectivePermissions(role2);
+        Page<String> userIds = userRoleRepository.findUserIdsWithMultipleActiveRoles(
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SCAN_PAGE_SIZE)));
         
-        for (Permission perm1 : role1Permissions) {
-            for (Permission perm2 : role2Permissions) {
-                if (isConflictingPermissions(perm1, perm2)) {
-                    ConflictDetectionResult.ConflictInfo conflict = ConflictDetectionResult.ConflictInfo.builder()
-                            .userId(userId)
-                            .permissionId(perm1.getId())
-                            .permissionName(perm1.getName())
-                            .conflictSource1("角色: " + role1.getName())
-                            .conflictSource2("角色: " + role2.getName())
-                            .conflictDescription(String.format("权限 %s 与 %s 存在冲突", 
-                                    perm1.getName(), perm2.getName()))
-                            .resolutionStrategy(ConflictResolutionStrategy.MANUAL)
-                            .status("PENDING")
-                            .detectedAt(Instant.now())
-                            .build();
-                    
-                    conflicts.add(conflict);
-                }
+        // 按用户ID排序，同一用户的角色连续出现
+        Map<String, List<String>> rolesByUser = new LinkedHashMap<>();
+        if (userIds.hasContent()) {
+            for (Object[] row : userRoleRepository.findActiveUserRoleIds(userIds.getContent())) {
+                rolesByUser.computeIfAbsent((String) row[0], k -> new ArrayList<>()).add((String) row[1]);
             }
         }
         
-        return conflicts;
-    }
-    
-    /**
-     * 判断两个权限是否冲突
-     */
-    private boolean isConflictingPermissions(Permission perm1, Permission perm2) {
-        // 检查是否是互斥权限
-        if (isMutuallyExclusivePermissions(perm1, perm2)) {
-            return true;
-        }
-        
-        // 检查是否是层级冲突权限
-        if (isHierarchicalConflict(perm1, perm2)) {
-            return true;
+        Set<String> roleIds = new HashSet<>();
+        rolesByUser.values().forEach(roleIds::addAll);
+        Map<String, String> roleNames = new HashMap<>();
+        if (!roleIds.isEmpty()) {
+            roleRepository.findAllById(roleIds).forEach(role -> roleNames.put(role.getId(), role.getName()));
         }
         
-        // 检查是否是业务规则冲突
-        if (isBusinessRuleConflict(perm1, perm2)) {
-            return true;
+        Instant now = Instant.now();
+        List<ConflictDetectionResult> results = new ArrayList<>();
+        int conflictCount = 0;
+        for (Map.Entry<String, List<String>> entry : rolesByUser.entrySet()) {
+            if (entry.getValue().size() < 2) {
+                continue;
+            }
+            ConflictDetectionResult result = detectConflicts(index, entry.getKey(), entry.getValue(), roleNames, now);
+            if (result.isHasConflicts()) {
+                result.setUserId(entry.getKey());
+                results.add(result);
+                conflictCount += result.getConflicts().size();
+            }
         }
         
-        return false;
+        log.info("Permission conflict scan page {} finished: {} users, {} with conflicts, {} conflicts in {} ms",
+                userIds.getNumber(), rolesByUser.size(), results.size(), conflictCount,
+                System.currentTimeMillis() - start);
+        return PageResult.of(results, userIds.getNumber(), userIds.getSize(), userIds.getTotalElements());
     }
     
     /**
-     * 检查是否是互斥权限
+     * 权限、角色权限或角色状态变更后使冲突索引失效（事务提交后生效）
      */
-    private boolean isMutuallyExclusivePermissions(Permission perm1, Permission perm2) {
-        // 定义互斥权限规则
-        Map<String, Set<String>> mutuallyExclusiveRules = Map.of(
-                "ADMIN", Set.of("READONLY", "GUEST"),
-                "WRITE", Set.of("READONLY"),
-                "DELETE", Set.of("READONLY"),
-                "APPROVE", Set.of("REJECT"),
-                "CREATE", Set.of("READONLY")
-        );
-        
-        String action1 = perm1.getAction().toUpperCase();
-        String action2 = perm2.getAction().toUpperCase();
-        
-        Set<String> exclusiveActions1 = mutuallyExclusiveRules.get(action1);
-        Set<String> exclusiveActions2 = mutuallyExclusiveRules.get(action2);
-        
-        return (exclusiveActions1 != null && exclusiveActions1.contains(action2)) ||
-               (exclusiveActions2 != null && exclusiveActions2.contains(action1));
+    public void invalidateConflictIndex() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexVersion.incrementAndGet();
+                }
+            });
+        } else {
+            indexVersion.incrementAndGet();
+        }
     }
     
     /**
-     * 检查是否是层级冲突
+     * 检测一个用户在给定角色组合下的冲突，角色按两两组合求冲突权限对
      */
-    private boolean isHierarchicalConflict(Permission perm1, Permission perm2) {
-        // 检查同一资源的不同层级权限是否冲突
-        if (!perm1.getResource().equals(perm2.getResource())) {
-            return false;
+    private ConflictDetectionResult detectConflicts(PermissionConflictIndex index, String userId,
+                                                    List<String> roleIds, Map<String, String> roleNames,
+                                                    Instant detectedAt) {
+        List<ConflictDetectionResult.ConflictInfo> conflicts = new ArrayList<>();
+        
+        for (int i = 0; i < roleIds.size(); i++) {
+            for (int j = i + 1; j < roleIds.size(); j++) {
+                String roleId1 = roleIds.get(i);
+                String roleId2 = roleIds.get(j);
+                for (int[] pair : index.conflictingPairs(roleId1, roleId2)) {
+                    Permission perm1 = index.permission(pair[0]);
+                    Permission perm2 = index.permission(pair[1]);
+                    conflicts.add(ConflictDetectionResult.ConflictInfo.builder()
+                            .userId(userId)
+                            .permissionId(perm1.getId())
+                            .permissionName(perm1.getName())
+                            .conflictSource1("角色: " + roleNames.getOrDefault(roleId1, roleId1))
+                            .conflictSource2("角色: " + roleNames.getOrDefault(roleId2, roleId2))
+                            .conflictDescription(String.format("权限 %s 与 %s 存在冲突",
+                                    perm1.getName(), perm2.getName()))
+                            .resolutionStrategy(ConflictResolutionStrategy.MANUAL)
+                            .status("PENDING")
+                            .detectedAt(detectedAt)
+                            .build());
+                }
+            }
         }
         
-        // 定义权限层级
-        Map<String, Integer> actionLevels = Map.of(
-                "READ", 1,
-                "WRITE", 2,
-                "DELETE", 3,
-                "ADMIN", 4
-        );
+        if (conflicts.isEmpty()) {
+            return ConflictDetectionResult.noConflicts();
+        }
         
-        Integer level1 = actionLevels.get(perm1.getAction().toUpperCase());
-        Integer level2 = actionLevels.get(perm2.getAction().toUpperCase());
+        // 推荐解决策略
+        ConflictResolutionStrategy recommendedStrategy = recommendResolutionStrategy(conflicts);
         
-        // 如果层级差距过大，可能存在冲突
-        return level1 != null && level2 != null && Math.abs(level1 - level2) > 2;
-    }
-    
-    /**
-     * 检查是否是业务规则冲突
-     */
-    private boolean isBusinessRuleConflict(Permission perm1, Permission perm2) {
-        // 实现业务规则冲突检测逻辑
-        // 例如：审批权限与被审批权限冲突
-        return false;
+        return ConflictDetectionResult.withConflicts(conflicts, recommendedStrategy);
     }
     
     /**
-     * 获取角色的有效权限
+     * 获取冲突索引，版本变化或过期时重建
      */
-    private Set<Permission> getEffectivePermissions(Role role) {
-        // 这里应该调用 RolePermissionManagerComponent 的方法
-        // 为了简化，这里返回空集合
-        return new HashSet<>();
+    private PermissionConflictIndex currentIndex() {
+        PermissionConflictIndex index = conflictIndex;
+        long version = indexVersion.get();
+        long now = System.currentTimeMillis();
+        if (index == null || !index.isValid(version, now)) {
+            // 先取版本再读库：读库期间有变更提交时版本已前进，下次调用会重建
+            index = PermissionConflictIndex.build(permissionRepository.findAll(),
+                    rolePermissionRepository.findActiveRolePermissionIds(),
+                    version, now + indexTtlMinutes * 60_000);
+            conflictIndex = index;
+            log.debug("Permission conflict index rebuilt at version {}", version);
+        }
+        return index;
     }
     
     /**
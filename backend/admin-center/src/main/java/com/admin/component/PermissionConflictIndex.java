@@ -0,0 +1,198 @@
+package com.admin.component;
+
+import com.admin.entity.Permission;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 权限冲突索引
+ *
+ * 权限按序号编入位图：每个权限预先算出与之冲突的权限位图（冲突规则索引），
+ * 每个角色的权限集合也是位图。两个角色之间的冲突即
+ * 角色A的每个权限的冲突位图与角色B权限位图的交集；
+ * 角色的"可冲突范围"（其所有权限冲突位图的并集）与对方不相交时直接跳过。
+ * 同一角色对的结果在索引生命周期内复用，批量扫描时大量用户共享角色组合。
+ *
+ * 冲突规则：
+ * 1. 互斥动作：ADMIN 与 READONLY/GUEST，WRITE/DELETE/CREATE 与 READONLY，APPROVE 与 REJECT
+ * 2. 层级冲突：同一资源上动作层级（READ < WRITE < DELETE < ADMIN）相差超过2
+ */
+final class PermissionConflictIndex {
+
+    private static final Map<String, Set<String>> MUTUALLY_EXCLUSIVE_ACTIONS = Map.of(
+            "ADMIN", Set.of("READONLY", "GUEST"),
+            "WRITE", Set.of("READONLY"),
+            "DELETE", Set.of("READONLY"),
+            "APPROVE", Set.of("REJECT"),
+            "CREATE", Set.of("READONLY")
+    );
+
+    private static final Map<String, Integer> ACTION_LEVELS = Map.of(
+            "READ", 1,
+            "WRITE", 2,
+            "DELETE", 3,
+            "ADMIN", 4
+    );
+
+    private static final int MAX_LEVEL_GAP = 2;
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final Permission[] permissions;
+    private final BitSet[] conflictsOf;
+    private final Map<String, BitSet> rolePermissions;
+    private final Map<String, BitSet> roleConflictReach;
+    private final Map<String, List<int[]>> pairCache = new ConcurrentHashMap<>();
+    private final long version;
+    private final long expiresAt;
+
+    private PermissionConflictIndex(Permission[] permissions, BitSet[] conflictsOf,
+                                    Map<String, BitSet> rolePermissions, Map<String, BitSet> roleConflictReach,
+                                    long version, long expiresAt) {
+        this.permissions = permissions;
+        this.conflictsOf = conflictsOf;
+        this.rolePermissions = rolePermissions;
+        this.roleConflictReach = roleConflictReach;
+        this.version = version;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 构建索引
+     *
+     * @param permissions         全部权限
+     * @param rolePermissionIds   角色权限关联，每行为 [roleId, permissionId]
+     * @param version             构建时的版本，版本变化后索引失效
+     * @param expiresAt           过期时间戳（毫秒）
+     */
+    static PermissionConflictIndex build(List<Permission> permissions, List<Object[]> rolePermissionIds,
+                                         long version, long expiresAt) {
+        int size = permissions.size();
+        Permission[] byOrdinal = permissions.toArray(new Permission[0]);
+        Map<String, Integer> ordinals = new HashMap<>(size * 2);
+        Map<String, BitSet> byAction = new HashMap<>();
+        Map<String, BitSet> byResource = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Permission permission = byOrdinal[i];
+            ordinals.put(permission.getId(), i);
+            String action = normalizeAction(permission.getAction());
+            if (action != null) {
+                byAction.computeIfAbsent(action, k -> new BitSet(size)).set(i);
+            }
+            if (permission.getResource() != null) {
+                byResource.computeIfAbsent(permission.getResource(), k -> new BitSet(size)).set(i);
+            }
+        }
+
+        Map<String, Set<String>> exclusive = symmetricExclusiveActions();
+        BitSet[] conflictsOf = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            Permission permission = byOrdinal[i];
+            String action = normalizeAction(permission.getAction());
+            BitSet conflicts = new BitSet(size);
+            if (action != null) {
+                for (String other : exclusive.getOrDefault(action, Set.of())) {
+                    conflicts.or(byAction.getOrDefault(other, EMPTY));
+                }
+                Integer level = ACTION_LEVELS.get(action);
+                BitSet sameResource = permission.getResource() != null
+                        ? byResource.get(permission.getResource()) : null;
+                if (level != null && sameResource != null) {
+                    for (Map.Entry<String, Integer> entry : ACTION_LEVELS.entrySet()) {
+                        BitSet sameAction = byAction.get(entry.getKey());
+                        if (Math.abs(entry.getValue() - level) > MAX_LEVEL_GAP && sameAction != null) {
+                            BitSet hierarchical = (BitSet) sameAction.clone();
+                            hierarchical.and(sameResource);
+                            conflicts.or(hierarchical);
+                        }
+                    }
+                }
+            }
+            conflictsOf[i] = conflicts;
+        }
+
+        Map<String, BitSet> rolePermissions = new HashMap<>();
+        for (Object[] row : rolePermissionIds) {
+            Integer ordinal = ordinals.get((String) row[1]);
+            if (ordinal != null) {
+                rolePermissions.computeIfAbsent((String) row[0], k -> new BitSet(size)).set(ordinal);
+            }
+        }
+        Map<String, BitSet> roleConflictReach = new HashMap<>(rolePermissions.size() * 2);
+        for (Map.Entry<String, BitSet> entry : rolePermissions.entrySet()) {
+            BitSet reach = new BitSet(size);
+            BitSet granted = entry.getValue();
+            for (int p = granted.nextSetBit(0); p >= 0; p = granted.nextSetBit(p + 1)) {
+                reach.or(conflictsOf[p]);
+            }
+            roleConflictReach.put(entry.getKey(), reach);
+        }
+
+        return new PermissionConflictIndex(byOrdinal, conflictsOf, rolePermissions, roleConflictReach,
+                version, expiresAt);
+    }
+
+    /**
+     * 是否仍可使用
+     */
+    boolean isValid(long currentVersion, long now) {
+        return version == currentVersion && now < expiresAt;
+    }
+
+    /**
+     * 两个角色之间的冲突权限对，每项为 [角色1的权限序号, 角色2的权限序号]，
+     * 按角色1权限序号、角色2权限序号升序
+     */
+    List<int[]> conflictingPairs(String roleId1, String roleId2) {
+        BitSet reach = roleConflictReach.get(roleId1);
+        BitSet granted2 = rolePermissions.get(roleId2);
+        if (reach == null || granted2 == null || !reach.intersects(granted2)) {
+            return List.of();
+        }
+        return pairCache.computeIfAbsent(roleId1 + '\u0000' + roleId2, key -> {
+            BitSet granted1 = rolePermissions.get(roleId1);
+            List<int[]> pairs = new ArrayList<>();
+            for (int p = granted1.nextSetBit(0); p >= 0; p = granted1.nextSetBit(p + 1)) {
+                if (!conflictsOf[p].intersects(granted2)) {
+                    continue;
+                }
+                BitSet hits = (BitSet) conflictsOf[p].clone();
+                hits.and(granted2);
+                for (int q = hits.nextSetBit(0); q >= 0; q = hits.nextSetBit(q + 1)) {
+                    pairs.add(new int[]{p, q});
+                }
+            }
+            return List.copyOf(pairs);
+        });
+    }
+
+    Permission permission(int ordinal) {
+        return permissions[ordinal];
+    }
+
+    private static String normalizeAction(String action) {
+        return action != null ? action.toUpperCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * 互斥规则是对称的：A 排斥 B 即 B 排斥 A
+     */
+    private static Map<String, Set<String>> symmetricExclusiveActions() {
+        Map<String, Set<String>> exclusive = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : MUTUALLY_EXCLUSIVE_ACTIONS.entrySet()) {
+            for (String other : entry.getValue()) {
+                exclusive.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).add(other);
+                exclusive.computeIfAbsent(other, k -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+        return exclusive;
+    }
+}
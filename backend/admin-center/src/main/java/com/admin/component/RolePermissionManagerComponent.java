@@ -5,10 +5,13 @@ import com.admin.dto.response.PermissionCheckResult;
 import com.admin.entity.*;
 import com.admin.enums.RoleType;
 import com.admin.exception.AdminBusinessException;
+import com.admin.exception.PermissionNotFoundException;
 import com.admin.exception.RoleNotFoundException;
 import com.admin.repository.*;
+import com.platform.security.event.RoleAssignmentChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +35,7 @@ public class RolePermissionManagerComponent {
     private final UserRoleRepository userRoleRepository;
     private final PermissionDelegationComponent delegationComponent;
     private final PermissionConflictComponent conflictComponent;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 创建角色
@@ -91,9 +95,56 @@ public class RolePermissionManagerComponent {
             rolePermissionRepository.save(rp);
         }
         
+        conflictComponent.invalidateConflictIndex();
+        
         log.info("Permissions configured for role: {}", roleId);
     }
     
+    /**
+     * 创建权限
+     */
+    @Transactional
+    public Permission createPermission(Permission permission) {
+        log.info("Creating permission: {}", permission.getCode());
+        
+        if (permissionRepository.existsByCode(permission.getCode())) {
+            throw new AdminBusinessException("CODE_EXISTS", "权限编码已存在: " + permission.getCode());
+        }
+        if (permission.getParentId() != null && !permissionRepository.existsById(permission.getParentId())) {
+            throw new PermissionNotFoundException(permission.getParentId());
+        }
+        
+        permission.setId(UUID.randomUUID().toString());
+        permissionRepository.save(permission);
+        conflictComponent.invalidateConflictIndex();
+        
+        log.info("Permission created successfully: {}", permission.getId());
+        return permission;
+    }
+    
+    /**
+     * 删除权限，已授予角色或存在子权限时不能删除
+     */
+    @Transactional
+    public void deletePermission(String permissionId) {
+        log.info("Deleting permission: {}", permissionId);
+        
+        Permission permission = permissionRepository.findById(permissionId)
+                .orElseThrow(() -> new PermissionNotFoundException(permissionId));
+        
+        if (!rolePermissionRepository.findByPermissionId(permissionId).isEmpty()) {
+            throw new AdminBusinessException("PERMISSION_IN_USE", "权限已授予角色，无法删除");
+        }
+        if (!permissionRepository.findByParentIdOrderBySortOrder(permissionId).isEmpty()) {
+            throw new AdminBusinessException("PERMISSION_HAS_CHILDREN", "权限存在子权限，无法删除");
+        }
+        
+        permissionRepository.delete(permission);
+        conflictComponent.invalidateConflictIndex();
+        
+        log.info("Permission deleted successfully: {}", permissionId);
+    }
+    
     /**
      * 检查权限 - 支持条件权限和委托权限
      */
@@ -303,7 +354,46 @@ public class RolePermissionManagerComponent {
         }
         
         roleRepository.delete(role);
+        conflictComponent.invalidateConflictIndex();
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.all());
         
         log.info("Role deleted successfully: {}", roleId);
     }
+    
+    /**
+     * 启用角色
+     */
+    @Transactional
+    public Role activateRole(String roleId) {
+        return updateRoleStatus(getRole(roleId), "ACTIVE");
+    }
+    
+    /**
+     * 停用角色，持有该角色的用户立即失去它
+     */
+    @Transactional
+    public Role deactivateRole(String roleId) {
+        Role role = getRole(roleId);
+        if (role.isSystemRole()) {
+            throw new AdminBusinessException("CANNOT_DEACTIVATE_SYSTEM_ROLE", "系统角色不能停用");
+        }
+        return updateRoleStatus(role, "INACTIVE");
+    }
+    
+    private Role updateRoleStatus(Role role, String status) {
+        if (status.equals(role.getStatus())) {
+            return role;
+        }
+        log.info("Updating role {} status to {}", role.getId(), status);
+        
+        role.setStatus(status);
+        roleRepository.save(role);
+        // 冲突索引只包含启用角色的权限
+        conflictComponent.invalidateConflictIndex();
+        // 有效角色只包含启用的角色，影响所有分配了该角色的用户
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.all());
+        
+        log.info("Role status updated: {}", role.getId());
+        return role;
+    }
 }
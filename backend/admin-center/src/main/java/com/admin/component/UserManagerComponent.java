@@ -53,7 +53,7 @@ public class UserManagerComponent {
     private final UserPermissionService userPermissionService;
     private final UserBusinessUnitRoleRepository userBusinessUnitRoleRepository;
     
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+    public static final Pattern EMAIL_PATTERN = Pattern.compile(
             "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
     
     /**
@@ -22,8 +22,10 @@ import com.admin.repository.UserRoleRepository;
 import com.admin.repository.VirtualGroupMemberRepository;
 import com.admin.repository.VirtualGroupRepository;
 import com.admin.repository.VirtualGroupRoleRepository;
+import com.platform.security.event.RoleAssignmentChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -58,6 +60,7 @@ public class VirtualGroupManagerComponent {
     private final UserRoleRepository userRoleRepository;
     private final JdbcTemplate jdbcTemplate;
     private final com.admin.repository.UserBusinessUnitRepository userBusinessUnitRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     
     /**
@@ -209,6 +212,7 @@ public class VirtualGroupManagerComponent {
         
         // 删除虚拟组
         virtualGroupRepository.delete(group);
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.all());
         
         log.info("Virtual group deleted successfully: {}", groupId);
     }
@@ -339,6 +343,7 @@ public class VirtualGroupManagerComponent {
                 .build();
         
         virtualGroupMemberRepository.save(member);
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.forUser(request.getUserId()));
         
         boolean isDevelopersVg = group.getCode() != null && DeveloperRoleSyncConstants.DEVELOPERS_VIRTUAL_GROUP_CODE.equalsIgnoreCase(group.getCode());
         // #region agent log
@@ -458,6 +463,7 @@ public class VirtualGroupManagerComponent {
         }
         
         virtualGroupMemberRepository.delete(member);
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.forUser(userId));
 
         if (group.getCode() != null && DeveloperRoleSyncConstants.DEVELOPERS_VIRTUAL_GROUP_CODE.equalsIgnoreCase(group.getCode())) {
             String syncedRoleId = DeveloperRoleSyncConstants.SYNCED_DEVELOPER_ROLE_ID_PREFIX + userId;
@@ -7,6 +7,7 @@ import com.admin.dto.request.ConflictResolutionRequest;
 import com.admin.dto.request.PermissionDelegationRequest;
 import com.admin.dto.response.ConflictDetectionResult;
 import com.admin.dto.response.PermissionCheckResult;
+import com.admin.dto.response.PageResult;
 import com.admin.dto.response.PermissionDelegationResult;
 import com.admin.entity.Permission;
 import com.admin.entity.PermissionConflict;
@@ -52,6 +53,29 @@ public class PermissionController {
         return ResponseEntity.ok(permission);
     }
     
+    @PostMapping
+    @Operation(summary = "创建权限")
+    public ResponseEntity<Permission> createPermission(@RequestBody @Valid CreatePermissionRequest request) {
+        Permission permission = rolePermissionManager.createPermission(Permission.builder()
+                .name(request.getName())
+                .code(request.getCode())
+                .type(request.getType())
+                .resource(request.getResource())
+                .action(request.getAction())
+                .parentId(request.getParentId())
+                .description(request.getDescription())
+                .sortOrder(request.getSortOrder() != null ? request.getSortOrder() : 0)
+                .build());
+        return ResponseEntity.ok(permission);
+    }
+    
+    @DeleteMapping("/{permissionId}")
+    @Operation(summary = "删除权限")
+    public ResponseEntity<Void> deletePermission(@PathVariable String permissionId) {
+        rolePermissionManager.deletePermission(permissionId);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/tree")
     @Operation(summary = "获取权限树")
     public ResponseEntity<List<Permission>> getPermissionTree() {
@@ -131,6 +155,14 @@ public class PermissionController {
         return ResponseEntity.ok(result);
     }
     
+    @PostMapping("/conflicts/scan")
+    @Operation(summary = "批量扫描所有用户权限冲突", description = "按用户分页扫描，每页只返回存在冲突的用户")
+    public ResponseEntity<PageResult<ConflictDetectionResult>> scanConflicts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(conflictComponent.detectAllUserPermissionConflicts(page, size));
+    }
+    
     @PostMapping("/conflicts/resolve")
     @Operation(summary = "解决权限冲突")
     public ResponseEntity<Void> resolveConflict(@RequestBody @Valid ConflictResolutionRequest request) {
@@ -151,4 +183,30 @@ public class PermissionController {
         List<PermissionConflict> conflicts = conflictComponent.getUserConflicts(userId);
         return ResponseEntity.ok(conflicts);
     }
-}
+    
+    // ==================== 请求对象 ====================
+    
+    @lombok.Data
+    public static class CreatePermissionRequest {
+        @jakarta.validation.constraints.NotBlank(message = "权限名称不能为空")
+        private String name;
+        
+        @jakarta.validation.constraints.NotBlank(message = "权限编码不能为空")
+        private String code;
+        
+        @jakarta.validation.constraints.NotBlank(message = "权限类型不能为空")
+        private String type;
+        
+        @jakarta.validation.constraints.NotBlank(message = "资源不能为空")
+        private String resource;
+        
+        @jakarta.validation.constraints.NotBlank(message = "操作不能为空")
+        private String action;
+        
+        private String parentId;
+        
+        private String description;
+        
+        private Integer sortOrder;
+    }
+}
\ No newline at end of file
@@ -88,6 +88,18 @@ public class RoleController {
         rolePermissionManager.deleteRole(roleId);
         return ResponseEntity.noContent().build();
     }
+    
+    @PostMapping("/{roleId}/activate")
+    @Operation(summary = "启用角色")
+    public ResponseEntity<Role> activateRole(@PathVariable String roleId) {
+        return ResponseEntity.ok(rolePermissionManager.activateRole(roleId));
+    }
+    
+    @PostMapping("/{roleId}/deactivate")
+    @Operation(summary = "停用角色")
+    public ResponseEntity<Role> deactivateRole(@PathVariable String roleId) {
+        return ResponseEntity.ok(rolePermissionManager.deactivateRole(roleId));
+    }
 
     
     // ==================== 权限配置 ====================
@@ -4,9 +4,11 @@ import com.admin.dto.request.UserBusinessUnitRoleAssignRequest;
 import com.admin.dto.response.UserBusinessUnitRoleInfo;
 import com.admin.entity.UserBusinessUnitRole;
 import com.admin.repository.UserBusinessUnitRoleRepository;
+import com.platform.security.event.RoleAssignmentChangedEvent;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +27,7 @@ import java.util.stream.Collectors;
 public class UserBusinessUnitRoleController {
     
     private final UserBusinessUnitRoleRepository userBusinessUnitRoleRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @GetMapping
     @Operation(summary = "获取用户的业务单元角色列表")
@@ -57,6 +60,7 @@ public class UserBusinessUnitRoleController {
                 .build();
         
         userBusinessUnitRoleRepository.save(assignment);
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.forUser(userId));
         return ResponseEntity.ok().build();
     }
     
@@ -70,6 +74,7 @@ public class UserBusinessUnitRoleController {
         
         userBusinessUnitRoleRepository.findByUserIdAndBusinessUnitIdAndRoleId(userId, businessUnitId, roleId)
                 .ifPresent(userBusinessUnitRoleRepository::delete);
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.forUser(userId));
         
         return ResponseEntity.ok().build();
     }
@@ -15,6 +15,7 @@ import com.admin.dto.response.UserInfo;
 import com.admin.entity.BusinessUnit;
 import com.admin.entity.Role;
 import com.admin.entity.User;
+import com.admin.entity.UserImportJob;
 import com.admin.entity.VirtualGroupMember;
 import com.admin.enums.RoleType;
 import com.admin.repository.VirtualGroupMemberRepository;
@@ -67,6 +68,26 @@ public class UserController {
         return ResponseEntity.ok(result);
     }
     
+    @PostMapping("/import-jobs")
+    @Operation(summary = "提交用户导入任务", description = "上传Excel或CSV文件后在后台分块导入，返回任务用于查询进度")
+    public ResponseEntity<UserImportJob> startImportJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = "X-User-Id", required = false) String operatorId) {
+        return ResponseEntity.ok(userImportService.startImportJob(file, operatorId));
+    }
+    
+    @GetMapping("/import-jobs/{jobId}")
+    @Operation(summary = "查询用户导入任务", description = "查询导入任务的状态、进度和错误明细")
+    public ResponseEntity<UserImportJob> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(userImportService.getImportJob(jobId));
+    }
+    
+    @PostMapping("/import-jobs/{jobId}/resume")
+    @Operation(summary = "继续用户导入任务", description = "从最后提交的检查点继续执行中断或失败的导入任务")
+    public ResponseEntity<UserImportJob> resumeImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(userImportService.resumeImportJob(jobId));
+    }
+    
     @GetMapping
     @Operation(summary = "查询用户列表", description = "分页查询用户，支持关键词搜索和条件筛选")
     public ResponseEntity<PageResult<UserInfo>> listUsers(
@@ -14,7 +14,7 @@ import java.util.List;
  * 业务单元树形结构DTO
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class BusinessUnitTree {
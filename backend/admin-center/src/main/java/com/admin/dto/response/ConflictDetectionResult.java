@@ -19,6 +19,8 @@ import java.util.List;
 @AllArgsConstructor
 public class ConflictDetectionResult {
     
+    /** 批量扫描时为被检测的用户ID */
+    private String userId;
     private boolean hasConflicts;
     private List<ConflictInfo> conflicts;
     private ConflictResolutionStrategy recommendedStrategy;
@@ -0,0 +1,111 @@
+package com.admin.entity;
+
+import com.admin.enums.UserImportJobStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * 用户批量导入任务实体
+ * 导入按块提交，每块提交时在同一事务中推进检查点（last_row_number），
+ * 中断或失败后从检查点之后的行继续
+ */
+@Entity
+@Table(name = "admin_user_import_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class UserImportJob {
+    
+    @Id
+    @Column(length = 64)
+    private String id;
+    
+    @Column(name = "file_name")
+    private String fileName;
+    
+    /**
+     * 上传文件路径，文件含明文初始密码，任务完成或保留期过后删除并置空
+     */
+    @JsonIgnore
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+    
+    /**
+     * 执行任务并保存上传文件的实例
+     */
+    @Column(name = "owner_instance", length = 128)
+    private String ownerInstance;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private UserImportJobStatus status = UserImportJobStatus.PENDING;
+    
+    @Column(name = "total_rows")
+    private Integer totalRows;
+    
+    @Column(name = "processed_rows", nullable = false)
+    @Builder.Default
+    private Integer processedRows = 0;
+    
+    @Column(name = "success_count", nullable = false)
+    @Builder.Default
+    private Integer successCount = 0;
+    
+    @Column(name = "failure_count", nullable = false)
+    @Builder.Default
+    private Integer failureCount = 0;
+    
+    /**
+     * 已提交的最后一个文件行号，继续执行时跳过该行及之前的行
+     */
+    @Column(name = "last_row_number", nullable = false)
+    @Builder.Default
+    private Integer lastRowNumber = 0;
+    
+    @Column(name = "errors", columnDefinition = "TEXT")
+    private String errors;
+    
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @Column(name = "created_by", length = 64)
+    private String createdBy;
+    
+    @Column(name = "created_at")
+    private Instant createdAt;
+    
+    @Column(name = "started_at")
+    private Instant startedAt;
+    
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+    
+    /**
+     * 所属实例最近一次续写的心跳，超时后任一实例都可以把任务标记为中断
+     */
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+    
+    /**
+     * 进度百分比，总行数未知时返回0
+     */
+    public int getProgressPercent() {
+        if (totalRows == null || totalRows == 0) {
+            return status == UserImportJobStatus.COMPLETED ? 100 : 0;
+        }
+        return (int) Math.min(100, processedRows * 100L / totalRows);
+    }
+    
+    /**
+     * 是否可以从检查点继续
+     */
+    public boolean isResumable() {
+        return status == UserImportJobStatus.FAILED || status == UserImportJobStatus.INTERRUPTED;
+    }
+}
@@ -0,0 +1,17 @@
+package com.admin.enums;
+
+/**
+ * 用户导入任务状态枚举
+ */
+public enum UserImportJobStatus {
+    /** 等待执行 */
+    PENDING,
+    /** 执行中 */
+    RUNNING,
+    /** 已完成（可能包含失败行） */
+    COMPLETED,
+    /** 执行失败，可从检查点继续 */
+    FAILED,
+    /** 服务停止导致中断，可从检查点继续 */
+    INTERRUPTED
+}
@@ -3,10 +3,12 @@ package com.admin.repository;
 import com.admin.entity.BusinessUnit;
 import com.admin.enums.BusinessUnitStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -63,6 +65,20 @@ public interface BusinessUnitRepository extends JpaRepository<BusinessUnit, Stri
     @Query("SELECT b FROM BusinessUnit b WHERE b.path LIKE :pathPrefix%")
     List<BusinessUnit> findByPathStartingWith(@Param("pathPrefix") String pathPrefix);
     
+    /**
+     * 整体移动子树：把所有后代路径中的旧前缀替换为新前缀，层级按差值调整
+     * pathPattern 为 "旧路径/%"（旧路径中的 ! % _ 以 ! 转义），suffixStart 为旧路径长度加1
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BusinessUnit b SET b.path = CONCAT(:newPath, SUBSTRING(b.path, :suffixStart)), " +
+           "b.level = b.level + :levelDelta, b.updatedAt = :updatedAt " +
+           "WHERE b.path LIKE :pathPattern ESCAPE '!'")
+    int moveDescendants(@Param("pathPattern") String pathPattern,
+                        @Param("suffixStart") int suffixStart,
+                        @Param("newPath") String newPath,
+                        @Param("levelDelta") int levelDelta,
+                        @Param("updatedAt") Instant updatedAt);
+    
     /**
      * 查找所有活跃业务单元
      */
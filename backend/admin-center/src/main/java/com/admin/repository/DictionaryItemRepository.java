@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,6 +59,13 @@ public interface DictionaryItemRepository extends JpaRepository<DictionaryItem,
            "ORDER BY i.sortOrder")
     List<DictionaryItem> findValidItems(@Param("dictionaryId") String dictionaryId);
     
+    /**
+     * 查找尚未生效的字典项中最早的生效时间，没有时返回null
+     */
+    @Query("SELECT MIN(i.validFrom) FROM DictionaryItem i WHERE i.dictionary.id = :dictionaryId " +
+           "AND i.status = 'ACTIVE' AND i.validFrom > CURRENT_TIMESTAMP")
+    Instant findNextValidFrom(@Param("dictionaryId") String dictionaryId);
+    
     /**
      * 删除字典的所有字典项
      */
@@ -2,6 +2,7 @@ package com.admin.repository;
 
 import com.admin.entity.RolePermission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -37,4 +38,10 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
      * 检查角色是否有指定权限
      */
     boolean existsByRoleIdAndPermissionId(String roleId, String permissionId);
+    
+    /**
+     * 所有启用角色的角色权限关联ID对，每行为 [roleId, permissionId]
+     */
+    @Query("SELECT rp.role.id, rp.permission.id FROM RolePermission rp WHERE rp.role.status = 'ACTIVE'")
+    List<Object[]> findActiveRolePermissionIds();
 }
@@ -0,0 +1,39 @@
+package com.admin.repository;
+
+import com.admin.entity.UserImportJob;
+import com.admin.enums.UserImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户导入任务仓库接口
+ */
+@Repository
+public interface UserImportJobRepository extends JpaRepository<UserImportJob, String> {
+    
+    /**
+     * 根据状态查找导入任务
+     */
+    List<UserImportJob> findByStatusIn(Collection<UserImportJobStatus> statuses);
+    
+    /**
+     * 查找指定实例拥有的指定状态的任务
+     */
+    List<UserImportJob> findByOwnerInstanceAndStatusIn(String ownerInstance, Collection<UserImportJobStatus> statuses);
+    
+    /**
+     * 查找指定实例上需要删除上传文件的任务：已完成的任务，以及结束早于 expiredBefore 的失败或中断任务
+     */
+    @Query("SELECT j FROM UserImportJob j WHERE j.ownerInstance = :ownerInstance AND j.filePath IS NOT NULL " +
+           "AND (j.status = com.admin.enums.UserImportJobStatus.COMPLETED " +
+           "OR (j.status IN (com.admin.enums.UserImportJobStatus.FAILED, com.admin.enums.UserImportJobStatus.INTERRUPTED) " +
+           "AND j.finishedAt < :expiredBefore))")
+    List<UserImportJob> findWithExpiredFiles(@Param("ownerInstance") String ownerInstance,
+                                             @Param("expiredBefore") Instant expiredBefore);
+}
@@ -127,4 +127,11 @@ public interface UserRepository extends JpaRepository<User, String> {
            "(SELECT ub.userId FROM UserBusinessUnit ub WHERE ub.businessUnitId = :businessUnitId) " +
            "AND (u.deleted = false OR u.deleted IS NULL)")
     long countMembersByBusinessUnitId(@Param("businessUnitId") String businessUnitId);
+    
+    /**
+     * 按业务单元统计成员数量，返回 [businessUnitId, count]
+     */
+    @Query("SELECT ub.businessUnitId, COUNT(DISTINCT u.id) FROM UserBusinessUnit ub, User u WHERE u.id = ub.userId " +
+           "AND (u.deleted = false OR u.deleted IS NULL) GROUP BY ub.businessUnitId")
+    List<Object[]> countMembersGroupByBusinessUnit();
 }
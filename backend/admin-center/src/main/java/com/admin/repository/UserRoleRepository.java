@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -80,4 +81,20 @@ public interface UserRoleRepository extends JpaRepository<UserRole, String> {
      */
     @Query("SELECT ur.role.id FROM UserRole ur WHERE ur.user.id = :userId")
     List<String> findRoleIdsByUserId(@Param("userId") String userId);
+    
+    /**
+     * 分页查询拥有至少两个有效角色的用户ID，按用户ID排序
+     */
+    @Query(value = "SELECT ur.user.id FROM UserRole ur WHERE ur.role.status = 'ACTIVE' " +
+                   "GROUP BY ur.user.id HAVING COUNT(ur) >= 2 ORDER BY ur.user.id",
+           countQuery = "SELECT COUNT(u) FROM User u WHERE (SELECT COUNT(ur) FROM UserRole ur " +
+                        "WHERE ur.user = u AND ur.role.status = 'ACTIVE') >= 2")
+    Page<String> findUserIdsWithMultipleActiveRoles(Pageable pageable);
+    
+    /**
+     * 指定用户的有效角色ID对，每行为 [userId, roleId]，按用户ID排序
+     */
+    @Query("SELECT ur.user.id, ur.role.id FROM UserRole ur WHERE ur.role.status = 'ACTIVE' " +
+           "AND ur.user.id IN :userIds ORDER BY ur.user.id, ur.role.id")
+    List<Object[]> findActiveUserRoleIds(@Param("userIds") Collection<String> userIds);
 }
@@ -12,8 +12,10 @@ import com.admin.repository.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.security.event.RoleAssignmentChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,6 +48,7 @@ public class MemberManagementService {
     private final MemberChangeLogRepository memberChangeLogRepository;
     private final ApproverService approverService;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 处理审批通过的申请
@@ -468,7 +471,7 @@ public class MemberManagementService {
     }
     
     /**
-     * 记录成员变更日志
+     * 记录成员变更日志，并通知用户有效角色缓存失效
      */
     private void logMemberChange(MemberChangeType changeType, ApproverTargetType targetType, 
                                   String targetId, String userId, String roleIds, String operatorId, String reason) {
@@ -483,6 +486,7 @@ public class MemberManagementService {
                 .reason(reason)
                 .build();
         memberChangeLogRepository.save(log);
+        eventPublisher.publishEvent(RoleAssignmentChangedEvent.forUser(userId));
     }
     
     /**
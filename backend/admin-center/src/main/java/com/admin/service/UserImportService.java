@@ -2,6 +2,7 @@ package com.admin.service;
 
 import com.admin.dto.request.UserCreateRequest;
 import com.admin.dto.response.BatchImportResult;
+import com.admin.entity.UserImportJob;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -22,10 +23,25 @@ public interface UserImportService {
     List<UserCreateRequest> parseCsvFile(MultipartFile file);
     
     /**
-     * 批量导入用户
+     * 批量导入用户，在当前线程中执行完成后返回结果
      */
     BatchImportResult importUsers(MultipartFile file);
     
+    /**
+     * 提交后台导入任务，立即返回任务信息
+     */
+    UserImportJob startImportJob(MultipartFile file, String operatorId);
+    
+    /**
+     * 查询导入任务进度
+     */
+    UserImportJob getImportJob(String jobId);
+    
+    /**
+     * 从检查点继续执行中断或失败的导入任务
+     */
+    UserImportJob resumeImportJob(String jobId);
+    
     /**
      * 验证导入数据
      */
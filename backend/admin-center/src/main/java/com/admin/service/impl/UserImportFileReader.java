@@ -0,0 +1,197 @@
+package com.admin.service.impl;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * 用户导入文件的流式读取
+ *
+ * XLSX 通过 SAX 逐行解析第一个工作表，共享字符串表只读加载，不构建整个工作簿；
+ * CSV 逐条读取记录。两种格式都跳过标题行（第1行）和空行，
+ * 回调中的行号从1开始，与表格中看到的行号一致。
+ */
+final class UserImportFileReader {
+
+    /** 导入模板的列数：用户名、邮箱、姓名、工号、业务单元ID、职位、初始密码 */
+    static final int COLUMN_COUNT = 7;
+
+    /**
+     * 行回调，cells 固定为 {@link #COLUMN_COUNT} 列，缺失或空白单元格为null
+     */
+    @FunctionalInterface
+    interface RowHandler {
+        void handle(int rowNumber, String[] cells);
+    }
+
+    private UserImportFileReader() {
+    }
+
+    static boolean isCsv(String fileName) {
+        return fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    /**
+     * 读取磁盘上的导入文件
+     */
+    static void read(Path file, boolean csv, RowHandler handler) throws IOException {
+        if (csv) {
+            try (InputStream in = Files.newInputStream(file)) {
+                readCsv(in, handler);
+            }
+            return;
+        }
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("无法打开Excel文件: " + e.getMessage(), e);
+        }
+        try {
+            readXlsx(pkg, handler);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 读取上传流
+     */
+    static void read(InputStream in, boolean csv, RowHandler handler) throws IOException {
+        if (csv) {
+            readCsv(in, handler);
+            return;
+        }
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(in);
+        } catch (OpenXML4JException e) {
+            throw new IOException("无法打开Excel文件: " + e.getMessage(), e);
+        }
+        try {
+            readXlsx(pkg, handler);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    private static void readXlsx(OPCPackage pkg, RowHandler handler) throws IOException {
+        try {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), strings, new SheetRowCollector(handler), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Excel文件解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static void readCsv(InputStream in, RowHandler handler) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try (CSVReader csv = new CSVReader(reader)) {
+            int rowNumber = 0;
+            String[] record;
+            while ((record = csv.readNext()) != null) {
+                rowNumber++;
+                if (rowNumber == 1) {
+                    continue;
+                }
+                String[] cells = new String[COLUMN_COUNT];
+                for (int i = 0; i < Math.min(record.length, COLUMN_COUNT); i++) {
+                    cells[i] = normalize(record[i]);
+                }
+                emit(rowNumber, cells, handler);
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("CSV文件解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static void emit(int rowNumber, String[] cells, RowHandler handler) {
+        if (Arrays.stream(cells).allMatch(cell -> cell == null)) {
+            return;
+        }
+        handler.handle(rowNumber, cells);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        // Excel 另存的 UTF-8 CSV 带 BOM
+        String trimmed = value.replace("\uFEFF", "").trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * 把 SAX 单元格事件组装成行
+     */
+    private static final class SheetRowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private String[] cells;
+        private int nextColumn;
+
+        private SheetRowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new String[COLUMN_COUNT];
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // rowNum 从0开始，标题行为0
+            if (rowNum > 0) {
+                emit(rowNum + 1, cells, handler);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (column < COLUMN_COUNT) {
+                cells[column] = normalize(formattedValue);
+            }
+        }
+    }
+}
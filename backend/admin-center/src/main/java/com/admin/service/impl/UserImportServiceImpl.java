@@ -3,148 +3,297 @@ package com.admin.service.impl;
 import com.admin.component.UserManagerComponent;
 import com.admin.dto.request.UserCreateRequest;
 import com.admin.dto.response.BatchImportResult;
+import com.admin.entity.UserImportJob;
+import com.admin.enums.UserImportJobStatus;
+import com.admin.exception.AdminBusinessException;
+import com.admin.repository.UserImportJobRepository;
 import com.admin.service.AuditService;
 import com.admin.service.UserImportService;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * 用户导入服务实现
+ *
+ * 导入以任务形式执行：上传文件落盘后流式读取，按块（默认1000行）处理——
+ * 行内校验、文件内去重、用户名/邮箱/业务单元一次性批量查库、密码在线程池中并行加密、
+ * JDBC 批量写入用户/业务单元关联/密码历史，并在同一事务中推进任务检查点。
+ * 任务中断或失败后可从检查点继续，已提交的块不会重复导入。
+ *
+ * 上传文件含明文初始密码，保存在各实例共享的工作目录中：任务完成即删除，
+ * 失败或中断的任务保留到保留期结束以便继续执行。
+ * 执行中和排队中的任务由所属实例定时续写心跳；实例宕机或被替换后心跳超时，
+ * 任一实例都会把任务标记为中断并接管其上传文件，之后可在任意实例上继续执行。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserImportServiceImpl implements UserImportService {
-    
-    private final UserManagerComponent userManager;
+
+    private static final int PASSWORD_EXPIRE_DAYS = 90;
+    private static final int MAX_USERNAME_LENGTH = 100;
+    private static final String OMITTED_ERRORS_PREFIX = "... ";
+
+    private static final String EXISTING_USERNAMES_SQL = "SELECT username FROM sys_users WHERE username IN (%s)";
+    private static final String EXISTING_EMAILS_SQL = "SELECT email FROM sys_users WHERE email IN (%s)";
+    private static final String EXISTING_BUSINESS_UNITS_SQL = "SELECT id FROM sys_business_units WHERE id IN (%s)";
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO sys_users (id, username, password_hash, email, full_name, employee_id, position, " +
+            "status, language, must_change_password, password_expired_at, failed_login_count, " +
+            "created_at, created_by, updated_at, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 'ACTIVE', 'zh_CN', true, ?, 0, ?, ?, ?, false)";
+    private static final String INSERT_USER_BUSINESS_UNIT_SQL =
+            "INSERT INTO sys_user_business_units (id, user_id, business_unit_id, created_at, created_by) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PASSWORD_HISTORY_SQL =
+            "INSERT INTO admin_password_history (id, user_id, password_hash, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String MARK_RUNNING_SQL =
+            "UPDATE admin_user_import_jobs SET status = 'RUNNING', owner_instance = ?, heartbeat_at = ?, " +
+            "started_at = COALESCE(started_at, ?), finished_at = NULL, error_message = NULL WHERE id = ?";
+    private static final String MARK_PENDING_SQL =
+            "UPDATE admin_user_import_jobs SET status = 'PENDING', owner_instance = ?, heartbeat_at = ?, " +
+            "finished_at = NULL, error_message = NULL WHERE id = ? AND status IN ('FAILED', 'INTERRUPTED')";
+    private static final String UPDATE_TOTAL_SQL = "UPDATE admin_user_import_jobs SET total_rows = ? WHERE id = ?";
+    /** 检查点只在任务仍由本实例执行时推进，被其他实例接管后整块回滚 */
+    private static final String CHECKPOINT_SQL =
+            "UPDATE admin_user_import_jobs SET processed_rows = ?, success_count = ?, failure_count = ?, " +
+            "last_row_number = ?, errors = ? WHERE id = ? AND owner_instance = ? AND status = 'RUNNING'";
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE admin_user_import_jobs SET status = ?, finished_at = ?, error_message = ? WHERE id = ?";
+    private static final String FINISH_SQL =
+            "UPDATE admin_user_import_jobs SET status = ?, finished_at = ?, error_message = ? " +
+            "WHERE id = ? AND owner_instance = ?";
+    private static final String HEARTBEAT_SQL =
+            "UPDATE admin_user_import_jobs SET heartbeat_at = ? WHERE id IN (%s) AND owner_instance = ? " +
+            "AND status IN ('PENDING', 'RUNNING')";
+    /** 接管心跳超时的任务；升级前创建的任务没有心跳，按开始或创建时间判断 */
+    private static final String INTERRUPT_STALE_SQL =
+            "UPDATE admin_user_import_jobs SET status = 'INTERRUPTED', owner_instance = ?, finished_at = ?, " +
+            "error_message = ? WHERE status IN ('PENDING', 'RUNNING') " +
+            "AND COALESCE(heartbeat_at, started_at, created_at) < ?";
+    private static final String CLEAR_FILE_SQL = "UPDATE admin_user_import_jobs SET file_path = NULL WHERE id = ?";
+
+    private final PasswordEncoder passwordEncoder;
     private final AuditService auditService;
-    
-    @Override
-    public List<UserCreateRequest> parseExcelFile(MultipartFile file) {
-        List<UserCreateRequest> users = new ArrayList<>();
-        
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // 跳过标题行
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                
-                UserCreateRequest user = parseExcelRow(row);
-                if (user != null) {
-                    users.add(user);
-                }
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserImportJobRepository jobRepository;
+
+    @Value("${admin.user-import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${admin.user-import.hash-threads:0}")
+    private int hashThreads = 0;
+
+    @Value("${admin.user-import.job-threads:2}")
+    private int jobThreads = 2;
+
+    @Value("${admin.user-import.job-queue-capacity:20}")
+    private int jobQueueCapacity = 20;
+
+    @Value("${admin.user-import.max-error-lines:1000}")
+    private int maxErrorLines = 1000;
+
+    @Value("${admin.user-import.work-dir:${java.io.tmpdir}/user-import}")
+    private String workDir = System.getProperty("java.io.tmpdir") + "/user-import";
+
+    /** 失败或中断任务的上传文件保留时间 */
+    @Value("${admin.user-import.file-retention-hours:72}")
+    private long fileRetentionHours = 72;
+
+    /** 任务心跳超过该时间未更新时，视为所属实例已宕机 */
+    @Value("${admin.user-import.lease-timeout-ms:120000}")
+    private long leaseTimeoutMs = 120000;
+
+    /** 本实例标识，各实例不同；为空时使用主机名 */
+    @Value("${admin.user-import.instance-id:}")
+    private String instanceId = "";
+
+    /** 正在执行的任务，防止同一任务被重复继续 */
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor jobExecutor;
+    private ExecutorService hashExecutor;
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = new ThreadPoolExecutor(jobThreads, jobThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, jobQueueCapacity)), daemonThreadFactory("user-import-job"),
+                new ThreadPoolExecutor.AbortPolicy());
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        hashExecutor = Executors.newFixedThreadPool(threads, daemonThreadFactory("user-import-hash"));
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = localHostName();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * 启动时把本实例上次未结束的任务标记为中断，等待手动继续；
+     * 其他实例的任务只有心跳超时后才接管
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedJobs() {
+        List<UserImportJob> unfinished = jobRepository.findByOwnerInstanceAndStatusIn(instanceId,
+                List.of(UserImportJobStatus.PENDING, UserImportJobStatus.RUNNING));
+        if (!unfinished.isEmpty()) {
+            Instant now = Instant.now();
+            unfinished.forEach(job -> {
+                job.setStatus(UserImportJobStatus.INTERRUPTED);
+                job.setFinishedAt(now);
+            });
+            jobRepository.saveAll(unfinished);
+            log.warn("Marked {} unfinished user import jobs of instance {} as interrupted", unfinished.size(),
+                    instanceId);
+        }
+        interruptStaleJobs();
+    }
+
+    /**
+     * 续写本实例执行中和排队中任务的心跳
+     */
+    @Scheduled(fixedDelayString = "${admin.user-import.heartbeat-interval-ms:30000}")
+    public void heartbeatActiveJobs() {
+        List<String> jobIds = new ArrayList<>(activeJobs);
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(jobIds.size() + 2);
+        args.add(Timestamp.from(Instant.now()));
+        args.addAll(jobIds);
+        args.add(instanceId);
+        String placeholders = String.join(", ", Collections.nCopies(jobIds.size(), "?"));
+        jdbcTemplate.update(String.format(HEARTBEAT_SQL, placeholders), args.toArray());
+    }
+
+    /**
+     * 把心跳超时的任务标记为中断，由本实例接管上传文件的清理；
+     * 所属实例若仍在执行，下一次提交检查点时发现任务已被接管而停止
+     */
+    @Scheduled(fixedDelayString = "${admin.user-import.lease-check-interval-ms:60000}")
+    public void interruptStaleJobs() {
+        Instant now = Instant.now();
+        int interrupted = jdbcTemplate.update(INTERRUPT_STALE_SQL, instanceId, Timestamp.from(now),
+                "执行实例心跳超时", Timestamp.from(now.minusMillis(leaseTimeoutMs)));
+        if (interrupted > 0) {
+            log.warn("Marked {} user import jobs with an expired lease as interrupted", interrupted);
+        }
+    }
+
+    /**
+     * 删除本实例上不再需要的上传文件：已完成任务的文件，以及超过保留期的失败、中断任务的文件
+     */
+    @Scheduled(fixedDelayString = "${admin.user-import.file-cleanup-interval-ms:3600000}")
+    public void purgeExpiredFiles() {
+        Instant expiredBefore = Instant.now().minus(Duration.ofHours(fileRetentionHours));
+        int deleted = 0;
+        for (UserImportJob job : jobRepository.findWithExpiredFiles(instanceId, expiredBefore)) {
+            if (!activeJobs.contains(job.getId()) && deleteFile(job)) {
+                deleted++;
             }
-        } catch (IOException e) {
-            log.error("Failed to parse Excel file", e);
-            throw new RuntimeException("Excel文件解析失败: " + e.getMessage());
         }
-        
-        return users;
+        if (deleted > 0) {
+            log.info("Deleted {} expired user import files", deleted);
+        }
     }
-    
+
+    @Override
+    public List<UserCreateRequest> parseExcelFile(MultipartFile file) {
+        return parseFile(file, false);
+    }
+
     @Override
     public List<UserCreateRequest> parseCsvFile(MultipartFile file) {
-        List<UserCreateRequest> users = new ArrayList<>();
-        
-        try (CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
-            List<String[]> rows = reader.readAll();
-            
-            // 跳过标题行
-            for (int i = 1; i < rows.size(); i++) {
-                String[] row = rows.get(i);
-                UserCreateRequest user = parseCsvRow(row);
-                if (user != null) {
-                    users.add(user);
-                }
-            }
-        } catch (IOException | CsvException e) {
-            log.error("Failed to parse CSV file", e);
-            throw new RuntimeException("CSV文件解析失败: " + e.getMessage());
-        }
-        
-        return users;
+        return parseFile(file, true);
     }
-    
+
     @Override
-    @Transactional
     public BatchImportResult importUsers(MultipartFile file) {
         log.info("Starting user import from file: {}", file.getOriginalFilename());
-        
+
         Instant startTime = Instant.now();
         String fileName = file.getOriginalFilename();
-        
+
         try {
-            // 根据文件类型解析
-            List<UserCreateRequest> users;
-            if (fileName != null && fileName.endsWith(".csv")) {
-                users = parseCsvFile(file);
-            } else {
-                users = parseExcelFile(file);
+            UserImportJob job = createJob(file, null);
+            claim(job.getId());
+            ImportRun run;
+            try {
+                run = runJob(job);
+            } finally {
+                activeJobs.remove(job.getId());
             }
-            
-            // 验证数据
-            List<String> validationErrors = validateImportData(users);
-            if (!validationErrors.isEmpty()) {
-                return BatchImportResult.builder()
-                        .success(false)
-                        .fileName(fileName)
-                        .totalCount(users.size())
-                        .successCount(0)
-                        .failureCount(users.size())
-                        .errors(String.join("\n", validationErrors))
-                        .startTime(startTime)
-                        .endTime(Instant.now())
-                        .build();
-            }
-            
-            // 执行导入
-            int successCount = 0;
-            int failureCount = 0;
-            StringBuilder errors = new StringBuilder();
-            
-            for (int i = 0; i < users.size(); i++) {
-                UserCreateRequest user = users.get(i);
-                try {
-                    userManager.createUser(user);
-                    successCount++;
-                } catch (Exception e) {
-                    failureCount++;
-                    errors.append(String.format("行 %d (%s): %s\n", 
-                            i + 2, user.getUsername(), e.getMessage()));
-                }
+
+            ImportProgress progress = run.progress;
+            String errors = progress.errorsText();
+            if (run.status != UserImportJobStatus.COMPLETED) {
+                String failure = "导入失败: " + run.errorMessage;
+                errors = errors == null ? failure : errors + "\n" + failure;
             }
-            
-            BatchImportResult result = BatchImportResult.builder()
-                    .success(failureCount == 0)
+            return BatchImportResult.builder()
+                    .success(run.status == UserImportJobStatus.COMPLETED && progress.failureCount == 0)
                     .fileName(fileName)
-                    .totalCount(users.size())
-                    .successCount(successCount)
-                    .failureCount(failureCount)
-                    .errors(errors.toString())
+                    .totalCount(progress.processedRows)
+                    .successCount(progress.successCount)
+                    .failureCount(progress.failureCount)
+                    .errors(errors)
                     .startTime(startTime)
                     .endTime(Instant.now())
                     .build();
-            
-            auditService.recordBatchImport(result);
-            
-            log.info("User import completed: {} success, {} failed", successCount, failureCount);
-            return result;
-            
+
         } catch (Exception e) {
             log.error("User import failed", e);
             return BatchImportResult.builder()
@@ -156,84 +305,61 @@ public class UserImportServiceImpl implements UserImportService {
                     .build();
         }
     }
-    
+
+    @Override
+    public UserImportJob startImportJob(MultipartFile file, String operatorId) {
+        UserImportJob job = createJob(file, operatorId);
+        submit(job);
+        log.info("User import job {} submitted for file: {}", job.getId(), job.getFileName());
+        return job;
+    }
+
+    @Override
+    public UserImportJob getImportJob(String jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new AdminBusinessException("IMPORT_JOB_NOT_FOUND", "导入任务不存在: " + jobId));
+    }
+
+    @Override
+    public UserImportJob resumeImportJob(String jobId) {
+        UserImportJob job = getImportJob(jobId);
+        if (!job.isResumable()) {
+            throw new AdminBusinessException("IMPORT_JOB_NOT_RESUMABLE",
+                    "导入任务当前状态不能继续执行: " + job.getStatus());
+        }
+        if (job.getFilePath() == null || !Files.exists(Path.of(job.getFilePath()))) {
+            throw new AdminBusinessException("IMPORT_FILE_MISSING", "导入文件已不存在，请重新上传");
+        }
+        // 状态条件保证并发继续同一任务时只有一个请求成功
+        if (jdbcTemplate.update(MARK_PENDING_SQL, instanceId, Timestamp.from(Instant.now()), jobId) != 1) {
+            throw new AdminBusinessException("IMPORT_JOB_NOT_RESUMABLE", "导入任务已在其他请求中继续执行: " + jobId);
+        }
+        job.setStatus(UserImportJobStatus.PENDING);
+        job.setOwnerInstance(instanceId);
+        submit(job);
+        log.info("User import job {} resumed after row {}", jobId, job.getLastRowNumber());
+        return job;
+    }
+
     @Override
     public List<String> validateImportData(List<UserCreateRequest> users) {
         List<String> errors = new ArrayList<>();
-        
+
         for (int i = 0; i < users.size(); i++) {
-            UserCreateRequest user = users.get(i);
             int rowNum = i + 2; // Excel行号从2开始（1是标题）
-            
-            if (user.getUsername() == null || user.getUsername().isBlank()) {
-                errors.add(String.format("行 %d: 用户名不能为空", rowNum));
-            }
-            if (user.getEmail() == null || user.getEmail().isBlank()) {
-                errors.add(String.format("行 %d: 邮箱不能为空", rowNum));
-            }
-            if (user.getFullName() == null || user.getFullName().isBlank()) {
-                errors.add(String.format("行 %d: 姓名不能为空", rowNum));
-            }
-            if (user.getInitialPassword() == null || user.getInitialPassword().length() < 8) {
-                errors.add(String.format("行 %d: 密码长度必须至少8位", rowNum));
+            for (String error : validateUser(users.get(i))) {
+                errors.add(String.format("行 %d: %s", rowNum, error));
             }
         }
-        
+
         return errors;
     }
-    
-    private UserCreateRequest parseExcelRow(Row row) {
-        try {
-            return UserCreateRequest.builder()
-                    .username(getCellStringValue(row.getCell(0)))
-                    .email(getCellStringValue(row.getCell(1)))
-                    .fullName(getCellStringValue(row.getCell(2)))
-                    .employeeId(getCellStringValue(row.getCell(3)))
-                    .businessUnitId(getCellStringValue(row.getCell(4)))
-                    .position(getCellStringValue(row.getCell(5)))
-                    .initialPassword(getCellStringValue(row.getCell(6)))
-                    .build();
-        } catch (Exception e) {
-            log.warn("Failed to parse Excel row", e);
-            return null;
-        }
-    }
-    
-    private UserCreateRequest parseCsvRow(String[] row) {
-        try {
-            if (row.length < 7) return null;
-            
-            return UserCreateRequest.builder()
-                    .username(row[0].trim())
-                    .email(row[1].trim())
-                    .fullName(row[2].trim())
-                    .employeeId(row.length > 3 ? row[3].trim() : null)
-                    .businessUnitId(row.length > 4 ? row[4].trim() : null)
-                    .position(row.length > 5 ? row[5].trim() : null)
-                    .initialPassword(row[6].trim())
-                    .build();
-        } catch (Exception e) {
-            log.warn("Failed to parse CSV row", e);
-            return null;
-        }
-    }
-    
-    private String getCellStringValue(Cell cell) {
-        if (cell == null) return null;
-        
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue().trim();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> null;
-        };
-    }
-    
+
     @Override
     public byte[] generateImportTemplate() {
         try (Workbook workbook = new XSSFWorkbook()) {
             Sheet sheet = workbook.createSheet("用户导入模板");
-            
+
             // 创建标题行样式
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -241,33 +367,504 @@ public class UserImportServiceImpl implements UserImportService {
             headerStyle.setFont(headerFont);
             headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
             headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            
+
             // 创建标题行
             Row headerRow = sheet.createRow(0);
             String[] headers = {"用户名*", "邮箱*", "姓名*", "工号", "业务单元ID", "职位", "初始密码*"};
-            
+
             for (int i = 0; i < headers.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
                 sheet.setColumnWidth(i, 4000);
             }
-            
+
             // 创建示例数据行
             Row exampleRow = sheet.createRow(1);
             String[] examples = {"zhangsan", "zhangsan@example.com", "张三", "EMP001", "", "工程师", "Password123!"};
             for (int i = 0; i < examples.length; i++) {
                 exampleRow.createCell(i).setCellValue(examples[i]);
             }
-            
+
             // 写入字节数组
             java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
             workbook.write(outputStream);
             return outputStream.toByteArray();
-            
+
         } catch (IOException e) {
             log.error("Failed to generate import template", e);
             throw new RuntimeException("生成导入模板失败: " + e.getMessage());
         }
     }
+
+    // ==================== 任务执行 ====================
+
+    private UserImportJob createJob(MultipartFile file, String operatorId) {
+        if (file == null || file.isEmpty()) {
+            throw new AdminBusinessException("IMPORT_FILE_EMPTY", "导入文件为空");
+        }
+        String fileName = file.getOriginalFilename();
+        String jobId = UUID.randomUUID().toString();
+        Path directory = Path.of(workDir);
+        Path target = directory.resolve(jobId + (UserImportFileReader.isCsv(fileName) ? ".csv" : ".xlsx"));
+        try {
+            Files.createDirectories(directory);
+            file.transferTo(target);
+        } catch (IOException e) {
+            log.error("Failed to store import file {}", fileName, e);
+            throw new AdminBusinessException("IMPORT_FILE_SAVE_FAILED", "保存导入文件失败: " + e.getMessage(), e);
+        }
+
+        UserImportJob job = UserImportJob.builder()
+                .id(jobId)
+                .fileName(fileName)
+                .filePath(target.toString())
+                .ownerInstance(instanceId)
+                .createdBy(operatorId)
+                .createdAt(Instant.now())
+                .heartbeatAt(Instant.now())
+                .build();
+        return jobRepository.save(job);
+    }
+
+    private void claim(String jobId) {
+        if (!activeJobs.add(jobId)) {
+            throw new AdminBusinessException("IMPORT_JOB_RUNNING", "导入任务正在执行: " + jobId);
+        }
+    }
+
+    private void submit(UserImportJob job) {
+        claim(job.getId());
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    runJob(job);
+                } finally {
+                    activeJobs.remove(job.getId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getId());
+            jdbcTemplate.update(UPDATE_STATUS_SQL, UserImportJobStatus.INTERRUPTED.name(),
+                    Timestamp.from(Instant.now()), "导入任务排队已满", job.getId());
+            throw new AdminBusinessException("IMPORT_JOB_BUSY", "导入任务过多，请稍后继续执行该任务");
+        }
+    }
+
+    /**
+     * 执行任务，从检查点之后的行开始；异常不向外抛出，结果记录在任务上
+     */
+    private ImportRun runJob(UserImportJob job) {
+        ImportRun run = new ImportRun(job, ImportProgress.from(job, maxErrorLines));
+        Path file = Path.of(job.getFilePath());
+        boolean csv = UserImportFileReader.isCsv(job.getFileName());
+        Timestamp startedAt = Timestamp.from(Instant.now());
+        jdbcTemplate.update(MARK_RUNNING_SQL, instanceId, startedAt, startedAt, job.getId());
+
+        try {
+            if (job.getTotalRows() == null) {
+                AtomicInteger total = new AtomicInteger();
+                UserImportFileReader.read(file, csv, (rowNumber, cells) -> total.incrementAndGet());
+                jdbcTemplate.update(UPDATE_TOTAL_SQL, total.get(), job.getId());
+            }
+
+            int checkpoint = run.progress.lastRowNumber;
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            UserImportFileReader.read(file, csv, (rowNumber, cells) -> {
+                if (rowNumber <= checkpoint) {
+                    return;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("导入任务被中断");
+                }
+                chunk.add(new ImportRow(rowNumber, toRequest(cells)));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(run, chunk);
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                processChunk(run, chunk);
+            }
+            run.status = UserImportJobStatus.COMPLETED;
+        } catch (CancellationException e) {
+            run.status = UserImportJobStatus.INTERRUPTED;
+            run.errorMessage = e.getMessage();
+        } catch (Exception e) {
+            log.error("User import job {} failed after row {}", job.getId(), run.progress.lastRowNumber, e);
+            run.status = UserImportJobStatus.FAILED;
+            run.errorMessage = e.getMessage();
+        }
+
+        int finished = jdbcTemplate.update(FINISH_SQL, run.status.name(), Timestamp.from(Instant.now()),
+                run.errorMessage, job.getId(), instanceId);
+        if (finished == 0) {
+            // 心跳超时后已被其他实例接管，上传文件和状态由接管方处理
+            log.warn("User import job {} was taken over by another instance after row {}", job.getId(),
+                    run.progress.lastRowNumber);
+            return run;
+        }
+        if (run.status == UserImportJobStatus.COMPLETED) {
+            deleteFile(job);
+            auditService.recordBatchImport(BatchImportResult.builder()
+                    .success(run.progress.failureCount == 0)
+                    .fileName(job.getFileName())
+                    .totalCount(run.progress.processedRows)
+                    .successCount(run.progress.successCount)
+                    .failureCount(run.progress.failureCount)
+                    .errors(run.progress.errorsText())
+                    .startTime(job.getStartedAt() != null ? job.getStartedAt() : job.getCreatedAt())
+                    .endTime(Instant.now())
+                    .build());
+        }
+        log.info("User import job {} {}: {} success, {} failed", job.getId(), run.status,
+                run.progress.successCount, run.progress.failureCount);
+        return run;
+    }
+
+    /**
+     * 处理一块数据：校验、批量查重、并行加密，写入与检查点在同一事务中提交
+     */
+    private void processChunk(ImportRun run, List<ImportRow> rows) {
+        List<ImportRow> candidates = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            List<String> errors = validateUser(row.user);
+            if (!errors.isEmpty()) {
+                row.error = String.join("; ", errors);
+            } else if (!run.seenUsernames.add(row.user.getUsername())) {
+                row.error = "文件中用户名重复: " + row.user.getUsername();
+            } else if (!run.seenEmails.add(row.user.getEmail())) {
+                row.error = "文件中邮箱重复: " + row.user.getEmail();
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        Set<String> existingUsernames = findExisting(EXISTING_USERNAMES_SQL, candidates,
+                row -> row.user.getUsername());
+        Set<String> existingEmails = findExisting(EXISTING_EMAILS_SQL, candidates, row -> row.user.getEmail());
+        Set<String> existingBusinessUnits = findExisting(EXISTING_BUSINESS_UNITS_SQL, candidates,
+                row -> row.user.getBusinessUnitId());
+
+        List<ImportRow> valid = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            String businessUnitId = row.user.getBusinessUnitId();
+            if (existingUsernames.contains(row.user.getUsername())) {
+                row.error = "用户名已存在: " + row.user.getUsername();
+            } else if (existingEmails.contains(row.user.getEmail())) {
+                row.error = "邮箱已被使用: " + row.user.getEmail();
+            } else if (businessUnitId != null && !existingBusinessUnits.contains(businessUnitId)) {
+                row.error = "业务单元不存在: " + businessUnitId;
+            } else {
+                row.userId = UUID.randomUUID().toString();
+                valid.add(row);
+            }
+        }
+
+        hashPasswords(valid);
+
+        String jobId = run.job.getId();
+        String operatorId = run.job.getCreatedBy();
+        ImportProgress next = run.progress.copy();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertUsers(valid, operatorId);
+                next.record(rows);
+                checkpoint(jobId, next);
+            });
+        } catch (DataAccessException e) {
+            // 批内有并发写入的重名数据等，逐行重试以定位失败行；
+            // 逐行重试期间中断时，已写入的行在继续执行时会报告为已存在
+            log.warn("Batch insert failed for import job {} rows {}-{}, retrying row by row: {}", jobId,
+                    rows.get(0).rowNumber, rows.get(rows.size() - 1).rowNumber, e.getMessage());
+            for (ImportRow row : valid) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertUsers(List.of(row), operatorId));
+                } catch (DataAccessException rowError) {
+                    row.error = "保存失败: " + rowError.getMostSpecificCause().getMessage();
+                }
+            }
+            ImportProgress retried = run.progress.copy();
+            retried.record(rows);
+            transactionTemplate.executeWithoutResult(status -> checkpoint(jobId, retried));
+            run.progress = retried;
+            return;
+        }
+        run.progress = next;
+    }
+
+    private void insertUsers(List<ImportRow> rows, String operatorId) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp passwordExpiredAt = Timestamp.valueOf(LocalDateTime.now().plusDays(PASSWORD_EXPIRE_DAYS));
+
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.userId);
+            ps.setString(2, row.user.getUsername());
+            ps.setString(3, row.passwordHash);
+            ps.setString(4, row.user.getEmail());
+            ps.setString(5, row.user.getFullName());
+            ps.setString(6, row.user.getEmployeeId());
+            ps.setString(7, row.user.getPosition());
+            ps.setTimestamp(8, passwordExpiredAt);
+            ps.setTimestamp(9, now);
+            ps.setString(10, operatorId);
+            ps.setTimestamp(11, now);
+        });
+
+        List<ImportRow> withBusinessUnit = rows.stream()
+                .filter(row -> row.user.getBusinessUnitId() != null)
+                .toList();
+        if (!withBusinessUnit.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_BUSINESS_UNIT_SQL, withBusinessUnit, withBusinessUnit.size(),
+                    (ps, row) -> {
+                        ps.setString(1, UUID.randomUUID().toString());
+                        ps.setString(2, row.userId);
+                        ps.setString(3, row.user.getBusinessUnitId());
+                        ps.setTimestamp(4, now);
+                        ps.setString(5, operatorId);
+                    });
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_PASSWORD_HISTORY_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, UUID.randomUUID().toString());
+            ps.setString(2, row.userId);
+            ps.setString(3, row.passwordHash);
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    /**
+     * 删除任务的上传文件并清空路径；删除失败时保留路径，由定时清理重试
+     */
+    private boolean deleteFile(UserImportJob job) {
+        try {
+            Files.deleteIfExists(Path.of(job.getFilePath()));
+        } catch (IOException e) {
+            log.warn("Failed to delete user import file of job {}: {}", job.getId(), e.getMessage());
+            return false;
+        }
+        jdbcTemplate.update(CLEAR_FILE_SQL, job.getId());
+        job.setFilePath(null);
+        return true;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot determine host name, set admin.user-import.instance-id", e);
+        }
+    }
+
+    private void checkpoint(String jobId, ImportProgress progress) {
+        int updated = jdbcTemplate.update(CHECKPOINT_SQL, progress.processedRows, progress.successCount,
+                progress.failureCount, progress.lastRowNumber, progress.errorsText(), jobId, instanceId);
+        if (updated == 0) {
+            throw new CancellationException("导入任务已被其他实例接管");
+        }
+    }
+
+    /**
+     * 查询已存在的值，一块数据一条 IN 查询
+     */
+    private Set<String> findExisting(String sqlTemplate, List<ImportRow> rows, Function<ImportRow, String> value) {
+        Set<String> values = new LinkedHashSet<>();
+        for (ImportRow row : rows) {
+            String v = value.apply(row);
+            if (v != null) {
+                values.add(v);
+            }
+        }
+        if (values.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(values.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                String.format(sqlTemplate, placeholders), String.class, values.toArray()));
+    }
+
+    /**
+     * 密码加密是导入中最耗时的部分（bcrypt），按行并行计算
+     */
+    private void hashPasswords(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Callable<String>> tasks = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            tasks.add(() -> passwordEncoder.encode(row.user.getInitialPassword()));
+        }
+        try {
+            List<Future<String>> hashes = hashExecutor.invokeAll(tasks);
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).passwordHash = hashes.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("导入任务被中断");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码加密失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // ==================== 解析与校验 ====================
+
+    private List<UserCreateRequest> parseFile(MultipartFile file, boolean csv) {
+        List<UserCreateRequest> users = new ArrayList<>();
+
+        try (InputStream in = file.getInputStream()) {
+            UserImportFileReader.read(in, csv, (rowNumber, cells) -> users.add(toRequest(cells)));
+        } catch (IOException e) {
+            log.error("Failed to parse {} file", csv ? "CSV" : "Excel", e);
+            throw new RuntimeException((csv ? "CSV" : "Excel") + "文件解析失败: " + e.getMessage());
+        }
+
+        return users;
+    }
+
+    private List<String> validateUser(UserCreateRequest user) {
+        List<String> errors = new ArrayList<>(2);
+
+        if (user.getUsername() == null || user.getUsername().isBlank()) {
+            errors.add("用户名不能为空");
+        } else if (user.getUsername().length() > MAX_USERNAME_LENGTH) {
+            errors.add("用户名长度不能超过" + MAX_USERNAME_LENGTH + "个字符");
+        }
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            errors.add("邮箱不能为空");
+        } else if (!UserManagerComponent.EMAIL_PATTERN.matcher(user.getEmail()).matches()) {
+            errors.add("邮箱格式不正确: " + user.getEmail());
+        }
+        if (user.getFullName() == null || user.getFullName().isBlank()) {
+            errors.add("姓名不能为空");
+        }
+        if (user.getInitialPassword() == null || user.getInitialPassword().length() < 8) {
+            errors.add("密码长度必须至少8位");
+        }
+
+        return errors;
+    }
+
+    private UserCreateRequest toRequest(String[] cells) {
+        return UserCreateRequest.builder()
+                .username(cells[0])
+                .email(cells[1])
+                .fullName(cells[2])
+                .employeeId(cells[3])
+                .businessUnitId(cells[4])
+                .position(cells[5])
+                .initialPassword(cells[6])
+                .build();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ==================== 内部类型 ====================
+
+    /**
+     * 一次任务执行的上下文
+     */
+    private static final class ImportRun {
+        private final UserImportJob job;
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private ImportProgress progress;
+        private UserImportJobStatus status;
+        private String errorMessage;
+
+        private ImportRun(UserImportJob job, ImportProgress progress) {
+            this.job = job;
+            this.progress = progress;
+        }
+    }
+
+    private static final class ImportRow {
+        private final int rowNumber;
+        private final UserCreateRequest user;
+        private String error;
+        private String userId;
+        private String passwordHash;
+
+        private ImportRow(int rowNumber, UserCreateRequest user) {
+            this.rowNumber = rowNumber;
+            this.user = user;
+        }
+    }
+
+    /**
+     * 已提交的进度，与任务表中的检查点一致；错误明细最多保留 maxErrorLines 行
+     */
+    private static final class ImportProgress {
+        private final int maxErrorLines;
+        private final List<String> errors;
+        private int processedRows;
+        private int successCount;
+        private int failureCount;
+        private int lastRowNumber;
+
+        private ImportProgress(int maxErrorLines, List<String> errors) {
+            this.maxErrorLines = maxErrorLines;
+            this.errors = errors;
+        }
+
+        static ImportProgress from(UserImportJob job, int maxErrorLines) {
+            List<String> errors = new ArrayList<>();
+            if (job.getErrors() != null && !job.getErrors().isEmpty()) {
+                for (String line : job.getErrors().split("\n")) {
+                    if (!line.startsWith(OMITTED_ERRORS_PREFIX)) {
+                        errors.add(line);
+                    }
+                }
+            }
+            ImportProgress progress = new ImportProgress(maxErrorLines, errors);
+            progress.processedRows = job.getProcessedRows();
+            progress.successCount = job.getSuccessCount();
+            progress.failureCount = job.getFailureCount();
+            progress.lastRowNumber = job.getLastRowNumber();
+            return progress;
+        }
+
+        ImportProgress copy() {
+            ImportProgress copy = new ImportProgress(maxErrorLines, new ArrayList<>(errors));
+            copy.processedRows = processedRows;
+            copy.successCount = successCount;
+            copy.failureCount = failureCount;
+            copy.lastRowNumber = lastRowNumber;
+            return copy;
+        }
+
+        void record(List<ImportRow> rows) {
+            for (ImportRow row : rows) {
+                processedRows++;
+                if (row.error == null) {
+                    successCount++;
+                } else {
+                    failureCount++;
+                    if (errors.size() < maxErrorLines) {
+                        errors.add(String.format("行 %d (%s): %s", row.rowNumber, row.user.getUsername(), row.error));
+                    }
+                }
+                lastRowNumber = row.rowNumber;
+            }
+        }
+
+        String errorsText() {
+            if (errors.isEmpty()) {
+                return null;
+            }
+            String text = String.join("\n", errors);
+            int omitted = failureCount - errors.size();
+            return omitted > 0 ? text + "\n" + OMITTED_ERRORS_PREFIX + "另有 " + omitted + " 条错误未列出" : text;
+        }
+    }
 }
@@ -0,0 +1,28 @@
+-- =====================================================
+-- Admin Center V201: User Import Jobs (admin_user_import_jobs)
+-- Bulk user imports run as resumable background jobs;
+-- last_row_number is the checkpoint committed with each chunk
+-- =====================================================
+CREATE TABLE IF NOT EXISTS admin_user_import_jobs (
+    id VARCHAR(64) PRIMARY KEY,
+    file_name VARCHAR(255),
+    file_path VARCHAR(500) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    total_rows INTEGER,
+    processed_rows INTEGER NOT NULL DEFAULT 0,
+    success_count INTEGER NOT NULL DEFAULT 0,
+    failure_count INTEGER NOT NULL DEFAULT 0,
+    last_row_number INTEGER NOT NULL DEFAULT 0,
+    errors TEXT,
+    error_message TEXT,
+    created_by VARCHAR(64),
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    started_at TIMESTAMP(6) WITH TIME ZONE,
+    finished_at TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT chk_user_import_job_status CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED', 'INTERRUPTED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_import_jobs_status ON admin_user_import_jobs(status);
+CREATE INDEX IF NOT EXISTS idx_user_import_jobs_created_by ON admin_user_import_jobs(created_by, created_at);
+
+COMMENT ON TABLE admin_user_import_jobs IS 'Resumable bulk user import jobs';
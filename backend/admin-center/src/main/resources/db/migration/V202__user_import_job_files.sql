@@ -0,0 +1,13 @@
+-- =====================================================
+-- Admin Center V202: User Import Job Owners and Files
+-- Upload files hold plaintext initial passwords: they live on the
+-- disk of the instance that owns the job and are deleted once the
+-- job completes or its retention runs out (file_path becomes NULL)
+-- =====================================================
+ALTER TABLE admin_user_import_jobs ADD COLUMN IF NOT EXISTS owner_instance VARCHAR(128);
+ALTER TABLE admin_user_import_jobs ALTER COLUMN file_path DROP NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_user_import_jobs_owner ON admin_user_import_jobs(owner_instance, status);
+
+COMMENT ON COLUMN admin_user_import_jobs.owner_instance IS 'Instance that runs the job and stores its upload file';
+COMMENT ON COLUMN admin_user_import_jobs.file_path IS 'Upload file on the owner instance, NULL once deleted';
@@ -0,0 +1,11 @@
+-- =====================================================
+-- Admin Center V203: User Import Job Heartbeat
+-- The owner instance refreshes heartbeat_at while a job is queued
+-- or running; once it goes stale any instance marks the job
+-- INTERRUPTED so it can be resumed from the shared work dir
+-- =====================================================
+ALTER TABLE admin_user_import_jobs ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMP(6) WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_user_import_jobs_heartbeat ON admin_user_import_jobs(status, heartbeat_at);
+
+COMMENT ON COLUMN admin_user_import_jobs.heartbeat_at IS 'Last heartbeat of the owner instance while the job is PENDING or RUNNING';
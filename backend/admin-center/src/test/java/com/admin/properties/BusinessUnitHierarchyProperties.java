@@ -0,0 +1,234 @@
+package com.admin.properties;
+
+import com.admin.component.OrganizationManagerComponent;
+import com.admin.dto.request.BusinessUnitUpdateRequest;
+import com.admin.dto.response.BusinessUnitTree;
+import com.admin.entity.BusinessUnit;
+import com.admin.enums.BusinessUnitStatus;
+import com.admin.exception.CircularDependencyException;
+import com.admin.repository.BusinessUnitRepository;
+import com.admin.repository.UserRepository;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 业务单元层级属性测试
+ *
+ * Property 1: 子树移动为一条按路径前缀的更新，层级按差值调整
+ * Property 2: 移动到自身后代时拒绝，ID互为前缀时不误判
+ * Property 3: 业务单元树在层级变更前复用缓存，成员数量始终为最新；
+ *             其他实例的变更和缓存TTL同样使缓存失效
+ */
+class BusinessUnitHierarchyProperties {
+
+    private BusinessUnitRepository businessUnitRepository;
+    private UserRepository userRepository;
+    private OrganizationManagerComponent component;
+    /** 各实例共享的Redis */
+    private Map<String, String> redis;
+
+    @BeforeTry
+    void setUp() {
+        businessUnitRepository = mock(BusinessUnitRepository.class);
+        userRepository = mock(UserRepository.class);
+        redis = new ConcurrentHashMap<>();
+        component = newComponent();
+        when(businessUnitRepository.save(any(BusinessUnit.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    // ==================== Property 1: 子树移动 ====================
+
+    @Property(tries = 50)
+    void moveRewritesDescendantsWithSinglePrefixUpdate(
+            @ForAll @IntRange(min = 1, max = 8) int unitDepth,
+            @ForAll @IntRange(min = 1, max = 8) int targetDepth) {
+        List<BusinessUnit> source = chain("src", unitDepth);
+        List<BusinessUnit> target = chain("dst", targetDepth);
+        BusinessUnit unit = source.get(source.size() - 1);
+        BusinessUnit newParent = target.get(target.size() - 1);
+        String oldPath = unit.getPath();
+        stub(unit, newParent);
+
+        component.moveBusinessUnit(unit.getId(), newParent.getId());
+
+        assertThat(unit.getPath()).isEqualTo(newParent.getPath() + "/" + unit.getId());
+        assertThat(unit.getLevel()).isEqualTo(targetDepth + 1);
+        verify(businessUnitRepository).moveDescendants(eq(oldPath + "/%"), eq(oldPath.length() + 1),
+                eq(unit.getPath()), eq(targetDepth + 1 - unitDepth), any(Instant.class));
+        verify(businessUnitRepository, never()).findByPathStartingWith(anyString());
+    }
+
+    @Example
+    void movePatternEscapesLikeWildcards() {
+        BusinessUnit unit = unit("BU_1%", null, 1, "/BU_1%");
+        BusinessUnit newParent = unit("ROOT", null, 1, "/ROOT");
+        stub(unit, newParent);
+
+        component.moveBusinessUnit("BU_1%", "ROOT");
+
+        verify(businessUnitRepository).moveDescendants(eq("/BU!_1!%/%"), eq(7),
+                eq("/ROOT/BU_1%"), eq(1), any(Instant.class));
+    }
+
+    // ==================== Property 2: 循环检测 ====================
+
+    @Property(tries = 50)
+    void moveUnderOwnDescendantIsRejected(
+            @ForAll @IntRange(min = 2, max = 8) int depth,
+            @ForAll @IntRange(min = 1, max = 7) int descendantOffset) {
+        List<BusinessUnit> units = chain("bu", depth);
+        BusinessUnit unit = units.get(0);
+        BusinessUnit descendant = units.get(Math.min(descendantOffset, depth - 1));
+        stub(unit, descendant);
+
+        assertThat(component.wouldCreateCycle(unit.getId(), descendant.getId())).isTrue();
+        assertThatThrownBy(() -> component.moveBusinessUnit(unit.getId(), descendant.getId()))
+                .isInstanceOf(CircularDependencyException.class);
+        verify(businessUnitRepository, never()).moveDescendants(anyString(), anyInt(), anyString(), anyInt(), any());
+    }
+
+    @Example
+    void unitWhoseIdIsPrefixOfNewParentIdIsNotACycle() {
+        BusinessUnit unit = unit("A", null, 1, "/A");
+        BusinessUnit newParent = unit("A1", null, 1, "/A1");
+        stub(unit, newParent);
+
+        assertThat(component.wouldCreateCycle("A", "A1")).isFalse();
+        component.moveBusinessUnit("A", "A1");
+        assertThat(unit.getPath()).isEqualTo("/A1/A");
+    }
+
+    // ==================== Property 3: 树缓存 ====================
+
+    @Property(tries = 30)
+    void treeIsCachedUntilHierarchyChanges(@ForAll @IntRange(min = 1, max = 5) int reads) {
+        BusinessUnit root = unit("root", null, 1, "/root");
+        BusinessUnit child = unit("child", "root", 2, "/root/child");
+        when(businessUnitRepository.findAllActive()).thenReturn(List.of(root, child));
+        when(businessUnitRepository.findById("child")).thenReturn(Optional.of(child));
+        List<Object[]> counts = new ArrayList<>();
+        counts.add(new Object[]{"child", 3L});
+        when(userRepository.countMembersGroupByBusinessUnit()).thenReturn(counts);
+
+        for (int i = 0; i < reads; i++) {
+            List<BusinessUnitTree> tree = component.getBusinessUnitTree();
+            assertThat(tree).hasSize(1);
+            assertThat(tree.get(0).getMemberCount()).isZero();
+            assertThat(tree.get(0).getChildren().get(0).getMemberCount()).isEqualTo(3L);
+            // 返回的是副本，修改不影响缓存
+            tree.get(0).getChildren().clear();
+        }
+        verify(businessUnitRepository, times(1)).findAllActive();
+        verify(userRepository, times(reads)).countMembersGroupByBusinessUnit();
+
+        BusinessUnitUpdateRequest request = new BusinessUnitUpdateRequest();
+        request.setName(child.getName());
+        component.updateBusinessUnit("child", request);
+        component.getBusinessUnitTree();
+        verify(businessUnitRepository, times(2)).findAllActive();
+    }
+
+    @Example
+    void treeIsRebuiltAfterAnotherInstanceChangesHierarchy() {
+        BusinessUnit root = unit("root", null, 1, "/root");
+        BusinessUnit child = unit("child", "root", 2, "/root/child");
+        when(businessUnitRepository.findAllActive()).thenReturn(List.of(root, child));
+        when(businessUnitRepository.findById("child")).thenReturn(Optional.of(child));
+        OrganizationManagerComponent other = newComponent();
+
+        component.getBusinessUnitTree();
+        component.getBusinessUnitTree();
+        verify(businessUnitRepository, times(1)).findAllActive();
+
+        // 另一实例移动业务单元后，本实例下次读取时重建
+        other.moveBusinessUnit("child", null);
+        component.getBusinessUnitTree();
+        verify(businessUnitRepository, times(2)).findAllActive();
+    }
+
+    @Example
+    void treeIsRebuiltAfterTtlWithoutSharedVersion() {
+        when(businessUnitRepository.findAllActive()).thenReturn(List.of(unit("root", null, 1, "/root")));
+        redis = null;
+        component = newComponent();
+        ReflectionTestUtils.setField(component, "treeCacheTtlSeconds", 0L);
+
+        component.getBusinessUnitTree();
+        component.getBusinessUnitTree();
+
+        verify(businessUnitRepository, times(2)).findAllActive();
+    }
+
+    // ==================== 辅助方法 ====================
+
+    /**
+     * 创建一个实例，redis为null时模拟Redis不可用
+     */
+    @SuppressWarnings("unchecked")
+    private OrganizationManagerComponent newComponent() {
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        if (redis != null) {
+            Map<String, String> shared = redis;
+            StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+            ValueOperations<String, String> operations = mock(ValueOperations.class);
+            when(redisTemplate.opsForValue()).thenReturn(operations);
+            when(operations.get(anyString())).thenAnswer(inv -> shared.get(inv.<String>getArgument(0)));
+            when(operations.increment(anyString())).thenAnswer(inv -> Long.parseLong(
+                    shared.merge(inv.getArgument(0), "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1))));
+            when(provider.getIfAvailable()).thenReturn(redisTemplate);
+        }
+        return new OrganizationManagerComponent(businessUnitRepository, userRepository, provider);
+    }
+
+    private void stub(BusinessUnit... units) {
+        for (BusinessUnit unit : units) {
+            when(businessUnitRepository.findById(unit.getId())).thenReturn(Optional.of(unit));
+        }
+    }
+
+    /**
+     * 一条从根到叶的链，ID为 prefix0..prefixN
+     */
+    private List<BusinessUnit> chain(String prefix, int depth) {
+        List<BusinessUnit> units = new ArrayList<>();
+        String parentId = null;
+        String path = "";
+        for (int level = 1; level <= depth; level++) {
+            String id = prefix + (level - 1);
+            path = path + "/" + id;
+            units.add(unit(id, parentId, level, path));
+            parentId = id;
+        }
+        return units;
+    }
+
+    private BusinessUnit unit(String id, String parentId, int level, String path) {
+        return BusinessUnit.builder()
+                .id(id)
+                .name("BU " + id)
+                .code(id)
+                .parentId(parentId)
+                .level(level)
+                .path(path)
+                .sortOrder(0)
+                .status(BusinessUnitStatus.ACTIVE)
+                .build();
+    }
+}
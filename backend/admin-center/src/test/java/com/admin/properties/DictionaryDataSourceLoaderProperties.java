@@ -0,0 +1,252 @@
+package com.admin.properties;
+
+import com.admin.component.DictionaryDataSourceLoader;
+import com.admin.entity.DictionaryDataSource;
+import com.admin.entity.DictionaryItem;
+import com.admin.enums.DataSourceType;
+import com.admin.exception.AdminBusinessException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterTry;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * 字典外部数据源加载属性测试
+ *
+ * Property 1: 表名、字段名只接受标识符，过滤条件拒绝语句分隔和注释，校验失败时不执行查询
+ * Property 2: 未指定连接时在本服务数据源的只读事务中查询
+ * Property 3: 同一连接复用一个连接池
+ * Property 4: 接口返回数组或 data 字段为数组的对象
+ */
+class DictionaryDataSourceLoaderProperties {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String url;
+    private JdbcDataSource dataSource;
+    private JdbcTemplate localTemplate;
+    private List<TransactionDefinition> transactions;
+    private RestTemplate restTemplate;
+    private MockEnvironment environment;
+    private DictionaryDataSourceLoader loader;
+
+    @BeforeTry
+    void setUp() {
+        url = "jdbc:h2:mem:dictionary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        localTemplate = spy(new JdbcTemplate(dataSource));
+        localTemplate.execute("CREATE TABLE t_region (code VARCHAR(20), name VARCHAR(50), sort_no INT)");
+        localTemplate.update("INSERT INTO t_region VALUES ('SH', '上海', 2), ('BJ', '北京', 1), ('GZ', '广州', 3)");
+        clearInvocations(localTemplate);
+
+        transactions = new ArrayList<>();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+                transactions.add(definition);
+                super.doBegin(transaction, definition);
+            }
+        };
+        restTemplate = mock(RestTemplate.class);
+        environment = new MockEnvironment();
+        loader = new DictionaryDataSourceLoader(localTemplate, restTemplate, environment, transactionManager);
+    }
+
+    @AfterTry
+    void tearDown() {
+        loader.shutdown();
+        localTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    // ==================== Property 1: 标识符与过滤条件校验 ====================
+
+    @Property(tries = 50)
+    void invalidIdentifiersAreRejected(
+            @ForAll("invalidIdentifiers") String identifier,
+            @ForAll("identifierFields") String field) {
+        DictionaryDataSource source = databaseSource(null);
+        switch (field) {
+            case "table" -> source.setTableName(identifier);
+            case "code" -> source.setCodeField(identifier);
+            case "name" -> source.setNameField(identifier);
+            case "value" -> source.setValueField(identifier);
+            default -> source.setOrderByField(identifier);
+        }
+
+        assertThatThrownBy(() -> loader.load(source))
+                .isInstanceOf(AdminBusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_DATA_SOURCE");
+        assertThat(transactions).isEmpty();
+    }
+
+    @Property(tries = 20)
+    void filterWithStatementSeparatorOrCommentIsRejected(@ForAll("unsafeFilters") String filter) {
+        DictionaryDataSource source = databaseSource(null);
+        source.setFilterCondition(filter);
+
+        assertThatThrownBy(() -> loader.load(source))
+                .isInstanceOf(AdminBusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_DATA_SOURCE");
+        assertThat(transactions).isEmpty();
+    }
+
+    @Example
+    void schemaQualifiedTableAndFilterAreAccepted() {
+        DictionaryDataSource source = databaseSource(null);
+        source.setTableName("PUBLIC.t_region");
+        source.setFilterCondition("sort_no >= 2");
+
+        assertThat(loader.load(source)).extracting(DictionaryItem::getItemCode).containsExactly("SH", "GZ");
+    }
+
+    // ==================== Property 2: 本服务数据源只读查询 ====================
+
+    @Example
+    void localQueryRunsInNewReadOnlyTransaction() {
+        List<DictionaryItem> items = loader.load(databaseSource(null));
+
+        assertThat(items).extracting(DictionaryItem::getItemCode).containsExactly("BJ", "SH", "GZ");
+        assertThat(items).extracting(DictionaryItem::getName).containsExactly("北京", "上海", "广州");
+        assertThat(items.get(0).getId()).isEqualTo("regions:BJ");
+        assertThat(transactions).hasSize(1);
+        assertThat(transactions.get(0).isReadOnly()).isTrue();
+        assertThat(transactions.get(0).getPropagationBehavior())
+                .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // 共享的读写 JdbcTemplate 只提供数据源，不直接执行过滤条件
+        verify(localTemplate, never()).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Example
+    void databaseErrorIsReportedAsDataSourceError() {
+        DictionaryDataSource source = databaseSource(null);
+        source.setTableName("t_missing");
+
+        assertThatThrownBy(() -> loader.load(source))
+                .isInstanceOf(AdminBusinessException.class)
+                .extracting("errorCode").isEqualTo("DATA_SOURCE_ERROR");
+    }
+
+    // ==================== Property 3: 连接池复用 ====================
+
+    @Property(tries = 10)
+    void poolIsReusedPerConnection(@ForAll @IntRange(min = 1, max = 5) int loads) {
+        environment.setProperty("admin.dictionary.connections.regions.url", url);
+
+        for (int i = 0; i < loads; i++) {
+            assertThat(loader.load(databaseSource(url))).hasSize(3);
+            assertThat(loader.load(databaseSource("regions"))).hasSize(3);
+        }
+
+        assertThat(pools()).containsOnlyKeys(url, "regions");
+        assertThat(transactions).isEmpty();
+    }
+
+    @Example
+    void unknownConnectionNameIsRejected() {
+        assertThatThrownBy(() -> loader.load(databaseSource("missing")))
+                .isInstanceOf(AdminBusinessException.class)
+                .extracting("errorCode").isEqualTo("DATA_SOURCE_NOT_CONFIGURED");
+        assertThat(pools()).isEmpty();
+    }
+
+    // ==================== Property 4: 接口数据 ====================
+
+    @Example
+    void apiArrayAndDataFieldAreUnwrapped() throws Exception {
+        String rows = "[{\"code\":\"SH\",\"label\":\"上海\",\"rank\":\"2\"},{\"code\":\"BJ\",\"label\":\"北京\",\"rank\":\"1\"}]";
+        when(restTemplate.getForObject(eq("https://dict.example.com/regions?level=1"), eq(JsonNode.class)))
+                .thenReturn(objectMapper.readTree(rows))
+                .thenReturn(objectMapper.readTree("{\"code\":0,\"data\":" + rows + "}"));
+        DictionaryDataSource source = apiSource();
+
+        for (int i = 0; i < 2; i++) {
+            List<DictionaryItem> items = loader.load(source);
+            assertThat(items).extracting(DictionaryItem::getItemCode).containsExactly("BJ", "SH");
+            assertThat(items).extracting(DictionaryItem::getName).containsExactly("北京", "上海");
+            assertThat(items).extracting(DictionaryItem::getSortOrder).containsExactly(0, 1);
+        }
+    }
+
+    @Example
+    void apiResponseWithoutArrayIsRejected() throws Exception {
+        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
+                .thenReturn(objectMapper.readTree("{\"data\":{\"code\":\"BJ\"}}"));
+
+        assertThatThrownBy(() -> loader.load(apiSource()))
+                .isInstanceOf(AdminBusinessException.class)
+                .extracting("errorCode").isEqualTo("DATA_SOURCE_ERROR");
+    }
+
+    // ==================== 生成器 ====================
+
+    @Provide
+    Arbitrary<String> invalidIdentifiers() {
+        return Arbitraries.of("1code", "code name", "code;", "code--", "a.b.c", "code)", "t_region WHERE 1=1",
+                "name,password", "\"code\"", "code/**/", "sort_no DESC");
+    }
+
+    @Provide
+    Arbitrary<String> identifierFields() {
+        return Arbitraries.of("table", "code", "name", "value", "order");
+    }
+
+    @Provide
+    Arbitrary<String> unsafeFilters() {
+        return Arbitraries.of("1=1; DELETE FROM t_region", "code = 'BJ' -- comment", "code /* x */ = 'BJ'",
+                "1=1;", "--");
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private static DictionaryDataSource databaseSource(String connection) {
+        return DictionaryDataSource.builder()
+                .id("ds-regions")
+                .dictionaryId("regions")
+                .sourceType(DataSourceType.DATABASE)
+                .connectionString(connection)
+                .tableName("t_region")
+                .codeField("code")
+                .nameField("name")
+                .orderByField("sort_no")
+                .build();
+    }
+
+    private static DictionaryDataSource apiSource() {
+        return DictionaryDataSource.builder()
+                .id("ds-regions")
+                .dictionaryId("regions")
+                .sourceType(DataSourceType.API)
+                .connectionString("https://dict.example.com/")
+                .tableName("regions")
+                .codeField("code")
+                .nameField("label")
+                .filterCondition("level=1")
+                .orderByField("rank")
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> pools() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(loader, "pools");
+    }
+}
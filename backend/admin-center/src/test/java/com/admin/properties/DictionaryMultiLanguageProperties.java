@@ -36,8 +36,11 @@ class DictionaryMultiLanguageProperties {
         var versionRepository = Mockito.mock(com.admin.repository.DictionaryVersionRepository.class);
         var objectMapper = new com.fasterxml.jackson.databind.ObjectMapper();
         
-        component = new DataDictionaryManagerComponent(
-                dictionaryRepository, itemRepository, versionRepository, objectMapper);
+        var dataSourceRepository = Mockito.mock(com.admin.repository.DictionaryDataSourceRepository.class);
+        var dataSourceLoader = Mockito.mock(com.admin.component.DictionaryDataSourceLoader.class);
+        
+        component = new DataDictionaryManagerComponent(dictionaryRepository, itemRepository, versionRepository,
+                dataSourceRepository, dataSourceLoader, objectMapper);
     }
     
     // ==================== 属性测试 ====================
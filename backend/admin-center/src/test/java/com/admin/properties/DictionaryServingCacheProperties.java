@@ -0,0 +1,378 @@
+package com.admin.properties;
+
+import com.admin.component.DataDictionaryManagerComponent;
+import com.admin.component.DictionaryDataSourceLoader;
+import com.admin.entity.Dictionary;
+import com.admin.entity.DictionaryDataSource;
+import com.admin.entity.DictionaryItem;
+import com.admin.enums.DataSourceType;
+import com.admin.enums.DictionaryStatus;
+import com.admin.enums.DictionaryType;
+import com.admin.exception.AdminBusinessException;
+import com.admin.repository.DictionaryDataSourceRepository;
+import com.admin.repository.DictionaryItemRepository;
+import com.admin.repository.DictionaryRepository;
+import com.admin.repository.DictionaryVersionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterTry;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 字典项缓存属性测试
+ *
+ * Property 1: 各语言列表在加载时一次生成，字典变更前复用
+ * Property 2: 变更只失效对应字典，cacheTtl 为0的字典不缓存
+ * Property 3: 外部数据源字典由独立线程池后台刷新，刷新失败时保留旧数据
+ * Property 4: 缓存条目数量有上限
+ * Property 5: 同一字典的并发未命中只加载一次
+ * Property 6: 字典项生效或到期时缓存提前过期
+ */
+class DictionaryServingCacheProperties {
+
+    private DictionaryRepository dictionaryRepository;
+    private DictionaryItemRepository itemRepository;
+    private DictionaryDataSourceRepository dataSourceRepository;
+    private DictionaryDataSourceLoader dataSourceLoader;
+    private DataDictionaryManagerComponent component;
+
+    @BeforeTry
+    void setUp() {
+        dictionaryRepository = mock(DictionaryRepository.class);
+        itemRepository = mock(DictionaryItemRepository.class);
+        dataSourceRepository = mock(DictionaryDataSourceRepository.class);
+        dataSourceLoader = mock(DictionaryDataSourceLoader.class);
+        component = new DataDictionaryManagerComponent(dictionaryRepository, itemRepository,
+                mock(DictionaryVersionRepository.class), dataSourceRepository, dataSourceLoader, new ObjectMapper());
+        when(itemRepository.save(any(DictionaryItem.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterTry
+    void tearDown() {
+        component.shutdown();
+    }
+
+    // ==================== Property 1: 预生成的多语言列表 ====================
+
+    @Property(tries = 30)
+    void localizedListsArePrecomputedAndReused(
+            @ForAll("languages") List<String> reads,
+            @ForAll @IntRange(min = 0, max = 8) int itemCount) {
+        Dictionary dictionary = dictionary("d1", 300, null);
+        List<DictionaryItem> items = items(dictionary, itemCount);
+
+        for (String language : reads) {
+            List<DataDictionaryManagerComponent.DictionaryItemLocalized> localized =
+                    component.getDictionaryItemsLocalized("d1", language);
+            assertThat(localized).hasSize(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                assertThat(localized.get(i).getName()).isEqualTo(items.get(i).getNameByLanguage(language));
+                assertThat(localized.get(i).getSortOrder()).isEqualTo(i);
+            }
+        }
+        verify(itemRepository, times(1)).findValidItems("d1");
+    }
+
+    @Example
+    void cachedListsAreReadOnly() {
+        items(dictionary("d1", 300, null), 2);
+
+        List<DataDictionaryManagerComponent.DictionaryItemLocalized> localized =
+                component.getDictionaryItemsLocalized("d1", "en");
+
+        assertThatThrownBy(localized::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    // ==================== Property 2: 按字典失效 ====================
+
+    @Property(tries = 30)
+    void itemChangeInvalidatesOnlyItsDictionary(@ForAll @IntRange(min = 1, max = 5) int readsAfterChange) {
+        Dictionary changed = dictionary("d1", 300, null);
+        Dictionary untouched = dictionary("d2", 300, null);
+        DictionaryItem item = items(changed, 1).get(0);
+        items(untouched, 1);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        component.getDictionaryItemsLocalized("d1", "en");
+        component.getDictionaryItemsLocalized("d2", "en");
+
+        component.updateItemTranslations(item.getId(), Map.of("en", "Renamed"), "admin");
+
+        for (int i = 0; i < readsAfterChange; i++) {
+            assertThat(component.getDictionaryItemsLocalized("d1", "en").get(0).getName()).isEqualTo("Renamed");
+            component.getDictionaryItemsLocalized("d2", "en");
+        }
+        verify(itemRepository, times(2)).findValidItems("d1");
+        verify(itemRepository, times(1)).findValidItems("d2");
+    }
+
+    @Property(tries = 20)
+    void dictionaryWithZeroTtlIsNotCached(@ForAll @IntRange(min = 1, max = 5) int reads) {
+        items(dictionary("d1", 0, null), 2);
+
+        for (int i = 0; i < reads; i++) {
+            component.getDictionaryItemsLocalized("d1", "zh-CN");
+        }
+        verify(itemRepository, times(reads)).findValidItems("d1");
+    }
+
+    // ==================== Property 3: 外部数据源后台刷新 ====================
+
+    @Example
+    void externalDictionaryIsRefreshedInBackground() {
+        Dictionary dictionary = dictionary("ext", 0, DataSourceType.DATABASE);
+        DictionaryDataSource source = DictionaryDataSource.builder()
+                .id("ds1").dictionaryId("ext").sourceType(DataSourceType.DATABASE)
+                .tableName("t_region").codeField("code").cacheTtl(1).build();
+        when(dataSourceRepository.findByDictionaryIdAndEnabled("ext", true)).thenReturn(Optional.of(source));
+        when(dataSourceLoader.load(source))
+                .thenReturn(List.of(externalItem("BJ", "北京")))
+                .thenReturn(List.of(externalItem("BJ", "北京"), externalItem("SH", "上海")))
+                .thenThrow(new AdminBusinessException("DATA_SOURCE_ERROR", "读取字典数据源失败: ext"));
+
+        assertThat(component.getDictionaryItemsLocalized("ext", "zh-CN")).hasSize(1);
+        assertThat(component.getDictionaryItemsLocalized("ext", "en")).hasSize(1);
+        verify(dataSourceLoader, times(1)).load(source);
+        verify(itemRepository, never()).findValidItems(dictionary.getId());
+
+        // 1秒TTL在下一轮刷新前到期，后台提前加载
+        component.refreshExternalDictionaries();
+        waitUntil(() -> component.getDictionaryItemsLocalized("ext", "zh-CN").size() == 2);
+        assertThat(component.getDictionaryItemsLocalized("ext", "zh-CN"))
+                .extracting(DataDictionaryManagerComponent.DictionaryItemLocalized::getName)
+                .containsExactly("北京", "上海");
+
+        // 刷新失败时保留旧数据；上一轮刷新结束前不会重复提交
+        waitUntil(() -> {
+            component.refreshExternalDictionaries();
+            return mockingDetails(dataSourceLoader).getInvocations().size() >= 3;
+        });
+        assertThat(component.getDictionaryItemsLocalized("ext", "zh-CN")).hasSize(2);
+    }
+
+    // 慢数据源在刷新线程池中加载，不阻塞定时任务线程
+    @Example
+    void slowExternalSourceDoesNotBlockScheduler() throws Exception {
+        DictionaryDataSource source = externalSource("ext", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> loadingThreads = new CopyOnWriteArrayList<>();
+        when(dataSourceLoader.load(source)).thenReturn(List.of(externalItem("BJ", "北京"))).thenAnswer(inv -> {
+            loadingThreads.add(Thread.currentThread().getName());
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(externalItem("SH", "上海"));
+        });
+        component.getDictionaryItemsLocalized("ext", "zh-CN");
+
+        try {
+            long start = System.nanoTime();
+            component.refreshExternalDictionaries();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000L);
+            waitUntil(() -> !loadingThreads.isEmpty());
+            assertThat(loadingThreads.get(0)).startsWith("dictionary-refresh-");
+
+            // 刷新进行中时不重复提交
+            component.refreshExternalDictionaries();
+        } finally {
+            release.countDown();
+        }
+        waitUntil(() -> "上海".equals(component.getDictionaryItemsLocalized("ext", "zh-CN").get(0).getName()));
+        verify(dataSourceLoader, times(2)).load(source);
+    }
+
+    // ==================== Property 4: 条目数量上限 ====================
+
+    @Property(tries = 20)
+    void cacheIsBounded(@ForAll @IntRange(min = 2, max = 6) int dictionaryCount) {
+        ReflectionTestUtils.setField(component, "maxCachedDictionaries", 1);
+        for (int i = 0; i < dictionaryCount; i++) {
+            items(dictionary("d" + i, 300, null), 1);
+        }
+
+        for (int i = 0; i < dictionaryCount; i++) {
+            component.getDictionaryItemsLocalized("d" + i, "en");
+        }
+        // 只保留最近加载的字典
+        component.getDictionaryItemsLocalized("d" + (dictionaryCount - 1), "en");
+        component.getDictionaryItemsLocalized("d0", "en");
+
+        verify(itemRepository, times(1)).findValidItems("d" + (dictionaryCount - 1));
+        verify(itemRepository, times(2)).findValidItems("d0");
+    }
+
+    // ==================== Property 5: 单次加载 ====================
+
+    @Property(tries = 5)
+    void concurrentMissesShareOneLoad(@ForAll @IntRange(min = 2, max = 8) int callers) throws Exception {
+        DictionaryDataSource source = externalSource("ext", 300);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(dataSourceLoader.load(source)).thenAnswer(inv -> {
+            loads.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(externalItem("BJ", "北京"));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<DataDictionaryManagerComponent.DictionaryItemLocalized>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> component.getDictionaryItemsLocalized("ext", "zh-CN")));
+            }
+            waitUntil(() -> loads.get() == 1);
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<List<DataDictionaryManagerComponent.DictionaryItemLocalized>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).hasSize(1);
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Example
+    void failedLoadIsReportedToWaitingCallers() throws Exception {
+        DictionaryDataSource source = externalSource("ext", 300);
+        CountDownLatch release = new CountDownLatch(1);
+        when(dataSourceLoader.load(source)).thenAnswer(inv -> {
+            release.await(10, TimeUnit.SECONDS);
+            throw new AdminBusinessException("DATA_SOURCE_ERROR", "读取字典数据源失败: ext");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> component.getDictionaryItemsLocalized("ext", "zh-CN"));
+            waitUntil(() -> mockingDetails(dataSourceLoader).getInvocations().size() == 1);
+            Future<?> second = executor.submit(() -> component.getDictionaryItemsLocalized("ext", "zh-CN"));
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<?> result : List.of(first, second)) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(AdminBusinessException.class);
+            }
+            verify(dataSourceLoader, times(1)).load(source);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // ==================== Property 6: 按字典项有效期过期 ====================
+
+    // 尚未生效的字典项在生效时间到达后可见，不必等TTL到期
+    @Example
+    void itemBecomesVisibleWhenItsValidFromPasses() throws InterruptedException {
+        Dictionary dictionary = dictionary("d1", 300, null);
+        List<DictionaryItem> items = items(dictionary, 1);
+        DictionaryItem upcoming = DictionaryItem.builder()
+                .id("d1-upcoming").dictionary(dictionary).itemCode("upcoming").name("待生效")
+                .status(DictionaryStatus.ACTIVE).sortOrder(1).build();
+        when(itemRepository.findNextValidFrom("d1")).thenReturn(Instant.now().plusMillis(200)).thenReturn(null);
+        when(itemRepository.findValidItems("d1")).thenReturn(items).thenReturn(List.of(items.get(0), upcoming));
+
+        assertThat(component.getDictionaryItemsLocalized("d1", "zh-CN")).hasSize(1);
+        assertThat(component.getDictionaryItemsLocalized("d1", "zh-CN")).hasSize(1);
+        verify(itemRepository, times(1)).findValidItems("d1");
+
+        Thread.sleep(300);
+        assertThat(component.getDictionaryItemsLocalized("d1", "zh-CN")).hasSize(2);
+        verify(itemRepository, times(2)).findValidItems("d1");
+    }
+
+    // ==================== 生成器 ====================
+
+    @Provide
+    Arbitrary<List<String>> languages() {
+        return Arbitraries.of("en", "zh-CN", "zh-TW", "fr", "ja").list().ofMinSize(1).ofMaxSize(10);
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private Dictionary dictionary(String id, int cacheTtl, DataSourceType dataSourceType) {
+        Dictionary dictionary = Dictionary.builder()
+                .id(id)
+                .code(id.toUpperCase())
+                .name("Dictionary " + id)
+                .type(DictionaryType.CUSTOM)
+                .status(DictionaryStatus.ACTIVE)
+                .dataSourceType(dataSourceType)
+                .cacheTtl(cacheTtl)
+                .build();
+        when(dictionaryRepository.findById(id)).thenReturn(Optional.of(dictionary));
+        return dictionary;
+    }
+
+    private List<DictionaryItem> items(Dictionary dictionary, int count) {
+        List<DictionaryItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(DictionaryItem.builder()
+                    .id(dictionary.getId() + "-item-" + i)
+                    .dictionary(dictionary)
+                    .itemCode("item-" + i)
+                    .name("名称" + i)
+                    .nameEn(i % 2 == 0 ? "Name " + i : null)
+                    .nameZhTw(i % 3 == 0 ? "名稱" + i : null)
+                    .value("v" + i)
+                    .status(DictionaryStatus.ACTIVE)
+                    .sortOrder(i)
+                    .build());
+        }
+        when(itemRepository.findValidItems(dictionary.getId())).thenReturn(items);
+        return items;
+    }
+
+    private DictionaryDataSource externalSource(String dictionaryId, int cacheTtl) {
+        dictionary(dictionaryId, 0, DataSourceType.DATABASE);
+        DictionaryDataSource source = DictionaryDataSource.builder()
+                .id("ds-" + dictionaryId).dictionaryId(dictionaryId).sourceType(DataSourceType.DATABASE)
+                .tableName("t_region").codeField("code").cacheTtl(cacheTtl).build();
+        when(dataSourceRepository.findByDictionaryIdAndEnabled(dictionaryId, true)).thenReturn(Optional.of(source));
+        return source;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static DictionaryItem externalItem(String code, String name) {
+        return DictionaryItem.builder()
+                .id("ext:" + code)
+                .itemCode(code)
+                .name(name)
+                .value(code)
+                .status(DictionaryStatus.ACTIVE)
+                .build();
+    }
+}
@@ -12,6 +12,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import net.jqwik.api.*;
 import net.jqwik.api.lifecycle.BeforeTry;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 
@@ -73,7 +74,8 @@ public class MemberManagementProperties {
                 virtualGroupRoleRepository,
                 memberChangeLogRepository,
                 approverService,
-                objectMapper);
+                objectMapper,
+                mock(ApplicationEventPublisher.class));
     }
     
     // ==================== Property 6: Approval Immediate Effect ====================
@@ -11,6 +11,7 @@ import com.admin.entity.User;
 import com.admin.enums.RoleType;
 import com.admin.repository.*;
 import net.jqwik.api.*;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
 import java.util.*;
@@ -290,7 +291,8 @@ public class PermissionCheckConsistencyProperties {
                 ctx.rolePermissionRepository,
                 ctx.userRoleRepository,
                 ctx.delegationComponent,
-                ctx.conflictComponent);
+                ctx.conflictComponent,
+                mock(ApplicationEventPublisher.class));
         return ctx;
     }
     
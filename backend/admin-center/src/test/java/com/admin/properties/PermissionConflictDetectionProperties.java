@@ -0,0 +1,293 @@
+package com.admin.properties;
+
+import com.admin.component.PermissionConflictComponent;
+import com.admin.dto.response.ConflictDetectionResult;
+import com.admin.dto.response.PageResult;
+import com.admin.entity.Permission;
+import com.admin.entity.Role;
+import com.admin.repository.PermissionConflictRepository;
+import com.admin.repository.PermissionRepository;
+import com.admin.repository.RolePermissionRepository;
+import com.admin.repository.RoleRepository;
+import com.admin.repository.UserRoleRepository;
+import com.admin.service.AuditService;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * 权限冲突检测属性测试
+ *
+ * Property 1: 基于位图的检测结果与逐对比较权限规则的结果一致
+ * Property 2: 分页批量扫描的结果与逐用户检测一致
+ * Property 3: 冲突索引在权限、角色权限或角色状态变更前复用
+ */
+class PermissionConflictDetectionProperties {
+
+    private static final String[] ACTIONS = {"READ", "write", "DELETE", "ADMIN", "READONLY", "GUEST",
+            "APPROVE", "reject", "CREATE", "EXPORT"};
+    private static final String[] RESOURCES = {"user", "role", "process"};
+
+    private PermissionRepository permissionRepository;
+    private RolePermissionRepository rolePermissionRepository;
+    private UserRoleRepository userRoleRepository;
+    private RoleRepository roleRepository;
+    private PermissionConflictComponent component;
+
+    @BeforeTry
+    void setUp() {
+        permissionRepository = mock(PermissionRepository.class);
+        rolePermissionRepository = mock(RolePermissionRepository.class);
+        userRoleRepository = mock(UserRoleRepository.class);
+        roleRepository = mock(RoleRepository.class);
+        component = new PermissionConflictComponent(mock(PermissionConflictRepository.class), roleRepository,
+                permissionRepository, rolePermissionRepository, userRoleRepository, mock(AuditService.class));
+    }
+
+    // ==================== Property 1: 位图检测与逐对比较一致 ====================
+
+    @Property(tries = 100)
+    void bitsetDetectionMatchesPairwiseRules(
+            @ForAll @IntRange(min = 2, max = 4) int roleCount,
+            @ForAll("grants") List<Integer> grants) {
+        List<Permission> permissions = permissions();
+        Map<String, List<Permission>> granted = stubCatalogue(permissions, roleCount, grants);
+        List<Role> roles = roles(roleCount);
+        when(roleRepository.findByUserId("u1")).thenReturn(roles);
+
+        ConflictDetectionResult result = component.detectUserPermissionConflicts("u1");
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < roles.size(); i++) {
+            for (int j = i + 1; j < roles.size(); j++) {
+                for (Permission p1 : granted.getOrDefault(roles.get(i).getId(), List.of())) {
+                    for (Permission p2 : granted.getOrDefault(roles.get(j).getId(), List.of())) {
+                        if (conflicting(p1, p2)) {
+                            expected.add(roles.get(i).getName() + "|" + roles.get(j).getName()
+                                    + "|" + p1.getName() + "|" + p2.getName());
+                        }
+                    }
+                }
+            }
+        }
+        assertThat(result.isHasConflicts()).isEqualTo(!expected.isEmpty());
+        assertThat(describe(result)).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Example
+    void mutuallyExclusiveActionsConflictAcrossResources() {
+        Permission admin = permission("p-admin", "user", "ADMIN");
+        Permission readonly = permission("p-readonly", "process", "readonly");
+        when(permissionRepository.findAll()).thenReturn(List.of(admin, readonly));
+        when(rolePermissionRepository.findActiveRolePermissionIds()).thenReturn(rows(
+                new Object[]{"r0", "p-readonly"}, new Object[]{"r1", "p-admin"}));
+        when(roleRepository.findByUserId("u1")).thenReturn(roles(2));
+
+        ConflictDetectionResult result = component.detectUserPermissionConflicts("u1");
+
+        assertThat(describe(result)).containsExactly("角色0|角色1|p-readonly|p-admin");
+        assertThat(result.getConflicts().get(0).getPermissionId()).isEqualTo("p-readonly");
+    }
+
+    // ==================== Property 2: 批量扫描与逐用户检测一致 ====================
+
+    @Property(tries = 50)
+    void batchScanMatchesPerUserDetection(
+            @ForAll @IntRange(min = 2, max = 5) int roleCount,
+            @ForAll("grants") List<Integer> grants,
+            @ForAll("memberships") List<Integer> memberships,
+            @ForAll @IntRange(min = 1, max = 4) int pageSize) {
+        stubCatalogue(permissions(), roleCount, grants);
+        List<Role> roles = roles(roleCount);
+        when(roleRepository.findAllById(any())).thenReturn(roles);
+
+        // memberships 的每个元素为用户序号 * 8 + 角色序号
+        Map<String, Set<Integer>> userRoles = new TreeMap<>();
+        for (int m : memberships) {
+            userRoles.computeIfAbsent("u" + m / 8, k -> new TreeSet<>()).add(m % 8 % roleCount);
+        }
+        List<Object[]> userRoleRows = new ArrayList<>();
+        List<String> candidates = new ArrayList<>();
+        userRoles.forEach((userId, roleIndexes) -> {
+            List<Role> assigned = new ArrayList<>();
+            for (int r : roleIndexes) {
+                userRoleRows.add(new Object[]{userId, roles.get(r).getId()});
+                assigned.add(roles.get(r));
+            }
+            if (assigned.size() >= 2) {
+                candidates.add(userId);
+            }
+            // 单用户查询返回的角色顺序不固定
+            Collections.reverse(assigned);
+            when(roleRepository.findByUserId(userId)).thenReturn(assigned);
+        });
+        when(userRoleRepository.findUserIdsWithMultipleActiveRoles(any(Pageable.class))).thenAnswer(inv -> {
+            Pageable pageable = inv.getArgument(0);
+            int from = (int) Math.min(pageable.getOffset(), candidates.size());
+            int to = Math.min(from + pageable.getPageSize(), candidates.size());
+            return new PageImpl<>(candidates.subList(from, to), pageable, candidates.size());
+        });
+        when(userRoleRepository.findActiveUserRoleIds(anyCollection())).thenAnswer(inv -> {
+            Collection<String> userIds = inv.getArgument(0);
+            return userRoleRows.stream().filter(row -> userIds.contains((String) row[0])).toList();
+        });
+
+        Map<String, ConflictDetectionResult> batch = new HashMap<>();
+        int page = 0;
+        PageResult<ConflictDetectionResult> result;
+        do {
+            result = component.detectAllUserPermissionConflicts(page++, pageSize);
+            assertThat(result.getContent()).hasSizeLessThanOrEqualTo(pageSize);
+            assertThat(result.getTotalElements()).isEqualTo(candidates.size());
+            result.getContent().forEach(r -> batch.put(r.getUserId(), r));
+        } while (!result.isLast());
+
+        for (String userId : userRoles.keySet()) {
+            ConflictDetectionResult single = component.detectUserPermissionConflicts(userId);
+            if (single.isHasConflicts()) {
+                assertThat(batch).containsKey(userId);
+                assertThat(describe(batch.get(userId))).containsExactlyElementsOf(describe(single));
+                assertThat(batch.get(userId).getRecommendedStrategy()).isEqualTo(single.getRecommendedStrategy());
+            } else {
+                assertThat(batch).doesNotContainKey(userId);
+            }
+        }
+        assertThat(page).isEqualTo(Math.max(1, (candidates.size() + pageSize - 1) / pageSize));
+        // 每页只读取本页用户的角色关联，冲突索引只构建一次
+        verify(userRoleRepository, times(candidates.isEmpty() ? 0 : page)).findActiveUserRoleIds(anyCollection());
+        verify(permissionRepository, times(1)).findAll();
+    }
+
+    // ==================== Property 3: 索引复用 ====================
+
+    @Property(tries = 30)
+    void conflictIndexIsReusedUntilInvalidated(@ForAll @IntRange(min = 1, max = 5) int checks) {
+        Permission admin = permission("p-admin", "user", "ADMIN");
+        Permission guest = permission("p-guest", "user", "GUEST");
+        when(permissionRepository.findAll()).thenReturn(List.of(admin, guest));
+        when(rolePermissionRepository.findActiveRolePermissionIds()).thenReturn(rows(
+                new Object[]{"r0", "p-admin"}, new Object[]{"r1", "p-guest"}));
+        when(roleRepository.findByUserId("u1")).thenReturn(roles(2));
+
+        for (int i = 0; i < checks; i++) {
+            assertThat(component.detectUserPermissionConflicts("u1").isHasConflicts()).isTrue();
+        }
+        verify(permissionRepository, times(1)).findAll();
+        verify(rolePermissionRepository, times(1)).findActiveRolePermissionIds();
+
+        // 角色1不再有 GUEST 权限
+        when(rolePermissionRepository.findActiveRolePermissionIds()).thenReturn(rows(
+                new Object[]{"r0", "p-admin"}));
+        assertThat(component.detectUserPermissionConflicts("u1").isHasConflicts()).isTrue();
+        component.invalidateConflictIndex();
+        assertThat(component.detectUserPermissionConflicts("u1").isHasConflicts()).isFalse();
+        verify(permissionRepository, times(2)).findAll();
+    }
+
+    // ==================== 生成器 ====================
+
+    /**
+     * 每个元素为 角色序号 * 64 + 权限序号
+     */
+    @Provide
+    Arbitrary<List<Integer>> grants() {
+        return Arbitraries.integers().between(0, 8 * 64 - 1).list().ofMaxSize(40);
+    }
+
+    @Provide
+    Arbitrary<List<Integer>> memberships() {
+        return Arbitraries.integers().between(0, 6 * 8 - 1).list().ofMinSize(1).ofMaxSize(20);
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private Map<String, List<Permission>> stubCatalogue(List<Permission> permissions, int roleCount,
+                                                        List<Integer> grants) {
+        Map<String, List<Permission>> granted = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int grant : grants) {
+            String roleId = "r" + (grant / 64 % roleCount);
+            Permission permission = permissions.get(grant % 64 % permissions.size());
+            if (seen.add(roleId + "/" + permission.getId())) {
+                rows.add(new Object[]{roleId, permission.getId()});
+                granted.computeIfAbsent(roleId, k -> new ArrayList<>()).add(permission);
+            }
+        }
+        when(permissionRepository.findAll()).thenReturn(permissions);
+        when(rolePermissionRepository.findActiveRolePermissionIds()).thenReturn(rows);
+        return granted;
+    }
+
+    private List<Permission> permissions() {
+        List<Permission> permissions = new ArrayList<>();
+        for (String resource : RESOURCES) {
+            for (String action : ACTIONS) {
+                permissions.add(permission(resource + ":" + action, resource, action));
+            }
+        }
+        return permissions;
+    }
+
+    private List<Role> roles(int count) {
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            roles.add(Role.builder().id("r" + i).name("角色" + i).code("ROLE_" + i).build());
+        }
+        return roles;
+    }
+
+    private static Permission permission(String id, String resource, String action) {
+        return Permission.builder().id(id).name(id).code(id).resource(resource).action(action).build();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(Arrays.asList(rows));
+    }
+
+    private static List<String> describe(ConflictDetectionResult result) {
+        List<String> descriptions = new ArrayList<>();
+        if (result.getConflicts() == null) {
+            return descriptions;
+        }
+        for (ConflictDetectionResult.ConflictInfo conflict : result.getConflicts()) {
+            String[] names = conflict.getConflictDescription()
+                    .replace("权限 ", "").replace(" 存在冲突", "").split(" 与 ");
+            descriptions.add(conflict.getConflictSource1().replace("角色: ", "") + "|"
+                    + conflict.getConflictSource2().replace("角色: ", "") + "|" + names[0] + "|" + names[1]);
+        }
+        return descriptions;
+    }
+
+    /**
+     * 原逐对比较的规则：互斥动作或同一资源上层级相差超过2
+     */
+    private static boolean conflicting(Permission perm1, Permission perm2) {
+        Map<String, Set<String>> exclusive = Map.of(
+                "ADMIN", Set.of("READONLY", "GUEST"),
+                "WRITE", Set.of("READONLY"),
+                "DELETE", Set.of("READONLY"),
+                "APPROVE", Set.of("REJECT"),
+                "CREATE", Set.of("READONLY"));
+        String action1 = perm1.getAction().toUpperCase();
+        String action2 = perm2.getAction().toUpperCase();
+        if (exclusive.getOrDefault(action1, Set.of()).contains(action2)
+                || exclusive.getOrDefault(action2, Set.of()).contains(action1)) {
+            return true;
+        }
+        Map<String, Integer> levels = Map.of("READ", 1, "WRITE", 2, "DELETE", 3, "ADMIN", 4);
+        Integer level1 = levels.get(action1);
+        Integer level2 = levels.get(action2);
+        return perm1.getResource().equals(perm2.getResource())
+                && level1 != null && level2 != null && Math.abs(level1 - level2) > 2;
+    }
+}
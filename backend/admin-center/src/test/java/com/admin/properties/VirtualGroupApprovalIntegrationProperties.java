@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import net.jqwik.api.*;
 import net.jqwik.api.lifecycle.BeforeTry;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 
@@ -65,7 +66,8 @@ public class VirtualGroupApprovalIntegrationProperties {
                 virtualGroupRoleRepository,
                 memberChangeLogRepository,
                 approverService,
-                objectMapper);
+                objectMapper,
+                mock(ApplicationEventPublisher.class));
         
         permissionRequestService = new PermissionRequestService(
                 permissionRequestRepository,
@@ -0,0 +1,121 @@
+package com.admin.repository;
+
+import com.admin.entity.BusinessUnit;
+import com.admin.enums.BusinessUnitStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BusinessUnitRepository 测试
+ * 在H2上执行真实的JPQL，验证子树移动的路径前缀更新
+ */
+@DataJpaTest
+@ContextConfiguration(classes = BusinessUnitRepositoryTest.JpaConfig.class)
+@ActiveProfiles("test")
+@DisplayName("BusinessUnitRepository Tests")
+class BusinessUnitRepositoryTest {
+
+    @Autowired
+    private BusinessUnitRepository businessUnitRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("子树移动：所有后代的路径前缀替换为新路径，层级按差值调整")
+    void moveDescendantsRewritesPathPrefixAndLevel() {
+        persist("A", 1, "/A");
+        persist("B", 2, "/A/B");
+        persist("C", 3, "/A/B/C");
+        persist("D", 4, "/A/B/C/D");
+        persist("T", 1, "/T");
+        entityManager.flush();
+
+        // B 移到 T 下：B 自身由组件更新，这里只移动后代
+        int moved = businessUnitRepository.moveDescendants("/A/B/%", "/A/B".length() + 1, "/T/B", 0,
+                Instant.now());
+        entityManager.clear();
+
+        assertThat(moved).isEqualTo(2);
+        assertUnit("C", "/T/B/C", 3);
+        assertUnit("D", "/T/B/C/D", 4);
+        assertUnit("A", "/A", 1);
+    }
+
+    @Test
+    @DisplayName("子树移动到根：层级按负差值调整")
+    void moveDescendantsToRootDecreasesLevel() {
+        persist("A", 1, "/A");
+        persist("B", 2, "/A/B");
+        persist("C", 3, "/A/B/C");
+        entityManager.flush();
+
+        int moved = businessUnitRepository.moveDescendants("/A/B/%", "/A/B".length() + 1, "/B", -1,
+                Instant.now());
+        entityManager.clear();
+
+        assertThat(moved).isEqualTo(1);
+        assertUnit("C", "/B/C", 2);
+    }
+
+    @Test
+    @DisplayName("子树移动：只匹配路径前缀，ID互为前缀或含LIKE通配符的业务单元不受影响")
+    void moveDescendantsMatchesOnlyTheSubtree() {
+        persist("X_1", 1, "/X_1");
+        persist("X_1C", 2, "/X_1/X_1C");
+        // 未转义时 _ 会匹配任意字符
+        persist("XY1", 1, "/XY1");
+        persist("XY1C", 2, "/XY1/XY1C");
+        // 旧路径是其路径的前缀，但不是它的祖先
+        persist("X_10", 1, "/X_10");
+        persist("X_10C", 2, "/X_10/X_10C");
+        persist("N", 1, "/N");
+        entityManager.flush();
+
+        int moved = businessUnitRepository.moveDescendants("/X!_1/%", "/X_1".length() + 1, "/N/X_1", 1,
+                Instant.now());
+        entityManager.clear();
+
+        assertThat(moved).isEqualTo(1);
+        assertUnit("X_1C", "/N/X_1/X_1C", 3);
+        assertUnit("XY1C", "/XY1/XY1C", 2);
+        assertUnit("X_10C", "/X_10/X_10C", 2);
+    }
+
+    private void persist(String id, int level, String path) {
+        String parentPath = path.substring(0, path.lastIndexOf('/'));
+        entityManager.persist(BusinessUnit.builder()
+                .id(id)
+                .name("BU " + id)
+                .code(id)
+                .parentId(parentPath.isEmpty() ? null : parentPath.substring(parentPath.lastIndexOf('/') + 1))
+                .level(level)
+                .path(path)
+                .status(BusinessUnitStatus.ACTIVE)
+                .build());
+    }
+
+    private void assertUnit(String id, String path, int level) {
+        BusinessUnit unit = businessUnitRepository.findById(id).orElseThrow();
+        assertThat(unit.getPath()).isEqualTo(path);
+        assertThat(unit.getLevel()).isEqualTo(level);
+    }
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = BusinessUnitRepository.class)
+    @EntityScan(basePackages = {"com.admin.entity", "com.platform.security.entity"})
+    static class JpaConfig {
+    }
+}
@@ -0,0 +1,359 @@
+package com.admin.service.impl;
+
+import com.admin.dto.request.UserCreateRequest;
+import com.admin.dto.response.BatchImportResult;
+import com.admin.entity.UserImportJob;
+import com.admin.enums.UserImportJobStatus;
+import com.admin.exception.AdminBusinessException;
+import com.admin.repository.UserImportJobRepository;
+import com.admin.service.AuditService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserImportServiceImpl 单元测试
+ */
+@DisplayName("UserImportServiceImpl Tests")
+class UserImportServiceImplTest {
+
+    private static final String HEADER = "用户名,邮箱,姓名,工号,业务单元ID,职位,初始密码\n";
+
+    @TempDir
+    Path workDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserImportJobRepository jobRepository;
+    private AuditService auditService;
+    private UserImportServiceImpl service;
+
+    /** 每次写入 sys_users 的用户名，一个元素对应一次批量写入 */
+    private final List<List<String>> insertedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        jobRepository = mock(UserImportJobRepository.class);
+        auditService = mock(AuditService.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> "hash:" + inv.getArgument(0));
+        when(jobRepository.save(any(UserImportJob.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of());
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        doAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            if (sql.startsWith("INSERT INTO sys_users")) {
+                Collection<Object> rows = inv.getArgument(1);
+                ParameterizedPreparedStatementSetter<Object> setter = inv.getArgument(3);
+                List<String> usernames = new ArrayList<>();
+                PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                            if (method.getName().equals("setString") && (int) args[0] == 2) {
+                                usernames.add((String) args[1]);
+                            }
+                            return null;
+                        });
+                for (Object row : rows) {
+                    setter.setValues(ps, row);
+                }
+                insertedBatches.add(usernames);
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        service = new UserImportServiceImpl(passwordEncoder, auditService, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), jobRepository);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "hashThreads", 2);
+        ReflectionTestUtils.setField(service, "workDir", workDir.toString());
+        ReflectionTestUtils.setField(service, "instanceId", "node-a");
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("流式读取Excel：跳过标题行和空行，数字单元格按显示值读取")
+    void parseExcelFileStreamsRows() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "users.xlsx", null, xlsx(
+                new Object[]{"alice", "alice@example.com", "Alice", 1001, null, "工程师", "Password123"},
+                null,
+                new Object[]{"bob", "bob@example.com", "Bob", "EMP002", "bu-1", null, "Password456"}));
+
+        List<UserCreateRequest> users = service.parseExcelFile(file);
+
+        assertThat(users).extracting(UserCreateRequest::getUsername).containsExactly("alice", "bob");
+        assertThat(users.get(0).getEmployeeId()).isEqualTo("1001");
+        assertThat(users.get(0).getBusinessUnitId()).isNull();
+        assertThat(users.get(1).getBusinessUnitId()).isEqualTo("bu-1");
+    }
+
+    @Test
+    @DisplayName("流式读取CSV：缺少的列为空，不丢弃整行")
+    void parseCsvFileToleratesShortRows() {
+        MockMultipartFile file = csv(HEADER
+                + "alice,alice@example.com,Alice,EMP001,,工程师,Password123\n"
+                + "bob,bob@example.com,Bob\n");
+
+        List<UserCreateRequest> users = service.parseCsvFile(file);
+
+        assertThat(users).hasSize(2);
+        assertThat(users.get(1).getInitialPassword()).isNull();
+        assertThat(service.validateImportData(users)).containsExactly("行 3: 密码长度必须至少8位");
+    }
+
+    @Test
+    @DisplayName("分块导入：无效行、文件内重复和库中已存在的用户名逐行报告，其余分块批量写入")
+    void importUsersWritesValidRowsInChunks() throws Exception {
+        when(jdbcTemplate.queryForList(startsWith("SELECT username"), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("dave"));
+        MockMultipartFile file = csv(HEADER
+                + "alice,alice@example.com,Alice,,,,Password123\n"
+                + "bob,not-an-email,Bob,,,,Password123\n"
+                + "carol,carol@example.com,Carol,,,,Password123\n"
+                + "alice,alice2@example.com,Alice2,,,,Password123\n"
+                + "dave,dave@example.com,Dave,,,,Password123\n"
+                + "erin,erin@example.com,Erin,,,,Password123\n");
+
+        BatchImportResult result = service.importUsers(file);
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getTotalCount()).isEqualTo(6);
+        assertThat(result.getSuccessCount()).isEqualTo(3);
+        assertThat(result.getFailureCount()).isEqualTo(3);
+        assertThat(result.getErrors())
+                .contains("行 3 (bob): 邮箱格式不正确")
+                .contains("行 5 (alice): 文件中用户名重复")
+                .contains("行 6 (dave): 用户名已存在");
+        assertThat(insertedBatches).containsExactly(List.of("alice"), List.of("carol"), List.of("erin"));
+        // 每块提交一次检查点，最后一个检查点停在最后一行
+        verify(jdbcTemplate, times(3)).update(startsWith("UPDATE admin_user_import_jobs SET processed_rows"),
+                any(), any(), any(), any(), any(), any(), any());
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET processed_rows"),
+                eq(6), eq(3), eq(3), eq(7), anyString(), anyString(), eq("node-a"));
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET status"),
+                eq("COMPLETED"), any(), isNull(), anyString(), eq("node-a"));
+        verify(auditService).recordBatchImport(any(BatchImportResult.class));
+        // 完成后删除含明文密码的上传文件
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET file_path = NULL"), anyString());
+        try (Stream<Path> files = Files.list(workDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("继续执行：跳过检查点及之前的行，计数在检查点基础上累加")
+    void resumeImportJobSkipsCommittedRows() throws Exception {
+        Path file = workDir.resolve("job-1.csv");
+        Files.writeString(file, HEADER
+                + "alice,alice@example.com,Alice,,,,Password123\n"
+                + "bob,bob@example.com,Bob,,,,Password123\n"
+                + "carol,carol@example.com,Carol,,,,Password123\n", StandardCharsets.UTF_8);
+        UserImportJob job = UserImportJob.builder()
+                .id("job-1")
+                .fileName("users.csv")
+                .filePath(file.toString())
+                .status(UserImportJobStatus.INTERRUPTED)
+                .totalRows(3)
+                .processedRows(2)
+                .successCount(2)
+                .lastRowNumber(3)
+                .build();
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job));
+
+        service.resumeImportJob("job-1");
+
+        verify(jdbcTemplate, timeout(2000)).update(startsWith("UPDATE admin_user_import_jobs SET status"),
+                eq("COMPLETED"), any(), isNull(), eq("job-1"), eq("node-a"));
+        assertThat(insertedBatches).containsExactly(List.of("carol"));
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET processed_rows"),
+                eq(3), eq(3), eq(0), eq(4), isNull(), eq("job-1"), eq("node-a"));
+    }
+
+    @Test
+    @DisplayName("并发继续同一任务时，状态已被其他请求改变的请求被拒绝")
+    void resumeImportJobRejectsConcurrentResume() throws Exception {
+        Path file = Files.writeString(workDir.resolve("job-6.csv"), HEADER, StandardCharsets.UTF_8);
+        UserImportJob job = UserImportJob.builder()
+                .id("job-6")
+                .filePath(file.toString())
+                .status(UserImportJobStatus.FAILED)
+                .build();
+        when(jobRepository.findById("job-6")).thenReturn(Optional.of(job));
+        when(jdbcTemplate.update(startsWith("UPDATE admin_user_import_jobs SET status = 'PENDING'"),
+                any(Object[].class))).thenReturn(0);
+
+        assertThatThrownBy(() -> service.resumeImportJob("job-6"))
+                .isInstanceOf(AdminBusinessException.class)
+                .extracting("errorCode").isEqualTo("IMPORT_JOB_NOT_RESUMABLE");
+    }
+
+    @Test
+    @DisplayName("任务被其他实例接管后停止执行，不删除文件也不覆盖状态")
+    void importStopsWhenJobWasTakenOver() throws Exception {
+        when(jdbcTemplate.update(startsWith("UPDATE admin_user_import_jobs SET processed_rows"),
+                any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("UPDATE admin_user_import_jobs SET status = ?"),
+                any(Object[].class))).thenReturn(0);
+
+        BatchImportResult result = service.importUsers(csv(HEADER
+                + "alice,alice@example.com,Alice,,,,Password123\n"
+                + "bob,bob@example.com,Bob,,,,Password123\n"
+                + "carol,carol@example.com,Carol,,,,Password123\n"));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getErrors()).contains("已被其他实例接管");
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE admin_user_import_jobs SET processed_rows"),
+                any(Object[].class));
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE admin_user_import_jobs SET file_path = NULL"),
+                anyString());
+        verify(auditService, never()).recordBatchImport(any());
+        try (Stream<Path> files = Files.list(workDir)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("已完成的任务不能继续执行")
+    void resumeImportJobRejectsCompletedJob() {
+        UserImportJob job = UserImportJob.builder()
+                .id("job-2")
+                .filePath(workDir.resolve("missing.csv").toString())
+                .status(UserImportJobStatus.COMPLETED)
+                .build();
+        when(jobRepository.findById("job-2")).thenReturn(Optional.of(job));
+
+        assertThatThrownBy(() -> service.resumeImportJob("job-2"))
+                .isInstanceOf(AdminBusinessException.class)
+                .hasMessageContaining("不能继续执行");
+    }
+
+    @Test
+    @DisplayName("定时清理：删除本实例过期任务的上传文件并清空路径")
+    void purgeExpiredFilesDeletesOwnFiles() throws Exception {
+        Path file = Files.writeString(workDir.resolve("job-3.csv"), HEADER, StandardCharsets.UTF_8);
+        UserImportJob job = UserImportJob.builder()
+                .id("job-3")
+                .filePath(file.toString())
+                .status(UserImportJobStatus.FAILED)
+                .ownerInstance("node-a")
+                .build();
+        when(jobRepository.findWithExpiredFiles(eq("node-a"), any(Instant.class))).thenReturn(List.of(job));
+
+        service.purgeExpiredFiles();
+
+        ArgumentCaptor<Instant> expiredBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(jobRepository).findWithExpiredFiles(eq("node-a"), expiredBefore.capture());
+        assertThat(expiredBefore.getValue()).isBefore(Instant.now().minus(Duration.ofHours(71)));
+        assertThat(file).doesNotExist();
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET file_path = NULL"), eq("job-3"));
+    }
+
+    @Test
+    @DisplayName("启动时把本实例未结束的任务标记为中断，其他实例的任务只按心跳超时接管")
+    void markInterruptedJobsTouchesOwnJobsAndStaleLeases() {
+        UserImportJob job = UserImportJob.builder().id("job-4").status(UserImportJobStatus.RUNNING).build();
+        when(jobRepository.findByOwnerInstanceAndStatusIn(eq("node-a"), anyCollection())).thenReturn(List.of(job));
+
+        service.markInterruptedJobs();
+
+        assertThat(job.getStatus()).isEqualTo(UserImportJobStatus.INTERRUPTED);
+        assertThat(job.getFinishedAt()).isNotNull();
+        verify(jobRepository).saveAll(List.of(job));
+        verify(jobRepository, never()).findByStatusIn(anyCollection());
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET status = 'INTERRUPTED'"),
+                eq("node-a"), any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("心跳超时：任一实例把超过租约未续写心跳的任务标记为中断并接管")
+    void interruptStaleJobsUsesLeaseTimeout() {
+        service.interruptStaleJobs();
+
+        ArgumentCaptor<Timestamp> staleBefore = ArgumentCaptor.forClass(Timestamp.class);
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET status = 'INTERRUPTED'"),
+                eq("node-a"), any(Timestamp.class), anyString(), staleBefore.capture());
+        assertThat(staleBefore.getValue().toInstant())
+                .isBetween(Instant.now().minusSeconds(125), Instant.now().minusSeconds(115));
+    }
+
+    @Test
+    @DisplayName("心跳：只续写本实例正在执行或排队的任务")
+    void heartbeatActiveJobsRefreshesOwnJobs() {
+        service.heartbeatActiveJobs();
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE admin_user_import_jobs SET heartbeat_at"),
+                any(Object[].class));
+
+        @SuppressWarnings("unchecked")
+        Set<String> activeJobs = (Set<String>) ReflectionTestUtils.getField(service, "activeJobs");
+        activeJobs.add("job-5");
+        service.heartbeatActiveJobs();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE admin_user_import_jobs SET heartbeat_at"),
+                any(Timestamp.class), eq("job-5"), eq("node-a"));
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "users.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] xlsx(Object[]... rows) throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("用户");
+            sheet.createRow(0).createCell(0).setCellValue("用户名*");
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] == null) {
+                    continue;
+                }
+                Row row = sheet.createRow(i + 1);
+                for (int c = 0; c < rows[i].length; c++) {
+                    Object value = rows[i][c];
+                    if (value instanceof Number number) {
+                        row.createCell(c).setCellValue(number.doubleValue());
+                    } else if (value != null) {
+                        row.createCell(c).setCellValue(value.toString());
+                    }
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.platform.cache.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cached value plus the metadata needed for early refresh.
+ *
+ * Encoded as {@code xf1|<loadMillis>|<expiresAtMillis>|<json>}. The Redis TTL
+ * outlives the logical expiry by the stale-while-revalidate window. Values
+ * without the prefix, e.g. written by {@code CacheService.set}, never expire
+ * logically and are returned as-is.
+ */
+public record CacheEnvelope(String json, long loadMillis, long expiresAt) {
+
+    private static final String MARKER = "xf1|";
+
+    public static String encode(String json, long loadMillis, long expiresAt) {
+        return MARKER + loadMillis + "|" + expiresAt + "|" + json;
+    }
+
+    public static CacheEnvelope decode(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        if (raw.startsWith(MARKER)) {
+            int first = raw.indexOf('|', MARKER.length());
+            int second = first < 0 ? -1 : raw.indexOf('|', first + 1);
+            if (second > 0) {
+                try {
+                    return new CacheEnvelope(raw.substring(second + 1),
+                            Long.parseLong(raw.substring(MARKER.length(), first)),
+                            Long.parseLong(raw.substring(first + 1, second)));
+                } catch (NumberFormatException ignored) {
+                    // Not an envelope after all
+                }
+            }
+        }
+        return new CacheEnvelope(raw, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * JSON payload of a raw Redis value, with or without an envelope.
+     */
+    public static String unwrap(String raw) {
+        return raw == null ? null : decode(raw).json();
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * XFetch: refresh when {@code now - loadMillis * beta * ln(rand) >= expiresAt}, so slow
+     * loads start refreshing earlier and the chance rises as expiry approaches.
+     */
+    public boolean shouldRefreshEarly(long now, double beta) {
+        if (loadMillis <= 0 || expiresAt == Long.MAX_VALUE) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        return now - loadMillis * beta * Math.log(random) >= expiresAt;
+    }
+}
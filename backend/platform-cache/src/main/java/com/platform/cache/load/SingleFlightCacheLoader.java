@@ -0,0 +1,267 @@
+package com.platform.cache.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.common.util.JsonUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Stampede-safe read-through loading behind {@link com.platform.cache.service.CacheService#getOrLoad}.
+ *
+ * - Single flight: concurrent misses for a key on this instance share one loader call.
+ *   Callers wait at most {@code platform.cache.load.wait-timeout-ms} and then load themselves.
+ * - Early refresh (XFetch): hits close to expiry refresh in the background with a
+ *   probability that grows with the last load time, so hot keys rarely expire at all.
+ * - Stale-while-revalidate: within the stale window after expiry the old value is
+ *   returned immediately while one background load replaces it. With no stale window
+ *   an expired value is never returned.
+ * - Hits, misses, coalesced loads, early refreshes and stale hits are counted.
+ */
+@Slf4j
+@Component
+public class SingleFlightCacheLoader {
+
+    private static final String METRIC_PREFIX = "platform.cache.load.";
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = JsonUtils.getObjectMapper();
+
+    /**
+     * XFetch beta; above 1 favours earlier refreshes.
+     */
+    @Value("${platform.cache.load.xfetch-beta:1.0}")
+    private double xfetchBeta = 1.0;
+
+    /**
+     * How long a caller waits for another caller's load of the same key.
+     */
+    @Value("${platform.cache.load.wait-timeout-ms:10000}")
+    private long waitTimeoutMs = 10000;
+
+    @Value("${platform.cache.load.refresh-threads:4}")
+    private int refreshThreads = 4;
+
+    @Value("${platform.cache.load.refresh-queue-capacity:256}")
+    private int refreshQueueCapacity = 256;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong earlyRefreshCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+    private final AtomicLong refreshDroppedCount = new AtomicLong();
+    private final AtomicLong waitTimeoutCount = new AtomicLong();
+
+    private volatile ThreadPoolExecutor refreshExecutor;
+
+    public SingleFlightCacheLoader(StringRedisTemplate redisTemplate, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read a key through the cache.
+     *
+     * @param key   full Redis key
+     * @param ttl   time until the value is logically expired
+     * @param stale how long an expired value may still be served while it is reloaded
+     */
+    public <T> T getOrLoad(String key, Class<T> type, Supplier<T> loader, Duration ttl, Duration stale) {
+        CacheEnvelope envelope;
+        try {
+            envelope = CacheEnvelope.decode(redisTemplate.opsForValue().get(key));
+        } catch (Exception e) {
+            log.error("Failed to read cache key {}, loading directly: {}", key, e.getMessage());
+            return loader.get();
+        }
+
+        long now = System.currentTimeMillis();
+        if (envelope != null && envelope.isExpired(now) && !stale.isPositive()) {
+            // Redis has not dropped it yet, but the caller does not accept expired values
+            envelope = null;
+        }
+        if (envelope != null) {
+            try {
+                T value = objectMapper.readValue(envelope.json(), type);
+                hitCount.incrementAndGet();
+                if (envelope.isExpired(now)) {
+                    staleHitCount.incrementAndGet();
+                    record("hit", "stale");
+                    refreshInBackground(key, loader, ttl, stale);
+                } else if (envelope.shouldRefreshEarly(now, xfetchBeta)) {
+                    earlyRefreshCount.incrementAndGet();
+                    record("hit", "early_refresh");
+                    refreshInBackground(key, loader, ttl, stale);
+                } else {
+                    record("hit", "fresh");
+                }
+                return value;
+            } catch (Exception e) {
+                // Treat an unreadable value as a miss and overwrite it
+                log.warn("Failed to deserialize cache key {}: {}", key, e.getMessage());
+            }
+        }
+
+        missCount.incrementAndGet();
+        record("miss", "load");
+        Object value = loadSingleFlight(key, loader, ttl, stale);
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        return objectMapper.convertValue(value, type);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hitCount.get());
+        stats.put("misses", missCount.get());
+        stats.put("coalesced", coalescedCount.get());
+        stats.put("earlyRefreshes", earlyRefreshCount.get());
+        stats.put("staleHits", staleHitCount.get());
+        stats.put("refreshesDropped", refreshDroppedCount.get());
+        stats.put("waitTimeouts", waitTimeoutCount.get());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    // ==================== Internal ====================
+
+    private Object loadSingleFlight(String key, Supplier<?> loader, Duration ttl, Duration stale) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            record("miss", "coalesced");
+            try {
+                return existing.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (CancellationException e) {
+                // The background refresh we joined was dropped; load it ourselves
+                return loadSingleFlight(key, loader, ttl, stale);
+            } catch (TimeoutException e) {
+                // Do not wait forever on a stuck load
+                waitTimeoutCount.incrementAndGet();
+                record("miss", "wait_timeout");
+                log.warn("Timed out after {}ms waiting for the load of cache key {}, loading directly",
+                        waitTimeoutMs, key);
+                return loadAndStore(key, loader, ttl, stale);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for cache key " + key, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Cache load failed for key " + key, cause);
+            }
+        }
+
+        try {
+            Object value = loadAndStore(key, loader, ttl, stale);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void refreshInBackground(String key, Supplier<?> loader, Duration ttl, Duration stale) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor().execute(() -> {
+                try {
+                    flight.complete(loadAndStore(key, loader, ttl, stale));
+                } catch (Throwable e) {
+                    log.warn("Background refresh of cache key {} failed: {}", key, e.getMessage());
+                    flight.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, flight);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The current value is still usable; a later read will try again
+            refreshDroppedCount.incrementAndGet();
+            inFlight.remove(key, flight);
+            flight.cancel(false);
+        }
+    }
+
+    private Object loadAndStore(String key, Supplier<?> loader, Duration ttl, Duration stale) {
+        long start = System.currentTimeMillis();
+        Object value = loader.get();
+        long loadMillis = System.currentTimeMillis() - start;
+        if (value != null) {
+            try {
+                String encoded = CacheEnvelope.encode(objectMapper.writeValueAsString(value), loadMillis,
+                        start + loadMillis + ttl.toMillis());
+                Duration physicalTtl = stale.isNegative() ? ttl : ttl.plus(stale);
+                redisTemplate.opsForValue().set(key, encoded, physicalTtl);
+            } catch (Exception e) {
+                log.error("Failed to store loaded value for cache key {}: {}", key, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    private ThreadPoolExecutor refreshExecutor() {
+        ThreadPoolExecutor executor = refreshExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (refreshExecutor == null) {
+                    AtomicInteger index = new AtomicInteger();
+                    int threads = Math.max(1, refreshThreads);
+                    refreshExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(Math.max(1, refreshQueueCapacity)), r -> {
+                                Thread thread = new Thread(r, "cache-refresh-" + index.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+                    refreshExecutor.allowCoreThreadTimeOut(true);
+                }
+                executor = refreshExecutor;
+            }
+        }
+        return executor;
+    }
+
+    private void record(String name, String result) {
+        if (meterRegistry == null) {
+            return;
+        }
+        counters.computeIfAbsent(name + ":" + result, k -> Counter.builder(METRIC_PREFIX + name)
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,115 @@
+package com.platform.cache.lock;
+
+import com.platform.cache.service.DistributedLock;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Redis lock handle issued by {@link RedisLockManager}.
+ * The stored value is unique per acquisition, so release and extension only
+ * ever touch this holder's lock even after it expired and was re-acquired.
+ */
+class RedisDistributedLock implements DistributedLock {
+
+    private final RedisLockManager manager;
+    private final String lockKey;
+    private final String lockValue;
+    private final long fencingToken;
+    private final long leaseMillis;
+    private final long acquiredAtNanos;
+    private final AtomicBoolean locked = new AtomicBoolean(true);
+    private volatile ScheduledFuture<?> renewal;
+
+    RedisDistributedLock(RedisLockManager manager, String lockKey, String lockValue,
+                         long fencingToken, long leaseMillis) {
+        this.manager = manager;
+        this.lockKey = lockKey;
+        this.lockValue = lockValue;
+        this.fencingToken = fencingToken;
+        this.leaseMillis = leaseMillis;
+        this.acquiredAtNanos = System.nanoTime();
+    }
+
+    @Override
+    public String getLockKey() {
+        return lockKey;
+    }
+
+    @Override
+    public boolean isLocked() {
+        if (!locked.get()) return false;
+
+        // Verify lock is still held by us
+        return lockValue.equals(manager.currentValue(lockKey));
+    }
+
+    @Override
+    public void unlock() {
+        if (!locked.compareAndSet(true, false)) return;
+        cancelRenewal();
+        manager.release(this);
+    }
+
+    @Override
+    public boolean extend(long additionalSeconds) {
+        if (!locked.get()) return false;
+        return manager.extend(this, TimeUnit.SECONDS.toMillis(additionalSeconds));
+    }
+
+    @Override
+    public long getRemainingTime() {
+        if (!locked.get()) return 0;
+        return manager.remainingSeconds(lockKey);
+    }
+
+    @Override
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    String getLockValue() {
+        return lockValue;
+    }
+
+    long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    long getAcquiredAtNanos() {
+        return acquiredAtNanos;
+    }
+
+    boolean isHeld() {
+        return locked.get();
+    }
+
+    void setRenewal(ScheduledFuture<?> renewal) {
+        this.renewal = renewal;
+        // Released or lost while the renewal was being scheduled
+        if (!locked.get()) {
+            renewal.cancel(false);
+        }
+    }
+
+    /**
+     * Called by the watchdog when the lock was lost to expiry or another holder.
+     *
+     * @return false if the lock had already been released
+     */
+    boolean markLost() {
+        if (!locked.compareAndSet(true, false)) {
+            return false;
+        }
+        cancelRenewal();
+        return true;
+    }
+
+    void cancelRenewal() {
+        ScheduledFuture<?> current = renewal;
+        if (current != null) {
+            current.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.platform.cache.lock;
+
+import com.platform.cache.service.DistributedLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis lock subsystem behind {@link com.platform.cache.service.CacheService#tryLock}.
+ *
+ * - Acquire, release and extend are single Lua scripts, so a holder can never
+ *   delete or extend a lock that expired and was taken by someone else.
+ * - Every acquisition gets a fencing token from a per-key counter that only
+ *   grows, for resources that must reject writes from a stale holder. The
+ *   counter expires after {@code fence-ttl-ms} without acquisitions; a new
+ *   counter starts from the current time in microseconds, above any token the
+ *   expired one handed out.
+ * - A watchdog renews held locks at a third of their lease until they are
+ *   released; if the process dies, renewals stop and the lease runs out.
+ * - Waiters block until a release is published on {@value #RELEASE_CHANNEL}
+ *   or the holder's lease ends, instead of retrying in a loop.
+ * - Contention, wait time, hold time and lost locks are recorded as metrics.
+ */
+@Slf4j
+@Component
+public class RedisLockManager implements MessageListener {
+
+    public static final String RELEASE_CHANNEL = "lock:released";
+
+    private static final String FENCE_PREFIX = "lock:fence:";
+
+    private static final String METRIC_PREFIX = "platform.cache.lock.";
+
+    /**
+     * KEYS[1] lock key, KEYS[2] fence counter; ARGV[1] holder id, ARGV[2] lease ms,
+     * ARGV[3] fence counter ttl ms, ARGV[4] seed for a new fence counter.
+     * Returns {token, 0} when acquired, {0, pttl} when held by someone else.
+     */
+    private static final String ACQUIRE_LUA =
+            "if redis.call('exists', KEYS[1]) == 1 then "
+            + "  return {0, redis.call('pttl', KEYS[1])} "
+            + "end "
+            + "if redis.call('exists', KEYS[2]) == 0 then "
+            + "  redis.call('set', KEYS[2], ARGV[4]) "
+            + "end "
+            + "local token = redis.call('incr', KEYS[2]) "
+            + "redis.call('pexpire', KEYS[2], ARGV[3]) "
+            + "redis.call('set', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2]) "
+            + "return {token, 0}";
+
+    /**
+     * KEYS[1] lock key; ARGV[1] lock value, ARGV[2] release channel.
+     */
+    private static final String RELEASE_LUA =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "  redis.call('del', KEYS[1]) "
+            + "  redis.call('publish', ARGV[2], KEYS[1]) "
+            + "  return 1 "
+            + "end "
+            + "return 0";
+
+    /**
+     * KEYS[1] lock key; ARGV[1] lock value, ARGV[2] new lease ms.
+     */
+    private static final String EXTEND_LUA =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "  return redis.call('pexpire', KEYS[1], ARGV[2]) "
+            + "end "
+            + "return 0";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(ACQUIRE_LUA, List.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(RELEASE_LUA, Long.class);
+    private static final RedisScript<Long> EXTEND_SCRIPT = new DefaultRedisScript<>(EXTEND_LUA, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${platform.cache.lock.watchdog-enabled:true}")
+    private boolean watchdogEnabled = true;
+
+    /**
+     * Longest a waiter sleeps without a release message, covering missed pub/sub messages.
+     */
+    @Value("${platform.cache.lock.max-wait-slice-ms:1000}")
+    private long maxWaitSliceMs = 1000;
+
+    /**
+     * Wait slice when no listener container is available to deliver release messages.
+     */
+    @Value("${platform.cache.lock.poll-interval-ms:100}")
+    private long pollIntervalMs = 100;
+
+    /**
+     * How long a fencing counter survives without acquisitions; longer than any lease.
+     */
+    @Value("${platform.cache.lock.fence-ttl-ms:604800000}")
+    private long fenceTtlMs = 604800000L;
+
+    private final Map<String, Set<CountDownLatch>> waiters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger heldLocks = new AtomicInteger();
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong contendedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong lostCount = new AtomicLong();
+    private final AtomicLong renewalCount = new AtomicLong();
+
+    private ScheduledThreadPoolExecutor watchdog;
+    private volatile boolean releaseListening;
+
+    public RedisLockManager(StringRedisTemplate redisTemplate,
+                            ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer.getIfAvailable();
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @PostConstruct
+    public void start() {
+        watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "redis-lock-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.setRemoveOnCancelPolicy(true);
+
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(RELEASE_CHANNEL));
+            releaseListening = true;
+        }
+        if (meterRegistry != null) {
+            Gauge.builder(METRIC_PREFIX + "held", heldLocks, AtomicInteger::get)
+                    .description("Locks currently held by this instance")
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+        if (releaseListening) {
+            listenerContainer.removeMessageListener(this);
+            releaseListening = false;
+        }
+    }
+
+    /**
+     * Try to acquire a lock, waiting up to waitTime for the current holder.
+     *
+     * @param lockKey   full Redis key of the lock
+     * @param leaseTime lease of the lock; renewed by the watchdog while held
+     * @param waitTime  maximum wait, zero to fail immediately
+     */
+    public Optional<DistributedLock> tryLock(String lockKey, Duration leaseTime, Duration waitTime) {
+        long leaseMillis = Math.max(1, leaseTime.toMillis());
+        long start = System.nanoTime();
+        long deadline = start + Math.max(0, waitTime.toNanos());
+        boolean contended = false;
+
+        while (true) {
+            CountDownLatch released = new CountDownLatch(1);
+            // Register before trying so a release between the attempt and the wait is not missed
+            Set<CountDownLatch> keyWaiters = waiters.computeIfAbsent(lockKey, k -> ConcurrentHashMap.newKeySet());
+            keyWaiters.add(released);
+            try {
+                String lockValue = UUID.randomUUID().toString();
+                List<?> result = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(lockKey, FENCE_PREFIX + lockKey),
+                        lockValue, String.valueOf(leaseMillis), String.valueOf(Math.max(fenceTtlMs, leaseMillis)),
+                        String.valueOf(fenceSeed()));
+                long token = longAt(result, 0);
+                if (token > 0) {
+                    record("acquire", contended ? "contended" : "acquired");
+                    recordTime("wait", System.nanoTime() - start);
+                    acquiredCount.incrementAndGet();
+                    return Optional.of(onAcquired(lockKey, lockValue + ":" + token, token, leaseMillis));
+                }
+
+                if (!contended) {
+                    contended = true;
+                    contendedCount.incrementAndGet();
+                }
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    record("acquire", "timeout");
+                    timeoutCount.incrementAndGet();
+                    return Optional.empty();
+                }
+
+                long holderTtl = longAt(result, 1);
+                long slice = releaseListening ? maxWaitSliceMs : pollIntervalMs;
+                if (holderTtl > 0) {
+                    slice = Math.min(slice, holderTtl + 1);
+                }
+                slice = Math.min(slice, TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1);
+                if (!released.await(slice, TimeUnit.MILLISECONDS)) {
+                    log.trace("Lock {} still held, retrying after {} ms", lockKey, slice);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                record("acquire", "interrupted");
+                return Optional.empty();
+            } finally {
+                keyWaiters.remove(released);
+                if (keyWaiters.isEmpty()) {
+                    waiters.remove(lockKey, keyWaiters);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wakes local waiters of a released lock.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String lockKey = new String(message.getBody(), StandardCharsets.UTF_8);
+        Set<CountDownLatch> keyWaiters = waiters.get(lockKey);
+        if (keyWaiters != null) {
+            keyWaiters.forEach(CountDownLatch::countDown);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("held", heldLocks.get());
+        stats.put("acquired", acquiredCount.get());
+        stats.put("contended", contendedCount.get());
+        stats.put("timedOut", timeoutCount.get());
+        stats.put("lost", lostCount.get());
+        stats.put("renewals", renewalCount.get());
+        stats.put("waitingKeys", waiters.size());
+        stats.put("releaseListening", releaseListening);
+        return stats;
+    }
+
+    // ==================== Lock handle callbacks ====================
+
+    String currentValue(String lockKey) {
+        return redisTemplate.opsForValue().get(lockKey);
+    }
+
+    long remainingSeconds(String lockKey) {
+        Long ttl = redisTemplate.getExpire(lockKey, TimeUnit.SECONDS);
+        return ttl != null && ttl > 0 ? ttl : 0;
+    }
+
+    void release(RedisDistributedLock lock) {
+        heldLocks.decrementAndGet();
+        recordTime("hold", System.nanoTime() - lock.getAcquiredAtNanos());
+        try {
+            Long released = redisTemplate.execute(RELEASE_SCRIPT, List.of(lock.getLockKey()),
+                    lock.getLockValue(), RELEASE_CHANNEL);
+            if (released == null || released == 0) {
+                log.warn("Lock {} had already expired or been taken over when released", lock.getLockKey());
+            }
+        } catch (Exception e) {
+            // The lease still bounds how long the key survives
+            log.error("Failed to release lock {}: {}", lock.getLockKey(), e.getMessage());
+        }
+    }
+
+    boolean extend(RedisDistributedLock lock, long leaseMillis) {
+        Long extended = redisTemplate.execute(EXTEND_SCRIPT, List.of(lock.getLockKey()),
+                lock.getLockValue(), String.valueOf(Math.max(1, leaseMillis)));
+        return extended != null && extended == 1;
+    }
+
+    // ==================== Internal ====================
+
+    private RedisDistributedLock onAcquired(String lockKey, String lockValue, long token, long leaseMillis) {
+        RedisDistributedLock lock = new RedisDistributedLock(this, lockKey, lockValue, token, leaseMillis);
+        heldLocks.incrementAndGet();
+        if (watchdogEnabled && watchdog != null) {
+            long period = Math.max(1, leaseMillis / 3);
+            lock.setRenewal(watchdog.scheduleAtFixedRate(() -> renew(lock), period, period, TimeUnit.MILLISECONDS));
+        }
+        return lock;
+    }
+
+    private void renew(RedisDistributedLock lock) {
+        if (!lock.isHeld()) {
+            // Released before the renewal future was attached; markLost would be a no-op here
+            lock.cancelRenewal();
+            return;
+        }
+        try {
+            if (extend(lock, lock.getLeaseMillis())) {
+                renewalCount.incrementAndGet();
+                return;
+            }
+            if (lock.markLost()) {
+                heldLocks.decrementAndGet();
+                lostCount.incrementAndGet();
+                record("lost", "expired");
+                log.warn("Lost lock {} (fencing token {}) before it was released",
+                        lock.getLockKey(), lock.getFencingToken());
+            }
+        } catch (Exception e) {
+            // Keep trying on the next tick; the lock is only lost once its lease runs out
+            log.warn("Failed to renew lock {}: {}", lock.getLockKey(), e.getMessage());
+        }
+    }
+
+    /**
+     * Start value of a new fence counter: the current time in microseconds.
+     * A counter only expires after {@code fenceTtlMs} without acquisitions, so
+     * the seed is far above the last token it handed out even with clock skew.
+     */
+    private static long fenceSeed() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    private static long longAt(List<?> result, int index) {
+        if (result == null || result.size() <= index || result.get(index) == null) {
+            return 0;
+        }
+        return ((Number) result.get(index)).longValue();
+    }
+
+    private void record(String name, String result) {
+        if (meterRegistry == null) {
+            return;
+        }
+        counters.computeIfAbsent(name + ":" + result, k -> Counter.builder(METRIC_PREFIX + name)
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private void recordTime(String name, long nanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        timers.computeIfAbsent(name, k -> Timer.builder(METRIC_PREFIX + name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -3,6 +3,7 @@ package com.platform.cache.service;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Cache service interface for distributed caching operations.
@@ -120,6 +121,45 @@ public interface CacheService {
      */
     Set<String> keys(String pattern);
     
+    /**
+     * Get a cached value, loading and caching it on a miss.
+     * 
+     * @param key Cache key
+     * @param type Value type class
+     * @param loader Loads the value on a miss
+     * @param ttl Time to live
+     * @return The cached or loaded value, null if the loader returned null
+     */
+    default <T> T getOrLoad(String key, Class<T> type, Supplier<T> loader, Duration ttl) {
+        return getOrLoad(key, type, loader, ttl, Duration.ZERO);
+    }
+    
+    /**
+     * Get a cached value, loading and caching it on a miss.
+     * Concurrent misses for the same key share one loader call, values close to expiry
+     * are refreshed early in the background, and for staleWhileRevalidate after expiry
+     * the old value is returned while it is reloaded.
+     * 
+     * @param key Cache key
+     * @param type Value type class
+     * @param loader Loads the value on a miss
+     * @param ttl Time to live
+     * @param staleWhileRevalidate How long an expired value may still be returned, zero to never
+     * @return The cached or loaded value, null if the loader returned null
+     */
+    default <T> T getOrLoad(String key, Class<T> type, Supplier<T> loader, Duration ttl,
+                            Duration staleWhileRevalidate) {
+        Optional<T> cached = get(key, type);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        T value = loader.get();
+        if (value != null) {
+            set(key, value, ttl);
+        }
+        return value;
+    }
+    
     /**
      * Acquire a distributed lock.
      * 
@@ -129,6 +169,18 @@ public interface CacheService {
      */
     Optional<DistributedLock> tryLock(String lockKey, Duration timeout);
     
+    /**
+     * Acquire a distributed lock, waiting for the current holder to release it.
+     * 
+     * @param lockKey Lock key
+     * @param timeout Lock timeout
+     * @param waitTime Maximum time to wait for the lock
+     * @return Optional containing the lock if acquired within waitTime, empty otherwise
+     */
+    default Optional<DistributedLock> tryLock(String lockKey, Duration timeout, Duration waitTime) {
+        return tryLock(lockKey, timeout);
+    }
+    
     /**
      * Publish a cache invalidation message.
      * 
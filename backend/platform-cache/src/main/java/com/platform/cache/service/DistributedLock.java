@@ -40,6 +40,17 @@ public interface DistributedLock extends AutoCloseable {
      */
     long getRemainingTime();
     
+    /**
+     * Get the fencing token of this acquisition.
+     * Tokens increase monotonically per lock key, so a resource guarded by the
+     * lock can reject writes carrying a lower token than the last one it saw.
+     * 
+     * @return Fencing token, 0 if the implementation does not issue tokens
+     */
+    default long getFencingToken() {
+        return 0;
+    }
+    
     @Override
     default void close() {
         unlock();
@@ -1,6 +1,9 @@
 package com.platform.cache.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.cache.load.CacheEnvelope;
+import com.platform.cache.load.SingleFlightCacheLoader;
+import com.platform.cache.lock.RedisLockManager;
 import com.platform.cache.service.CacheService;
 import com.platform.cache.service.DistributedLock;
 import com.platform.common.util.JsonUtils;
@@ -12,8 +15,8 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Redis implementation of CacheService.
@@ -25,6 +28,8 @@ import java.util.concurrent.TimeUnit;
 public class RedisCacheServiceImpl implements CacheService {
     
     private final StringRedisTemplate redisTemplate;
+    private final RedisLockManager lockManager;
+    private final SingleFlightCacheLoader cacheLoader;
     private final ObjectMapper objectMapper = JsonUtils.getObjectMapper();
     
     private static final String LOCK_PREFIX = "lock:";
@@ -37,7 +42,7 @@ public class RedisCacheServiceImpl implements CacheService {
             if (value == null) {
                 return Optional.empty();
             }
-            return Optional.of(objectMapper.readValue(value, type));
+            return Optional.of(objectMapper.readValue(CacheEnvelope.unwrap(value), type));
         } catch (Exception e) {
             log.error("Failed to get cache value for key: {}", key, e);
             return Optional.empty();
@@ -46,7 +51,7 @@ public class RedisCacheServiceImpl implements CacheService {
     
     @Override
     public Optional<String> getString(String key) {
-        return Optional.ofNullable(redisTemplate.opsForValue().get(key));
+        return Optional.ofNullable(CacheEnvelope.unwrap(redisTemplate.opsForValue().get(key)));
     }
     
     @Override
@@ -138,91 +143,24 @@ public class RedisCacheServiceImpl implements CacheService {
         return result != null ? result : Set.of();
     }
     
+    @Override
+    public <T> T getOrLoad(String key, Class<T> type, Supplier<T> loader, Duration ttl,
+                           Duration staleWhileRevalidate) {
+        return cacheLoader.getOrLoad(key, type, loader, ttl, staleWhileRevalidate);
+    }
+    
     @Override
     public Optional<DistributedLock> tryLock(String lockKey, Duration timeout) {
-        String fullLockKey = LOCK_PREFIX + lockKey;
-        String lockValue = UUID.randomUUID().toString();
-        
-        Boolean acquired = redisTemplate.opsForValue()
-                .setIfAbsent(fullLockKey, lockValue, timeout);
-        
-        if (Boolean.TRUE.equals(acquired)) {
-            return Optional.of(new RedisDistributedLock(
-                    redisTemplate, fullLockKey, lockValue, timeout.getSeconds()
-            ));
-        }
-        
-        return Optional.empty();
+        return lockManager.tryLock(LOCK_PREFIX + lockKey, timeout, Duration.ZERO);
     }
     
     @Override
-    public void publishInvalidation(String pattern) {
-        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, pattern);
+    public Optional<DistributedLock> tryLock(String lockKey, Duration timeout, Duration waitTime) {
+        return lockManager.tryLock(LOCK_PREFIX + lockKey, timeout, waitTime);
     }
     
-    /**
-     * Redis implementation of DistributedLock.
-     */
-    private static class RedisDistributedLock implements DistributedLock {
-        
-        private final StringRedisTemplate redisTemplate;
-        private final String lockKey;
-        private final String lockValue;
-        private long remainingSeconds;
-        private boolean locked;
-        
-        RedisDistributedLock(StringRedisTemplate redisTemplate, String lockKey, 
-                            String lockValue, long timeoutSeconds) {
-            this.redisTemplate = redisTemplate;
-            this.lockKey = lockKey;
-            this.lockValue = lockValue;
-            this.remainingSeconds = timeoutSeconds;
-            this.locked = true;
-        }
-        
-        @Override
-        public String getLockKey() {
-            return lockKey;
-        }
-        
-        @Override
-        public boolean isLocked() {
-            if (!locked) return false;
-            
-            // Verify lock is still held by us
-            String currentValue = redisTemplate.opsForValue().get(lockKey);
-            return lockValue.equals(currentValue);
-        }
-        
-        @Override
-        public void unlock() {
-            if (!locked) return;
-            
-            // Only delete if we still own the lock
-            String currentValue = redisTemplate.opsForValue().get(lockKey);
-            if (lockValue.equals(currentValue)) {
-                redisTemplate.delete(lockKey);
-            }
-            locked = false;
-        }
-        
-        @Override
-        public boolean extend(long additionalSeconds) {
-            if (!isLocked()) return false;
-            
-            Boolean result = redisTemplate.expire(lockKey, Duration.ofSeconds(additionalSeconds));
-            if (Boolean.TRUE.equals(result)) {
-                remainingSeconds = additionalSeconds;
-                return true;
-            }
-            return false;
-        }
-        
-        @Override
-        public long getRemainingTime() {
-            if (!locked) return 0;
-            Long ttl = redisTemplate.getExpire(lockKey, TimeUnit.SECONDS);
-            return ttl != null && ttl > 0 ? ttl : 0;
-        }
+    @Override
+    public void publishInvalidation(String pattern) {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, pattern);
     }
 }
@@ -0,0 +1,258 @@
+package com.platform.cache.property;
+
+import com.platform.cache.lock.RedisLockManager;
+import com.platform.cache.service.DistributedLock;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterContainer;
+import net.jqwik.api.lifecycle.AfterTry;
+import net.jqwik.api.lifecycle.BeforeContainer;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Property tests for the Redis lock subsystem, run against an embedded Redis
+ * so the acquire, release and extend scripts execute for real.
+ */
+class RedisLockPropertyTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisMessageListenerContainer listenerContainer;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisLockManager lockManager;
+    private String lockKey;
+
+    @BeforeContainer
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterContainer
+    static void stopRedis() throws Exception {
+        listenerContainer.destroy();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeTry
+    void setUp() {
+        lockManager = newManager(true);
+        lockKey = "lock:test:" + UUID.randomUUID();
+    }
+
+    @AfterTry
+    void tearDown() {
+        lockManager.stop();
+    }
+
+    // ==================== Acquire / release scripts ====================
+
+    // Only one holder at a time, and every acquisition gets a higher fencing token
+    @Property(tries = 10)
+    void locksAreExclusiveAndTokensIncrease(@ForAll @IntRange(min = 2, max = 8) int acquisitions) {
+        long lastToken = 0;
+        for (int i = 0; i < acquisitions; i++) {
+            DistributedLock lock = lockManager.tryLock(lockKey, Duration.ofSeconds(10), Duration.ZERO).orElseThrow();
+            assertThat(lock.isLocked()).isTrue();
+            assertThat(lockManager.tryLock(lockKey, Duration.ofSeconds(10), Duration.ZERO)).isEmpty();
+            assertThat(lock.getFencingToken()).isGreaterThan(lastToken);
+            lastToken = lock.getFencingToken();
+
+            lock.unlock();
+            assertThat(redisTemplate.hasKey(lockKey)).isFalse();
+        }
+    }
+
+    // A holder whose lease ran out cannot release the lock of the next holder
+    @Example
+    void staleHolderCannotReleaseNextHoldersLock() throws InterruptedException {
+        RedisLockManager manager = newManager(false);
+        try {
+            DistributedLock stale = manager.tryLock(lockKey, Duration.ofMillis(100), Duration.ZERO).orElseThrow();
+            Thread.sleep(200);
+            DistributedLock current = manager.tryLock(lockKey, Duration.ofSeconds(10), Duration.ZERO).orElseThrow();
+
+            assertThat(stale.isLocked()).isFalse();
+            stale.unlock();
+            assertThat(current.isLocked()).isTrue();
+            assertThat(stale.extend(10)).isFalse();
+            assertThat(current.getFencingToken()).isGreaterThan(stale.getFencingToken());
+            current.unlock();
+        } finally {
+            manager.stop();
+        }
+    }
+
+    // ==================== Fencing counter ====================
+
+    @Example
+    void fenceCounterExpires() {
+        DistributedLock lock = lockManager.tryLock(lockKey, Duration.ofSeconds(10), Duration.ZERO).orElseThrow();
+        lock.unlock();
+
+        Long ttl = redisTemplate.getExpire("lock:fence:" + lockKey, TimeUnit.MILLISECONDS);
+        assertThat(ttl).isPositive();
+    }
+
+    // A counter that expired starts above every token it handed out before
+    @Example
+    void tokensKeepIncreasingAfterFenceCounterExpired() throws InterruptedException {
+        DistributedLock first = lockManager.tryLock(lockKey, Duration.ofSeconds(10), Duration.ZERO).orElseThrow();
+        first.unlock();
+        redisTemplate.delete("lock:fence:" + lockKey);
+        Thread.sleep(5);
+
+        DistributedLock second = lockManager.tryLock(lockKey, Duration.ofSeconds(10), Duration.ZERO).orElseThrow();
+        assertThat(second.getFencingToken()).isGreaterThan(first.getFencingToken());
+        second.unlock();
+    }
+
+    // ==================== Watchdog ====================
+
+    @Example
+    void watchdogKeepsLockPastItsLease() throws InterruptedException {
+        DistributedLock lock = lockManager.tryLock(lockKey, Duration.ofMillis(300), Duration.ZERO).orElseThrow();
+
+        Thread.sleep(1000);
+
+        assertThat(lock.isLocked()).isTrue();
+        assertThat((Long) lockManager.getStatistics().get("renewals")).isPositive();
+        lock.unlock();
+        assertThat(redisTemplate.hasKey(lockKey)).isFalse();
+    }
+
+    @Example
+    void watchdogReportsLockTakenOver() throws InterruptedException {
+        DistributedLock lock = lockManager.tryLock(lockKey, Duration.ofMillis(300), Duration.ZERO).orElseThrow();
+        redisTemplate.opsForValue().set(lockKey, "someone-else:1", Duration.ofSeconds(10));
+
+        Thread.sleep(400);
+
+        assertThat(lock.isLocked()).isFalse();
+        assertThat(lockManager.getStatistics()).containsEntry("lost", 1L).containsEntry("held", 0);
+        // Unlocking a lost lock leaves the new holder alone
+        lock.unlock();
+        assertThat(redisTemplate.opsForValue().get(lockKey)).isEqualTo("someone-else:1");
+    }
+
+    // Locks released right after acquisition, while renewals are firing, leave no renewal scheduled
+    @Property(tries = 5)
+    void releasedLocksLeaveNoRenewalScheduled(@ForAll @IntRange(min = 2, max = 8) int threads) throws Exception {
+        ScheduledThreadPoolExecutor watchdog =
+                (ScheduledThreadPoolExecutor) ReflectionTestUtils.getField(lockManager, "watchdog");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String key = lockKey + ":" + i;
+                workers.add(executor.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        lockManager.tryLock(key, Duration.ofMillis(3), Duration.ZERO)
+                                .ifPresent(DistributedLock::unlock);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Thread.sleep(50);
+        assertThat(watchdog.getQueue()).isEmpty();
+        assertThat(lockManager.getStatistics()).containsEntry("held", 0);
+    }
+
+    // ==================== Waiters ====================
+
+    // Waiters are woken by the release message, not by their wait slice running out
+    @Property(tries = 5)
+    void waitersAreWokenByRelease(@ForAll @IntRange(min = 1, max = 4) int waiterCount) throws Exception {
+        ReflectionTestUtils.setField(lockManager, "maxWaitSliceMs", 30_000L);
+        DistributedLock holder = lockManager.tryLock(lockKey, Duration.ofSeconds(30), Duration.ZERO).orElseThrow();
+
+        ExecutorService executor = Executors.newFixedThreadPool(waiterCount);
+        try {
+            List<Future<Long>> waits = new ArrayList<>();
+            for (int i = 0; i < waiterCount; i++) {
+                waits.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    Optional<DistributedLock> lock = lockManager.tryLock(lockKey, Duration.ofSeconds(30),
+                            Duration.ofSeconds(20));
+                    lock.orElseThrow().unlock();
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }));
+            }
+            Thread.sleep(300);
+            holder.unlock();
+
+            for (Future<Long> wait : waits) {
+                assertThat(wait.get(10, TimeUnit.SECONDS)).isLessThan(5_000L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Example
+    void waiterGivesUpAfterWaitTime() {
+        DistributedLock holder = lockManager.tryLock(lockKey, Duration.ofSeconds(30), Duration.ZERO).orElseThrow();
+
+        long start = System.nanoTime();
+        assertThat(lockManager.tryLock(lockKey, Duration.ofSeconds(30), Duration.ofMillis(200))).isEmpty();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(150L, 2_000L);
+        assertThat(lockManager.getStatistics()).containsEntry("timedOut", 1L).containsEntry("waitingKeys", 0);
+        holder.unlock();
+    }
+
+    // ==================== Helpers ====================
+
+    @SuppressWarnings("unchecked")
+    private static RedisLockManager newManager(boolean watchdogEnabled) {
+        ObjectProvider<RedisMessageListenerContainer> containerProvider = mock(ObjectProvider.class);
+        when(containerProvider.getIfAvailable()).thenReturn(listenerContainer);
+        ObjectProvider<MeterRegistry> meterProvider = mock(ObjectProvider.class);
+
+        RedisLockManager manager = new RedisLockManager(redisTemplate, containerProvider, meterProvider);
+        ReflectionTestUtils.setField(manager, "watchdogEnabled", watchdogEnabled);
+        manager.start();
+        return manager;
+    }
+}
@@ -0,0 +1,210 @@
+package com.platform.cache.property;
+
+import com.platform.cache.load.CacheEnvelope;
+import com.platform.cache.load.SingleFlightCacheLoader;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Property tests for {@link SingleFlightCacheLoader} and the XFetch early refresh
+ * of {@link CacheEnvelope}. Redis is replaced by an in-memory map.
+ */
+class SingleFlightCacheLoaderPropertyTest {
+
+    private static final String KEY = "cache:test";
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    // ==================== Single flight ====================
+
+    // Concurrent misses for one key run the loader once and all get its value
+    @Property(tries = 10)
+    void concurrentMissesShouldShareOneLoad(@ForAll @IntRange(min = 2, max = 8) int callers) throws Exception {
+        Map<String, String> redis = new ConcurrentHashMap<>();
+        SingleFlightCacheLoader loader = loader(redis);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<String> slowLoad = () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "loaded";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> loader.getOrLoad(KEY, String.class, slowLoad, TTL, Duration.ZERO)));
+            }
+            waitUntil(() -> (Long) loader.getStatistics().get("coalesced") == callers - 1);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(CacheEnvelope.unwrap(redis.get(KEY))).isEqualTo("\"loaded\"");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            loader.stop();
+        }
+    }
+
+    // A caller stops waiting for a stuck load after the wait timeout and loads itself
+    @Example
+    void waiterShouldNotWaitForeverOnAStuckLoad() throws Exception {
+        SingleFlightCacheLoader loader = loader(new ConcurrentHashMap<>());
+        ReflectionTestUtils.setField(loader, "waitTimeoutMs", 100L);
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch loading = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> loader.getOrLoad(KEY, String.class, () -> {
+                loading.countDown();
+                await(stuck);
+                return "stuck";
+            }, TTL, Duration.ZERO));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            String value = loader.getOrLoad(KEY, String.class, () -> "direct", TTL, Duration.ZERO);
+
+            assertThat(value).isEqualTo("direct");
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(90L, 2_000L);
+            assertThat(loader.getStatistics()).containsEntry("waitTimeouts", 1L);
+        } finally {
+            stuck.countDown();
+            executor.shutdownNow();
+            loader.stop();
+        }
+    }
+
+    // ==================== Expiry and stale values ====================
+
+    // Without a stale window an expired value still in Redis is never returned
+    @Example
+    void expiredValueShouldNotBeServedWithoutStaleWindow() {
+        Map<String, String> redis = new ConcurrentHashMap<>();
+        redis.put(KEY, CacheEnvelope.encode("\"old\"", 20, System.currentTimeMillis() - 1));
+        SingleFlightCacheLoader loader = loader(redis);
+
+        assertThat(loader.getOrLoad(KEY, String.class, () -> "new", TTL, Duration.ZERO)).isEqualTo("new");
+        assertThat(CacheEnvelope.unwrap(redis.get(KEY))).isEqualTo("\"new\"");
+        assertThat(loader.getStatistics()).containsEntry("misses", 1L).containsEntry("staleHits", 0L);
+        loader.stop();
+    }
+
+    @Example
+    void expiredValueShouldBeServedWithinStaleWindowWhileReloading() {
+        Map<String, String> redis = new ConcurrentHashMap<>();
+        redis.put(KEY, CacheEnvelope.encode("\"old\"", 20, System.currentTimeMillis() - 1));
+        SingleFlightCacheLoader loader = loader(redis);
+
+        assertThat(loader.getOrLoad(KEY, String.class, () -> "new", TTL, Duration.ofSeconds(30))).isEqualTo("old");
+        waitUntil(() -> "\"new\"".equals(CacheEnvelope.unwrap(redis.get(KEY))));
+        assertThat(loader.getStatistics()).containsEntry("staleHits", 1L);
+        loader.stop();
+    }
+
+    // ==================== XFetch ====================
+
+    // A hit that decides to refresh early returns the current value and reloads in the background
+    @Example
+    void earlyRefreshShouldReturnCurrentValueAndReload() {
+        Map<String, String> redis = new ConcurrentHashMap<>();
+        // A load this slow makes the refresh all but certain one second before expiry
+        redis.put(KEY, CacheEnvelope.encode("\"current\"", 1_000_000_000L, System.currentTimeMillis() + 1000));
+        SingleFlightCacheLoader loader = loader(redis);
+
+        assertThat(loader.getOrLoad(KEY, String.class, () -> "refreshed", TTL, Duration.ZERO)).isEqualTo("current");
+        waitUntil(() -> "\"refreshed\"".equals(CacheEnvelope.unwrap(redis.get(KEY))));
+        assertThat(loader.getStatistics()).containsEntry("earlyRefreshes", 1L).containsEntry("misses", 0L);
+        loader.stop();
+    }
+
+    // The refresh probability is exp(-remaining / (loadMillis * beta))
+    @Property(tries = 20)
+    void earlyRefreshProbabilityShouldFollowXFetch(
+            @ForAll @LongRange(min = 10, max = 1000) long loadMillis,
+            @ForAll @IntRange(min = 0, max = 3) int remainingLoads) {
+
+        long now = 1_000_000L;
+        CacheEnvelope envelope = new CacheEnvelope("{}", loadMillis, now + remainingLoads * loadMillis);
+        int samples = 20_000;
+        int refreshes = 0;
+        for (int i = 0; i < samples; i++) {
+            if (envelope.shouldRefreshEarly(now, 1.0)) {
+                refreshes++;
+            }
+        }
+
+        double expected = Math.exp(-remainingLoads);
+        assertThat((double) refreshes / samples).isCloseTo(expected, offset(0.02));
+    }
+
+    // Values without load metadata, such as those written by set, never refresh early
+    @Property(tries = 20)
+    void valuesWithoutMetadataShouldNeverRefreshEarly(@ForAll @LongRange(min = 0, max = 10_000) long now) {
+        CacheEnvelope plain = CacheEnvelope.decode("{\"a\":1}");
+
+        assertThat(plain.shouldRefreshEarly(now, 10.0)).isFalse();
+        assertThat(plain.isExpired(now)).isFalse();
+        assertThat(new CacheEnvelope("{}", 0, now + 1).shouldRefreshEarly(now, 10.0)).isFalse();
+    }
+
+    // ==================== Helpers ====================
+
+    @SuppressWarnings("unchecked")
+    private static SingleFlightCacheLoader loader(Map<String, String> redis) {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> operations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(operations);
+        when(operations.get(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(operations).set(anyString(), anyString(), any(Duration.class));
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        return new SingleFlightCacheLoader(redisTemplate, meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
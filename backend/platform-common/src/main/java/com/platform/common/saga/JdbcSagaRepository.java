@@ -0,0 +1,410 @@
+package com.platform.common.saga;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.dao.OptimisticLockingFailureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.InetAddress;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PostgreSQL implementation of {@link SagaRepository}.
+ *
+ * Every update is guarded by the saga version, so two instances can never
+ * overwrite each other's progress. Step results live in a JSONB array; a save
+ * only sends the results that changed since the last save of this instance
+ * (appended with {@code ||}, modified with {@code jsonb_set}) instead of
+ * rewriting the whole history on every step.
+ *
+ * Each save also extends the saving instance's lease, and while {@link #start()}
+ * is in effect a heartbeat renews the leases this instance holds every third of
+ * the lease, so a step that runs longer than the lease keeps its saga. Sagas
+ * whose lease has expired are returned by {@link #findIncomplete()} and can be
+ * taken over with {@link #tryAcquireLease(String)}. Lease times use the
+ * database clock.
+ *
+ * Requires the table from {@code saga/schema-postgresql.sql}.
+ */
+@Slf4j
+public class JdbcSagaRepository implements SagaRepository {
+
+    private static final String COLUMNS = "saga_id, saga_type, status, payload, current_step, total_steps, "
+            + "step_results, error_message, initiator_id, version, created_at, updated_at, completed_at";
+
+    private static final String INCOMPLETE_STATUSES = "('STARTED', 'IN_PROGRESS', 'COMPENSATING')";
+
+    private static final String LEASE_EXPIRED = "(lease_until IS NULL OR lease_until < CURRENT_TIMESTAMP)";
+
+    private static final int RENEW_CHUNK_SIZE = 500;
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private static final TypeReference<List<SagaStepResult>> RESULTS_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String owner;
+    private final long leaseMillis;
+    private final int recoveryBatchSize;
+
+    /**
+     * Serialized step results as last written by this instance, keyed by saga ID.
+     * Only non-terminal sagas saved by this instance are kept; sagas that were
+     * only read are not, so the map is bounded by the sagas this instance drives.
+     */
+    private final Map<String, List<String>> persistedResults = new ConcurrentHashMap<>();
+
+    /**
+     * Sagas whose lease this instance holds and renews on every heartbeat.
+     */
+    private final Set<String> heldLeases = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService heartbeat;
+
+    public JdbcSagaRepository(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, defaultOwner(), Duration.ofMinutes(5), 100);
+    }
+
+    public JdbcSagaRepository(JdbcTemplate jdbcTemplate, Duration lease, int recoveryBatchSize) {
+        this(jdbcTemplate, defaultOwner(), lease, recoveryBatchSize);
+    }
+
+    /**
+     * @param owner             identifies this instance in lease columns
+     * @param lease             how long a saga stays owned after its last save or heartbeat
+     * @param recoveryBatchSize maximum sagas returned by {@link #findIncomplete()}
+     */
+    public JdbcSagaRepository(JdbcTemplate jdbcTemplate, String owner, Duration lease, int recoveryBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.leaseMillis = lease.toMillis();
+        this.recoveryBatchSize = recoveryBatchSize;
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    @Override
+    public SagaTransaction save(SagaTransaction saga) {
+        List<String> results = serializeResults(saga.getStepResults());
+        List<String> previous = persistedResults.get(saga.getSagaId());
+
+        if (previous == null && saga.getVersion() == 0 && insert(saga, results)) {
+            remember(saga, results);
+            heldLeases.add(saga.getSagaId());
+            return saga;
+        }
+
+        List<Object> args = new ArrayList<>();
+        args.add(saga.getStatus().name());
+        args.add(saga.getCurrentStep());
+        args.add(saga.getTotalSteps());
+        args.add(saga.getErrorMessage());
+        args.add(toTimestamp(saga.getUpdatedAt()));
+        args.add(toTimestamp(saga.getCompletedAt()));
+        String resultsExpression = resultsDelta(previous, results, args);
+        boolean terminal = saga.isTerminal();
+        args.add(terminal ? null : owner);
+        args.add(terminal ? null : leaseMillis);
+        args.add(saga.getSagaId());
+        args.add(saga.getVersion());
+
+        int updated = jdbcTemplate.update(
+                "UPDATE sys_saga_transaction SET status = ?, current_step = ?, total_steps = ?, "
+                        + "error_message = ?, updated_at = ?, completed_at = ?, step_results = " + resultsExpression
+                        + ", version = version + 1, lease_owner = ?, "
+                        + "lease_until = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond') "
+                        + "WHERE saga_id = ? AND version = ?",
+                args.toArray());
+        if (updated == 0) {
+            persistedResults.remove(saga.getSagaId());
+            heldLeases.remove(saga.getSagaId());
+            throw new OptimisticLockingFailureException(
+                    "Saga " + saga.getSagaId() + " was modified concurrently (expected version " + saga.getVersion() + ")");
+        }
+
+        saga.setVersion(saga.getVersion() + 1);
+        remember(saga, results);
+        if (terminal) {
+            heldLeases.remove(saga.getSagaId());
+        } else {
+            heldLeases.add(saga.getSagaId());
+        }
+        return saga;
+    }
+
+    @Override
+    public Optional<SagaTransaction> findById(String sagaId) {
+        List<SagaTransaction> sagas = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM sys_saga_transaction WHERE saga_id = ?",
+                this::mapRow, sagaId);
+        return sagas.stream().findFirst();
+    }
+
+    @Override
+    public List<SagaTransaction> findByType(String sagaType) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM sys_saga_transaction WHERE saga_type = ? ORDER BY created_at",
+                this::mapRow, sagaType);
+    }
+
+    @Override
+    public List<SagaTransaction> findByStatus(SagaTransaction.SagaStatus status) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM sys_saga_transaction WHERE status = ? ORDER BY created_at",
+                this::mapRow, status.name());
+    }
+
+    /**
+     * Incomplete sagas whose owner lease has expired, oldest first.
+     */
+    @Override
+    public List<SagaTransaction> findIncomplete() {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM sys_saga_transaction WHERE status IN " + INCOMPLETE_STATUSES
+                        + " AND " + LEASE_EXPIRED + " ORDER BY created_at LIMIT ?",
+                this::mapRow, recoveryBatchSize);
+    }
+
+    @Override
+    public void deleteById(String sagaId) {
+        jdbcTemplate.update("DELETE FROM sys_saga_transaction WHERE saga_id = ?", sagaId);
+        persistedResults.remove(sagaId);
+        heldLeases.remove(sagaId);
+    }
+
+    @Override
+    public boolean tryAcquireLease(String sagaId) {
+        int updated = jdbcTemplate.update(
+                "UPDATE sys_saga_transaction SET lease_owner = ?, "
+                        + "lease_until = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond') "
+                        + "WHERE saga_id = ? AND status IN " + INCOMPLETE_STATUSES + " AND " + LEASE_EXPIRED,
+                owner, leaseMillis, sagaId);
+        if (updated == 1) {
+            heldLeases.add(sagaId);
+        }
+        return updated == 1;
+    }
+
+    @Override
+    public void releaseLease(String sagaId) {
+        heldLeases.remove(sagaId);
+        persistedResults.remove(sagaId);
+        jdbcTemplate.update(
+                "UPDATE sys_saga_transaction SET lease_owner = NULL, lease_until = NULL "
+                        + "WHERE saga_id = ? AND lease_owner = ?",
+                sagaId, owner);
+    }
+
+    /**
+     * Extend every lease this instance holds. Sagas another instance has taken
+     * over in the meantime are dropped from the held set.
+     *
+     * @return number of leases renewed
+     */
+    public int renewLeases() {
+        List<String> sagaIds = new ArrayList<>(heldLeases);
+        int renewed = 0;
+        for (int from = 0; from < sagaIds.size(); from += RENEW_CHUNK_SIZE) {
+            List<String> chunk = sagaIds.subList(from, Math.min(from + RENEW_CHUNK_SIZE, sagaIds.size()));
+            List<Object> args = new ArrayList<>();
+            args.add(leaseMillis);
+            args.add(owner);
+            args.addAll(chunk);
+            List<String> kept = jdbcTemplate.queryForList(
+                    "UPDATE sys_saga_transaction SET lease_until = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond') "
+                            + "WHERE lease_owner = ? AND saga_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?"))
+                            + ") RETURNING saga_id",
+                    String.class, args.toArray());
+            renewed += kept.size();
+            Set<String> keptIds = new HashSet<>(kept);
+            for (String sagaId : chunk) {
+                if (!keptIds.contains(sagaId)) {
+                    log.warn("Lost lease of saga {} to another instance", sagaId);
+                    heldLeases.remove(sagaId);
+                    persistedResults.remove(sagaId);
+                }
+            }
+        }
+        return renewed;
+    }
+
+    /**
+     * Start renewing held leases every third of the lease.
+     */
+    public synchronized void start() {
+        if (heartbeat != null) {
+            return;
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, leaseMillis / 3);
+        heartbeat.scheduleWithFixedDelay(() -> {
+            try {
+                renewLeases();
+            } catch (Exception e) {
+                log.error("Saga lease heartbeat failed: {}", e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (heartbeat == null) {
+            return;
+        }
+        heartbeat.shutdownNow();
+        heartbeat = null;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    // ==================== Internal ====================
+
+    private boolean insert(SagaTransaction saga, List<String> results) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO sys_saga_transaction (" + COLUMNS + ", lease_owner, lease_until) "
+                        + "VALUES (?, ?, ?, ?::jsonb, ?, ?, ?::jsonb, ?, ?, 0, ?, ?, ?, ?, "
+                        + "CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond')) "
+                        + "ON CONFLICT (saga_id) DO NOTHING",
+                saga.getSagaId(),
+                saga.getSagaType(),
+                saga.getStatus().name(),
+                toJson(saga.getPayload() != null ? saga.getPayload() : Map.of()),
+                saga.getCurrentStep(),
+                saga.getTotalSteps(),
+                jsonArray(results),
+                saga.getErrorMessage(),
+                saga.getInitiatorId(),
+                toTimestamp(saga.getCreatedAt() != null ? saga.getCreatedAt() : LocalDateTime.now()),
+                toTimestamp(saga.getUpdatedAt()),
+                toTimestamp(saga.getCompletedAt()),
+                owner,
+                leaseMillis);
+        return inserted == 1;
+    }
+
+    /**
+     * Build the SQL expression for the new step_results value and append its arguments.
+     * Arguments are appended in the order their placeholders appear.
+     */
+    private String resultsDelta(List<String> previous, List<String> results, List<Object> args) {
+        if (previous == null || previous.size() > results.size()) {
+            args.add(jsonArray(results));
+            return "?::jsonb";
+        }
+        String expression = "step_results";
+        for (int i = 0; i < previous.size(); i++) {
+            if (!previous.get(i).equals(results.get(i))) {
+                expression = "jsonb_set(" + expression + ", ?::text[], ?::jsonb)";
+                args.add("{" + i + "}");
+                args.add(results.get(i));
+            }
+        }
+        if (results.size() > previous.size()) {
+            expression = expression + " || ?::jsonb";
+            args.add(jsonArray(results.subList(previous.size(), results.size())));
+        }
+        return expression;
+    }
+
+    private void remember(SagaTransaction saga, List<String> results) {
+        if (saga.isTerminal()) {
+            persistedResults.remove(saga.getSagaId());
+        } else {
+            persistedResults.put(saga.getSagaId(), results);
+        }
+    }
+
+    private SagaTransaction mapRow(ResultSet rs, int rowNum) throws SQLException {
+        List<SagaStepResult> stepResults = fromJson(rs.getString("step_results"), RESULTS_TYPE);
+        return SagaTransaction.builder()
+                .sagaId(rs.getString("saga_id"))
+                .sagaType(rs.getString("saga_type"))
+                .status(SagaTransaction.SagaStatus.valueOf(rs.getString("status")))
+                .payload(fromJson(rs.getString("payload"), PAYLOAD_TYPE))
+                .currentStep(rs.getInt("current_step"))
+                .totalSteps(rs.getInt("total_steps"))
+                .stepResults(stepResults != null ? new ArrayList<>(stepResults) : new ArrayList<>())
+                .errorMessage(rs.getString("error_message"))
+                .initiatorId(rs.getString("initiator_id"))
+                .version(rs.getLong("version"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .completedAt(toLocalDateTime(rs.getTimestamp("completed_at")))
+                .build();
+    }
+
+    private List<String> serializeResults(List<SagaStepResult> results) {
+        if (results == null) {
+            return List.of();
+        }
+        List<String> serialized = new ArrayList<>(results.size());
+        for (SagaStepResult result : results) {
+            serialized.add(toJson(result));
+        }
+        return serialized;
+    }
+
+    private static String jsonArray(List<String> elements) {
+        return "[" + String.join(",", elements) + "]";
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize saga data: " + e.getMessage(), e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to deserialize saga data: " + e.getMessage(), e);
+        }
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static String defaultOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,40 @@
+package com.platform.common.saga;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Saga persistence and recovery beans, enabled with {@code platform.saga.enabled=true}.
+ *
+ * The repository needs the table from {@code saga/schema-postgresql.sql}. The
+ * recovery worker resumes sagas of every {@link SagaOrchestrator} bean in the
+ * context; orchestrators should be built on the {@link SagaRepository} bean so
+ * that their leases are renewed by its heartbeat.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "platform.saga", name = "enabled", havingValue = "true")
+public class SagaConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public JdbcSagaRepository sagaRepository(
+            JdbcTemplate jdbcTemplate,
+            @Value("${platform.saga.lease:5m}") Duration lease,
+            @Value("${platform.saga.recovery.batch-size:100}") int recoveryBatchSize) {
+        return new JdbcSagaRepository(jdbcTemplate, lease, recoveryBatchSize);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SagaRecoveryWorker sagaRecoveryWorker(
+            SagaRepository sagaRepository,
+            ObjectProvider<SagaOrchestrator> orchestrators,
+            @Value("${platform.saga.recovery.interval:30s}") Duration interval,
+            @Value("${platform.saga.recovery.parallelism:4}") int parallelism) {
+        return new SagaRecoveryWorker(sagaRepository, orchestrators.orderedStream().toList(), interval, parallelism);
+    }
+}
@@ -50,6 +50,22 @@ public class SagaContext {
         return (T) stepOutput.get(key);
     }
     
+    /**
+     * Copy of this context for one step of a parallel group. The copy has its
+     * own step index and step outputs, so siblings never overwrite each other's
+     * state; the orchestrator merges their outputs once the group finishes.
+     */
+    public SagaContext forStep(int stepIndex) {
+        return SagaContext.builder()
+                .sagaId(sagaId)
+                .sagaType(sagaType)
+                .payload(payload)
+                .stepOutputs(new HashMap<>(stepOutputs))
+                .currentStepIndex(stepIndex)
+                .traceId(traceId)
+                .build();
+    }
+    
     /**
      * Add output from current step.
      */
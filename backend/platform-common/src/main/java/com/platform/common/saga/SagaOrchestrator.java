@@ -5,9 +5,16 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * Saga orchestrator for managing distributed transactions.
+ * Steps run in declaration order. When an executor is configured, consecutive
+ * steps declared independent run in parallel on it; their results are saved
+ * as each one finishes, so a resumed saga only re-runs the unfinished ones.
  * Validates: Requirements 9.1, 9.2
  */
 @Slf4j
@@ -18,6 +25,21 @@ public class SagaOrchestrator {
     private final List<SagaStep> steps;
     private final String sagaType;
     
+    /**
+     * Executor for independent steps; should be bounded. Null runs every step sequentially.
+     */
+    private Executor executor;
+    
+    public SagaOrchestrator(SagaRepository sagaRepository, List<SagaStep> steps, String sagaType,
+                            Executor executor) {
+        this(sagaRepository, steps, sagaType);
+        this.executor = executor;
+    }
+    
+    public String getSagaType() {
+        return sagaType;
+    }
+    
     /**
      * Execute a new saga transaction.
      * 
@@ -43,7 +65,13 @@ public class SagaOrchestrator {
         sagaRepository.save(saga);
         log.info("Started saga {} of type {}", sagaId, sagaType);
         
-        return executeSteps(saga);
+        try {
+            return executeSteps(saga);
+        } catch (RuntimeException e) {
+            // Let recovery pick the saga up now rather than after the lease expires
+            sagaRepository.releaseLease(sagaId);
+            throw e;
+        }
     }
     
     /**
@@ -67,27 +95,30 @@ public class SagaOrchestrator {
     
     private SagaTransaction executeSteps(SagaTransaction saga) {
         SagaContext context = buildContext(saga);
+        Set<Integer> completed = saga.getStepResults().stream()
+                .filter(SagaStepResult::isCompleted)
+                .map(SagaStepResult::getStepIndex)
+                .collect(Collectors.toSet());
         
         saga.setStatus(SagaTransaction.SagaStatus.IN_PROGRESS);
         sagaRepository.save(saga);
         
-        for (int i = saga.getCurrentStep(); i < steps.size(); i++) {
-            SagaStep step = steps.get(i);
+        int i = saga.getCurrentStep();
+        while (i < steps.size()) {
+            int groupEnd = executor != null ? independentGroupEnd(i) : i + 1;
             saga.setCurrentStep(i);
             context.setCurrentStepIndex(i);
             
-            SagaStepResult result = executeStep(step, context, i);
-            saga.addStepResult(result);
-            saga.setUpdatedAt(LocalDateTime.now());
-            sagaRepository.save(saga);
+            SagaStepResult failed = groupEnd - i > 1
+                    ? executeGroup(saga, context, i, groupEnd, completed)
+                    : executeSingle(saga, context, i, completed);
             
-            if (result.getStatus() == SagaStepResult.StepStatus.FAILED) {
-                log.error("Step {} failed in saga {}: {}", step.getName(), saga.getSagaId(), result.getErrorMessage());
-                saga.setErrorMessage(result.getErrorMessage());
+            if (failed != null) {
+                log.error("Step {} failed in saga {}: {}", failed.getStepName(), saga.getSagaId(), failed.getErrorMessage());
+                saga.setErrorMessage(failed.getErrorMessage());
                 return compensate(saga);
             }
-            
-            context.addStepOutput(step.getName(), result.getOutput());
+            i = groupEnd;
         }
         
         saga.setStatus(SagaTransaction.SagaStatus.COMPLETED);
@@ -98,6 +129,93 @@ public class SagaOrchestrator {
         return saga;
     }
     
+    /**
+     * @return the failed result, or null if the step completed or had completed before
+     */
+    private SagaStepResult executeSingle(SagaTransaction saga, SagaContext context, int index,
+                                         Set<Integer> completed) {
+        if (completed.contains(index)) {
+            return null;
+        }
+        SagaStep step = steps.get(index);
+        SagaStepResult result = executeStep(step, context, index);
+        recordStepResult(saga, result);
+        
+        if (result.getStatus() == SagaStepResult.StepStatus.FAILED) {
+            return result;
+        }
+        context.addStepOutput(step.getName(), result.getOutput());
+        return null;
+    }
+    
+    /**
+     * Run steps [from, to) in parallel and wait for all of them, so a failure
+     * never leaves a sibling running while compensation starts. Each step gets
+     * its own copy of the context.
+     *
+     * @return the first failed result in step order, or null if all completed
+     */
+    private SagaStepResult executeGroup(SagaTransaction saga, SagaContext context, int from, int to,
+                                        Set<Integer> completed) {
+        List<CompletableFuture<SagaStepResult>> futures = new ArrayList<>();
+        for (int index = from; index < to; index++) {
+            if (completed.contains(index)) {
+                continue;
+            }
+            int stepIndex = index;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                SagaStepResult result = executeStep(steps.get(stepIndex), context.forStep(stepIndex), stepIndex);
+                recordStepResult(saga, result);
+                return result;
+            }, executor));
+        }
+        
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            // Only persisting a result can throw here; step failures are captured in the result
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+        
+        List<SagaStepResult> results = futures.stream()
+                .map(CompletableFuture::join)
+                .sorted(Comparator.comparingInt(SagaStepResult::getStepIndex))
+                .toList();
+        SagaStepResult failed = null;
+        for (SagaStepResult result : results) {
+            if (result.getStatus() == SagaStepResult.StepStatus.FAILED) {
+                if (failed == null) {
+                    failed = result;
+                }
+            } else {
+                context.addStepOutput(result.getStepName(), result.getOutput());
+            }
+        }
+        return failed;
+    }
+    
+    /**
+     * Append a step result and save it; serialized because parallel steps share the saga.
+     */
+    private void recordStepResult(SagaTransaction saga, SagaStepResult result) {
+        synchronized (saga) {
+            saga.addStepResult(result);
+            saga.setUpdatedAt(LocalDateTime.now());
+            sagaRepository.save(saga);
+        }
+    }
+    
+    private int independentGroupEnd(int from) {
+        int end = from;
+        while (end < steps.size() && steps.get(end).isIndependent()) {
+            end++;
+        }
+        return Math.max(end, from + 1);
+    }
+    
     private SagaStepResult executeStep(SagaStep step, SagaContext context, int index) {
         LocalDateTime startTime = LocalDateTime.now();
         
@@ -0,0 +1,154 @@
+package com.platform.common.saga;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background worker that resumes sagas left incomplete by a crashed or
+ * restarted instance.
+ *
+ * Every interval it asks the repository for incomplete sagas, takes the lease
+ * of each saga type it has an orchestrator for, and resumes it on a bounded
+ * pool. Sagas of other types are left to the services that own them. Sagas
+ * that cannot be scheduled give their lease back right away so another
+ * instance can pick them up.
+ */
+@Slf4j
+public class SagaRecoveryWorker {
+
+    private final SagaRepository sagaRepository;
+    private final Map<String, SagaOrchestrator> orchestrators = new HashMap<>();
+    private final Duration interval;
+    private final int parallelism;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong resumedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private ThreadPoolExecutor resumePool;
+
+    public SagaRecoveryWorker(SagaRepository sagaRepository, Collection<SagaOrchestrator> orchestrators,
+                              Duration interval, int parallelism) {
+        this.sagaRepository = sagaRepository;
+        for (SagaOrchestrator orchestrator : orchestrators) {
+            this.orchestrators.put(orchestrator.getSagaType(), orchestrator);
+        }
+        this.interval = interval;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        resumePool = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(parallelism * 4), r -> {
+                    Thread thread = new Thread(r, "saga-recovery-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-recovery-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scan, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Saga recovery worker started for types {} (interval={}, parallelism={})",
+                orchestrators.keySet(), interval, parallelism);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        resumePool.shutdown();
+        try {
+            if (!resumePool.awaitTermination(30, TimeUnit.SECONDS)) {
+                resumePool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            resumePool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        log.info("Saga recovery worker stopped (resumed={}, failed={})", resumedCount.get(), failedCount.get());
+    }
+
+    /**
+     * Schedule every recoverable saga once.
+     *
+     * @return number of sagas handed to the resume pool
+     */
+    public int recoverOnce() {
+        if (resumePool == null) {
+            throw new IllegalStateException("Saga recovery worker is not started");
+        }
+        int scheduled = 0;
+        for (SagaTransaction saga : sagaRepository.findIncomplete()) {
+            String sagaId = saga.getSagaId();
+            SagaOrchestrator orchestrator = orchestrators.get(saga.getSagaType());
+            if (orchestrator == null || inFlight.contains(sagaId)) {
+                continue;
+            }
+            if (!sagaRepository.tryAcquireLease(sagaId)) {
+                continue;
+            }
+            inFlight.add(sagaId);
+            try {
+                resumePool.execute(() -> resume(orchestrator, sagaId));
+                scheduled++;
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(sagaId);
+                sagaRepository.releaseLease(sagaId);
+                log.debug("Saga recovery pool is full, deferring remaining sagas");
+                break;
+            }
+        }
+        return scheduled;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", scheduler != null);
+        stats.put("inFlight", inFlight.size());
+        stats.put("resumed", resumedCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("sagaTypes", orchestrators.keySet());
+        return stats;
+    }
+
+    // ==================== Internal ====================
+
+    private void scan() {
+        try {
+            int scheduled = recoverOnce();
+            if (scheduled > 0) {
+                log.info("Resuming {} incomplete sagas", scheduled);
+            }
+        } catch (Exception e) {
+            log.error("Saga recovery scan failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void resume(SagaOrchestrator orchestrator, String sagaId) {
+        try {
+            SagaTransaction saga = orchestrator.resume(sagaId);
+            resumedCount.incrementAndGet();
+            log.info("Recovered saga {} with status {}", sagaId, saga.getStatus());
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            log.error("Failed to recover saga {}: {}", sagaId, e.getMessage());
+            sagaRepository.releaseLease(sagaId);
+        } finally {
+            inFlight.remove(sagaId);
+        }
+    }
+}
@@ -37,4 +37,23 @@ public interface SagaRepository {
      * Delete a saga by ID.
      */
     void deleteById(String sagaId);
+    
+    /**
+     * Take ownership of an incomplete saga for recovery.
+     * Repositories shared between instances grant ownership only when the
+     * current owner's lease has expired. Repositories without leases never
+     * grant ownership, so recovery cannot resume a saga another instance is
+     * still driving.
+     *
+     * @return true if the caller may resume the saga
+     */
+    default boolean tryAcquireLease(String sagaId) {
+        return false;
+    }
+    
+    /**
+     * Give up ownership so another instance can recover the saga immediately.
+     */
+    default void releaseLease(String sagaId) {
+    }
 }
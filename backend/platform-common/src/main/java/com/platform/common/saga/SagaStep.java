@@ -43,4 +43,13 @@ public interface SagaStep {
     default int getMaxRetries() {
         return 3;
     }
+    
+    /**
+     * Check if this step neither reads nor affects the outputs of its neighbours.
+     * Consecutive independent steps are executed in parallel when the
+     * orchestrator has an executor.
+     */
+    default boolean isIndependent() {
+        return false;
+    }
 }
@@ -36,6 +36,10 @@ public class SagaTransaction implements Serializable {
     private LocalDateTime completedAt;
     private String errorMessage;
     private String initiatorId;
+    /**
+     * Optimistic lock version, incremented by the repository on every save.
+     */
+    private long version;
     
     /**
      * Check if the saga is in a terminal state.
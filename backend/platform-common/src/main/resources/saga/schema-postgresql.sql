@@ -0,0 +1,30 @@
+-- =====================================================
+-- Saga transaction store for JdbcSagaRepository
+-- =====================================================
+-- version guards every update (optimistic locking).
+-- step_results is appended to / patched in place rather than rewritten.
+-- lease_owner / lease_until mark the instance driving the saga; sagas with an
+-- expired lease are picked up by SagaRecoveryWorker.
+
+CREATE TABLE IF NOT EXISTS sys_saga_transaction (
+    saga_id VARCHAR(64) PRIMARY KEY,
+    saga_type VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payload JSONB,
+    current_step INTEGER NOT NULL DEFAULT 0,
+    total_steps INTEGER NOT NULL DEFAULT 0,
+    step_results JSONB NOT NULL DEFAULT '[]'::jsonb,
+    error_message TEXT,
+    initiator_id VARCHAR(64),
+    version BIGINT NOT NULL DEFAULT 0,
+    lease_owner VARCHAR(128),
+    lease_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_sys_saga_transaction_type ON sys_saga_transaction(saga_type);
+CREATE INDEX IF NOT EXISTS idx_sys_saga_transaction_status ON sys_saga_transaction(status);
+CREATE INDEX IF NOT EXISTS idx_sys_saga_transaction_recovery ON sys_saga_transaction(created_at)
+    WHERE status IN ('STARTED', 'IN_PROGRESS', 'COMPENSATING');
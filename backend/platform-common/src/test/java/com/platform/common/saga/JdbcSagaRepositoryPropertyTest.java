@@ -0,0 +1,178 @@
+package com.platform.common.saga;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property tests for the lease handling of {@link JdbcSagaRepository}.
+ */
+class JdbcSagaRepositoryPropertyTest {
+
+    // Reading sagas never makes this instance hold or track them
+    @Property(tries = 30)
+    void readsShouldNotBeTracked(@ForAll @IntRange(min = 1, max = 50) int incomplete) {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        for (int i = 0; i < incomplete; i++) {
+            jdbcTemplate.rows.add(row("saga-" + i));
+        }
+        JdbcSagaRepository repository = new JdbcSagaRepository(jdbcTemplate, "node-a", Duration.ofMinutes(5), 100);
+
+        assertThat(repository.findIncomplete()).hasSize(incomplete);
+        assertThat(repository.findById("saga-0")).isPresent();
+        jdbcTemplate.statements.clear();
+
+        assertThat(repository.renewLeases()).isZero();
+        assertThat(jdbcTemplate.statements).isEmpty();
+
+        // A saga that was only read is rewritten in full on its first save
+        SagaTransaction saga = repository.findById("saga-0").orElseThrow();
+        saga.setStatus(SagaTransaction.SagaStatus.IN_PROGRESS);
+        repository.save(saga);
+        assertThat(jdbcTemplate.statements.get(jdbcTemplate.statements.size() - 1)).contains("step_results = ?::jsonb");
+    }
+
+    // Every running saga this instance saved or acquired is renewed; finished,
+    // released and lost ones are not
+    @Property(tries = 30)
+    void heartbeatShouldRenewOnlyLeasesStillHeld(
+            @ForAll @IntRange(min = 1, max = 10) int running,
+            @ForAll @IntRange(min = 0, max = 10) int finished,
+            @ForAll @IntRange(min = 0, max = 10) int lost) {
+
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        JdbcSagaRepository repository = new JdbcSagaRepository(jdbcTemplate, "node-a", Duration.ofMinutes(5), 100);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < running; i++) {
+            repository.save(saga("running-" + i, SagaTransaction.SagaStatus.STARTED));
+            expected.add("running-" + i);
+        }
+        for (int i = 0; i < finished; i++) {
+            SagaTransaction saga = saga("finished-" + i, SagaTransaction.SagaStatus.STARTED);
+            repository.save(saga);
+            saga.setStatus(SagaTransaction.SagaStatus.COMPLETED);
+            repository.save(saga);
+        }
+        for (int i = 0; i < lost; i++) {
+            assertThat(repository.tryAcquireLease("lost-" + i)).isTrue();
+            jdbcTemplate.taken.add("lost-" + i);
+        }
+        repository.releaseLease("running-0");
+        expected.remove("running-0");
+
+        assertThat(repository.renewLeases()).isEqualTo(expected.size());
+        assertThat(jdbcTemplate.renewed).containsExactlyInAnyOrderElementsOf(expected);
+
+        // Lost leases are no longer renewed
+        jdbcTemplate.renewed.clear();
+        assertThat(repository.renewLeases()).isEqualTo(expected.size());
+        assertThat(jdbcTemplate.renewed).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Example
+    void repositoriesWithoutLeasesShouldNeverGrantOne() {
+        SagaRepository repository = new JdbcSagaRepository(new RecordingJdbcTemplate()) {
+            @Override
+            public boolean tryAcquireLease(String sagaId) {
+                return SagaRepository.super.tryAcquireLease(sagaId);
+            }
+        };
+
+        assertThat(repository.tryAcquireLease("saga-1")).isFalse();
+    }
+
+    // ==================== Helpers ====================
+
+    private static SagaTransaction saga(String sagaId, SagaTransaction.SagaStatus status) {
+        return SagaTransaction.builder()
+                .sagaId(sagaId)
+                .sagaType("test")
+                .status(status)
+                .payload(Map.of())
+                .totalSteps(1)
+                .stepResults(new ArrayList<>())
+                .build();
+    }
+
+    private static Map<String, Object> row(String sagaId) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("saga_id", sagaId);
+        row.put("saga_type", "test");
+        row.put("status", "IN_PROGRESS");
+        row.put("payload", "{}");
+        row.put("step_results", "[]");
+        row.put("current_step", 0);
+        row.put("total_steps", 1);
+        row.put("version", 3L);
+        return row;
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object value = row.get((String) args[0]);
+                    return switch (method.getName()) {
+                        case "getInt" -> value != null ? ((Number) value).intValue() : 0;
+                        case "getLong" -> value != null ? ((Number) value).longValue() : 0L;
+                        default -> value;
+                    };
+                });
+    }
+
+    /**
+     * Answers the repository's statements without a database. Sagas in
+     * {@code taken} have been taken over by another instance.
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        private final List<String> statements = new ArrayList<>();
+        private final Set<String> taken = new HashSet<>();
+        private final List<String> renewed = new ArrayList<>();
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(sql);
+            return 1;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            statements.add(sql);
+            List<T> result = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                if (sql.contains("saga_id = ?") && !row.get("saga_id").equals(args[0])) {
+                    continue;
+                }
+                try {
+                    result.add(rowMapper.mapRow(resultSet(row), result.size()));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            statements.add(sql);
+            List<T> kept = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                if (!taken.contains((String) args[i])) {
+                    renewed.add((String) args[i]);
+                    kept.add((T) args[i]);
+                }
+            }
+            return kept;
+        }
+    }
+}
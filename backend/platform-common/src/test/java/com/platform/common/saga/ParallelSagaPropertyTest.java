@@ -0,0 +1,234 @@
+package com.platform.common.saga;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterContainer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property tests for parallel execution of independent saga steps.
+ */
+class ParallelSagaPropertyTest {
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(4);
+
+    @AfterContainer
+    static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    // Every step runs exactly once, and a step after an independent group
+    // only starts once the whole group has finished
+    @Property(tries = 50)
+    void independentStepsShouldAllCompleteBeforeNextStep(
+            @ForAll @IntRange(min = 1, max = 6) int before,
+            @ForAll @IntRange(min = 2, max = 6) int independent,
+            @ForAll @IntRange(min = 1, max = 3) int after) {
+
+        List<String> executed = new CopyOnWriteArrayList<>();
+        List<SagaStep> steps = new ArrayList<>();
+        for (int i = 0; i < before; i++) {
+            steps.add(new RecordingStep("before" + i, false, false, executed, null));
+        }
+        for (int i = 0; i < independent; i++) {
+            steps.add(new RecordingStep("parallel" + i, true, false, executed, null));
+        }
+        for (int i = 0; i < after; i++) {
+            steps.add(new RecordingStep("after" + i, false, false, executed, null));
+        }
+
+        InMemorySagaRepository repository = new InMemorySagaRepository();
+        SagaTransaction saga = new SagaOrchestrator(repository, steps, "test", EXECUTOR)
+                .execute(Map.of("test", "data"), "user1");
+
+        assertThat(saga.getStatus()).isEqualTo(SagaTransaction.SagaStatus.COMPLETED);
+        assertThat(saga.getStepResults()).hasSize(steps.size());
+        assertThat(executed).hasSize(steps.size()).doesNotHaveDuplicates();
+        int firstAfter = executed.indexOf("after0");
+        for (int i = 0; i < independent; i++) {
+            assertThat(executed.indexOf("parallel" + i)).isLessThan(firstAfter);
+        }
+        assertThat(repository.versionOf(saga.getSagaId())).isEqualTo(saga.getVersion());
+    }
+
+    // A failing step in an independent group compensates every completed step,
+    // including its siblings that ran in parallel
+    @Property(tries = 50)
+    void failureInGroupShouldCompensateCompletedSiblings(
+            @ForAll @IntRange(min = 2, max = 6) int independent,
+            @ForAll @IntRange(min = 0, max = 5) int failing) {
+
+        int failAt = failing % independent;
+        List<String> executed = new CopyOnWriteArrayList<>();
+        Set<String> compensated = ConcurrentHashMap.newKeySet();
+        List<SagaStep> steps = new ArrayList<>();
+        steps.add(new RecordingStep("first", false, false, executed, compensated));
+        for (int i = 0; i < independent; i++) {
+            steps.add(new RecordingStep("parallel" + i, true, i == failAt, executed, compensated));
+        }
+
+        SagaTransaction saga = new SagaOrchestrator(new InMemorySagaRepository(), steps, "test", EXECUTOR)
+                .execute(Map.of(), "user1");
+
+        assertThat(saga.getStatus()).isEqualTo(SagaTransaction.SagaStatus.COMPENSATED);
+        Set<String> expected = new HashSet<>(executed);
+        expected.remove("parallel" + failAt);
+        assertThat(compensated).isEqualTo(expected);
+    }
+
+    // Each step of a parallel group sees its own step index
+    @Property(tries = 50)
+    void parallelStepsShouldEachSeeTheirOwnStepIndex(@ForAll @IntRange(min = 2, max = 8) int independent) {
+        Map<String, Integer> seen = new ConcurrentHashMap<>();
+        List<SagaStep> steps = new ArrayList<>();
+        steps.add(new IndexRecordingStep("first", false, seen));
+        for (int i = 0; i < independent; i++) {
+            steps.add(new IndexRecordingStep("parallel" + i, true, seen));
+        }
+
+        SagaTransaction saga = new SagaOrchestrator(new InMemorySagaRepository(), steps, "test", EXECUTOR)
+                .execute(Map.of(), "user1");
+
+        assertThat(saga.getStatus()).isEqualTo(SagaTransaction.SagaStatus.COMPLETED);
+        assertThat(seen).containsEntry("first", 0);
+        for (int i = 0; i < independent; i++) {
+            assertThat(seen).containsEntry("parallel" + i, i + 1);
+        }
+    }
+
+    private static class IndexRecordingStep implements SagaStep {
+        private final String name;
+        private final boolean independent;
+        private final Map<String, Integer> seen;
+
+        IndexRecordingStep(String name, boolean independent, Map<String, Integer> seen) {
+            this.name = name;
+            this.independent = independent;
+            this.seen = seen;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Map<String, Object> execute(SagaContext context) throws InterruptedException {
+            // Give siblings the chance to run in between
+            Thread.sleep(1);
+            seen.put(name, context.getCurrentStepIndex());
+            return Map.of("step", name);
+        }
+
+        @Override
+        public void compensate(SagaContext context) {
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return independent;
+        }
+    }
+
+    private static class RecordingStep implements SagaStep {
+        private final String name;
+        private final boolean independent;
+        private final boolean fail;
+        private final List<String> executed;
+        private final Set<String> compensated;
+
+        RecordingStep(String name, boolean independent, boolean fail, List<String> executed, Set<String> compensated) {
+            this.name = name;
+            this.independent = independent;
+            this.fail = fail;
+            this.executed = executed;
+            this.compensated = compensated;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Map<String, Object> execute(SagaContext context) {
+            executed.add(name);
+            if (fail) {
+                throw new IllegalStateException("Simulated failure in " + name);
+            }
+            return Map.of("step", name);
+        }
+
+        @Override
+        public void compensate(SagaContext context) {
+            compensated.add(name);
+        }
+
+        @Override
+        public boolean isRetryable() {
+            return false;
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return independent;
+        }
+    }
+
+    // Versioned in-memory repository that rejects stale saves like JdbcSagaRepository
+    private static class InMemorySagaRepository implements SagaRepository {
+        private final Map<String, Long> versions = new ConcurrentHashMap<>();
+        private final Map<String, SagaTransaction> storage = new ConcurrentHashMap<>();
+
+        @Override
+        public synchronized SagaTransaction save(SagaTransaction saga) {
+            Long stored = versions.get(saga.getSagaId());
+            if (stored != null) {
+                if (stored != saga.getVersion()) {
+                    throw new IllegalStateException("Version conflict on saga " + saga.getSagaId());
+                }
+                saga.setVersion(stored + 1);
+            }
+            versions.put(saga.getSagaId(), saga.getVersion());
+            storage.put(saga.getSagaId(), saga);
+            return saga;
+        }
+
+        long versionOf(String sagaId) {
+            return versions.get(sagaId);
+        }
+
+        @Override
+        public Optional<SagaTransaction> findById(String sagaId) {
+            return Optional.ofNullable(storage.get(sagaId));
+        }
+
+        @Override
+        public List<SagaTransaction> findByType(String sagaType) {
+            return storage.values().stream().filter(s -> sagaType.equals(s.getSagaType())).toList();
+        }
+
+        @Override
+        public List<SagaTransaction> findByStatus(SagaTransaction.SagaStatus status) {
+            return storage.values().stream().filter(s -> s.getStatus() == status).toList();
+        }
+
+        @Override
+        public List<SagaTransaction> findIncomplete() {
+            return storage.values().stream().filter(s -> !s.isTerminal()).toList();
+        }
+
+        @Override
+        public void deleteById(String sagaId) {
+            storage.remove(sagaId);
+            versions.remove(sagaId);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.platform.messaging.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.platform.messaging.consumer.ConsumerMetrics;
+import com.platform.messaging.deadletter.RetryTopicRelay;
+import com.platform.messaging.deadletter.TieredRetryRecoverer;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,8 +18,12 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.RetryListener;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.kafka.support.KafkaUtils;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -23,6 +32,7 @@ import java.util.Map;
  * Kafka configuration for the platform.
  * Validates: Requirements 6.1, 6.5, 6.6
  */
+@Slf4j
 @Configuration
 public class KafkaConfig {
     
@@ -32,12 +42,58 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:platform-group}")
     private String groupId;
     
-    @Bean
-    public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        return mapper;
-    }
+    // Producer throughput tuning: records are accumulated per partition for up to
+    // linger.ms (or until batch.size bytes) and compressed as a whole batch.
+    @Value("${platform.messaging.producer.batch-size:65536}")
+    private int producerBatchSize = 65536;
+    
+    @Value("${platform.messaging.producer.linger-ms:10}")
+    private int producerLingerMs = 10;
+    
+    @Value("${platform.messaging.producer.compression-type:lz4}")
+    private String producerCompressionType = "lz4";
+    
+    @Value("${platform.messaging.producer.buffer-memory:67108864}")
+    private long producerBufferMemory = 67108864L;
+    
+    @Value("${platform.messaging.consumer.concurrency:3}")
+    private int consumerConcurrency = 3;
+    
+    @Value("${platform.messaging.consumer.fetch-min-bytes:16384}")
+    private int consumerFetchMinBytes = 16384;
+    
+    @Value("${platform.messaging.consumer.fetch-max-wait-ms:100}")
+    private int consumerFetchMaxWaitMs = 100;
+    
+    // Upper bound of records handed to a batch listener per poll; processing a full
+    // batch must finish within max.poll.interval.ms.
+    @Value("${platform.messaging.consumer.max-poll-records:500}")
+    private int consumerMaxPollRecords = 500;
+    
+    @Value("${platform.messaging.consumer.max-poll-interval-ms:300000}")
+    private int consumerMaxPollIntervalMs = 300000;
+    
+    // Failed records are retried in place a few times, then moved through the
+    // retry topic tiers (non-blocking) and finally to the dead letter topic.
+    @Value("${platform.messaging.retry.blocking-attempts:2}")
+    private long retryBlockingAttempts = 2;
+    
+    @Value("${platform.messaging.retry.blocking-interval-ms:1000}")
+    private long retryBlockingIntervalMs = 1000;
+    
+    @Value("${platform.messaging.retry.delays-ms:5000,30000,300000}")
+    private long[] retryDelaysMs = {5000L, 30000L, 300000L};
+    
+    // Dead letters have nowhere else to go: a failing batch (e.g. the dead letter
+    // store is down) is retried with backoff until it succeeds, never skipped.
+    @Value("${platform.messaging.dead-letter.retry-initial-interval-ms:1000}")
+    private long deadLetterRetryInitialIntervalMs = 1000;
+    
+    @Value("${platform.messaging.dead-letter.retry-max-interval-ms:60000}")
+    private long deadLetterRetryMaxIntervalMs = 60000;
+    
+    @Autowired(required = false)
+    private ConsumerMetrics consumerMetrics;
     
     @Bean
     public ProducerFactory<String, String> producerFactory() {
@@ -48,6 +104,11 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, producerBufferMemory);
         return new DefaultKafkaProducerFactory<>(configProps);
     }
     
@@ -67,6 +128,10 @@ public class KafkaConfig {
         configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, StringDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, consumerFetchMinBytes);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, consumerFetchMaxWaitMs);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, consumerMaxPollRecords);
+        configProps.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, consumerMaxPollIntervalMs);
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
     
@@ -76,24 +141,94 @@ public class KafkaConfig {
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setRecordFilterStrategy(retryTargetFilter());
+        factory.setAckDiscarded(true);
+        factory.setCommonErrorHandler(errorHandler());
+        
+        return factory;
+    }
+    
+    /**
+     * Batch listener container factory for high-volume event consumers.
+     * Listeners receive the whole poll result (up to max-poll-records) as a list and
+     * offsets are committed once per batch; one consumer thread is started per
+     * partition up to the configured concurrency. Listeners that need more
+     * throughput per partition can fan out with KeyOrderedBatchProcessor.
+     * Consumer lag and batch processing time are recorded by ConsumerMetrics.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(consumerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        if (consumerMetrics != null) {
+            factory.setBatchInterceptor(consumerMetrics);
+        }
         
-        // Configure retry with exponential backoff
-        ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
-        backOff.setMaxElapsedTime(60000L); // Max 60 seconds
+        factory.setRecordFilterStrategy(retryTargetFilter());
+        factory.setAckDiscarded(true);
+        factory.setCommonErrorHandler(errorHandler());
         
+        return factory;
+    }
+    
+    /**
+     * Batch listener container factory for dead letter topics.
+     * A failed batch is retried without limit (the consumer is paused between
+     * attempts so the group does not rebalance) instead of being recovered, so
+     * a dead letter is only committed once it has been handled.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> deadLetterKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        
+        ExponentialBackOff backOff = new ExponentialBackOff(deadLetterRetryInitialIntervalMs, 2.0);
+        backOff.setMaxInterval(deadLetterRetryMaxIntervalMs);
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(
-                (record, exception) -> {
-                    // This is called when all retries are exhausted
-                    // Send to dead letter topic
-                },
-                backOff
-        );
-        errorHandler.setRetryListeners((record, ex, deliveryAttempt) -> {
-            // Log retry attempts
+                new TieredRetryRecoverer(kafkaTemplate(), retryDelaysMs), backOff);
+        errorHandler.setRetryListeners(new RetryListener() {
+            @Override
+            public void failedDelivery(ConsumerRecord<?, ?> record, Exception ex, int deliveryAttempt) {
+                log.error("Dead letter attempt {} failed for {}-{}@{}: {}", deliveryAttempt,
+                        record.topic(), record.partition(), record.offset(), ex.getMessage());
+            }
+            
+            @Override
+            public void failedDelivery(ConsumerRecords<?, ?> records, Exception ex, int deliveryAttempt) {
+                log.error("Dead letter batch of {} records failed (attempt {}), retrying: {}",
+                        records.count(), deliveryAttempt, ex.getMessage());
+            }
         });
-        
         factory.setCommonErrorHandler(errorHandler);
         
         return factory;
     }
+    
+    /**
+     * Error handler shared by the listener factories: short in-place retries, then
+     * the record is handed to the tiered retry topics or the dead letter topic.
+     */
+    private DefaultErrorHandler errorHandler() {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                new TieredRetryRecoverer(kafkaTemplate(), retryDelaysMs),
+                new FixedBackOff(retryBlockingIntervalMs, retryBlockingAttempts));
+        errorHandler.setRetryListeners((record, ex, deliveryAttempt) ->
+                log.warn("Delivery attempt {} failed for {}-{}@{}: {}", deliveryAttempt,
+                        record.topic(), record.partition(), record.offset(), ex.getMessage()));
+        return errorHandler;
+    }
+    
+    /**
+     * Skips records sent back from a retry topic for a different consumer group.
+     */
+    private RecordFilterStrategy<String, String> retryTargetFilter() {
+        return record -> RetryTopicRelay.isForOtherGroup(record, KafkaUtils.getConsumerGroupId());
+    }
 }
@@ -1,5 +1,8 @@
 package com.platform.messaging.config;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Kafka topic constants.
  */
@@ -12,14 +15,56 @@ public final class KafkaTopics {
     public static final String TASK_EVENTS = "platform.task.events";
     public static final String PERMISSION_EVENTS = "platform.permission.events";
     public static final String DEPLOYMENT_EVENTS = "platform.deployment.events";
+    public static final String WORKFLOW_EVENTS = "platform.workflow.events";
+    
+    // Prefix for custom workflow engine topics
+    public static final String WORKFLOW_TOPIC_PREFIX = "platform.workflow.";
+    
+    // Custom workflow engine topics, excluding their retry (.retry, .retry.<tier>)
+    // and dead letter (.dlt) topics which have their own consumers
+    public static final String WORKFLOW_TOPIC_PATTERN =
+            "platform\\.workflow\\.(?!.*\\.(dlt|retry(\\.[^.]+)?)$).+";
     
     // Dead letter topics
     public static final String PROCESS_EVENTS_DLT = "platform.process.events.dlt";
     public static final String TASK_EVENTS_DLT = "platform.task.events.dlt";
     public static final String PERMISSION_EVENTS_DLT = "platform.permission.events.dlt";
     public static final String DEPLOYMENT_EVENTS_DLT = "platform.deployment.events.dlt";
+    public static final String WORKFLOW_EVENTS_DLT = "platform.workflow.events.dlt";
     
-    // Retry topics
+    // Every dead letter topic (<source>.dlt, see deadLetterTopic), whichever listener it came from
+    public static final String DLT_TOPIC_PATTERN = ".+\\.dlt";
+    
+    // Retry topic base names; retry tier n is sent to <base>.<n> (see retryTopic)
     public static final String PROCESS_EVENTS_RETRY = "platform.process.events.retry";
     public static final String TASK_EVENTS_RETRY = "platform.task.events.retry";
+    
+    // Suffixes used to derive retry and dead letter topic names
+    public static final String RETRY_SUFFIX = ".retry";
+    public static final String DLT_SUFFIX = ".dlt";
+    
+    private static final Pattern RETRY_TOPIC = Pattern.compile("(.+)\\.retry(\\.\\d+)?");
+    
+    /**
+     * Topic of one retry tier (1-based). Each tier has its own topic so records
+     * waiting for a short delay never queue behind records waiting for a long one.
+     */
+    public static String retryTopic(String retryBase, int tier) {
+        return retryBase + "." + tier;
+    }
+    
+    /**
+     * Dead letter topic of a source or retry topic; always matches {@link #DLT_TOPIC_PATTERN}.
+     */
+    public static String deadLetterTopic(String topic) {
+        return sourceTopic(topic) + DLT_SUFFIX;
+    }
+    
+    /**
+     * Source topic of a retry topic (.retry or .retry.<tier>); other topics are returned unchanged.
+     */
+    public static String sourceTopic(String topic) {
+        Matcher matcher = RETRY_TOPIC.matcher(topic);
+        return matcher.matches() ? matcher.group(1) : topic;
+    }
 }
@@ -0,0 +1,156 @@
+package com.platform.messaging.consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch interceptor that records consumer lag per partition and processing time
+ * per batch for listeners created by the batch container factory.
+ *
+ * Lag is read from the consumer's last fetch response, so no extra broker
+ * round trip is made. Values are exposed as Micrometer meters when a
+ * MeterRegistry is available and through {@link #getStatistics()}.
+ */
+@Slf4j
+@Component
+public class ConsumerMetrics implements BatchInterceptor<String, String> {
+
+    private static final String LAG_METRIC = "platform.kafka.consumer.lag";
+    private static final String BATCH_TIME_METRIC = "platform.kafka.consumer.batch.duration";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicLong> partitionLag = new ConcurrentHashMap<>();
+    private final Map<String, Timer> batchTimers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> batchStart = new ThreadLocal<>();
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong recordCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+    private final AtomicLong totalBatchNanos = new AtomicLong();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+
+    public ConsumerMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @Override
+    public ConsumerRecords<String, String> intercept(ConsumerRecords<String, String> records,
+                                                     Consumer<String, String> consumer) {
+        batchStart.set(System.nanoTime());
+        recordCount.addAndGet(records.count());
+        recordLag(records, consumer);
+        return records;
+    }
+
+    @Override
+    public void success(ConsumerRecords<String, String> records, Consumer<String, String> consumer) {
+        recordBatchTime(consumer, true);
+    }
+
+    @Override
+    public void failure(ConsumerRecords<String, String> records, Exception exception,
+                        Consumer<String, String> consumer) {
+        failedBatchCount.incrementAndGet();
+        recordBatchTime(consumer, false);
+    }
+
+    /**
+     * Current lag of a partition for a consumer group, -1 if unknown.
+     */
+    public long getLag(String groupId, String topic, int partition) {
+        AtomicLong lag = partitionLag.get(lagKey(groupId, topic, partition));
+        return lag != null ? lag.get() : -1;
+    }
+
+    public Map<String, Object> getStatistics() {
+        long batches = batchCount.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("batches", batches);
+        stats.put("records", recordCount.get());
+        stats.put("failedBatches", failedBatchCount.get());
+        stats.put("avgBatchMillis", batches > 0 ? TimeUnit.NANOSECONDS.toMillis(totalBatchNanos.get() / batches) : 0);
+        stats.put("maxBatchMillis", TimeUnit.NANOSECONDS.toMillis(maxBatchNanos.get()));
+        stats.put("totalLag", partitionLag.values().stream().mapToLong(AtomicLong::get).sum());
+        return stats;
+    }
+
+    private void recordLag(ConsumerRecords<String, String> records, Consumer<String, String> consumer) {
+        String groupId = groupId(consumer);
+        for (TopicPartition partition : records.partitions()) {
+            try {
+                OptionalLong lag = consumer.currentLag(partition);
+                if (lag.isPresent()) {
+                    lagGauge(groupId, partition).set(lag.getAsLong());
+                }
+            } catch (Exception e) {
+                log.debug("Unable to read lag for {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private AtomicLong lagGauge(String groupId, TopicPartition partition) {
+        return partitionLag.computeIfAbsent(lagKey(groupId, partition.topic(), partition.partition()), key -> {
+            AtomicLong value = new AtomicLong();
+            if (meterRegistry != null) {
+                Gauge.builder(LAG_METRIC, value, AtomicLong::get)
+                        .description("Records behind the partition end offset")
+                        .tag("group", groupId)
+                        .tag("topic", partition.topic())
+                        .tag("partition", String.valueOf(partition.partition()))
+                        .register(meterRegistry);
+            }
+            return value;
+        });
+    }
+
+    private void recordBatchTime(Consumer<String, String> consumer, boolean success) {
+        Long start = batchStart.get();
+        batchStart.remove();
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        batchCount.incrementAndGet();
+        totalBatchNanos.addAndGet(elapsed);
+        maxBatchNanos.accumulateAndGet(elapsed, Math::max);
+
+        if (meterRegistry != null) {
+            String groupId = groupId(consumer);
+            String outcome = success ? "success" : "failure";
+            batchTimers.computeIfAbsent(groupId + ":" + outcome, key -> Timer.builder(BATCH_TIME_METRIC)
+                            .description("Time spent processing one polled batch")
+                            .tag("group", groupId)
+                            .tag("outcome", outcome)
+                            .register(meterRegistry))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String groupId(Consumer<String, String> consumer) {
+        try {
+            return consumer.groupMetadata().groupId();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    private static String lagKey(String groupId, String topic, int partition) {
+        return groupId + ":" + topic + "-" + partition;
+    }
+}
@@ -0,0 +1,166 @@
+package com.platform.messaging.consumer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes a polled batch in parallel while keeping records with the same key
+ * (within a partition) in offset order.
+ *
+ * Records are grouped by partition and key; groups run concurrently on a
+ * bounded pool and each group runs sequentially. Records without a key are
+ * ordered per partition. When a record fails, its group stops and a
+ * {@link BatchListenerFailedException} is thrown for the earliest failed record so
+ * the container commits everything before it and redelivers the rest. Records
+ * of other groups after that index may be processed again, so handlers must be
+ * idempotent.
+ *
+ * Listeners on the batch container factory opt in by delegating to
+ * {@link #process(List, RecordHandler)}.
+ */
+@Slf4j
+@Component
+public class KeyOrderedBatchProcessor {
+
+    /**
+     * Handles a single record.
+     */
+    @FunctionalInterface
+    public interface RecordHandler<K, V> {
+        void handle(ConsumerRecord<K, V> record) throws Exception;
+    }
+
+    private final int parallelism;
+    private final ThreadPoolExecutor executor;
+
+    public KeyOrderedBatchProcessor(
+            @Value("${platform.messaging.consumer.parallelism:8}") int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                this.parallelism, this.parallelism,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "kafka-keyed-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Process the batch, blocking until every key group has finished.
+     *
+     * @throws BatchListenerFailedException if any record failed
+     */
+    public <K, V> void process(List<ConsumerRecord<K, V>> records, RecordHandler<K, V> handler) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        Map<GroupKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<K, V> record = records.get(i);
+            groups.computeIfAbsent(new GroupKey(record.topic(), record.partition(), record.key()),
+                    k -> new ArrayList<>()).add(i);
+        }
+
+        List<Failure> failures;
+        if (parallelism == 1 || groups.size() == 1) {
+            failures = new ArrayList<>();
+            for (List<Integer> indexes : groups.values()) {
+                Failure failure = runGroup(records, indexes, handler);
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            }
+        } else {
+            failures = runParallel(records, groups.values(), handler);
+        }
+
+        if (!failures.isEmpty()) {
+            Failure first = failures.stream()
+                    .min((a, b) -> Integer.compare(a.index(), b.index()))
+                    .orElseThrow();
+            ConsumerRecord<K, V> record = records.get(first.index());
+            log.warn("Keyed batch processing failed at {}-{}@{} ({} failed groups): {}",
+                    record.topic(), record.partition(), record.offset(), failures.size(),
+                    first.cause().getMessage());
+            throw new BatchListenerFailedException(
+                    "Record processing failed: " + first.cause().getMessage(), first.cause(), record);
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <K, V> List<Failure> runParallel(List<ConsumerRecord<K, V>> records,
+                                             Iterable<List<Integer>> groups,
+                                             RecordHandler<K, V> handler) {
+        List<Future<Failure>> futures = new ArrayList<>();
+        for (List<Integer> indexes : groups) {
+            futures.add(executor.submit(() -> runGroup(records, indexes, handler)));
+        }
+
+        List<Failure> failures = new ArrayList<>();
+        for (Future<Failure> future : futures) {
+            try {
+                Failure failure = future.get();
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Interrupted while processing batch", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Unexpected batch worker failure", e.getCause());
+            }
+        }
+        return failures;
+    }
+
+    private <K, V> Failure runGroup(List<ConsumerRecord<K, V>> records, List<Integer> indexes,
+                                    RecordHandler<K, V> handler) {
+        for (int index : indexes) {
+            try {
+                handler.handle(records.get(index));
+            } catch (Exception e) {
+                return new Failure(index, e);
+            }
+        }
+        return null;
+    }
+
+    private record GroupKey(String topic, int partition, Object key) {
+    }
+
+    private record Failure(int index, Exception cause) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.platform.messaging.deadletter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter for querying and replaying stored dead letters.
+ * All fields are optional.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterQuery {
+
+    private String sourceTopic;
+
+    private DeadLetterRecord.Status status;
+
+    private String exceptionClass;
+
+    private LocalDateTime failedFrom;
+
+    private LocalDateTime failedTo;
+}
@@ -0,0 +1,65 @@
+package com.platform.messaging.deadletter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A stored dead letter record.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterRecord {
+
+    public enum Status {
+        NEW, REPLAYED, DISCARDED
+    }
+
+    private Long id;
+
+    /**
+     * Topic the record originally failed on
+     */
+    private String sourceTopic;
+
+    private Integer sourcePartition;
+
+    private Long sourceOffset;
+
+    private String dltTopic;
+
+    private int dltPartition;
+
+    private long dltOffset;
+
+    private String recordKey;
+
+    private String payload;
+
+    private Map<String, String> headers;
+
+    private String exceptionClass;
+
+    private String exceptionMessage;
+
+    private String stackTrace;
+
+    /**
+     * Number of retry tiers the record went through before landing in the DLT
+     */
+    private int retryAttempts;
+
+    private Status status;
+
+    private int replayCount;
+
+    private LocalDateTime failedAt;
+
+    private LocalDateTime replayedAt;
+}
@@ -0,0 +1,167 @@
+package com.platform.messaging.deadletter;
+
+import com.platform.messaging.config.KafkaTopics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays stored dead letters back to their source topic.
+ *
+ * Records are read in chunks with keyset pagination and sent at no more than
+ * the requested rate, so a bulk replay cannot flood consumers that just
+ * recovered. Each chunk is marked REPLAYED only after Kafka acknowledged it.
+ * Replayed records are addressed to the consumer group that failed them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "platform.messaging.dead-letter.store-enabled", havingValue = "true")
+public class DeadLetterReplayService {
+
+    public static final String REPLAYED_FROM_HEADER = "platform-replayed-from";
+
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final DeadLetterStore deadLetterStore;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${platform.messaging.dead-letter.replay-chunk-size:200}")
+    private int chunkSize = 200;
+
+    @Value("${platform.messaging.dead-letter.replay-rate-per-second:100}")
+    private int defaultRatePerSecond = 100;
+
+    /**
+     * Replay a single stored record.
+     */
+    public boolean replay(long id) {
+        return deadLetterStore.findById(id)
+                .map(record -> {
+                    sendChunk(List.of(record));
+                    deadLetterStore.markReplayed(List.of(record.getId()));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Replay every NEW record matching the query at the default rate.
+     */
+    public long replayAll(DeadLetterQuery query, long maxRecords) {
+        return replayAll(query, maxRecords, defaultRatePerSecond);
+    }
+
+    /**
+     * Replay every NEW record matching the query.
+     *
+     * @param maxRecords    upper bound of records to replay in this call
+     * @param ratePerSecond maximum records sent per second
+     * @return number of replayed records
+     */
+    public long replayAll(DeadLetterQuery query, long maxRecords, int ratePerSecond) {
+        DeadLetterQuery filter = DeadLetterQuery.builder()
+                .sourceTopic(query != null ? query.getSourceTopic() : null)
+                .exceptionClass(query != null ? query.getExceptionClass() : null)
+                .failedFrom(query != null ? query.getFailedFrom() : null)
+                .failedTo(query != null ? query.getFailedTo() : null)
+                .status(DeadLetterRecord.Status.NEW)
+                .build();
+        long nanosPerRecord = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        int chunkLimit = Math.max(1, Math.min(chunkSize, ratePerSecond));
+
+        long replayed = 0;
+        LocalDateTime afterFailedAt = null;
+        long afterId = 0;
+        long started = System.nanoTime();
+
+        while (replayed < maxRecords) {
+            int limit = (int) Math.min(chunkLimit, maxRecords - replayed);
+            List<DeadLetterRecord> chunk = deadLetterStore.findAfter(filter, afterFailedAt, afterId, limit);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            sendChunk(chunk);
+            List<Long> ids = new ArrayList<>(chunk.size());
+            chunk.forEach(record -> ids.add(record.getId()));
+            deadLetterStore.markReplayed(ids);
+            replayed += chunk.size();
+
+            DeadLetterRecord last = chunk.get(chunk.size() - 1);
+            afterFailedAt = last.getFailedAt();
+            afterId = last.getId();
+
+            if (!throttle(started, replayed, nanosPerRecord)) {
+                break;
+            }
+        }
+
+        log.info("Replayed {} dead letter records (topic={}, rate={}/s)",
+                replayed, filter.getSourceTopic(), ratePerSecond);
+        return replayed;
+    }
+
+    private void sendChunk(List<DeadLetterRecord> records) {
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(records.size());
+        for (DeadLetterRecord record : records) {
+            ProducerRecord<String, String> producerRecord = new ProducerRecord<>(
+                    replayTopic(record), null, record.getRecordKey(), record.getPayload());
+            producerRecord.headers().add(REPLAYED_FROM_HEADER,
+                    String.valueOf(record.getId()).getBytes(StandardCharsets.UTF_8));
+            // Only the consumer group that failed the record should process it again
+            String group = record.getHeaders() != null
+                    ? record.getHeaders().get(KafkaHeaders.DLT_ORIGINAL_CONSUMER_GROUP) : null;
+            if (group != null) {
+                producerRecord.headers().add(TieredRetryRecoverer.TARGET_GROUP_HEADER,
+                        group.getBytes(StandardCharsets.UTF_8));
+            }
+            futures.add(kafkaTemplate.send(producerRecord));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying dead letters", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to replay dead letters: " + e.getMessage(), e);
+        }
+    }
+
+    private String replayTopic(DeadLetterRecord record) {
+        return KafkaTopics.sourceTopic(record.getSourceTopic());
+    }
+
+    /**
+     * Sleep until the replay is back under the requested rate.
+     *
+     * @return false if the thread was interrupted
+     */
+    private boolean throttle(long started, long sent, long nanosPerRecord) {
+        long ahead = started + sent * nanosPerRecord - System.nanoTime();
+        if (ahead <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ahead);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.platform.messaging.deadletter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.common.dto.PageRequest;
+import com.platform.common.dto.PageResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * JDBC store for dead letter records.
+ *
+ * Records are written in bulk to sys_dead_letter, which is range partitioned by
+ * failed_at so old months can be detached or dropped cheaply. Inserts are
+ * idempotent on the DLT coordinates, so a redelivered DLT batch is stored once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "platform.messaging.dead-letter.store-enabled", havingValue = "true")
+public class DeadLetterStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO sys_dead_letter (source_topic, source_partition, source_offset, dlt_topic, dlt_partition, " +
+            "dlt_offset, record_key, payload, headers, exception_class, exception_message, stack_trace, " +
+            "retry_attempts, status, replay_count, failed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS JSONB), ?, ?, ?, ?, 'NEW', 0, ?) " +
+            "ON CONFLICT (dlt_topic, dlt_partition, dlt_offset, failed_at) DO NOTHING";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, source_topic, source_partition, source_offset, dlt_topic, dlt_partition, dlt_offset, " +
+            "record_key, payload, headers, exception_class, exception_message, stack_trace, retry_attempts, " +
+            "status, replay_count, failed_at, replayed_at FROM sys_dead_letter";
+
+    private static final Set<String> INT_HEADERS = Set.of(
+            KafkaHeaders.DLT_ORIGINAL_PARTITION, TieredRetryRecoverer.ATTEMPT_HEADER);
+    private static final Set<String> LONG_HEADERS = Set.of(
+            KafkaHeaders.DLT_ORIGINAL_OFFSET, KafkaHeaders.DLT_ORIGINAL_TIMESTAMP, TieredRetryRecoverer.DUE_AT_HEADER);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Store a batch of records consumed from dead letter topics.
+     *
+     * @return number of newly stored records
+     */
+    public int saveAll(List<ConsumerRecord<String, String>> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            batch.add(toRow(record));
+        }
+        int[] results = jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        int stored = 0;
+        for (int result : results) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            if (result != 0) {
+                stored++;
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Query stored records, newest first.
+     */
+    public PageResponse<DeadLetterRecord> findPage(DeadLetterQuery query, PageRequest pageRequest) {
+        List<Object> params = new ArrayList<>();
+        String where = where(query, params);
+
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sys_dead_letter" + where, Long.class, params.toArray());
+        if (total == null || total == 0) {
+            return PageResponse.empty(pageRequest.getPage(), pageRequest.getSize());
+        }
+
+        List<Object> pageParams = new ArrayList<>(params);
+        pageParams.add(pageRequest.getSize());
+        pageParams.add(pageRequest.getOffset());
+        List<DeadLetterRecord> content = jdbcTemplate.query(
+                SELECT_COLUMNS + where + " ORDER BY failed_at DESC, id DESC LIMIT ? OFFSET ?",
+                rowMapper(), pageParams.toArray());
+        return PageResponse.of(content, pageRequest.getPage(), pageRequest.getSize(), total);
+    }
+
+    /**
+     * Next chunk of records after the given position, oldest first. Used to walk
+     * large result sets for replay without OFFSET scans.
+     */
+    public List<DeadLetterRecord> findAfter(DeadLetterQuery query, LocalDateTime afterFailedAt, long afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        String where = where(query, params);
+        if (afterFailedAt != null) {
+            where += (where.isEmpty() ? " WHERE " : " AND ") + "(failed_at, id) > (?, ?)";
+            params.add(Timestamp.valueOf(afterFailedAt));
+            params.add(afterId);
+        }
+        params.add(limit);
+        return jdbcTemplate.query(SELECT_COLUMNS + where + " ORDER BY failed_at, id LIMIT ?",
+                rowMapper(), params.toArray());
+    }
+
+    public Optional<DeadLetterRecord> findById(long id) {
+        return jdbcTemplate.query(SELECT_COLUMNS + " WHERE id = ?", rowMapper(), id).stream().findFirst();
+    }
+
+    public void markReplayed(List<Long> ids) {
+        updateStatus(ids, DeadLetterRecord.Status.REPLAYED,
+                "UPDATE sys_dead_letter SET status = ?, replay_count = replay_count + 1, replayed_at = ? WHERE id = ?");
+    }
+
+    public void markDiscarded(List<Long> ids) {
+        updateStatus(ids, DeadLetterRecord.Status.DISCARDED,
+                "UPDATE sys_dead_letter SET status = ?, replayed_at = ? WHERE id = ?");
+    }
+
+    private void updateStatus(List<Long> ids, DeadLetterRecord.Status status, String sql) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            batch.add(new Object[]{status.name(), now, id});
+        }
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    private String where(DeadLetterQuery query, List<Object> params) {
+        if (query == null) {
+            return "";
+        }
+        List<String> conditions = new ArrayList<>();
+        if (query.getSourceTopic() != null) {
+            conditions.add("source_topic = ?");
+            params.add(query.getSourceTopic());
+        }
+        if (query.getStatus() != null) {
+            conditions.add("status = ?");
+            params.add(query.getStatus().name());
+        }
+        if (query.getExceptionClass() != null) {
+            conditions.add("exception_class = ?");
+            params.add(query.getExceptionClass());
+        }
+        // Range conditions on failed_at let PostgreSQL prune partitions
+        if (query.getFailedFrom() != null) {
+            conditions.add("failed_at >= ?");
+            params.add(Timestamp.valueOf(query.getFailedFrom()));
+        }
+        if (query.getFailedTo() != null) {
+            conditions.add("failed_at < ?");
+            params.add(Timestamp.valueOf(query.getFailedTo()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private Object[] toRow(ConsumerRecord<String, String> record) {
+        Headers headers = record.headers();
+        String sourceTopic = header(headers, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        Header partition = headers.lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION);
+        Header offset = headers.lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET);
+
+        return new Object[]{
+                sourceTopic != null ? sourceTopic : record.topic(),
+                partition != null ? ByteBuffer.wrap(partition.value()).getInt() : null,
+                offset != null ? ByteBuffer.wrap(offset.value()).getLong() : null,
+                record.topic(),
+                record.partition(),
+                record.offset(),
+                record.key(),
+                record.value(),
+                headersJson(headers),
+                header(headers, KafkaHeaders.DLT_EXCEPTION_FQCN),
+                header(headers, KafkaHeaders.DLT_EXCEPTION_MESSAGE),
+                header(headers, KafkaHeaders.DLT_EXCEPTION_STACKTRACE),
+                TieredRetryRecoverer.intHeader(headers, TieredRetryRecoverer.ATTEMPT_HEADER),
+                Timestamp.from(Instant.ofEpochMilli(record.timestamp()))
+        };
+    }
+
+    private String headersJson(Headers headers) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Header header : headers) {
+            if (header.value() == null || KafkaHeaders.DLT_EXCEPTION_STACKTRACE.equals(header.key())) {
+                continue;
+            }
+            values.put(header.key(), decode(header));
+        }
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize dead letter headers: {}", e.getMessage());
+            return "{}";
+        }
+    }
+
+    private String decode(Header header) {
+        byte[] value = header.value();
+        if (INT_HEADERS.contains(header.key()) && value.length == Integer.BYTES) {
+            return String.valueOf(ByteBuffer.wrap(value).getInt());
+        }
+        if (LONG_HEADERS.contains(header.key()) && value.length == Long.BYTES) {
+            return String.valueOf(ByteBuffer.wrap(value).getLong());
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private String header(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private RowMapper<DeadLetterRecord> rowMapper() {
+        return (rs, rowNum) -> {
+            Map<String, String> headers = Map.of();
+            String headersJson = rs.getString("headers");
+            if (headersJson != null) {
+                try {
+                    headers = objectMapper.readValue(headersJson, new TypeReference<>() {});
+                } catch (JsonProcessingException e) {
+                    log.warn("Invalid headers on dead letter {}: {}", rs.getLong("id"), e.getMessage());
+                }
+            }
+            Timestamp replayedAt = rs.getTimestamp("replayed_at");
+            return DeadLetterRecord.builder()
+                    .id(rs.getLong("id"))
+                    .sourceTopic(rs.getString("source_topic"))
+                    .sourcePartition(rs.getObject("source_partition", Integer.class))
+                    .sourceOffset(rs.getObject("source_offset", Long.class))
+                    .dltTopic(rs.getString("dlt_topic"))
+                    .dltPartition(rs.getInt("dlt_partition"))
+                    .dltOffset(rs.getLong("dlt_offset"))
+                    .recordKey(rs.getString("record_key"))
+                    .payload(rs.getString("payload"))
+                    .headers(headers)
+                    .exceptionClass(rs.getString("exception_class"))
+                    .exceptionMessage(rs.getString("exception_message"))
+                    .stackTrace(rs.getString("stack_trace"))
+                    .retryAttempts(rs.getInt("retry_attempts"))
+                    .status(DeadLetterRecord.Status.valueOf(rs.getString("status")))
+                    .replayCount(rs.getInt("replay_count"))
+                    .failedAt(rs.getTimestamp("failed_at").toLocalDateTime())
+                    .replayedAt(replayedAt != null ? replayedAt.toLocalDateTime() : null)
+                    .build();
+        };
+    }
+}
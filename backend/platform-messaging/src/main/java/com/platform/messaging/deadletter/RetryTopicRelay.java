@@ -0,0 +1,108 @@
+package com.platform.messaging.deadletter;
+
+import com.platform.messaging.config.KafkaTopics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends records from the retry topics back to their source topic once their
+ * retry delay has elapsed.
+ *
+ * There is one retry topic per source topic and tier, so records in a partition
+ * share the same delay and become due in order. A record that is not yet due is
+ * negatively acknowledged with the remaining delay, which pauses only that
+ * retry partition. Re-sent records are addressed to
+ * the consumer group that failed them; other groups skip them (see
+ * {@link #isForOtherGroup(ConsumerRecord, String)}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryTopicRelay {
+
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${platform.messaging.retry.max-pause-ms:30000}")
+    private long maxPauseMs = 30000;
+
+    @Value("${platform.messaging.retry.delays-ms:5000,30000,300000}")
+    private long[] retryDelaysMs = {5000L, 30000L, 300000L};
+
+    @KafkaListener(
+            topics = "#{__listener.retryTopics}",
+            groupId = "platform-retry-relay"
+    )
+    public void relay(ConsumerRecord<String, String> record, Acknowledgment ack) throws Exception {
+        long remaining = TieredRetryRecoverer.longHeader(record.headers(), TieredRetryRecoverer.DUE_AT_HEADER)
+                - System.currentTimeMillis();
+        if (remaining > 0) {
+            ack.nack(Duration.ofMillis(Math.min(remaining, maxPauseMs)));
+            return;
+        }
+
+        String originalTopic = TieredRetryRecoverer.stringHeader(record.headers(), TieredRetryRecoverer.ORIGINAL_TOPIC_HEADER);
+        if (originalTopic == null) {
+            log.error("Retry record {}-{}@{} has no original topic, dropping",
+                    record.topic(), record.partition(), record.offset());
+            ack.acknowledge();
+            return;
+        }
+
+        ProducerRecord<String, String> retried = new ProducerRecord<>(originalTopic, null, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().equals(TieredRetryRecoverer.DUE_AT_HEADER)
+                    && !header.key().equals(TieredRetryRecoverer.GROUP_HEADER)) {
+                retried.headers().add(header);
+            }
+        }
+        String groupId = TieredRetryRecoverer.stringHeader(record.headers(), TieredRetryRecoverer.GROUP_HEADER);
+        if (groupId != null) {
+            retried.headers().add(TieredRetryRecoverer.TARGET_GROUP_HEADER, groupId.getBytes(StandardCharsets.UTF_8));
+        }
+
+        kafkaTemplate.send(retried).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        ack.acknowledge();
+        log.debug("Retry record {}-{}@{} sent back to {}", record.topic(), record.partition(), record.offset(), originalTopic);
+    }
+
+    /**
+     * Retry topics of every tier for each source topic with retries.
+     */
+    public String[] getRetryTopics() {
+        List<String> topics = new ArrayList<>();
+        for (String retryBase : TieredRetryRecoverer.RETRY_TOPICS.values()) {
+            for (int tier = 1; tier <= retryDelaysMs.length; tier++) {
+                topics.add(KafkaTopics.retryTopic(retryBase, tier));
+            }
+        }
+        return topics.toArray(new String[0]);
+    }
+
+    /**
+     * Whether a record re-sent from a retry topic is meant for another consumer group.
+     * Dead letter topics are never filtered so the dead letter store sees every record.
+     */
+    public static boolean isForOtherGroup(ConsumerRecord<?, ?> record, String groupId) {
+        if (record.topic().endsWith(KafkaTopics.DLT_SUFFIX)) {
+            return false;
+        }
+        String target = TieredRetryRecoverer.stringHeader(record.headers(), TieredRetryRecoverer.TARGET_GROUP_HEADER);
+        return target != null && groupId != null && !target.equals(groupId);
+    }
+}
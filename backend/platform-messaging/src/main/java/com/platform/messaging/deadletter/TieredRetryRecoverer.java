@@ -0,0 +1,172 @@
+package com.platform.messaging.deadletter;
+
+import com.platform.messaging.config.KafkaTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.KafkaUtils;
+import org.springframework.kafka.support.converter.ConversionException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recoverer for records that exhausted their in-place retries.
+ *
+ * Records from a topic with retry topics are moved to the topic of the next tier
+ * with that tier's delay (non-blocking: the source partition keeps flowing while
+ * the record waits). Every tier has its own topic, so a record waiting 5 seconds
+ * never sits behind one waiting 5 minutes. RetryTopicRelay sends them back to the
+ * source topic once due, addressed to the consumer group that failed. After the
+ * last tier, or for records that can never succeed, the record is published to
+ * the dead letter topic with the exception details in headers.
+ *
+ * Records from a dead letter topic are never dropped here: the exception is
+ * rethrown so the container retries them (the dead letter listener factory does
+ * so without limit).
+ */
+@Slf4j
+public class TieredRetryRecoverer implements ConsumerRecordRecoverer {
+
+    public static final String ATTEMPT_HEADER = "platform-retry-attempt";
+    public static final String DUE_AT_HEADER = "platform-retry-due-at";
+    public static final String ORIGINAL_TOPIC_HEADER = "platform-retry-original-topic";
+    public static final String GROUP_HEADER = "platform-retry-group";
+    public static final String TARGET_GROUP_HEADER = "platform-retry-target-group";
+    public static final String EXCEPTION_HEADER = "platform-retry-exception";
+
+    /** Source topic to retry topic base name */
+    public static final Map<String, String> RETRY_TOPICS = Map.of(
+            KafkaTopics.PROCESS_EVENTS, KafkaTopics.PROCESS_EVENTS_RETRY,
+            KafkaTopics.TASK_EVENTS, KafkaTopics.TASK_EVENTS_RETRY);
+
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final KafkaOperations<String, String> kafkaTemplate;
+    private final long[] delaysMs;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+
+    public TieredRetryRecoverer(KafkaOperations<String, String> kafkaTemplate, long[] delaysMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.delaysMs = delaysMs.clone();
+        this.deadLetterRecoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, ex) -> new TopicPartition(deadLetterTopic(record), -1));
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        if (record.topic().endsWith(KafkaTopics.DLT_SUFFIX)) {
+            // Never dead-letter or drop a dead letter; rethrow so the record is polled again
+            throw new IllegalStateException("Failed to handle dead letter record " + record.topic() + "-"
+                    + record.partition() + "@" + record.offset() + ": " + exception.getMessage(), exception);
+        }
+
+        int attempt = intHeader(record.headers(), ATTEMPT_HEADER);
+        String retryBase = retryBase(record);
+        if (retryBase != null && attempt < delaysMs.length && !isFatal(exception)) {
+            sendToRetry(record, KafkaTopics.retryTopic(retryBase, attempt + 1), attempt, exception);
+            return;
+        }
+
+        log.warn("Moving record {}-{}@{} to dead letter topic after {} retry tiers: {}",
+                record.topic(), record.partition(), record.offset(), attempt, exception.getMessage());
+        deadLetterRecoverer.accept(record, exception);
+    }
+
+    /**
+     * Dead letter topic of a source or retry topic.
+     */
+    public static String deadLetterTopic(ConsumerRecord<?, ?> record) {
+        return KafkaTopics.deadLetterTopic(record.topic());
+    }
+
+    static int intHeader(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        if (header == null || header.value() == null || header.value().length != Integer.BYTES) {
+            return 0;
+        }
+        return ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    static long longHeader(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return 0L;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    static String stringHeader(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private String retryBase(ConsumerRecord<?, ?> record) {
+        String original = stringHeader(record.headers(), ORIGINAL_TOPIC_HEADER);
+        return RETRY_TOPICS.get(original != null ? original : record.topic());
+    }
+
+    private void sendToRetry(ConsumerRecord<?, ?> record, String retryTopic, int attempt, Exception exception) {
+        String originalTopic = stringHeader(record.headers(), ORIGINAL_TOPIC_HEADER);
+        long dueAt = System.currentTimeMillis() + delaysMs[attempt];
+
+        ProducerRecord<String, String> retryRecord = new ProducerRecord<>(retryTopic, null,
+                asString(record.key()), asString(record.value()));
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith("platform-retry-")) {
+                retryRecord.headers().add(header);
+            }
+        }
+        retryRecord.headers()
+                .add(ATTEMPT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(attempt + 1).array())
+                .add(DUE_AT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(dueAt).array())
+                .add(ORIGINAL_TOPIC_HEADER, bytes(originalTopic != null ? originalTopic : record.topic()))
+                .add(EXCEPTION_HEADER, bytes(String.valueOf(exception.getMessage())));
+        String groupId = KafkaUtils.getConsumerGroupId();
+        if (groupId != null) {
+            retryRecord.headers().add(GROUP_HEADER, bytes(groupId));
+        }
+
+        try {
+            // Block so that a failed hand-off is retried by the error handler instead of losing the record
+            kafkaTemplate.send(retryRecord).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending record to " + retryTopic, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to send record to " + retryTopic + ": " + e.getMessage(), e);
+        }
+        log.info("Record {}-{}@{} scheduled for retry {} of {} in {} ms",
+                record.topic(), record.partition(), record.offset(), attempt + 1, delaysMs.length, delaysMs[attempt]);
+    }
+
+    private boolean isFatal(Throwable exception) {
+        Throwable cause = exception;
+        while (cause != null) {
+            if (cause instanceof DeserializationException
+                    || cause instanceof ConversionException
+                    || cause instanceof ClassCastException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
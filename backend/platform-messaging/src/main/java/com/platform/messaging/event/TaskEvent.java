@@ -48,6 +48,7 @@ public class TaskEvent extends BaseEvent {
         CLAIMED,
         UNCLAIMED,
         DUE_DATE_CHANGED,
-        PRIORITY_CHANGED
+        PRIORITY_CHANGED,
+        OVERDUE
     }
 }
@@ -0,0 +1,37 @@
+package com.platform.messaging.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.Map;
+
+/**
+ * Generic workflow engine event that is not a process or task state change
+ * (session, notification and custom engine events).
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class WorkflowEngineEvent extends BaseEvent {
+    
+    public static final String TOPIC = "platform.workflow.events";
+    
+    /**
+     * Topic override; events without one go to {@link #TOPIC}.
+     */
+    private String targetTopic;
+    private String partitionKey;
+    private String sourceId;
+    private String sourceType;
+    private Map<String, Object> payload;
+    
+    @Override
+    public String getTopic() {
+        return targetTopic != null ? targetTopic : TOPIC;
+    }
+}
@@ -1,59 +1,55 @@
 package com.platform.messaging.handler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.platform.messaging.config.KafkaTopics;
+import com.platform.messaging.deadletter.DeadLetterStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Handler for dead letter queue messages.
+ * Subscribes to every dead letter topic by pattern, so dead letters of any
+ * listener topic are picked up, including topics created after startup.
+ * Dead letters are consumed in batches and stored through DeadLetterStore for
+ * querying and replay; without a store they are only logged.
  * Validates: Requirements 6.6
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DeadLetterHandler {
-    
-    private final ObjectMapper objectMapper;
-    
+
+    private final ObjectProvider<DeadLetterStore> deadLetterStore;
+
     @KafkaListener(
-            topics = {
-                    KafkaTopics.PROCESS_EVENTS_DLT,
-                    KafkaTopics.TASK_EVENTS_DLT,
-                    KafkaTopics.PERMISSION_EVENTS_DLT,
-                    KafkaTopics.DEPLOYMENT_EVENTS_DLT
-            },
-            groupId = "platform-dlt-handler"
+            topicPattern = KafkaTopics.DLT_TOPIC_PATTERN,
+            groupId = "platform-dlt-handler",
+            containerFactory = "deadLetterKafkaListenerContainerFactory"
     )
-    public void handleDeadLetter(ConsumerRecord<String, String> record, Acknowledgment ack) {
-        log.error("Received dead letter message from topic {}: key={}, value={}",
-                record.topic(), record.key(), record.value());
-        
-        try {
-            // Log the failed message for manual investigation
-            logFailedMessage(record);
-            
-            // Acknowledge the message to prevent reprocessing
-            ack.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Error handling dead letter message: {}", e.getMessage(), e);
-            // Still acknowledge to prevent infinite loop
-            ack.acknowledge();
+    public void handleDeadLetters(List<ConsumerRecord<String, String>> records) {
+        DeadLetterStore store = deadLetterStore.getIfAvailable();
+        if (store == null) {
+            records.forEach(this::logFailedMessage);
+            return;
         }
+
+        // A store failure is thrown; the dead letter container retries the batch until it is stored
+        int stored = store.saveAll(records);
+        log.warn("Stored {} dead letter messages ({} received)", stored, records.size());
     }
-    
+
     private void logFailedMessage(ConsumerRecord<String, String> record) {
-        // In production, this would store the message in a database
-        // for manual review and potential reprocessing
-        log.warn("Dead letter message details: topic={}, partition={}, offset={}, timestamp={}",
+        log.error("Dead letter message details: topic={}, partition={}, offset={}, timestamp={}, key={}, value={}",
                 record.topic(),
                 record.partition(),
                 record.offset(),
-                record.timestamp());
+                record.timestamp(),
+                record.key(),
+                record.value());
     }
 }
@@ -0,0 +1,250 @@
+package com.platform.messaging.outbox;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards rows from sys_event_outbox to Kafka.
+ *
+ * Only one relay in the cluster works at a time (transaction-scoped advisory lock).
+ * Rows are deleted in the same transaction after Kafka acknowledges the batch; on
+ * failure the transaction rolls back and the batch is retried. Each record carries
+ * an {@value #EVENT_ID_HEADER} header so consumers can drop the rare duplicate after
+ * a relay crash.
+ *
+ * Ordering: ids are allocated at insert time, not at commit time, so a transaction
+ * holding id 10 may commit after id 11 has become visible. The relay therefore works
+ * in barriers. It reads the last allocated id from the sequence, then the next
+ * transaction id the database will hand out. Once every transaction below that
+ * horizon has finished, no row with an id up to the barrier can still appear, and
+ * those rows are sent in id order. {@link com.platform.messaging.service.impl.OutboxEventPublisher}
+ * makes sure the writing transaction has a transaction id before it takes an outbox id.
+ * The price is that a barrier waits for every writing transaction that was open when
+ * it was taken, including ones that never touch the outbox. The sequence must keep
+ * the default CACHE 1 so ids are handed out in the order they are read here.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "platform.messaging.outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    public static final String EVENT_ID_HEADER = "event-id";
+
+    private static final long RELAY_LOCK_ID = 0x6f7574626f78L;
+
+    private static final String SELECT_SQL =
+            "SELECT id, event_id, topic, event_key, payload FROM sys_event_outbox " +
+            "WHERE id <= ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String LAST_ID_SQL =
+            "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM sys_event_outbox_id_seq";
+
+    /** First transaction id not yet handed out; every writer that took an id so far is below it */
+    private static final String HORIZON_SQL = "SELECT txid_snapshot_xmax(txid_current_snapshot())";
+
+    /** Oldest transaction id still running */
+    private static final String FENCE_SQL = "SELECT txid_snapshot_xmin(txid_current_snapshot())";
+
+    private static final String DELETE_SQL = "DELETE FROM sys_event_outbox WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${platform.messaging.outbox.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${platform.messaging.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs = 1000;
+
+    @Value("${platform.messaging.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs = 30000;
+
+    private final Semaphore wakeUpSignal = new Semaphore(0);
+    private final AtomicLong relayedCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+
+    private ExecutorService relayExecutor;
+    private volatile boolean running;
+    private volatile Barrier barrier;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       KafkaTemplate<String, String> kafkaTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        relayExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relayExecutor.submit(this::relayLoop);
+        log.info("Outbox relay started: batchSize={}, pollIntervalMs={}", batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        wakeUp();
+        if (relayExecutor != null) {
+            relayExecutor.shutdown();
+            try {
+                if (!relayExecutor.awaitTermination(sendTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    relayExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                relayExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Outbox relay stopped, relayed {} events", relayedCount.get());
+    }
+
+    /**
+     * Signal that new rows were committed to the outbox.
+     */
+    public void wakeUp() {
+        if (wakeUpSignal.availablePermits() == 0) {
+            wakeUpSignal.release();
+        }
+    }
+
+    /**
+     * Relay one batch of outbox rows.
+     *
+     * @return number of events sent, 0 if the outbox is empty, another relay holds the lock
+     *         or writers below the current barrier are still running
+     */
+    public int relayBatch() {
+        Integer sent = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_ID);
+            if (!Boolean.TRUE.equals(locked)) {
+                return 0;
+            }
+
+            Barrier current = barrier != null ? barrier : takeBarrier();
+            barrier = current;
+            Long fence = jdbcTemplate.queryForObject(FENCE_SQL, Long.class);
+            if (fence == null || fence < current.horizon()) {
+                return 0;
+            }
+
+            List<OutboxRow> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new OutboxRow(
+                    rs.getLong("id"),
+                    rs.getString("event_id"),
+                    rs.getString("topic"),
+                    rs.getString("event_key"),
+                    rs.getString("payload")), current.lastId(), batchSize);
+            if (rows.size() < batchSize) {
+                // Everything up to the barrier is in this batch; the next call takes a new one.
+                // Dropping the barrier early is safe: a later barrier covers all earlier ids.
+                barrier = null;
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            sendAll(rows);
+
+            List<Object[]> ids = new ArrayList<>(rows.size());
+            for (OutboxRow row : rows) {
+                ids.add(new Object[]{row.id()});
+            }
+            jdbcTemplate.batchUpdate(DELETE_SQL, ids);
+            return rows.size();
+        });
+        int count = sent != null ? sent : 0;
+        relayedCount.addAndGet(count);
+        return count;
+    }
+
+    public Map<String, Long> getStatistics() {
+        return Map.of(
+                "relayed", relayedCount.get(),
+                "failedBatches", failedBatchCount.get());
+    }
+
+    /**
+     * The horizon is read in a later statement than the last id, so every transaction
+     * that took an id up to the barrier already had a transaction id below the horizon.
+     */
+    private Barrier takeBarrier() {
+        Long lastId = jdbcTemplate.queryForObject(LAST_ID_SQL, Long.class);
+        Long horizon = jdbcTemplate.queryForObject(HORIZON_SQL, Long.class);
+        return new Barrier(lastId != null ? lastId : 0L, horizon != null ? horizon : Long.MAX_VALUE);
+    }
+
+    private void sendAll(List<OutboxRow> rows) {
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(row.topic(), row.eventKey(), row.payload());
+            record.headers().add(EVENT_ID_HEADER, row.eventId().getBytes(StandardCharsets.UTF_8));
+            futures.add(kafkaTemplate.send(record));
+        }
+        kafkaTemplate.flush();
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying outbox batch", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to relay outbox batch: " + e.getMessage(), e);
+        }
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                int sent = relayBatch();
+                if (sent >= batchSize) {
+                    continue;
+                }
+                wakeUpSignal.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failedBatchCount.incrementAndGet();
+                log.error("Outbox relay batch failed, will retry: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private record Barrier(long lastId, long horizon) {
+    }
+
+    private record OutboxRow(long id, String eventId, String topic, String eventKey, String payload) {
+    }
+}
@@ -49,7 +49,7 @@ public class KafkaEventPublisher implements EventPublisher {
         event.initializeDefaults();
         
         String topic = event.getTopic();
-        String key = getEventKey(event);
+        String key = resolveEventKey(event);
         
         try {
             String payload = objectMapper.writeValueAsString(event);
@@ -77,7 +77,10 @@ public class KafkaEventPublisher implements EventPublisher {
         }
     }
     
-    private String getEventKey(BaseEvent event) {
+    /**
+     * Resolve the partition key so that events of the same aggregate stay ordered.
+     */
+    public static String resolveEventKey(BaseEvent event) {
         if (event instanceof ProcessEvent pe) {
             return pe.getProcessInstanceId();
         } else if (event instanceof TaskEvent te) {
@@ -86,6 +89,8 @@ public class KafkaEventPublisher implements EventPublisher {
             return pe.getUserId();
         } else if (event instanceof DeploymentEvent de) {
             return de.getDeploymentId();
+        } else if (event instanceof WorkflowEngineEvent we && we.getPartitionKey() != null) {
+            return we.getPartitionKey();
         }
         return event.getEventId();
     }
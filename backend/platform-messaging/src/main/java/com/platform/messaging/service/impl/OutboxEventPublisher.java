@@ -0,0 +1,109 @@
+package com.platform.messaging.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.messaging.event.*;
+import com.platform.messaging.outbox.OutboxRelay;
+import com.platform.messaging.service.EventPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transactional outbox implementation of EventPublisher.
+ * Events are inserted into sys_event_outbox using the caller's transaction, so
+ * they are published if and only if the business transaction commits.
+ * {@link OutboxRelay} forwards them to Kafka asynchronously.
+ */
+@Slf4j
+@Service
+@Primary
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "platform.messaging.outbox.enabled", havingValue = "true")
+public class OutboxEventPublisher implements EventPublisher {
+
+    /**
+     * The CTE assigns the transaction id before the row takes its outbox id, which
+     * {@link OutboxRelay} relies on to know when no lower id can still commit.
+     * A CTE with a volatile function is always evaluated and never inlined.
+     */
+    private static final String INSERT_SQL =
+            "WITH tx AS (SELECT txid_current()) " +
+            "INSERT INTO sys_event_outbox (event_id, topic, event_key, event_type, payload) " +
+            "SELECT ?, ?, ?, ?, ? FROM tx";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay outboxRelay;
+
+    @Override
+    public CompletableFuture<Void> publishProcessEvent(ProcessEvent event) {
+        return publish(event);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishTaskEvent(TaskEvent event) {
+        return publish(event);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishPermissionEvent(PermissionEvent event) {
+        return publish(event);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishDeploymentEvent(DeploymentEvent event) {
+        return publish(event);
+    }
+
+    /**
+     * Write the event to the outbox. The returned future completes once the row is
+     * written; delivery to Kafka happens after commit.
+     */
+    @Override
+    public CompletableFuture<Void> publish(BaseEvent event) {
+        event.initializeDefaults();
+
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            jdbcTemplate.update(INSERT_SQL,
+                    event.getEventId(),
+                    event.getTopic(),
+                    KafkaEventPublisher.resolveEventKey(event),
+                    event.getEventType(),
+                    payload);
+
+            log.debug("Event {} written to outbox for topic {}", event.getEventId(), event.getTopic());
+            wakeRelayAfterCommit();
+            return CompletableFuture.completedFuture(null);
+
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize event {}: {}", event.getEventId(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Wake the local relay once the surrounding transaction commits so events are
+     * forwarded without waiting for the next poll.
+     */
+    private void wakeRelayAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wakeUp();
+                }
+            });
+        } else {
+            outboxRelay.wakeUp();
+        }
+    }
+}
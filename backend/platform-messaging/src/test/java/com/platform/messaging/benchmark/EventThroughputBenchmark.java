@@ -0,0 +1,136 @@
+package com.platform.messaging.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.platform.messaging.config.KafkaConfig;
+import com.platform.messaging.config.KafkaTopics;
+import com.platform.messaging.event.TaskEvent;
+import com.platform.messaging.service.impl.KafkaEventPublisher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end throughput benchmark for event publishing and batch consumption
+ * against an embedded Kafka broker.
+ *
+ * Not part of the default test run (class name does not match the surefire
+ * includes). Run with:
+ * mvn -pl backend/platform-messaging test -Dtest=EventThroughputBenchmark
+ * Optional: -Dbenchmark.events=200000 -Dbenchmark.partitions=6
+ */
+@Tag("benchmark")
+class EventThroughputBenchmark {
+
+    private static final int EVENT_COUNT = Integer.getInteger("benchmark.events", 50_000);
+    private static final int PARTITIONS = Integer.getInteger("benchmark.partitions", 6);
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, KafkaTopics.TASK_EVENTS);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        if (broker != null) {
+            broker.destroy();
+        }
+    }
+
+    @Test
+    void publishAndConsumeThroughput() throws Exception {
+        KafkaConfig config = new KafkaConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(config, "groupId", "throughput-benchmark");
+        ReflectionTestUtils.setField(config, "consumerConcurrency", PARTITIONS);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        KafkaTemplate<String, String> kafkaTemplate = config.kafkaTemplate();
+        KafkaEventPublisher publisher = new KafkaEventPublisher(kafkaTemplate, objectMapper);
+
+        CountDownLatch received = new CountDownLatch(EVENT_COUNT);
+        long[] latencies = new long[EVENT_COUNT];
+        int[] latencyIndex = {0};
+
+        ConcurrentMessageListenerContainer<String, String> container =
+                config.batchKafkaListenerContainerFactory().createContainer(KafkaTopics.TASK_EVENTS);
+        container.getContainerProperties().setMessageListener(
+                (BatchMessageListener<String, String>) records -> {
+                    long now = System.currentTimeMillis();
+                    synchronized (latencies) {
+                        for (ConsumerRecord<String, String> record : records) {
+                            if (latencyIndex[0] < latencies.length) {
+                                latencies[latencyIndex[0]++] = now - record.timestamp();
+                            }
+                            received.countDown();
+                        }
+                    }
+                });
+        container.start();
+        ContainerTestUtils.waitForAssignment(container, PARTITIONS);
+
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> sends = new ArrayList<>(EVENT_COUNT);
+            for (int i = 0; i < EVENT_COUNT; i++) {
+                sends.add(publisher.publishTaskEvent(TaskEvent.builder()
+                        .taskId("task-" + i)
+                        .taskName("Approve request " + i)
+                        .processInstanceId("proc-" + (i % 1000))
+                        .assignee("user-" + (i % 200))
+                        .taskEventType(TaskEvent.TaskEventType.ASSIGNED)
+                        .build()));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+            long publishNanos = System.nanoTime() - start;
+
+            assertThat(received.await(5, TimeUnit.MINUTES)).isTrue();
+            long totalNanos = System.nanoTime() - start;
+
+            long[] sorted;
+            synchronized (latencies) {
+                sorted = Arrays.copyOf(latencies, latencyIndex[0]);
+            }
+            Arrays.sort(sorted);
+
+            System.out.printf("Events: %d, partitions: %d%n", EVENT_COUNT, PARTITIONS);
+            System.out.printf("Publish throughput: %.0f events/s%n", EVENT_COUNT / (publishNanos / 1e9));
+            System.out.printf("End-to-end throughput: %.0f events/s%n", EVENT_COUNT / (totalNanos / 1e9));
+            System.out.printf("End-to-end latency ms: p50=%d p95=%d p99=%d max=%d%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), sorted.length > 0 ? sorted[sorted.length - 1] : 0);
+        } finally {
+            container.stop();
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)];
+    }
+}
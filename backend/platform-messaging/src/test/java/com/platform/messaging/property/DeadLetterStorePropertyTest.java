@@ -0,0 +1,180 @@
+package com.platform.messaging.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.messaging.deadletter.*;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Property tests for storing and replaying dead letters.
+ */
+class DeadLetterStorePropertyTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // ==================== DeadLetterStore ====================
+
+    // Each record becomes one row carrying its source coordinates, attempts and decoded headers
+    @Property(tries = 30)
+    @SuppressWarnings("unchecked")
+    void recordsShouldBeStoredWithTheirSourceCoordinates(
+            @ForAll @IntRange(min = 1, max = 10) int count,
+            @ForAll @IntRange(min = 0, max = 3) int attempts) throws Exception {
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        DeadLetterStore store = new DeadLetterStore(jdbcTemplate, OBJECT_MAPPER);
+        // Duplicates report 0, some drivers report SUCCESS_NO_INFO (-2)
+        int[] results = new int[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = i % 3 == 0 ? 0 : (i % 3 == 1 ? 1 : -2);
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(results);
+
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(deadLetter(i, attempts));
+        }
+        int stored = store.saveAll(records);
+
+        assertThat(stored).isEqualTo((int) Arrays.stream(results).filter(r -> r != 0).count());
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("ON CONFLICT"), rows.capture());
+        assertThat(rows.getValue()).hasSize(count);
+        for (int i = 0; i < count; i++) {
+            Object[] row = rows.getValue().get(i);
+            assertThat(row[0]).isEqualTo("platform.task.events");
+            assertThat(row[1]).isEqualTo(2);
+            assertThat(row[2]).isEqualTo(100L + i);
+            assertThat(row[3]).isEqualTo("platform.task.events.dlt");
+            assertThat(row[5]).isEqualTo((long) i);
+            assertThat(row[9]).isEqualTo("java.lang.IllegalStateException");
+            assertThat(row[11]).isEqualTo("at somewhere");
+            assertThat(row[12]).isEqualTo(attempts);
+
+            Map<String, String> headers = OBJECT_MAPPER.readValue((String) row[8], Map.class);
+            assertThat(headers).containsEntry(KafkaHeaders.DLT_ORIGINAL_OFFSET, String.valueOf(100L + i))
+                    .containsEntry(KafkaHeaders.DLT_ORIGINAL_PARTITION, "2")
+                    .doesNotContainKey(KafkaHeaders.DLT_EXCEPTION_STACKTRACE);
+        }
+    }
+
+    @Example
+    void emptyBatchShouldNotTouchTheDatabase() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        assertThat(new DeadLetterStore(jdbcTemplate, OBJECT_MAPPER).saveAll(List.of())).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // Chunks continue after the last (failed_at, id) instead of using OFFSET
+    @Example
+    @SuppressWarnings("unchecked")
+    void findAfterShouldUseKeysetPagination() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        DeadLetterStore store = new DeadLetterStore(jdbcTemplate, OBJECT_MAPPER);
+        LocalDateTime after = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        store.findAfter(DeadLetterQuery.builder().sourceTopic("platform.task.events")
+                .status(DeadLetterRecord.Status.NEW).build(), after, 7L, 50);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), eq("platform.task.events"), eq("NEW"),
+                eq(Timestamp.valueOf(after)), eq(7L), eq(50));
+        assertThat(sql.getValue())
+                .contains("source_topic = ? AND status = ? AND (failed_at, id) > (?, ?)")
+                .endsWith("ORDER BY failed_at, id LIMIT ?")
+                .doesNotContain("OFFSET");
+    }
+
+    // ==================== DeadLetterReplayService ====================
+
+    // Every NEW record up to the limit is sent to its source topic, in order, and marked after sending
+    @Property(tries = 30)
+    @SuppressWarnings("unchecked")
+    void replayShouldSendEachRecordOnceToItsSourceTopic(
+            @ForAll @IntRange(min = 0, max = 20) int stored,
+            @ForAll @IntRange(min = 1, max = 25) int maxRecords) {
+
+        List<DeadLetterRecord> records = new ArrayList<>();
+        for (int i = 0; i < stored; i++) {
+            records.add(DeadLetterRecord.builder()
+                    .id((long) i + 1)
+                    .sourceTopic(i % 2 == 0 ? "platform.task.events.retry.3" : "platform.task.events")
+                    .recordKey("key-" + i)
+                    .payload("payload-" + i)
+                    .headers(Map.of(KafkaHeaders.DLT_ORIGINAL_CONSUMER_GROUP, "group-a"))
+                    .status(DeadLetterRecord.Status.NEW)
+                    .failedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusSeconds(i))
+                    .build());
+        }
+        DeadLetterStore store = mock(DeadLetterStore.class);
+        when(store.findAfter(any(), any(), anyLong(), anyInt())).thenAnswer(inv -> {
+            long afterId = inv.getArgument(2);
+            int limit = inv.getArgument(3);
+            return records.stream().filter(r -> r.getId() > afterId).limit(limit).toList();
+        });
+        List<Long> marked = new ArrayList<>();
+        doAnswer(inv -> marked.addAll(inv.getArgument(0))).when(store).markReplayed(anyList());
+
+        List<ProducerRecord<String, String>> sent = new ArrayList<>();
+        KafkaTemplate<String, String> kafka = mock(KafkaTemplate.class);
+        when(kafka.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            sent.add(inv.getArgument(0));
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+
+        DeadLetterReplayService service = new DeadLetterReplayService(store, kafka);
+        ReflectionTestUtils.setField(service, "chunkSize", 4);
+        long replayed = service.replayAll(null, maxRecords, 1_000_000);
+
+        int expected = Math.min(stored, maxRecords);
+        assertThat(replayed).isEqualTo(expected);
+        assertThat(sent).hasSize(expected);
+        assertThat(marked).containsExactlyElementsOf(records.stream().limit(expected).map(DeadLetterRecord::getId).toList());
+        for (int i = 0; i < expected; i++) {
+            ProducerRecord<String, String> record = sent.get(i);
+            assertThat(record.topic()).isEqualTo("platform.task.events");
+            assertThat(record.value()).isEqualTo("payload-" + i);
+            assertThat(new String(record.headers().lastHeader(TieredRetryRecoverer.TARGET_GROUP_HEADER).value(),
+                    StandardCharsets.UTF_8)).isEqualTo("group-a");
+        }
+    }
+
+    // ==================== Helpers ====================
+
+    private static ConsumerRecord<String, String> deadLetter(int index, int attempts) {
+        ConsumerRecord<String, String> record =
+                new ConsumerRecord<>("platform.task.events.dlt", 0, index, "key-" + index, "payload-" + index);
+        record.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "platform.task.events".getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(2).array())
+                .add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(100L + index).array())
+                .add(KafkaHeaders.DLT_EXCEPTION_FQCN, "java.lang.IllegalStateException".getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_STACKTRACE, "at somewhere".getBytes(StandardCharsets.UTF_8));
+        if (attempts > 0) {
+            record.headers().add(TieredRetryRecoverer.ATTEMPT_HEADER,
+                    ByteBuffer.allocate(Integer.BYTES).putInt(attempts).array());
+        }
+        return record;
+    }
+}
@@ -0,0 +1,93 @@
+package com.platform.messaging.property;
+
+import com.platform.messaging.consumer.KeyOrderedBatchProcessor;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterContainer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Property tests for key-ordered parallel batch processing.
+ */
+class KeyOrderedProcessingPropertyTest {
+
+    private static final KeyOrderedBatchProcessor PROCESSOR = new KeyOrderedBatchProcessor(4);
+
+    @AfterContainer
+    static void shutdown() {
+        PROCESSOR.shutdown();
+    }
+
+    // Records sharing a partition and key are handled in offset order,
+    // and every record of the batch is handled exactly once
+    @Property(tries = 50)
+    void recordsWithSameKeyShouldBeProcessedInOffsetOrder(
+            @ForAll @IntRange(min = 1, max = 200) int recordCount,
+            @ForAll @IntRange(min = 1, max = 10) int keyCount,
+            @ForAll @IntRange(min = 1, max = 3) int partitionCount) {
+
+        List<ConsumerRecord<String, String>> records = batch(recordCount, keyCount, partitionCount);
+        Map<String, List<Long>> seen = new ConcurrentHashMap<>();
+
+        PROCESSOR.process(records, record -> seen
+                .computeIfAbsent(record.partition() + ":" + record.key(), k -> new CopyOnWriteArrayList<>())
+                .add(record.offset()));
+
+        assertThat(seen.values().stream().mapToInt(List::size).sum()).isEqualTo(recordCount);
+        for (List<Long> offsets : seen.values()) {
+            List<Long> sorted = new ArrayList<>(offsets);
+            Collections.sort(sorted);
+            assertThat(offsets).isEqualTo(sorted);
+        }
+    }
+
+    // A failure reports the earliest failed record so nothing before it is redelivered
+    // and nothing at or after it is lost
+    @Property(tries = 50)
+    void failureShouldReportEarliestFailedRecord(
+            @ForAll @IntRange(min = 2, max = 100) int recordCount,
+            @ForAll @IntRange(min = 1, max = 5) int keyCount,
+            @ForAll("failingIndexes") Set<Integer> failing) {
+
+        List<ConsumerRecord<String, String>> records = batch(recordCount, keyCount, 1);
+        Set<Long> failingOffsets = new HashSet<>();
+        failing.stream().filter(i -> i < recordCount).forEach(i -> failingOffsets.add((long) i));
+        Assume.that(!failingOffsets.isEmpty());
+
+        BatchListenerFailedException error = catchThrowableOfType(
+                () -> PROCESSOR.process(records, record -> {
+                    if (failingOffsets.contains(record.offset())) {
+                        throw new IllegalStateException("boom " + record.offset());
+                    }
+                }),
+                BatchListenerFailedException.class);
+
+        assertThat(error).isNotNull();
+        assertThat(error.getRecord()).isNotNull();
+        assertThat(error.getRecord().offset()).isEqualTo(Collections.min(failingOffsets));
+    }
+
+    @Provide
+    Arbitrary<Set<Integer>> failingIndexes() {
+        return Arbitraries.integers().between(0, 99).set().ofMinSize(1).ofMaxSize(5);
+    }
+
+    private List<ConsumerRecord<String, String>> batch(int recordCount, int keyCount, int partitionCount) {
+        Map<Integer, Long> nextOffset = new HashMap<>();
+        List<ConsumerRecord<String, String>> records = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            int partition = i % partitionCount;
+            long offset = partitionCount == 1 ? i : nextOffset.merge(partition, 1L, Long::sum) - 1;
+            records.add(new ConsumerRecord<>("test-topic", partition, offset, "key-" + (i % keyCount), "value-" + i));
+        }
+        return records;
+    }
+}
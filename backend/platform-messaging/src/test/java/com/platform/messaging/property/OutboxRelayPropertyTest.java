@@ -0,0 +1,226 @@
+package com.platform.messaging.property;
+
+import com.platform.messaging.outbox.OutboxRelay;
+import net.jqwik.api.*;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Property tests for the outbox relay.
+ * Writers take outbox ids in one order and commit in another; the relay runs against
+ * a simulated database with PostgreSQL's sequence and transaction id semantics.
+ */
+class OutboxRelayPropertyTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    // Events are sent in id order no matter in which order the writers commit,
+    // and every committed event is sent exactly once
+    @Property(tries = 200)
+    void eventsShouldBeSentInIdOrderDespiteOutOfOrderCommits(
+            @ForAll("schedules") List<Integer> schedule) {
+
+        SimulatedOutbox db = new SimulatedOutbox();
+        List<Long> sent = new ArrayList<>();
+        OutboxRelay relay = relay(db, sent);
+
+        for (int step : schedule) {
+            int pick = step / 5;
+            switch (step % 5) {
+                case 0 -> db.begin(pick % 2 == 1);
+                case 1 -> db.insert(pick);
+                case 2 -> db.finish(pick, true);
+                case 3 -> db.finish(pick, false);
+                default -> relay.relayBatch();
+            }
+        }
+        db.finishAll();
+        for (int round = 0; round < 100 && db.hasVisibleRows(); round++) {
+            relay.relayBatch();
+        }
+
+        assertThat(sent).isSorted();
+        assertThat(sent).containsExactlyElementsOf(db.committedIds());
+    }
+
+    // A row committed after a higher id is held back until its writer finishes
+    @Example
+    void laterIdIsHeldBackWhileLowerIdIsUncommitted() {
+        SimulatedOutbox db = new SimulatedOutbox();
+        List<Long> sent = new ArrayList<>();
+        OutboxRelay relay = relay(db, sent);
+
+        db.begin(false);
+        db.begin(false);
+        db.insert(0);                // id 1, still open
+        db.insert(1);                // id 2
+        db.finish(1, true);
+
+        assertThat(relay.relayBatch()).isZero();
+        assertThat(sent).isEmpty();
+
+        db.finish(0, true);
+        assertThat(relay.relayBatch()).isEqualTo(2);
+        assertThat(sent).containsExactly(1L, 2L);
+    }
+
+    // A rolled-back id leaves a gap that does not stall the relay
+    @Example
+    void rolledBackIdDoesNotStallRelay() {
+        SimulatedOutbox db = new SimulatedOutbox();
+        List<Long> sent = new ArrayList<>();
+        OutboxRelay relay = relay(db, sent);
+
+        db.begin(false);
+        db.begin(false);
+        db.insert(0);                // id 1
+        db.insert(1);                // id 2
+        db.finish(0, false);
+        db.finish(0, true);
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(sent).containsExactly(2L);
+    }
+
+    @Provide
+    Arbitrary<List<Integer>> schedules() {
+        return Arbitraries.integers().between(0, 5 * 8 - 1).list().ofMinSize(1).ofMaxSize(60);
+    }
+
+    // ==================== Helpers ====================
+
+    @SuppressWarnings("unchecked")
+    private static OutboxRelay relay(SimulatedOutbox db, List<Long> sent) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), any()))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(inv -> db.scalar(inv.getArgument(0)));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any()))
+                .thenAnswer(inv -> db.select((RowMapper<Object>) inv.getArgument(1),
+                        inv.getArgument(2), inv.getArgument(3)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> ids = inv.getArgument(1);
+            ids.forEach(id -> db.delete((Long) id[0]));
+            return new int[ids.size()];
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            ProducerRecord<String, String> record = inv.getArgument(0);
+            sent.add(Long.parseLong(record.value()));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        OutboxRelay relay = new OutboxRelay(jdbcTemplate, mock(PlatformTransactionManager.class), kafkaTemplate);
+        ReflectionTestUtils.setField(relay, "batchSize", BATCH_SIZE);
+        return relay;
+    }
+
+    /**
+     * Outbox table, id sequence and transaction ids as PostgreSQL hands them out.
+     * Writers get their transaction id before their first outbox id, as the publisher ensures.
+     */
+    private static class SimulatedOutbox {
+
+        private final List<Writer> open = new ArrayList<>();
+        private final TreeMap<Long, Boolean> visible = new TreeMap<>();
+        private final List<Long> committed = new ArrayList<>();
+        private long lastId;
+        private long nextXid = 100;
+
+        void begin(boolean writesElsewhere) {
+            Writer writer = new Writer();
+            if (writesElsewhere) {
+                writer.xid = nextXid++;
+            }
+            open.add(writer);
+        }
+
+        void insert(int pick) {
+            if (open.isEmpty()) {
+                return;
+            }
+            Writer writer = open.get(pick % open.size());
+            if (writer.xid == 0) {
+                writer.xid = nextXid++;
+            }
+            writer.ids.add(++lastId);
+        }
+
+        void finish(int pick, boolean commit) {
+            if (open.isEmpty()) {
+                return;
+            }
+            Writer writer = open.remove(pick % open.size());
+            if (commit) {
+                writer.ids.forEach(id -> visible.put(id, true));
+                committed.addAll(writer.ids);
+            }
+        }
+
+        void finishAll() {
+            while (!open.isEmpty()) {
+                finish(0, true);
+            }
+        }
+
+        boolean hasVisibleRows() {
+            return !visible.isEmpty();
+        }
+
+        List<Long> committedIds() {
+            List<Long> ids = new ArrayList<>(committed);
+            Collections.sort(ids);
+            return ids;
+        }
+
+        Long scalar(String sql) {
+            if (sql.contains("last_value")) {
+                return lastId;
+            }
+            if (sql.contains("xmax")) {
+                return nextXid;
+            }
+            return open.stream().filter(w -> w.xid != 0).mapToLong(w -> w.xid).min().orElse(nextXid);
+        }
+
+        List<Object> select(RowMapper<Object> mapper, Object maxId, Object limit) throws Exception {
+            List<Object> rows = new ArrayList<>();
+            for (Long id : visible.headMap((Long) maxId, true).keySet()) {
+                if (rows.size() == (Integer) limit) {
+                    break;
+                }
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn(id);
+                when(rs.getString("event_id")).thenReturn("event-" + id);
+                when(rs.getString("topic")).thenReturn("platform.workflow.events");
+                when(rs.getString("payload")).thenReturn(String.valueOf(id));
+                rows.add(mapper.mapRow(rs, rows.size()));
+            }
+            return rows;
+        }
+
+        void delete(long id) {
+            visible.remove(id);
+        }
+    }
+
+    private static class Writer {
+        private long xid;
+        private final List<Long> ids = new ArrayList<>();
+    }
+}
@@ -0,0 +1,178 @@
+package com.platform.messaging.property;
+
+import com.platform.messaging.config.KafkaTopics;
+import com.platform.messaging.deadletter.RetryTopicRelay;
+import com.platform.messaging.deadletter.TieredRetryRecoverer;
+import com.platform.messaging.handler.DeadLetterHandler;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Property tests for tiered retry routing.
+ */
+class TieredRetryPropertyTest {
+
+    private static final long[] DELAYS_MS = {5000L, 30000L, 300000L};
+
+    // Each attempt goes to the topic of its own tier with that tier's delay
+    @Property(tries = 50)
+    void failedRecordShouldMoveToTheTopicOfTheNextTier(
+            @ForAll @IntRange(min = 0, max = 2) int attempt,
+            @ForAll("sourceTopics") String sourceTopic) {
+
+        List<ProducerRecord<String, String>> sent = new ArrayList<>();
+        TieredRetryRecoverer recoverer = new TieredRetryRecoverer(kafka(sent), DELAYS_MS);
+        String retryBase = TieredRetryRecoverer.RETRY_TOPICS.get(sourceTopic);
+        String topic = attempt == 0 ? sourceTopic : KafkaTopics.retryTopic(retryBase, attempt);
+        ConsumerRecord<String, String> record = record(topic, attempt, attempt == 0 ? null : sourceTopic);
+
+        long before = System.currentTimeMillis();
+        recoverer.accept(record, new IllegalStateException("boom"));
+
+        assertThat(sent).hasSize(1);
+        ProducerRecord<String, String> retry = sent.get(0);
+        assertThat(retry.topic()).isEqualTo(retryBase + "." + (attempt + 1));
+        assertThat(intHeader(retry, TieredRetryRecoverer.ATTEMPT_HEADER)).isEqualTo(attempt + 1);
+        assertThat(stringHeader(retry, TieredRetryRecoverer.ORIGINAL_TOPIC_HEADER)).isEqualTo(sourceTopic);
+        assertThat(longHeader(retry, TieredRetryRecoverer.DUE_AT_HEADER))
+                .isBetween(before + DELAYS_MS[attempt], System.currentTimeMillis() + DELAYS_MS[attempt]);
+        assertThat(retry.value()).isEqualTo("payload");
+    }
+
+    // After the last tier the record goes to the dead letter topic of its source topic
+    @Property(tries = 20)
+    void recordShouldBeDeadLetteredAfterTheLastTier(@ForAll("sourceTopics") String sourceTopic) {
+        List<ProducerRecord<String, String>> sent = new ArrayList<>();
+        TieredRetryRecoverer recoverer = new TieredRetryRecoverer(kafka(sent), DELAYS_MS);
+        String lastTier = KafkaTopics.retryTopic(TieredRetryRecoverer.RETRY_TOPICS.get(sourceTopic), DELAYS_MS.length);
+
+        recoverer.accept(record(lastTier, DELAYS_MS.length, sourceTopic), new IllegalStateException("boom"));
+
+        assertThat(sent).extracting(ProducerRecord::topic).containsExactly(sourceTopic + KafkaTopics.DLT_SUFFIX);
+    }
+
+    @Example
+    void fatalErrorsAndTopicsWithoutRetriesShouldGoStraightToTheDeadLetterTopic() {
+        List<ProducerRecord<String, String>> sent = new ArrayList<>();
+        TieredRetryRecoverer recoverer = new TieredRetryRecoverer(kafka(sent), DELAYS_MS);
+
+        recoverer.accept(record(KafkaTopics.TASK_EVENTS, 0, null),
+                new RuntimeException(new DeserializationException("bad", new byte[0], false, null)));
+        recoverer.accept(record(KafkaTopics.PERMISSION_EVENTS, 0, null), new IllegalStateException("boom"));
+
+        assertThat(sent).extracting(ProducerRecord::topic)
+                .containsExactly(KafkaTopics.TASK_EVENTS_DLT, KafkaTopics.PERMISSION_EVENTS_DLT);
+    }
+
+    // A dead letter that cannot be handled is rethrown so the container polls it again
+    @Example
+    void deadLetterShouldNeverBeDropped() {
+        List<ProducerRecord<String, String>> sent = new ArrayList<>();
+        TieredRetryRecoverer recoverer = new TieredRetryRecoverer(kafka(sent), DELAYS_MS);
+
+        assertThatThrownBy(() -> recoverer.accept(record(KafkaTopics.TASK_EVENTS_DLT, 3, null),
+                new IllegalStateException("store down")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("store down");
+        assertThat(sent).isEmpty();
+    }
+
+    @Example
+    void retryTopicsShouldMapBackToTheirSourceTopic() {
+        assertThat(KafkaTopics.sourceTopic("platform.task.events.retry.2")).isEqualTo(KafkaTopics.TASK_EVENTS);
+        assertThat(KafkaTopics.sourceTopic("platform.task.events.retry")).isEqualTo(KafkaTopics.TASK_EVENTS);
+        assertThat(KafkaTopics.sourceTopic(KafkaTopics.TASK_EVENTS)).isEqualTo(KafkaTopics.TASK_EVENTS);
+        assertThat(KafkaTopics.sourceTopic("platform.task.events.retry.x")).isEqualTo("platform.task.events.retry.x");
+
+        assertThat(new RetryTopicRelay(null).getRetryTopics()).containsExactlyInAnyOrder(
+                "platform.process.events.retry.1", "platform.process.events.retry.2", "platform.process.events.retry.3",
+                "platform.task.events.retry.1", "platform.task.events.retry.2", "platform.task.events.retry.3");
+    }
+
+    // Dead letters of any listener topic land on a topic the dead letter handler subscribes to
+    @Property(tries = 50)
+    void everyDeadLetterTopicShouldMatchTheHandlerSubscription(@ForAll("listenerTopics") String topic)
+            throws Exception {
+        String pattern = DeadLetterHandler.class.getMethod("handleDeadLetters", List.class)
+                .getAnnotation(KafkaListener.class).topicPattern();
+        String deadLetterTopic = TieredRetryRecoverer.deadLetterTopic(record(topic, 0, null));
+
+        assertThat(pattern).isEqualTo(KafkaTopics.DLT_TOPIC_PATTERN);
+        assertThat(deadLetterTopic).matches(pattern);
+        assertThat(deadLetterTopic).doesNotMatch(KafkaTopics.WORKFLOW_TOPIC_PATTERN);
+        assertThat(topic).doesNotMatch(pattern);
+    }
+
+    @Provide
+    Arbitrary<String> listenerTopics() {
+        Arbitrary<String> custom = Arbitraries.strings().withCharRange('a', 'z').ofMinLength(1).ofMaxLength(12)
+                .filter(name -> !name.equals("dlt") && !name.equals("retry"))
+                .map(name -> KafkaTopics.WORKFLOW_TOPIC_PREFIX + name);
+        Arbitrary<String> retries = Arbitraries.integers().between(1, 3)
+                .map(tier -> KafkaTopics.retryTopic(KafkaTopics.TASK_EVENTS_RETRY, tier));
+        return Arbitraries.oneOf(custom, retries, Arbitraries.of(KafkaTopics.PROCESS_EVENTS, KafkaTopics.TASK_EVENTS,
+                KafkaTopics.PERMISSION_EVENTS, KafkaTopics.DEPLOYMENT_EVENTS, KafkaTopics.WORKFLOW_EVENTS));
+    }
+
+    @Provide
+    Arbitrary<String> sourceTopics() {
+        return Arbitraries.of(KafkaTopics.PROCESS_EVENTS, KafkaTopics.TASK_EVENTS);
+    }
+
+    // ==================== Helpers ====================
+
+    @SuppressWarnings("unchecked")
+    private static KafkaOperations<String, String> kafka(List<ProducerRecord<String, String>> sent) {
+        KafkaOperations<String, String> kafka = mock(KafkaOperations.class);
+        when(kafka.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            sent.add(inv.getArgument(0));
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+        return kafka;
+    }
+
+    private static ConsumerRecord<String, String> record(String topic, int attempt, String originalTopic) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(topic, 0, 42L, "key", "payload");
+        if (attempt > 0) {
+            record.headers().add(TieredRetryRecoverer.ATTEMPT_HEADER,
+                    ByteBuffer.allocate(Integer.BYTES).putInt(attempt).array());
+        }
+        if (originalTopic != null) {
+            record.headers().add(TieredRetryRecoverer.ORIGINAL_TOPIC_HEADER,
+                    originalTopic.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    private static int intHeader(ProducerRecord<String, String> record, String name) {
+        return ByteBuffer.wrap(record.headers().lastHeader(name).value()).getInt();
+    }
+
+    private static long longHeader(ProducerRecord<String, String> record, String name) {
+        return ByteBuffer.wrap(record.headers().lastHeader(name).value()).getLong();
+    }
+
+    private static String stringHeader(ProducerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -21,7 +21,7 @@ public class RoleSource {
     private AssignmentTargetType sourceType;
     
     /**
-     * 来源ID（用户ID/部门ID/虚拟组ID）
+     * 来源ID（用户ID/虚拟组ID/业务单元ID）
      */
     private String sourceId;
     
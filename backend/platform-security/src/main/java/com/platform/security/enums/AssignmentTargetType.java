@@ -18,5 +18,10 @@ public enum AssignmentTargetType {
     /**
      * 分配给虚拟组（虚拟组的所有成员）
      */
-    VIRTUAL_GROUP
+    VIRTUAL_GROUP,
+    
+    /**
+     * 业务单元角色（sys_user_business_unit_roles），仅作为有效角色的来源类型
+     */
+    BUSINESS_UNIT
 }
@@ -0,0 +1,48 @@
+package com.platform.security.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 角色分配变更事件
+ * 用户角色分配、虚拟组成员或业务单元角色变化后发布，用于失效用户有效角色缓存
+ */
+@Getter
+public class RoleAssignmentChangedEvent {
+
+    /**
+     * 受影响的用户ID，为空表示影响范围无法确定（如角色停用、虚拟组删除）
+     */
+    private final Set<String> userIds;
+
+    private RoleAssignmentChangedEvent(Set<String> userIds) {
+        this.userIds = userIds;
+    }
+
+    /**
+     * 指定用户的分配发生变化
+     */
+    public static RoleAssignmentChangedEvent forUsers(Collection<String> userIds) {
+        return new RoleAssignmentChangedEvent(Set.copyOf(userIds));
+    }
+
+    /**
+     * 单个用户的分配发生变化
+     */
+    public static RoleAssignmentChangedEvent forUser(String userId) {
+        return new RoleAssignmentChangedEvent(Set.of(userId));
+    }
+
+    /**
+     * 影响所有用户
+     */
+    public static RoleAssignmentChangedEvent all() {
+        return new RoleAssignmentChangedEvent(Set.of());
+    }
+
+    public boolean affectsAllUsers() {
+        return userIds.isEmpty();
+    }
+}
@@ -2,7 +2,9 @@ package com.platform.security.service;
 
 import com.platform.security.dto.UserEffectiveRole;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 用户角色服务接口
@@ -46,4 +48,29 @@ public interface UserRoleService {
      * @return 是否拥有该权限
      */
     boolean hasPermission(String userId, String permission);
+    
+    /**
+     * 批量获取多个用户的有效角色（管理界面列表、任务分配解析）
+     * @param userIds 用户ID集合
+     * @return 用户ID到角色列表的映射，没有角色的用户映射为空列表
+     */
+    Map<String, List<UserEffectiveRole>> getEffectiveRolesForUsers(Collection<String> userIds);
+    
+    /**
+     * 批量获取多个用户的有效角色代码（去重后）
+     * @param userIds 用户ID集合
+     * @return 用户ID到角色代码列表的映射
+     */
+    Map<String, List<String>> getEffectiveRoleCodesForUsers(Collection<String> userIds);
+    
+    /**
+     * 失效指定用户的有效角色缓存
+     * @param userIds 用户ID集合
+     */
+    void invalidateUserRoleCache(Collection<String> userIds);
+    
+    /**
+     * 失效所有用户的有效角色缓存
+     */
+    void invalidateAllUserRoleCaches();
 }
@@ -2,17 +2,30 @@ package com.platform.security.service.impl;
 
 import com.platform.security.dto.RoleSource;
 import com.platform.security.dto.UserEffectiveRole;
-import com.platform.security.entity.RoleAssignment;
 import com.platform.security.enums.AssignmentTargetType;
+import com.platform.security.event.RoleAssignmentChangedEvent;
 import com.platform.security.repository.RoleAssignmentRepository;
 import com.platform.security.resolver.TargetResolverFactory;
 import com.platform.security.service.UserRoleService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +36,12 @@ import java.util.stream.Collectors;
  * Roles are now assigned through:
  * 1. Direct user assignment (USER type)
  * 2. Virtual group membership (VIRTUAL_GROUP type)
+ * 3. Business unit role membership (BUSINESS_UNIT type, sys_user_business_unit_roles)
+ * 
+ * 三类来源由一条CTE查询一次解析（含角色信息和来源名称），批量接口按块查询多个用户。
+ * 结果按用户缓存在本进程内，收到 {@link RoleAssignmentChangedEvent} 后失效，
+ * 并通过Redis频道广播给其他服务进程（用户门户、开发工作台等）同步失效；
+ * 广播丢失时依靠缓存TTL收敛。
  * 
  * For workflow task assignment, use the AssigneeType enum in workflow-engine-core
  * which supports BusinessUnit-based role resolution.
@@ -32,45 +51,156 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserRoleServiceImpl implements UserRoleService {
     
+    /**
+     * 单条查询的最大用户数
+     */
+    private static final int QUERY_BATCH_SIZE = 500;
+    
+    private static final int MAX_CACHED_USERS = 10000;
+    
+    /**
+     * 跨进程失效频道，消息格式：实例ID|用户ID列表（逗号分隔，* 表示所有用户）
+     */
+    static final String INVALIDATION_CHANNEL = "platform:security:user-role-invalidation";
+    
+    private static final String ALL_USERS = "*";
+    
+    private static final String VALID_ASSIGNMENT =
+            "(ra.valid_from IS NULL OR ra.valid_from <= CURRENT_TIMESTAMP) " +
+            "AND (ra.valid_to IS NULL OR ra.valid_to >= CURRENT_TIMESTAMP)";
+    
+    private static final String EFFECTIVE_ROLES_SQL_TEMPLATE =
+            "WITH target_users(user_id) AS (VALUES %s), " +
+            "assignments AS (" +
+            "  SELECT tu.user_id, ra.id AS assignment_id, ra.role_id, 0 AS source_order, " +
+            "         'USER' AS source_type, tu.user_id AS source_id, '直接分配' AS source_name " +
+            "  FROM target_users tu " +
+            "  JOIN sys_role_assignments ra ON ra.target_type = 'USER' AND ra.target_id = tu.user_id " +
+            "  WHERE " + VALID_ASSIGNMENT +
+            "  UNION ALL " +
+            "  SELECT tu.user_id, ra.id, ra.role_id, 1, " +
+            "         'VIRTUAL_GROUP', vgm.group_id, COALESCE(vg.name, vgm.group_id) " +
+            "  FROM target_users tu " +
+            "  JOIN sys_virtual_group_members vgm ON vgm.user_id = tu.user_id " +
+            "  JOIN sys_role_assignments ra ON ra.target_type = 'VIRTUAL_GROUP' AND ra.target_id = vgm.group_id " +
+            "  LEFT JOIN sys_virtual_groups vg ON vg.id = vgm.group_id " +
+            "  WHERE " + VALID_ASSIGNMENT +
+            "  UNION ALL " +
+            "  SELECT tu.user_id, ubur.id, ubur.role_id, 2, " +
+            "         'BUSINESS_UNIT', ubur.business_unit_id, COALESCE(bu.name, ubur.business_unit_id) " +
+            "  FROM target_users tu " +
+            "  JOIN sys_user_business_unit_roles ubur ON ubur.user_id = tu.user_id " +
+            "  LEFT JOIN sys_business_units bu ON bu.id = ubur.business_unit_id" +
+            ") " +
+            "SELECT a.user_id, a.assignment_id, a.source_type, a.source_id, a.source_name, " +
+            "       r.id AS role_id, r.code AS role_code, r.name AS role_name, r.type AS role_type " +
+            "FROM assignments a " +
+            "JOIN sys_roles r ON r.id = a.role_id AND r.status = 'ACTIVE' " +
+            "ORDER BY a.source_order, a.assignment_id";
+    
     private final RoleAssignmentRepository roleAssignmentRepository;
     private final TargetResolverFactory targetResolverFactory;
     private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    private final ObjectProvider<RedisMessageListenerContainer> listenerContainerProvider;
+    
+    /**
+     * 有效角色缓存时间（秒），0表示不缓存
+     */
+    @Value("${platform.security.user-role-cache-ttl-seconds:120}")
+    private long cacheTtlSeconds = 120;
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    
+    private final MessageListener invalidationListener = this::onInvalidationMessage;
+    
+    private volatile RedisMessageListenerContainer listenerContainer;
+    
+    private final Map<String, CachedRoles> roleCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 每次失效递增，查询开始后发生失效的结果不写入缓存
+     */
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    
+    @PostConstruct
+    public void subscribeInvalidations() {
+        RedisMessageListenerContainer container = listenerContainerProvider.getIfAvailable();
+        if (container == null) {
+            log.warn("No Redis listener container, effective role cache relies on its {}s TTL across processes",
+                    cacheTtlSeconds);
+            return;
+        }
+        container.addMessageListener(invalidationListener, new ChannelTopic(INVALIDATION_CHANNEL));
+        listenerContainer = container;
+    }
+    
+    @PreDestroy
+    public void unsubscribeInvalidations() {
+        RedisMessageListenerContainer container = listenerContainer;
+        if (container != null) {
+            container.removeMessageListener(invalidationListener);
+            listenerContainer = null;
+        }
+    }
     
     @Override
     public List<UserEffectiveRole> getEffectiveRolesForUser(String userId) {
-        log.debug("Calculating effective roles for user: {}", userId);
-        
-        // 用于存储角色ID到UserEffectiveRole的映射（用于合并来源）
-        Map<String, UserEffectiveRole> roleMap = new LinkedHashMap<>();
-        
-        // 1. 查询直接分配给用户的角色 (USER类型)
-        List<RoleAssignment> userAssignments = roleAssignmentRepository.findValidUserAssignments(userId);
-        for (RoleAssignment assignment : userAssignments) {
-            addRoleFromAssignment(roleMap, assignment, AssignmentTargetType.USER, userId, "直接分配");
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        return getEffectiveRolesForUsers(List.of(userId)).get(userId);
+    }
+    
+    @Override
+    public Map<String, List<UserEffectiveRole>> getEffectiveRolesForUsers(Collection<String> userIds) {
+        Map<String, List<UserEffectiveRole>> result = new LinkedHashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return result;
         }
         
-        // 2. 查询用户所属虚拟组被分配的角色 (VIRTUAL_GROUP类型)
-        List<String> groupIds = getUserVirtualGroupIds(userId);
-        if (!groupIds.isEmpty()) {
-            List<RoleAssignment> groupAssignments = roleAssignmentRepository.findValidVirtualGroupAssignments(groupIds);
-            for (RoleAssignment assignment : groupAssignments) {
-                String groupName = getVirtualGroupName(assignment.getTargetId());
-                addRoleFromAssignment(roleMap, assignment, AssignmentTargetType.VIRTUAL_GROUP, 
-                        assignment.getTargetId(), groupName);
+        long now = System.currentTimeMillis();
+        List<String> misses = new ArrayList<>();
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            if (userId == null) {
+                continue;
             }
+            CachedRoles cached = roleCache.get(userId);
+            if (cached != null && now < cached.expiresAt) {
+                result.put(userId, copyRoles(cached.roles));
+            } else {
+                result.put(userId, null);
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
         }
         
-        List<UserEffectiveRole> result = new ArrayList<>(roleMap.values());
-        log.debug("User {} has {} effective roles", userId, result.size());
+        log.debug("Calculating effective roles for {} users", misses.size());
+        long generation = cacheGeneration.get();
+        for (int from = 0; from < misses.size(); from += QUERY_BATCH_SIZE) {
+            List<String> chunk = misses.subList(from, Math.min(from + QUERY_BATCH_SIZE, misses.size()));
+            Map<String, List<UserEffectiveRole>> loaded = queryEffectiveRoles(chunk);
+            for (String userId : chunk) {
+                List<UserEffectiveRole> roles = loaded.getOrDefault(userId, Collections.emptyList());
+                cacheRoles(userId, roles, generation);
+                result.put(userId, copyRoles(roles));
+            }
+        }
         return result;
     }
     
     @Override
     public List<String> getEffectiveRoleCodesForUser(String userId) {
-        return getEffectiveRolesForUser(userId).stream()
-                .map(UserEffectiveRole::getRoleCode)
-                .distinct()
-                .collect(Collectors.toList());
+        return toRoleCodes(getEffectiveRolesForUser(userId));
+    }
+    
+    @Override
+    public Map<String, List<String>> getEffectiveRoleCodesForUsers(Collection<String> userIds) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        getEffectiveRolesForUsers(userIds).forEach((userId, roles) -> result.put(userId, toRoleCodes(roles)));
+        return result;
     }
     
     @Override
@@ -99,94 +229,148 @@ public class UserRoleServiceImpl implements UserRoleService {
         return getPermissionsForUser(userId).contains(permission);
     }
     
+    @Override
+    public void invalidateUserRoleCache(Collection<String> userIds) {
+        cacheGeneration.incrementAndGet();
+        for (String userId : userIds) {
+            if (userId != null) {
+                roleCache.remove(userId);
+            }
+        }
+    }
+    
+    @Override
+    public void invalidateAllUserRoleCaches() {
+        cacheGeneration.incrementAndGet();
+        roleCache.clear();
+    }
+    
     /**
-     * 从分配记录添加角色到映射
+     * 角色分配变更后失效缓存并广播给其他进程
+     * （事务提交后执行，避免并发查询读到未提交前的数据再写回缓存）
      */
-    private void addRoleFromAssignment(Map<String, UserEffectiveRole> roleMap, 
-                                       RoleAssignment assignment,
-                                       AssignmentTargetType sourceType,
-                                       String sourceId,
-                                       String sourceName) {
-        String roleId = assignment.getRoleId();
-        
-        // 获取角色信息
-        Map<String, Object> roleInfo = getRoleInfo(roleId);
-        if (roleInfo == null) {
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleAssignmentChanged(RoleAssignmentChangedEvent event) {
+        if (event.affectsAllUsers()) {
+            invalidateAllUserRoleCaches();
+        } else {
+            invalidateUserRoleCache(event.getUserIds());
+        }
+        log.debug("Invalidated effective role cache: {}", 
+                event.affectsAllUsers() ? "all users" : event.getUserIds());
+        publishInvalidation(event);
+    }
+    
+    private void publishInvalidation(RoleAssignmentChangedEvent event) {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
             return;
         }
-        
-        String roleCode = (String) roleInfo.get("code");
-        String roleName = (String) roleInfo.get("name");
-        String roleType = (String) roleInfo.get("type");
-        
-        // 创建来源信息
-        RoleSource source = RoleSource.builder()
-                .sourceType(sourceType)
-                .sourceId(sourceId)
-                .sourceName(sourceName)
-                .assignmentId(assignment.getId())
-                .build();
-        
-        // 如果角色已存在，添加来源；否则创建新的角色记录
-        if (roleMap.containsKey(roleId)) {
-            roleMap.get(roleId).addSource(source);
-        } else {
-            UserEffectiveRole effectiveRole = UserEffectiveRole.builder()
-                    .roleId(roleId)
-                    .roleCode(roleCode)
-                    .roleName(roleName)
-                    .roleType(roleType)
-                    .sources(new ArrayList<>(List.of(source)))
-                    .build();
-            roleMap.put(roleId, effectiveRole);
+        String users = event.affectsAllUsers() ? ALL_USERS : String.join(",", event.getUserIds());
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + "|" + users);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast effective role cache invalidation: {}", e.getMessage());
         }
     }
     
     /**
-     * 获取角色信息
+     * 其他进程广播的失效消息，忽略本进程自己发出的
      */
-    private Map<String, Object> getRoleInfo(String roleId) {
-        try {
-            return jdbcTemplate.queryForMap(
-                "SELECT id, code, name, type FROM sys_roles WHERE id = ? AND status = 'ACTIVE'",
-                roleId
-            );
-        } catch (Exception e) {
-            log.warn("Failed to get role info: {}", roleId, e);
-            return null;
+    private void onInvalidationMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        String users = body.substring(separator + 1);
+        if (ALL_USERS.equals(users)) {
+            invalidateAllUserRoleCaches();
+        } else {
+            invalidateUserRoleCache(Arrays.asList(users.split(",")));
         }
+        log.debug("Invalidated effective role cache from broadcast: {}", users);
     }
     
     /**
-     * 获取用户所属的虚拟组ID列表
+     * 一次查询解析一组用户的直接分配、虚拟组和业务单元角色
      */
-    private List<String> getUserVirtualGroupIds(String userId) {
-        try {
-            return jdbcTemplate.queryForList(
-                "SELECT group_id FROM sys_virtual_group_members " +
-                "WHERE user_id = ?",
-                String.class,
-                userId
-            );
-        } catch (Exception e) {
-            log.warn("Failed to get virtual group IDs for user: {}", userId, e);
-            return Collections.emptyList();
+    private Map<String, List<UserEffectiveRole>> queryEffectiveRoles(List<String> userIds) {
+        String placeholders = userIds.stream().map(id -> "(?)").collect(Collectors.joining(", "));
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                String.format(EFFECTIVE_ROLES_SQL_TEMPLATE, placeholders), userIds.toArray());
+        
+        // 用户ID -> (角色ID -> 有效角色)，同一角色的多个来源合并
+        Map<String, Map<String, UserEffectiveRole>> byUser = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            String userId = (String) row.get("user_id");
+            String roleId = (String) row.get("role_id");
+            RoleSource source = RoleSource.builder()
+                    .sourceType(AssignmentTargetType.valueOf((String) row.get("source_type")))
+                    .sourceId((String) row.get("source_id"))
+                    .sourceName((String) row.get("source_name"))
+                    .assignmentId((String) row.get("assignment_id"))
+                    .build();
+            
+            Map<String, UserEffectiveRole> roleMap = byUser.computeIfAbsent(userId, k -> new LinkedHashMap<>());
+            UserEffectiveRole existing = roleMap.get(roleId);
+            if (existing != null) {
+                existing.addSource(source);
+            } else {
+                roleMap.put(roleId, UserEffectiveRole.builder()
+                        .roleId(roleId)
+                        .roleCode((String) row.get("role_code"))
+                        .roleName((String) row.get("role_name"))
+                        .roleType((String) row.get("role_type"))
+                        .sources(new ArrayList<>(List.of(source)))
+                        .build());
+            }
         }
+        
+        Map<String, List<UserEffectiveRole>> result = new HashMap<>();
+        byUser.forEach((userId, roleMap) -> result.put(userId, new ArrayList<>(roleMap.values())));
+        return result;
+    }
+    
+    private void cacheRoles(String userId, List<UserEffectiveRole> roles, long generation) {
+        if (cacheTtlSeconds <= 0 || cacheGeneration.get() != generation) {
+            return;
+        }
+        if (roleCache.size() >= MAX_CACHED_USERS) {
+            roleCache.clear();
+        }
+        roleCache.put(userId, new CachedRoles(roles, System.currentTimeMillis() + cacheTtlSeconds * 1000));
     }
     
     /**
-     * 获取虚拟组名称
+     * 返回副本，调用方修改结果不影响缓存
      */
-    private String getVirtualGroupName(String groupId) {
-        try {
-            return jdbcTemplate.queryForObject(
-                "SELECT name FROM sys_virtual_groups WHERE id = ?",
-                String.class,
-                groupId
-            );
-        } catch (Exception e) {
-            return groupId;
+    private List<UserEffectiveRole> copyRoles(List<UserEffectiveRole> roles) {
+        List<UserEffectiveRole> copies = new ArrayList<>(roles.size());
+        for (UserEffectiveRole role : roles) {
+            copies.add(UserEffectiveRole.builder()
+                    .roleId(role.getRoleId())
+                    .roleCode(role.getRoleCode())
+                    .roleName(role.getRoleName())
+                    .roleType(role.getRoleType())
+                    .sources(role.getSources().stream()
+                            .map(source -> RoleSource.builder()
+                                    .sourceType(source.getSourceType())
+                                    .sourceId(source.getSourceId())
+                                    .sourceName(source.getSourceName())
+                                    .assignmentId(source.getAssignmentId())
+                                    .build())
+                            .collect(Collectors.toCollection(ArrayList::new)))
+                    .build());
         }
+        return copies;
+    }
+    
+    private List<String> toRoleCodes(List<UserEffectiveRole> roles) {
+        return roles.stream()
+                .map(UserEffectiveRole::getRoleCode)
+                .distinct()
+                .collect(Collectors.toList());
     }
     
     /**
@@ -224,4 +408,17 @@ public class UserRoleServiceImpl implements UserRoleService {
             default -> List.of("basic:access");
         };
     }
+    
+    /**
+     * 缓存的有效角色
+     */
+    private static final class CachedRoles {
+        private final List<UserEffectiveRole> roles;
+        private final long expiresAt;
+        
+        private CachedRoles(List<UserEffectiveRole> roles, long expiresAt) {
+            this.roles = roles;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -0,0 +1,4 @@
+-- Prefix index on the business unit materialized path (/root/.../id).
+-- Descendant lookups and subtree moves filter on path LIKE '<prefix>/%',
+-- which needs pattern_ops to use a btree index under non-C collations.
+CREATE INDEX IF NOT EXISTS idx_business_units_path ON sys_business_units (path varchar_pattern_ops);
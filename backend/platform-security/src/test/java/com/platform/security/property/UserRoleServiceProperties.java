@@ -2,16 +2,25 @@ package com.platform.security.property;
 
 import com.platform.security.dto.RoleSource;
 import com.platform.security.dto.UserEffectiveRole;
-import com.platform.security.entity.RoleAssignment;
 import com.platform.security.enums.AssignmentTargetType;
+import com.platform.security.event.RoleAssignmentChangedEvent;
 import com.platform.security.repository.RoleAssignmentRepository;
 import com.platform.security.resolver.TargetResolverFactory;
 import com.platform.security.service.impl.UserRoleServiceImpl;
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.AlphaChars;
 import net.jqwik.api.constraints.NotBlank;
 import net.jqwik.api.constraints.Size;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -24,7 +33,8 @@ import static org.mockito.Mockito.*;
  * Feature: role-assignment-targets
  * 
  * Note: Department-based role assignment tests have been removed.
- * Only USER and VIRTUAL_GROUP target types are now supported.
+ * Roles come from USER and VIRTUAL_GROUP assignments and business unit roles,
+ * resolved by a single query that is stubbed here row by row.
  */
 class UserRoleServiceProperties {
 
@@ -43,43 +53,14 @@ class UserRoleServiceProperties {
             @ForAll @NotBlank @Size(max = 64) String groupId
     ) {
         // Arrange
-        RoleAssignmentRepository repository = mock(RoleAssignmentRepository.class);
-        TargetResolverFactory resolverFactory = mock(TargetResolverFactory.class);
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserRoleServiceImpl service = createService(jdbcTemplate);
         
-        UserRoleServiceImpl service = new UserRoleServiceImpl(repository, resolverFactory, jdbcTemplate);
-        
-        // Create multiple assignments for the same role (user gets role from multiple sources)
-        RoleAssignment userAssignment = createAssignment("assign-1", roleId, AssignmentTargetType.USER, userId);
-        RoleAssignment groupAssignment = createAssignment("assign-2", roleId, AssignmentTargetType.VIRTUAL_GROUP, groupId);
-        
-        // Mock repository to return assignments from multiple sources
-        when(repository.findValidUserAssignments(userId)).thenReturn(List.of(userAssignment));
-        when(repository.findValidVirtualGroupAssignments(List.of(groupId))).thenReturn(List.of(groupAssignment));
-        
-        // Mock virtual groups
-        when(jdbcTemplate.queryForList(
-                contains("group_id FROM sys_virtual_group_members"),
-                eq(String.class),
-                eq(userId)
-        )).thenReturn(List.of(groupId));
-        
-        // Mock role info
-        Map<String, Object> roleInfo = new HashMap<>();
-        roleInfo.put("id", roleId);
-        roleInfo.put("code", roleCode);
-        roleInfo.put("name", roleName);
-        roleInfo.put("type", "BUSINESS");
-        when(jdbcTemplate.queryForMap(
-                contains("FROM sys_roles"),
-                eq(roleId)
-        )).thenReturn(roleInfo);
-        
-        // Mock display names
-        when(jdbcTemplate.queryForObject(contains("display_name"), eq(String.class), eq(userId)))
-                .thenReturn("User Name");
-        when(jdbcTemplate.queryForObject(contains("FROM sys_virtual_groups"), eq(String.class), eq(groupId)))
-                .thenReturn("Group Name");
+        // User gets the same role directly and through a virtual group
+        when(jdbcTemplate.queryForList(contains("sys_role_assignments"), eq(userId))).thenReturn(List.of(
+                row(userId, "assign-1", AssignmentTargetType.USER, userId, "直接分配", roleId, roleCode, roleName),
+                row(userId, "assign-2", AssignmentTargetType.VIRTUAL_GROUP, groupId, "Group Name", roleId, roleCode, roleName)
+        ));
         
         // Act
         List<UserEffectiveRole> roles = service.getEffectiveRolesForUser(userId);
@@ -95,7 +76,9 @@ class UserRoleServiceProperties {
                 .filter(r -> r.getRoleId().equals(roleId))
                 .findFirst();
         assertThat(role).isPresent();
-        assertThat(role.get().getSources()).hasSizeGreaterThanOrEqualTo(1);
+        assertThat(role.get().getSources()).hasSize(2);
+        assertThat(role.get().getSources()).extracting(RoleSource::getSourceType)
+                .containsExactly(AssignmentTargetType.USER, AssignmentTargetType.VIRTUAL_GROUP);
     }
 
     /**
@@ -113,42 +96,18 @@ class UserRoleServiceProperties {
             @ForAll @NotBlank @Size(max = 64) String groupId
     ) {
         // Arrange
-        RoleAssignmentRepository repository = mock(RoleAssignmentRepository.class);
-        TargetResolverFactory resolverFactory = mock(TargetResolverFactory.class);
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserRoleServiceImpl service = createService(jdbcTemplate);
         
-        UserRoleServiceImpl service = new UserRoleServiceImpl(repository, resolverFactory, jdbcTemplate);
-        
-        // User is member of a virtual group that has a role assignment
-        RoleAssignment groupAssignment = createAssignment("assign-1", roleId, AssignmentTargetType.VIRTUAL_GROUP, groupId);
-        
-        // Mock - no direct user assignments
-        when(repository.findValidUserAssignments(userId)).thenReturn(Collections.emptyList());
-        when(repository.findValidVirtualGroupAssignments(List.of(groupId))).thenReturn(List.of(groupAssignment));
-        
-        // Mock user is member of the virtual group
-        when(jdbcTemplate.queryForList(
-                contains("group_id FROM sys_virtual_group_members"),
-                eq(String.class),
-                eq(userId)
-        )).thenReturn(List.of(groupId));
-        
-        // Mock role info
-        Map<String, Object> roleInfo = new HashMap<>();
-        roleInfo.put("id", roleId);
-        roleInfo.put("code", roleCode);
-        roleInfo.put("name", roleName);
-        roleInfo.put("type", "BUSINESS");
-        when(jdbcTemplate.queryForMap(
-                contains("FROM sys_roles"),
-                eq(roleId)
-        )).thenReturn(roleInfo);
-        
-        // Mock group name
-        when(jdbcTemplate.queryForObject(contains("FROM sys_virtual_groups"), eq(String.class), eq(groupId)))
-                .thenReturn("Test Group");
+        // User is not a member yet, then joins a virtual group that has a role assignment
+        when(jdbcTemplate.queryForList(contains("sys_role_assignments"), eq(userId)))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(List.of(row(userId, "assign-1", AssignmentTargetType.VIRTUAL_GROUP, groupId,
+                        "Test Group", roleId, roleCode, roleName)));
+        assertThat(service.getEffectiveRolesForUser(userId)).isEmpty();
         
         // Act
+        service.onRoleAssignmentChanged(RoleAssignmentChangedEvent.forUser(userId));
         List<UserEffectiveRole> roles = service.getEffectiveRolesForUser(userId);
         
         // Assert - User should have the role from the virtual group
@@ -173,27 +132,22 @@ class UserRoleServiceProperties {
     @Property(tries = 100)
     void userLosesRoleWhenRemovedFromGroup(
             @ForAll @NotBlank @Size(max = 64) String userId,
-            @ForAll @NotBlank @Size(max = 64) String roleId
+            @ForAll @NotBlank @Size(max = 64) String roleId,
+            @ForAll @NotBlank @Size(max = 64) String groupId
     ) {
         // Arrange
-        RoleAssignmentRepository repository = mock(RoleAssignmentRepository.class);
-        TargetResolverFactory resolverFactory = mock(TargetResolverFactory.class);
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserRoleServiceImpl service = createService(jdbcTemplate);
         
-        UserRoleServiceImpl service = new UserRoleServiceImpl(repository, resolverFactory, jdbcTemplate);
-        
-        // Mock - user has no assignments (removed from all groups)
-        when(repository.findValidUserAssignments(userId)).thenReturn(Collections.emptyList());
-        when(repository.findValidVirtualGroupAssignments(anyList())).thenReturn(Collections.emptyList());
-        
-        // Mock user is NOT member of any virtual group (removed)
-        when(jdbcTemplate.queryForList(
-                contains("group_id FROM sys_virtual_group_members"),
-                eq(String.class),
-                eq(userId)
-        )).thenReturn(Collections.emptyList());
+        // User has the role through a virtual group, then is removed from the group
+        when(jdbcTemplate.queryForList(contains("sys_role_assignments"), eq(userId)))
+                .thenReturn(List.of(row(userId, "assign-1", AssignmentTargetType.VIRTUAL_GROUP, groupId,
+                        "Test Group", roleId, "ROLE", "Role")))
+                .thenReturn(Collections.emptyList());
+        assertThat(service.getEffectiveRolesForUser(userId)).isNotEmpty();
         
         // Act
+        service.onRoleAssignmentChanged(RoleAssignmentChangedEvent.forUser(userId));
         List<UserEffectiveRole> roles = service.getEffectiveRolesForUser(userId);
         
         // Assert - User should NOT have the role anymore
@@ -205,24 +159,18 @@ class UserRoleServiceProperties {
      */
     @Property(tries = 100)
     void roleCodesAreUnique(
-            @ForAll @NotBlank @Size(max = 64) String userId
+            @ForAll @NotBlank @Size(max = 64) String userId,
+            @ForAll @NotBlank @Size(max = 64) String businessUnitId
     ) {
         // Arrange
-        RoleAssignmentRepository repository = mock(RoleAssignmentRepository.class);
-        TargetResolverFactory resolverFactory = mock(TargetResolverFactory.class);
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserRoleServiceImpl service = createService(jdbcTemplate);
         
-        UserRoleServiceImpl service = new UserRoleServiceImpl(repository, resolverFactory, jdbcTemplate);
-        
-        // Mock empty assignments
-        when(repository.findValidUserAssignments(userId)).thenReturn(Collections.emptyList());
-        when(repository.findValidVirtualGroupAssignments(anyList())).thenReturn(Collections.emptyList());
-        
-        when(jdbcTemplate.queryForList(
-                contains("group_id FROM sys_virtual_group_members"),
-                eq(String.class),
-                eq(userId)
-        )).thenReturn(Collections.emptyList());
+        when(jdbcTemplate.queryForList(contains("sys_role_assignments"), eq(userId))).thenReturn(List.of(
+                row(userId, "assign-1", AssignmentTargetType.USER, userId, "直接分配", "role-1", "Manager", "Manager"),
+                row(userId, "assign-2", AssignmentTargetType.BUSINESS_UNIT, businessUnitId, "BU", "role-2", "User", "User"),
+                row(userId, "assign-3", AssignmentTargetType.BUSINESS_UNIT, businessUnitId, "BU", "role-1", "Manager", "Manager")
+        ));
         
         // Act
         List<String> roleCodes = service.getEffectiveRoleCodesForUser(userId);
@@ -230,17 +178,148 @@ class UserRoleServiceProperties {
         // Assert - All role codes should be unique
         Set<String> uniqueCodes = new HashSet<>(roleCodes);
         assertThat(uniqueCodes).hasSize(roleCodes.size());
+        assertThat(roleCodes).containsExactly("Manager", "User");
+    }
+
+    /**
+     * Property: Batch resolution matches per-user resolution and uses a single query
+     */
+    @Property(tries = 50)
+    void batchResolutionMatchesPerUserResolution(
+            @ForAll @Size(min = 1, max = 20) Set<@NotBlank @Size(max = 64) String> userIds
+    ) {
+        // Arrange - every user gets one direct role named after the user
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserRoleServiceImpl service = createService(jdbcTemplate);
+        
+        List<Map<String, Object>> rows = userIds.stream()
+                .map(userId -> row(userId, "assign-" + userId, AssignmentTargetType.USER, userId, "直接分配",
+                        "role-" + userId, "CODE_" + userId, "Role " + userId))
+                .collect(Collectors.toList());
+        when(jdbcTemplate.queryForList(contains("sys_role_assignments"), any(Object[].class))).thenReturn(rows);
+        
+        // Act
+        Map<String, List<String>> codes = service.getEffectiveRoleCodesForUsers(userIds);
+        
+        // Assert
+        assertThat(codes.keySet()).containsExactlyInAnyOrderElementsOf(userIds);
+        codes.forEach((userId, roleCodes) -> assertThat(roleCodes).containsExactly("CODE_" + userId));
+        verify(jdbcTemplate, times(1)).queryForList(contains("sys_role_assignments"), any(Object[].class));
+        
+        // Per-user lookups are served from the cache populated by the batch
+        for (String userId : userIds) {
+            assertThat(service.getEffectiveRoleCodesForUser(userId)).containsExactly("CODE_" + userId);
+        }
+        verify(jdbcTemplate, times(1)).queryForList(contains("sys_role_assignments"), any(Object[].class));
+    }
+
+    /**
+     * Property: Cached results are isolated from caller modifications
+     */
+    @Property(tries = 50)
+    void cachedRolesAreNotMutatedByCallers(
+            @ForAll @NotBlank @Size(max = 64) String userId,
+            @ForAll @NotBlank @Size(max = 64) String roleId
+    ) {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserRoleServiceImpl service = createService(jdbcTemplate);
+        when(jdbcTemplate.queryForList(contains("sys_role_assignments"), eq(userId))).thenReturn(List.of(
+                row(userId, "assign-1", AssignmentTargetType.USER, userId, "直接分配", roleId, "ROLE", "Role")));
+        
+        // Act
+        service.getEffectiveRolesForUser(userId).get(0).addSource(RoleSource.builder().sourceId("other").build());
+        List<UserEffectiveRole> roles = service.getEffectiveRolesForUser(userId);
+        
+        // Assert
+        assertThat(roles.get(0).getSources()).hasSize(1);
+        verify(jdbcTemplate, times(1)).queryForList(contains("sys_role_assignments"), eq(userId));
+    }
+
+    /**
+     * Property: Changes in one process invalidate the cache of the other processes
+     * A local change is broadcast; a broadcast from another instance drops the cached
+     * roles, while the instance's own broadcast is ignored.
+     */
+    @Property(tries = 50)
+    void changesAreBroadcastToOtherProcesses(
+            @ForAll @AlphaChars @NotBlank @Size(max = 64) String userId,
+            @ForAll @NotBlank @Size(max = 64) String roleId
+    ) {
+        // Arrange - two processes sharing Redis, the portal has the user's role cached
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        UserRoleServiceImpl admin = createService(jdbcTemplate, redisTemplate, container);
+        UserRoleServiceImpl portal = createService(jdbcTemplate, redisTemplate, container);
+        ArgumentCaptor<MessageListener> listeners = ArgumentCaptor.forClass(MessageListener.class);
+        verify(container, times(2)).addMessageListener(listeners.capture(),
+                eq(new ChannelTopic("platform:security:user-role-invalidation")));
+        MessageListener portalListener = listeners.getAllValues().get(1);
+        
+        when(jdbcTemplate.queryForList(contains("sys_role_assignments"), eq(userId)))
+                .thenReturn(List.of(row(userId, "assign-1", AssignmentTargetType.USER, userId, "直接分配",
+                        roleId, "ROLE", "Role")))
+                .thenReturn(Collections.emptyList());
+        assertThat(portal.getEffectiveRolesForUser(userId)).hasSize(1);
+        
+        // Act - the admin process revokes the role, the portal changes another user
+        admin.onRoleAssignmentChanged(RoleAssignmentChangedEvent.forUser(userId));
+        portal.onRoleAssignmentChanged(RoleAssignmentChangedEvent.forUser("other-user"));
+        ArgumentCaptor<String> broadcasts = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(2)).convertAndSend(eq("platform:security:user-role-invalidation"),
+                broadcasts.capture());
+        String adminBroadcast = broadcasts.getAllValues().get(0);
+        String portalBroadcast = broadcasts.getAllValues().get(1);
+        assertThat(adminBroadcast).endsWith("|" + userId);
+        
+        // Assert - the portal ignores its own broadcast and drops the roles on the admin's
+        String portalInstance = portalBroadcast.substring(0, portalBroadcast.indexOf('|'));
+        portalListener.onMessage(message(portalInstance + "|" + userId), null);
+        assertThat(portal.getEffectiveRolesForUser(userId)).hasSize(1);
+        
+        portalListener.onMessage(message(adminBroadcast), null);
+        assertThat(portal.getEffectiveRolesForUser(userId)).isEmpty();
+    }
+
+    private UserRoleServiceImpl createService(JdbcTemplate jdbcTemplate) {
+        return createService(jdbcTemplate, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private UserRoleServiceImpl createService(JdbcTemplate jdbcTemplate, StringRedisTemplate redisTemplate,
+                                              RedisMessageListenerContainer container) {
+        ObjectProvider<StringRedisTemplate> redisProvider = mock(ObjectProvider.class);
+        when(redisProvider.getIfAvailable()).thenReturn(redisTemplate);
+        ObjectProvider<RedisMessageListenerContainer> containerProvider = mock(ObjectProvider.class);
+        when(containerProvider.getIfAvailable()).thenReturn(container);
+        UserRoleServiceImpl service = new UserRoleServiceImpl(mock(RoleAssignmentRepository.class),
+                mock(TargetResolverFactory.class), jdbcTemplate, redisProvider, containerProvider);
+        service.subscribeInvalidations();
+        return service;
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage("platform:security:user-role-invalidation".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Helper method to create a RoleAssignment
+     * Helper method to create a row of the effective role query
      */
-    private RoleAssignment createAssignment(String id, String roleId, AssignmentTargetType targetType, String targetId) {
-        return RoleAssignment.builder()
-                .id(id)
-                .roleId(roleId)
-                .targetType(targetType)
-                .targetId(targetId)
-                .build();
+    private Map<String, Object> row(String userId, String assignmentId, AssignmentTargetType sourceType,
+                                    String sourceId, String sourceName,
+                                    String roleId, String roleCode, String roleName) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("user_id", userId);
+        row.put("assignment_id", assignmentId);
+        row.put("source_type", sourceType.name());
+        row.put("source_id", sourceId);
+        row.put("source_name", sourceName);
+        row.put("role_id", roleId);
+        row.put("role_code", roleCode);
+        row.put("role_name", roleName);
+        row.put("role_type", "BU_UNBOUNDED");
+        return row;
     }
 }
@@ -6,17 +6,19 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
  * 工作流引擎核心应用程序
  * 基于Flowable 7.0.0 + Spring Boot 3.x + PostgreSQL 16.5
  */
-@SpringBootApplication(scanBasePackages = {"com.workflow", "com.platform.cache", "com.platform.security"})
+@SpringBootApplication(scanBasePackages = {"com.workflow", "com.platform.cache", "com.platform.security", "com.platform.messaging", "com.platform.common.saga"})
 @EntityScan(basePackages = {"com.workflow", "com.platform.security.model", "com.platform.security.entity"})
 @EnableJpaRepositories(basePackages = {"com.workflow", "com.platform.security.repository"})
 @EnableKafka
 @EnableAsync
+@EnableScheduling
 @EnableTransactionManagement
 public class WorkflowEngineApplication {
 
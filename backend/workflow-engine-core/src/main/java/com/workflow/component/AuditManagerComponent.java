@@ -1,6 +1,5 @@
 package com.workflow.component;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.workflow.dto.AuditLogQueryRequest;
 import com.workflow.dto.AuditLogStatisticsResult;
@@ -19,6 +18,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -45,6 +45,9 @@ public class AuditManagerComponent {
         "ssn", "idCard", "phone", "email", "bankAccount"
     );
     
+    // 字段名包含任一敏感字段（不区分大小写）即脱敏
+    private static final KeywordMatcher SENSITIVE_FIELD_MATCHER = KeywordMatcher.of(SENSITIVE_FIELDS);
+    
     /**
      * 记录审计日志
      */
@@ -275,64 +278,22 @@ public class AuditManagerComponent {
     
     /**
      * 数据脱敏处理
+     * 序列化时单遍改写敏感字段的值
      */
     private String maskSensitiveData(Object data) {
-        try {
-            if (data == null) {
-                return null;
-            }
-            
-            // 转换为JSON字符串
-            String jsonString = objectMapper.writeValueAsString(data);
-            
-            // 解析为Map进行脱敏
-            @SuppressWarnings("unchecked")
-            Map<String, Object> dataMap = objectMapper.readValue(jsonString, Map.class);
-            
-            if (dataMap != null) {
-                maskSensitiveFields(dataMap);
-            }
-            
-            return objectMapper.writeValueAsString(dataMap);
-            
-        } catch (JsonProcessingException e) {
-            logger.warn("数据脱敏处理失败，返回原始数据", e);
-            return data.toString();
+        if (data == null) {
+            return null;
         }
-    }
-    
-    /**
-     * 递归脱敏敏感字段
-     */
-    @SuppressWarnings("unchecked")
-    private void maskSensitiveFields(Map<String, Object> dataMap) {
-        if (dataMap == null) {
-            return;
+        if (data instanceof CharSequence || data instanceof Number || data instanceof Boolean) {
+            return data.toString();
         }
         
-        for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
-            String key = entry.getKey().toLowerCase();
-            Object value = entry.getValue();
-            
-            // 检查是否为敏感字段
-            boolean isSensitive = SENSITIVE_FIELDS.stream().anyMatch(key::contains);
-            
-            if (isSensitive && value != null) {
-                // 脱敏处理
-                String maskedValue = maskValue(value.toString());
-                entry.setValue(maskedValue);
-            } else if (value instanceof Map) {
-                // 递归处理嵌套对象
-                maskSensitiveFields((Map<String, Object>) value);
-            } else if (value instanceof List) {
-                // 处理列表
-                List<?> list = (List<?>) value;
-                for (Object item : list) {
-                    if (item instanceof Map) {
-                        maskSensitiveFields((Map<String, Object>) item);
-                    }
-                }
-            }
+        try {
+            return SensitiveDataMasker.writeMaskedJson(objectMapper, data, SENSITIVE_FIELD_MATCHER, this::maskValue);
+
+        } catch (IOException e) {
+            logger.warn("数据脱敏处理失败，返回原始数据", e);
+            return data.toString();
         }
     }
     
@@ -0,0 +1,459 @@
+package com.workflow.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * 集群通知投递总线
+ *
+ * 解决WebSocket会话只存在于单个节点的问题：
+ * - 节点注册会话时在传输层登记用户在线状态（用户ID -> 节点ID）
+ * - 发布通知时按用户ID查找持有会话的节点，写入这些节点的收件箱
+ * - 每个节点只消费自己的收件箱，推送到本地会话后确认（至少一次投递）
+ * - 未确认的消息在下一轮重投，用户已迁移到其他节点时转发
+ * - 节点ID每次启动都会变化，节点下线后由存活节点接管其收件箱，重新路由剩余消息后删除收件箱
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterNotificationBus {
+
+    private final NotificationStreamTransport transport;
+    private final HorizontalScalingComponent scalingComponent;
+
+    @Value("${workflow.notification.cluster.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${workflow.notification.cluster.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${workflow.notification.cluster.block-millis:2000}")
+    private long blockMillis = 2000;
+
+    @Value("${workflow.notification.cluster.presence-ttl-seconds:60}")
+    private long presenceTtlSeconds = 60;
+
+    @Value("${workflow.notification.cluster.max-forwards:3}")
+    private int maxForwards = 3;
+
+    // 消息字段
+    static final String FIELD_USER_ID = "userId";
+    static final String FIELD_EVENT_ID = "eventId";
+    static final String FIELD_MESSAGE = "message";
+    static final String FIELD_ORIGIN_NODE = "originNode";
+    static final String FIELD_FORWARDS = "forwards";
+    static final String FIELD_PUBLISHED_AT = "publishedAt";
+
+    // 本节点持有会话的用户
+    private final Set<String> localUsers = ConcurrentHashMap.newKeySet();
+
+    // 本地投递回调（userId, message） -> 是否投递成功
+    private volatile BiPredicate<String, String> localDelivery = (userId, message) -> false;
+
+    // 投递统计
+    private final AtomicLong publishedCount = new AtomicLong(0);
+    private final AtomicLong deliveredCount = new AtomicLong(0);
+    private final AtomicLong forwardedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong redeliveredCount = new AtomicLong(0);
+    private final AtomicLong recoveredCount = new AtomicLong(0);
+
+    private ExecutorService consumerExecutor;
+    private volatile boolean running = false;
+    private volatile long lastPresenceRefresh = 0;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("集群通知总线已禁用");
+            return;
+        }
+
+        running = true;
+        consumerExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cluster-notification-consumer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        consumerExecutor.submit(this::consumeLoop);
+        log.info("集群通知总线已启动: nodeId={}", scalingComponent.getNodeId());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (consumerExecutor != null) {
+            consumerExecutor.shutdownNow();
+            try {
+                consumerExecutor.awaitTermination(blockMillis * 2, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 下线时清除本节点的在线状态，避免其他节点继续路由到这里
+        String nodeId = scalingComponent.getNodeId();
+        for (String userId : localUsers) {
+            try {
+                transport.clearPresence(userId, nodeId);
+            } catch (Exception e) {
+                log.warn("清除用户在线状态失败: userId={}, error={}", userId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 注册本地投递回调
+     */
+    public void registerLocalDelivery(BiPredicate<String, String> delivery) {
+        this.localDelivery = delivery;
+    }
+
+    // ==================== 在线状态 ====================
+
+    /**
+     * 用户在本节点建立会话
+     */
+    public void userConnected(String userId) {
+        localUsers.add(userId);
+        try {
+            transport.markPresent(userId, scalingComponent.getNodeId(), presenceTtl());
+        } catch (Exception e) {
+            log.error("登记用户在线状态失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 用户在本节点的最后一个会话断开
+     */
+    public void userDisconnected(String userId) {
+        localUsers.remove(userId);
+        try {
+            transport.clearPresence(userId, scalingComponent.getNodeId());
+        } catch (Exception e) {
+            log.error("清除用户在线状态失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 续期本节点所有在线用户的状态
+     */
+    public void refreshPresence() {
+        String nodeId = scalingComponent.getNodeId();
+        Duration ttl = presenceTtl();
+        for (String userId : localUsers) {
+            try {
+                transport.markPresent(userId, nodeId, ttl);
+            } catch (Exception e) {
+                log.warn("续期用户在线状态失败: userId={}, error={}", userId, e.getMessage());
+            }
+        }
+        lastPresenceRefresh = System.currentTimeMillis();
+    }
+
+    // ==================== 发布 ====================
+
+    /**
+     * 将通知路由到持有该用户会话的其他节点
+     *
+     * @return 路由到的远程节点数
+     */
+    public int publish(String userId, String eventId, String message) {
+        if (!enabled) {
+            return 0;
+        }
+
+        String nodeId = scalingComponent.getNodeId();
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_USER_ID, userId);
+        fields.put(FIELD_EVENT_ID, eventId != null ? eventId : "");
+        fields.put(FIELD_MESSAGE, message);
+        fields.put(FIELD_ORIGIN_NODE, nodeId);
+        fields.put(FIELD_FORWARDS, "0");
+        fields.put(FIELD_PUBLISHED_AT, String.valueOf(System.currentTimeMillis()));
+
+        try {
+            int routed = routeToRemoteNodes(userId, fields, null);
+            publishedCount.addAndGet(routed);
+            return routed;
+        } catch (Exception e) {
+            log.error("路由集群通知失败: userId={}, error={}", userId, e.getMessage());
+            return 0;
+        }
+    }
+
+    // ==================== 消费 ====================
+
+    /**
+     * 处理一批收件箱消息
+     *
+     * @param block 无新消息时的阻塞时间
+     * @param pendingOnly 为true时只处理已投递未确认的消息
+     * @return 处理的消息数
+     */
+    public int pollOnce(Duration block, boolean pendingOnly) {
+        String nodeId = scalingComponent.getNodeId();
+        List<NotificationStreamTransport.StreamEntry> entries =
+                transport.read(nodeId, batchSize, block, pendingOnly);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        List<String> acknowledged = new ArrayList<>(entries.size());
+        for (NotificationStreamTransport.StreamEntry entry : entries) {
+            if (pendingOnly) {
+                redeliveredCount.incrementAndGet();
+            }
+            if (handleEntry(entry)) {
+                acknowledged.add(entry.id());
+            }
+        }
+
+        transport.acknowledge(nodeId, acknowledged);
+        return entries.size();
+    }
+
+    /**
+     * 接管已下线节点的收件箱
+     *
+     * 收件箱中剩余的是已投递未确认和尚未投递的消息（已确认的消息会被删除）。
+     * 用户会话在本节点时直接投递，否则重新路由到持有会话的其他存活节点；
+     * 用户尚未重连的消息保留到在线状态过期后再丢弃，收件箱清空后删除
+     *
+     * @return 接管处理的消息数
+     */
+    public int recoverDeadInboxes() {
+        String nodeId = scalingComponent.getNodeId();
+        int recovered = 0;
+        for (String inboxNode : transport.findInboxNodes()) {
+            if (inboxNode.equals(nodeId) || scalingComponent.isNodeAlive(inboxNode)) {
+                continue;
+            }
+            if (!transport.claimInbox(inboxNode, nodeId, presenceTtl())) {
+                continue;
+            }
+            try {
+                recovered += takeOverInbox(inboxNode);
+            } catch (Exception e) {
+                log.warn("接管下线节点收件箱失败: node={}, error={}", inboxNode, e.getMessage());
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * 获取总线统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("nodeId", scalingComponent.getNodeId());
+        stats.put("localUsers", localUsers.size());
+        stats.put("published", publishedCount.get());
+        stats.put("delivered", deliveredCount.get());
+        stats.put("forwarded", forwardedCount.get());
+        stats.put("dropped", droppedCount.get());
+        stats.put("redelivered", redeliveredCount.get());
+        stats.put("recovered", recoveredCount.get());
+        return stats;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void consumeLoop() {
+        // 启动时先重投上次未确认的消息
+        boolean recoverPending = true;
+
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (System.currentTimeMillis() - lastPresenceRefresh >= presenceTtl().toMillis() / 3) {
+                    refreshPresence();
+                    recoverDeadInboxes();
+                    recoverPending = true;
+                }
+                if (recoverPending) {
+                    pollOnce(null, true);
+                    recoverPending = false;
+                }
+                pollOnce(Duration.ofMillis(blockMillis), false);
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.error("消费集群通知失败: {}", e.getMessage());
+                sleepQuietly(blockMillis);
+            }
+        }
+    }
+
+    /**
+     * 处理单条消息，返回是否可以确认
+     */
+    private boolean handleEntry(NotificationStreamTransport.StreamEntry entry) {
+        Map<String, String> fields = entry.fields();
+        String userId = fields.get(FIELD_USER_ID);
+        String message = fields.get(FIELD_MESSAGE);
+        if (userId == null || message == null) {
+            log.warn("丢弃格式错误的集群通知: id={}", entry.id());
+            droppedCount.incrementAndGet();
+            return true;
+        }
+
+        try {
+            if (localUsers.contains(userId) && localDelivery.test(userId, message)) {
+                deliveredCount.incrementAndGet();
+                return true;
+            }
+        } catch (Exception e) {
+            // 不确认，下一轮重投
+            log.warn("本地投递集群通知失败: userId={}, error={}", userId, e.getMessage());
+            return false;
+        }
+
+        // 用户已不在本节点，转发到当前持有会话的节点
+        int forwards = parseForwards(fields.get(FIELD_FORWARDS));
+        if (forwards >= maxForwards) {
+            log.info("集群通知转发次数超限，丢弃: userId={}, eventId={}", userId, fields.get(FIELD_EVENT_ID));
+            droppedCount.incrementAndGet();
+            return true;
+        }
+
+        Map<String, String> forwarded = new HashMap<>(fields);
+        forwarded.put(FIELD_FORWARDS, String.valueOf(forwards + 1));
+        if (routeToRemoteNodes(userId, forwarded, null) > 0) {
+            forwardedCount.incrementAndGet();
+        } else {
+            // 用户已离线，站内消息和通知历史会保留记录
+            droppedCount.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * 逐批接管一个下线节点的收件箱
+     */
+    private int takeOverInbox(String deadNode) {
+        long now = System.currentTimeMillis();
+        int recovered = 0;
+        String afterId = null;
+        while (true) {
+            List<NotificationStreamTransport.StreamEntry> entries = transport.range(deadNode, afterId, batchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+
+            List<String> handled = new ArrayList<>(entries.size());
+            for (NotificationStreamTransport.StreamEntry entry : entries) {
+                if (recoverEntry(deadNode, entry, now)) {
+                    handled.add(entry.id());
+                }
+            }
+            transport.remove(deadNode, handled);
+            recovered += handled.size();
+
+            if (entries.size() < batchSize) {
+                break;
+            }
+            afterId = entries.get(entries.size() - 1).id();
+        }
+
+        if (transport.deleteInboxIfEmpty(deadNode)) {
+            log.info("已接管下线节点收件箱: node={}, recovered={}", deadNode, recovered);
+        }
+        return recovered;
+    }
+
+    /**
+     * 重新投递下线节点收件箱中的单条消息，返回是否可以删除
+     */
+    private boolean recoverEntry(String deadNode, NotificationStreamTransport.StreamEntry entry, long now) {
+        Map<String, String> fields = entry.fields();
+        String userId = fields.get(FIELD_USER_ID);
+        String message = fields.get(FIELD_MESSAGE);
+        if (userId == null || message == null) {
+            log.warn("丢弃格式错误的集群通知: id={}", entry.id());
+            droppedCount.incrementAndGet();
+            return true;
+        }
+
+        try {
+            if (localUsers.contains(userId) && localDelivery.test(userId, message)) {
+                deliveredCount.incrementAndGet();
+                recoveredCount.incrementAndGet();
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("本地投递接管的集群通知失败: userId={}, error={}", userId, e.getMessage());
+        }
+
+        // 下线节点的在线状态在过期前仍可能存在，重新路由时排除它
+        if (routeToRemoteNodes(userId, fields, deadNode) > 0) {
+            recoveredCount.incrementAndGet();
+            return true;
+        }
+
+        // 用户可能正在重连到其他节点，在线状态过期前保留消息
+        if (now - parsePublishedAt(fields.get(FIELD_PUBLISHED_AT)) < presenceTtl().toMillis()) {
+            return false;
+        }
+        droppedCount.incrementAndGet();
+        return true;
+    }
+
+    private int routeToRemoteNodes(String userId, Map<String, String> fields, String excludedNode) {
+        String nodeId = scalingComponent.getNodeId();
+        int routed = 0;
+        for (String targetNode : transport.findPresentNodes(userId)) {
+            if (targetNode.equals(nodeId) || targetNode.equals(excludedNode)) {
+                continue;
+            }
+            transport.append(targetNode, fields);
+            routed++;
+        }
+        return routed;
+    }
+
+    private Duration presenceTtl() {
+        return Duration.ofSeconds(presenceTtlSeconds);
+    }
+
+    private int parseForwards(String value) {
+        try {
+            return value != null ? Integer.parseInt(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private long parsePublishedAt(String value) {
+        try {
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.workflow.component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环
+ *
+ * 每个节点在环上放置多个虚拟节点，键映射到顺时针方向的第一个虚拟节点；
+ * 节点加入或离开时只有相邻区间的键发生迁移
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        int replicas = Math.max(1, virtualNodes);
+        for (String node : nodes) {
+            for (int i = 0; i < replicas; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * 获取键所属的节点，环为空时返回null
+     */
+    String nodeFor(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 取MD5前8字节作为环上位置，各节点计算结果一致且分布均匀
+     */
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5不可用", e);
+        }
+    }
+}
@@ -8,14 +8,24 @@ import com.workflow.enums.AuditResourceType;
 import com.workflow.exception.WorkflowBusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -44,23 +54,98 @@ public class DataAccessSecurityComponent {
     private static final String SECURITY_EVENT_PREFIX = "security:event:";
     private static final String ALERT_PREFIX = "security:alert:";
 
+    // 事件流和告警流，近似裁剪到最大长度
+    private static final String EVENT_STREAM_KEY = SECURITY_EVENT_PREFIX + "stream";
+    private static final String ALERT_STREAM_KEY = ALERT_PREFIX + "stream";
+    private static final long EVENT_STREAM_MAX_LENGTH = 1_000_000;
+    private static final long ALERT_STREAM_MAX_LENGTH = 100_000;
+    private static final int STREAM_SCAN_PAGE_SIZE = 500;
+
+    // 按事件类型、按用户的索引流，条目ID与事件流相同，查询时按ID回查事件流
+    private static final String EVENT_TYPE_INDEX_PREFIX = EVENT_STREAM_KEY + ":type:";
+    private static final String EVENT_USER_INDEX_PREFIX = EVENT_STREAM_KEY + ":user:";
+    private static final long EVENT_USER_INDEX_MAX_LENGTH = 10_000;
+
+    // 用户事件分钟计数桶（Hash: 分钟序号 -> 次数）和按小时预聚合的统计桶（Hash: 事件类型/告警级别 -> 次数）
+    private static final String EVENT_BUCKET_PREFIX = SECURITY_EVENT_PREFIX + "bucket:";
+    private static final String EVENT_STATS_PREFIX = SECURITY_EVENT_PREFIX + "stats:";
+    private static final String ALERT_STATS_PREFIX = ALERT_PREFIX + "stats:";
+    private static final Duration STATS_RETENTION = Duration.ofDays(31);
+    private static final DateTimeFormatter HOUR_BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final int MAX_WINDOW_MINUTES = 1440;
+
+    // 记录事件：追加事件流和两个索引流，小时统计加一；有规则时分钟桶加一、清理窗口外的桶，返回各窗口内的计数。
+    // 索引流按长度裁剪，并与小时统计同样在最后一次写入后保留STATS_RETENTION，不再活跃的用户不会留下索引键。
+    // 分钟序号取自事件流ID，与流ID同为Redis服务器时钟
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECORD_EVENT_SCRIPT = new DefaultRedisScript<>(
+            "local id = redis.call('xadd', KEYS[1], 'MAXLEN', '~', ARGV[3], '*', 'event', ARGV[1]) "
+            + "redis.pcall('xadd', KEYS[4], 'MAXLEN', '~', ARGV[3], id, 'e', '') "
+            + "redis.pcall('xadd', KEYS[5], 'MAXLEN', '~', ARGV[5], id, 'e', '') "
+            + "redis.call('expire', KEYS[4], ARGV[4]) "
+            + "redis.call('expire', KEYS[5], ARGV[4]) "
+            + "redis.call('hincrby', KEYS[3], ARGV[2], 1) "
+            + "redis.call('expire', KEYS[3], ARGV[4]) "
+            + "local result = {} "
+            + "local retain = tonumber(ARGV[6]) "
+            + "if retain == 0 then return result end "
+            + "local minute = math.floor(tonumber(string.match(id, '^(%d+)')) / 60000) "
+            + "redis.call('hincrby', KEYS[2], string.format('%d', minute), 1) "
+            + "redis.call('expire', KEYS[2], retain * 60 + 60) "
+            + "if redis.call('hlen', KEYS[2]) > retain then "
+            + "  for _, f in ipairs(redis.call('hkeys', KEYS[2])) do "
+            + "    if tonumber(f) <= minute - retain then redis.call('hdel', KEYS[2], f) end "
+            + "  end "
+            + "end "
+            + "local buckets = redis.call('hgetall', KEYS[2]) "
+            + "for w in string.gmatch(ARGV[7], '%d+') do "
+            + "  local since = minute - tonumber(w) "
+            + "  local sum = 0 "
+            + "  for i = 1, #buckets, 2 do "
+            + "    if tonumber(buckets[i]) > since then sum = sum + tonumber(buckets[i + 1]) end "
+            + "  end "
+            + "  result[#result + 1] = sum "
+            + "end "
+            + "return result", List.class);
+
+    // 倒序读取一页索引流，按ID回查事件流，返回 [id1, 值1, id2, 值2, ...]；事件流中已裁剪的条目值为空串
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCAN_INDEX_SCRIPT = new DefaultRedisScript<>(
+            "local entries = redis.call('xrevrange', KEYS[2], ARGV[1], ARGV[2], 'COUNT', ARGV[3]) "
+            + "local result = {} "
+            + "for _, entry in ipairs(entries) do "
+            + "  local value = '' "
+            + "  local found = redis.call('xrange', KEYS[1], entry[1], entry[1]) "
+            + "  if #found > 0 then "
+            + "    local fields = found[1][2] "
+            + "    for i = 1, #fields, 2 do "
+            + "      if fields[i] == ARGV[4] then value = fields[i + 1] end "
+            + "    end "
+            + "  end "
+            + "  result[#result + 1] = entry[1] "
+            + "  result[#result + 1] = value "
+            + "end "
+            + "return result", List.class);
+
+    // 记录告警：追加告警流，小时统计加一
+    private static final RedisScript<Long> RECORD_ALERT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('xadd', KEYS[1], 'MAXLEN', '~', ARGV[3], '*', 'alert', ARGV[1]) "
+            + "redis.call('hincrby', KEYS[2], ARGV[2], 1) "
+            + "redis.call('expire', KEYS[2], ARGV[4]) "
+            + "return 1", Long.class);
+
     // 内存缓存
     private final Map<String, RowLevelPolicy> rowPolicies = new ConcurrentHashMap<>();
     private final Map<String, ColumnLevelPolicy> columnPolicies = new ConcurrentHashMap<>();
+    private final Map<String, CompiledRowPolicy> compiledRowPolicies = new ConcurrentHashMap<>();
+    
+    // 按表名索引的策略，定义策略时整体替换
+    private volatile Map<String, List<CompiledRowPolicy>> rowPolicyIndex = Map.of();
+    private volatile Map<String, List<ColumnLevelPolicy>> columnPolicyIndex = Map.of();
     private final Map<String, DataMaskRule> maskRules = new ConcurrentHashMap<>();
     private final Map<String, AlertRule> alertRules = new ConcurrentHashMap<>();
+    private volatile Map<String, List<AlertRule>> alertRuleIndex = Map.of();
     
-    // 敏感数据模式
-    private static final Map<String, Pattern> SENSITIVE_PATTERNS = new HashMap<>();
-    
-    static {
-        SENSITIVE_PATTERNS.put("PHONE", Pattern.compile("1[3-9]\\d{9}"));
-        SENSITIVE_PATTERNS.put("ID_CARD", Pattern.compile("\\d{17}[\\dXx]"));
-        SENSITIVE_PATTERNS.put("EMAIL", Pattern.compile("[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}"));
-        SENSITIVE_PATTERNS.put("BANK_CARD", Pattern.compile("\\d{16,19}"));
-        SENSITIVE_PATTERNS.put("PASSWORD", Pattern.compile("(?i)(password|pwd|secret|key)"));
-    }
-
     // ==================== 行级权限控制 ====================
 
     /**
@@ -97,15 +182,29 @@ public class DataAccessSecurityComponent {
 
     /**
      * 定义行级权限策略
+     * 
+     * 条件表达式在此编译一次，语法错误时拒绝定义
      */
     public void defineRowLevelPolicy(RowLevelPolicy policy) {
         log.info("定义行级权限策略: policyId={}, tableName={}", policy.getPolicyId(), policy.getTableName());
         
+        RowPolicyExpression condition = null;
+        if (policy.getConditionExpression() != null && !policy.getConditionExpression().isBlank()) {
+            try {
+                condition = RowPolicyExpression.compile(policy.getConditionExpression());
+            } catch (IllegalArgumentException e) {
+                throw new WorkflowBusinessException("INVALID_ROW_POLICY", 
+                        "行级权限条件表达式无效: " + policy.getConditionExpression() + ", " + e.getMessage());
+            }
+        }
+        
         if (policy.getCreatedTime() == null) {
             policy.setCreatedTime(LocalDateTime.now());
         }
         
         rowPolicies.put(policy.getPolicyId(), policy);
+        compiledRowPolicies.put(policy.getPolicyId(), new CompiledRowPolicy(policy, condition));
+        rebuildRowPolicyIndex();
         
         // 缓存到Redis
         try {
@@ -125,99 +224,190 @@ public class DataAccessSecurityComponent {
     public RowAccessResult checkRowAccess(String username, String tableName, Map<String, Object> rowData) {
         log.debug("检查行级访问权限: username={}, tableName={}", username, tableName);
         
-        // 获取用户角色
-        Set<String> userRoles = securityManagerComponent.getUserRoles(username);
-        
-        // 查找适用的行级策略
-        List<RowLevelPolicy> applicablePolicies = rowPolicies.values().stream()
-                .filter(p -> p.isEnabled() && p.getTableName().equals(tableName))
-                .collect(Collectors.toList());
-        
-        if (applicablePolicies.isEmpty()) {
-            // 没有策略，默认允许
+        List<CompiledRowPolicy> restricting = restrictingRowPolicies(username, tableName);
+        if (restricting.isEmpty()) {
+            // 没有策略或用户/角色被允许
             return RowAccessResult.allowed();
         }
         
-        for (RowLevelPolicy policy : applicablePolicies) {
-            // 检查用户是否在允许列表中
-            if (policy.getAllowedUsers() != null && policy.getAllowedUsers().contains(username)) {
-                continue; // 用户被明确允许
+        Map<String, Object> variables = RowPolicyExpression.variablesFor(username);
+        for (CompiledRowPolicy compiled : restricting) {
+            if (compiled.condition() != null && !compiled.condition().test(rowData, variables)) {
+                recordSecurityEvent(username, "ROW_ACCESS_DENIED", 
+                        "行级访问被拒绝: table=" + tableName + ", policy=" + compiled.policy().getPolicyId());
+                return RowAccessResult.denied(compiled.policy().getPolicyId(), "行级权限策略不允许访问此数据");
             }
-            
-            // 检查角色是否在允许列表中
-            boolean roleAllowed = false;
-            if (policy.getAllowedRoles() != null) {
-                for (String role : userRoles) {
-                    if (policy.getAllowedRoles().contains(role)) {
-                        roleAllowed = true;
-                        break;
-                    }
+        }
+        
+        return RowAccessResult.allowed();
+    }
+
+    /**
+     * 过滤用户无权访问的行
+     * 
+     * 适用策略和用户角色只解析一次，之后对每行直接求值已编译的条件
+     * 
+     * @return 可访问的行，保持原顺序
+     */
+    public List<Map<String, Object>> filterAccessibleRows(String username, String tableName, 
+                                                          List<Map<String, Object>> rows) {
+        List<CompiledRowPolicy> restricting = restrictingRowPolicies(username, tableName);
+        if (restricting.isEmpty() || rows.isEmpty()) {
+            return rows;
+        }
+        
+        Map<String, Object> variables = RowPolicyExpression.variablesFor(username);
+        List<Map<String, Object>> accessible = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            boolean allowed = true;
+            for (CompiledRowPolicy compiled : restricting) {
+                if (compiled.condition() != null && !compiled.condition().test(row, variables)) {
+                    allowed = false;
+                    break;
                 }
             }
-            
-            if (!roleAllowed) {
-                // 评估条件表达式
-                boolean conditionMet = evaluateCondition(policy.getConditionExpression(), rowData, username);
-                if (!conditionMet) {
-                    recordSecurityEvent(username, "ROW_ACCESS_DENIED", 
-                            "行级访问被拒绝: table=" + tableName + ", policy=" + policy.getPolicyId());
-                    return RowAccessResult.denied(policy.getPolicyId(), "行级权限策略不允许访问此数据");
-                }
+            if (allowed) {
+                accessible.add(row);
             }
         }
         
-        return RowAccessResult.allowed();
+        if (accessible.size() < rows.size()) {
+            recordSecurityEvent(username, "ROW_ACCESS_FILTERED", 
+                    "行级权限过滤: table=" + tableName + ", filtered=" + (rows.size() - accessible.size()));
+        }
+        return accessible;
     }
 
     /**
-     * 生成行级过滤SQL条件
+     * 生成参数化的行级过滤条件
+     * 
+     * SQL中的条件值全部以?占位，参数按占位符顺序给出，可直接拼入查询的WHERE子句
      */
-    public String generateRowFilterCondition(String username, String tableName) {
+    public RowFilter generateRowFilter(String username, String tableName) {
         log.debug("生成行级过滤条件: username={}, tableName={}", username, tableName);
         
-        Set<String> userRoles = securityManagerComponent.getUserRoles(username);
+        List<CompiledRowPolicy> restricting = restrictingRowPolicies(username, tableName);
         
-        List<RowLevelPolicy> applicablePolicies = rowPolicies.values().stream()
-                .filter(p -> p.isEnabled() && p.getTableName().equals(tableName))
-                .collect(Collectors.toList());
+        Map<String, Object> variables = RowPolicyExpression.variablesFor(username);
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (CompiledRowPolicy compiled : restricting) {
+            if (compiled.condition() == null) {
+                continue;
+            }
+            if (sql.length() > 0) {
+                sql.append(" AND ");
+            }
+            sql.append("(");
+            compiled.condition().appendSql(sql, params, variables);
+            sql.append(")");
+        }
         
-        if (applicablePolicies.isEmpty()) {
+        return sql.length() == 0 ? RowFilter.unrestricted() : new RowFilter(sql.toString(), params);
+    }
+
+    /**
+     * 生成行级过滤SQL条件
+     * 
+     * 条件值以转义后的字面量内联，只用于展示和无法绑定参数的场景，查询请使用 {@link #generateRowFilter}
+     */
+    public String generateRowFilterCondition(String username, String tableName) {
+        RowFilter filter = generateRowFilter(username, tableName);
+        if (filter.isUnrestricted()) {
             return "1=1"; // 无限制
         }
         
-        List<String> conditions = new ArrayList<>();
+        StringBuilder inlined = new StringBuilder();
+        Iterator<Object> params = filter.getParams().iterator();
+        for (char c : filter.getSql().toCharArray()) {
+            if (c == '?' && params.hasNext()) {
+                Object value = params.next();
+                if (value instanceof Number) {
+                    inlined.append(value);
+                } else {
+                    inlined.append('\'').append(String.valueOf(value).replace("'", "''")).append('\'');
+                }
+            } else {
+                inlined.append(c);
+            }
+        }
+        return inlined.toString();
+    }
+
+    /**
+     * 获取对用户生效的行级策略（排除用户或角色被明确允许的策略）
+     */
+    private List<CompiledRowPolicy> restrictingRowPolicies(String username, String tableName) {
+        List<CompiledRowPolicy> policies = rowPolicyIndex.getOrDefault(tableName, List.of());
+        if (policies.isEmpty()) {
+            return policies;
+        }
         
-        for (RowLevelPolicy policy : applicablePolicies) {
-            // 检查用户是否被明确允许
-            if (policy.getAllowedUsers() != null && policy.getAllowedUsers().contains(username)) {
-                continue; // 跳过此策略
+        Set<String> userRoles = securityManagerComponent.getUserRoles(username);
+        List<CompiledRowPolicy> restricting = new ArrayList<>(policies.size());
+        for (CompiledRowPolicy compiled : policies) {
+            RowLevelPolicy policy = compiled.policy();
+            if (policy.isEnabled() && !isExempt(policy.getAllowedUsers(), policy.getAllowedRoles(), username, userRoles)) {
+                restricting.add(compiled);
             }
-            
-            // 检查角色是否被允许
-            boolean roleAllowed = false;
-            if (policy.getAllowedRoles() != null) {
-                for (String role : userRoles) {
-                    if (policy.getAllowedRoles().contains(role)) {
-                        roleAllowed = true;
-                        break;
-                    }
+        }
+        return restricting;
+    }
+
+    /**
+     * 按表名重建策略索引，定义策略时调用，查询时只读
+     */
+    private synchronized void rebuildRowPolicyIndex() {
+        Map<String, List<CompiledRowPolicy>> index = new HashMap<>();
+        for (CompiledRowPolicy compiled : compiledRowPolicies.values()) {
+            index.computeIfAbsent(compiled.policy().getTableName(), k -> new ArrayList<>()).add(compiled);
+        }
+        index.replaceAll((table, policies) -> List.copyOf(policies));
+        rowPolicyIndex = Map.copyOf(index);
+    }
+
+    /**
+     * 策略是否对用户不生效
+     */
+    private boolean isExempt(Set<String> allowedUsers, Set<String> allowedRoles, String username, Set<String> userRoles) {
+        if (allowedUsers != null && allowedUsers.contains(username)) {
+            return true;
+        }
+        if (allowedRoles != null && userRoles != null) {
+            for (String role : userRoles) {
+                if (allowedRoles.contains(role)) {
+                    return true;
                 }
             }
-            
-            if (!roleAllowed && policy.getConditionExpression() != null) {
-                // 替换条件中的用户变量
-                String condition = policy.getConditionExpression()
-                        .replace("${username}", "'" + username + "'")
-                        .replace("${userId}", "'" + username + "'");
-                conditions.add("(" + condition + ")");
-            }
         }
+        return false;
+    }
+
+    /**
+     * 编译后的行级策略，condition为null表示无条件限制
+     */
+    private record CompiledRowPolicy(RowLevelPolicy policy, RowPolicyExpression condition) {
+    }
+
+    /**
+     * 参数化的行级过滤条件
+     */
+    public static class RowFilter {
+        private final String sql;
+        private final List<Object> params;
         
-        if (conditions.isEmpty()) {
-            return "1=1";
+        public RowFilter(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = List.copyOf(params);
         }
         
-        return String.join(" AND ", conditions);
+        public static RowFilter unrestricted() {
+            return new RowFilter("1=1", List.of());
+        }
+        
+        public String getSql() { return sql; }
+        public List<Object> getParams() { return params; }
+        public boolean isUnrestricted() { return "1=1".equals(sql); }
     }
 
     // ==================== 列级权限控制 ====================
@@ -271,6 +461,7 @@ public class DataAccessSecurityComponent {
         }
         
         columnPolicies.put(policy.getPolicyId(), policy);
+        rebuildColumnPolicyIndex();
         
         // 缓存到Redis
         try {
@@ -284,6 +475,18 @@ public class DataAccessSecurityComponent {
         log.info("列级权限策略定义成功: policyId={}", policy.getPolicyId());
     }
 
+    /**
+     * 按表名重建列级策略索引
+     */
+    private synchronized void rebuildColumnPolicyIndex() {
+        Map<String, List<ColumnLevelPolicy>> index = new HashMap<>();
+        for (ColumnLevelPolicy policy : columnPolicies.values()) {
+            index.computeIfAbsent(policy.getTableName(), k -> new ArrayList<>()).add(policy);
+        }
+        index.replaceAll((table, policies) -> List.copyOf(policies));
+        columnPolicyIndex = Map.copyOf(index);
+    }
+
     /**
      * 获取用户可见列
      */
@@ -293,37 +496,22 @@ public class DataAccessSecurityComponent {
         Set<String> userRoles = securityManagerComponent.getUserRoles(username);
         Set<String> visibleColumns = new HashSet<>(allColumns);
         
-        List<ColumnLevelPolicy> applicablePolicies = columnPolicies.values().stream()
-                .filter(p -> p.isEnabled() && p.getTableName().equals(tableName))
-                .collect(Collectors.toList());
+        List<ColumnLevelPolicy> applicablePolicies = columnPolicyIndex.getOrDefault(tableName, List.of());
         
         for (ColumnLevelPolicy policy : applicablePolicies) {
-            // 检查用户是否被明确允许
-            if (policy.getAllowedUsers() != null && policy.getAllowedUsers().contains(username)) {
+            // 跳过停用的策略，检查用户或角色是否被明确允许
+            if (!policy.isEnabled() || isExempt(policy.getAllowedUsers(), policy.getAllowedRoles(), username, userRoles)) {
                 continue;
             }
             
-            // 检查角色是否被允许
-            boolean roleAllowed = false;
-            if (policy.getAllowedRoles() != null) {
-                for (String role : userRoles) {
-                    if (policy.getAllowedRoles().contains(role)) {
-                        roleAllowed = true;
-                        break;
-                    }
-                }
+            // 应用隐藏列
+            if (policy.getHiddenColumns() != null) {
+                visibleColumns.removeAll(policy.getHiddenColumns());
             }
             
-            if (!roleAllowed) {
-                // 应用隐藏列
-                if (policy.getHiddenColumns() != null) {
-                    visibleColumns.removeAll(policy.getHiddenColumns());
-                }
-                
-                // 如果定义了可见列，则只保留这些列
-                if (policy.getVisibleColumns() != null && !policy.getVisibleColumns().isEmpty()) {
-                    visibleColumns.retainAll(policy.getVisibleColumns());
-                }
+            // 如果定义了可见列，则只保留这些列
+            if (policy.getVisibleColumns() != null && !policy.getVisibleColumns().isEmpty()) {
+                visibleColumns.retainAll(policy.getVisibleColumns());
             }
         }
         
@@ -339,28 +527,15 @@ public class DataAccessSecurityComponent {
         Set<String> userRoles = securityManagerComponent.getUserRoles(username);
         Set<String> maskedColumns = new HashSet<>();
         
-        List<ColumnLevelPolicy> applicablePolicies = columnPolicies.values().stream()
-                .filter(p -> p.isEnabled() && p.getTableName().equals(tableName))
-                .collect(Collectors.toList());
+        List<ColumnLevelPolicy> applicablePolicies = columnPolicyIndex.getOrDefault(tableName, List.of());
         
         for (ColumnLevelPolicy policy : applicablePolicies) {
-            // 检查用户是否被明确允许
-            if (policy.getAllowedUsers() != null && policy.getAllowedUsers().contains(username)) {
+            // 跳过停用的策略，检查用户或角色是否被明确允许
+            if (!policy.isEnabled() || isExempt(policy.getAllowedUsers(), policy.getAllowedRoles(), username, userRoles)) {
                 continue;
             }
             
-            // 检查角色是否被允许
-            boolean roleAllowed = false;
-            if (policy.getAllowedRoles() != null) {
-                for (String role : userRoles) {
-                    if (policy.getAllowedRoles().contains(role)) {
-                        roleAllowed = true;
-                        break;
-                    }
-                }
-            }
-            
-            if (!roleAllowed && policy.getMaskedColumns() != null) {
+            if (policy.getMaskedColumns() != null) {
                 maskedColumns.addAll(policy.getMaskedColumns());
             }
         }
@@ -537,16 +712,8 @@ public class DataAccessSecurityComponent {
             return data;
         }
         
-        String result = data;
-        
-        for (Map.Entry<String, Pattern> entry : SENSITIVE_PATTERNS.entrySet()) {
-            if (entry.getValue().matcher(result).find()) {
-                result = entry.getValue().matcher(result)
-                        .replaceAll(match -> maskData(match.group(), entry.getKey()));
-            }
-        }
-        
-        return result;
+        // 预筛加合并模式单遍扫描，不再逐个模式扫描和替换整段文本
+        return SensitiveDataMasker.maskText(data, (dataType, match) -> maskData(match, dataType));
     }
 
     /**
@@ -570,7 +737,7 @@ public class DataAccessSecurityComponent {
      * 生成匿名化ID
      */
     private String generateAnonymousId(String data) {
-        return "ANON_" + securityManagerComponent.hashPassword(data).substring(0, 16);
+        return "ANON_" + securityManagerComponent.digest(data).substring(0, 16);
     }
 
     /**
@@ -673,6 +840,7 @@ public class DataAccessSecurityComponent {
         log.info("定义告警规则: ruleId={}, eventType={}, threshold={}", 
                 rule.getRuleId(), rule.getEventType(), rule.getThreshold());
         alertRules.put(rule.getRuleId(), rule);
+        rebuildAlertRuleIndex();
         
         try {
             String cacheKey = ALERT_PREFIX + "rule:" + rule.getRuleId();
@@ -683,6 +851,20 @@ public class DataAccessSecurityComponent {
         }
     }
 
+    /**
+     * 按事件类型重建告警规则索引
+     */
+    private synchronized void rebuildAlertRuleIndex() {
+        Map<String, List<AlertRule>> index = new HashMap<>();
+        for (AlertRule rule : alertRules.values()) {
+            if (rule.getEventType() != null) {
+                index.computeIfAbsent(rule.getEventType(), k -> new ArrayList<>()).add(rule);
+            }
+        }
+        index.replaceAll((eventType, rules) -> List.copyOf(rules));
+        alertRuleIndex = Map.copyOf(index);
+    }
+
     /**
      * 记录安全事件
      */
@@ -692,6 +874,9 @@ public class DataAccessSecurityComponent {
 
     /**
      * 记录安全事件（完整版）
+     * 
+     * 一次脚本调用完成：事件追加到事件流及类型、用户索引流、小时统计桶加一、
+     * 用户分钟计数桶加一并返回各规则时间窗口内的事件数
      */
     public void recordSecurityEvent(String username, String eventType, String description,
                                     String ipAddress, String resource, Map<String, Object> details) {
@@ -707,23 +892,39 @@ public class DataAccessSecurityComponent {
         event.setDetails(details);
         event.setEventTime(LocalDateTime.now());
         
-        // 存储事件
+        List<AlertRule> rules = enabledAlertRules(eventType);
+        List<Integer> windows = rules.stream()
+                .map(DataAccessSecurityComponent::windowMinutes)
+                .distinct()
+                .toList();
+        
+        // 存储事件并获取窗口计数
+        List<?> windowCounts = null;
         try {
-            String eventKey = SECURITY_EVENT_PREFIX + eventType + ":" + event.getEventId();
             String eventJson = objectMapper.writeValueAsString(event);
-            stringRedisTemplate.opsForValue().set(eventKey, eventJson, Duration.ofDays(30));
-            
-            // 更新事件计数
-            String countKey = SECURITY_EVENT_PREFIX + "count:" + eventType + ":" + username;
-            stringRedisTemplate.opsForValue().increment(countKey);
-            stringRedisTemplate.expire(countKey, Duration.ofHours(1));
-            
+            int retainMinutes = windows.stream().mapToInt(Integer::intValue).max().orElse(0);
+            windowCounts = stringRedisTemplate.execute(
+                    RECORD_EVENT_SCRIPT,
+                    List.of(EVENT_STREAM_KEY, EVENT_BUCKET_PREFIX + eventType + ":" + username,
+                            EVENT_STATS_PREFIX + hourBucket(event.getEventTime()),
+                            EVENT_TYPE_INDEX_PREFIX + eventType, EVENT_USER_INDEX_PREFIX + username),
+                    eventJson,
+                    eventType,
+                    String.valueOf(EVENT_STREAM_MAX_LENGTH),
+                    String.valueOf(STATS_RETENTION.getSeconds()),
+                    String.valueOf(EVENT_USER_INDEX_MAX_LENGTH),
+                    String.valueOf(retainMinutes),
+                    windows.stream().map(String::valueOf).collect(Collectors.joining(",")));
         } catch (JsonProcessingException e) {
             log.error("存储安全事件失败: eventId={}", event.getEventId(), e);
+        } catch (Exception e) {
+            log.error("记录安全事件计数失败: eventId={}", event.getEventId(), e);
         }
         
         // 检查是否需要触发告警
-        checkAndTriggerAlerts(event);
+        if (windowCounts != null && windowCounts.size() == windows.size()) {
+            checkAndTriggerAlerts(event, rules, windows, windowCounts);
+        }
         
         // 记录到审计日志
         auditManagerComponent.recordAuditLog(
@@ -737,35 +938,33 @@ public class DataAccessSecurityComponent {
 
     /**
      * 检查并触发告警
+     * 
+     * 计数逐个事件加一，滑动窗口内的计数恰好达到阈值时告警一次，
+     * 持续超过阈值不会对每个后续事件重复告警
      */
-    private void checkAndTriggerAlerts(SecurityEvent event) {
-        for (AlertRule rule : alertRules.values()) {
-            if (!rule.isEnabled() || !rule.getEventType().equals(event.getEventType())) {
-                continue;
-            }
-            
-            // 获取时间窗口内的事件计数
-            int eventCount = getEventCount(event.getEventType(), event.getUsername(), 
-                    rule.getTimeWindowMinutes());
-            
-            if (eventCount >= rule.getThreshold()) {
+    private void checkAndTriggerAlerts(SecurityEvent event, List<AlertRule> rules,
+                                       List<Integer> windows, List<?> windowCounts) {
+        for (AlertRule rule : rules) {
+            int eventCount = ((Number) windowCounts.get(windows.indexOf(windowMinutes(rule)))).intValue();
+            if (eventCount == Math.max(1, rule.getThreshold())) {
                 triggerAlert(rule, event, eventCount);
             }
         }
     }
 
+    private List<AlertRule> enabledAlertRules(String eventType) {
+        List<AlertRule> rules = alertRuleIndex.getOrDefault(eventType, List.of());
+        if (rules.isEmpty()) {
+            return rules;
+        }
+        return rules.stream().filter(AlertRule::isEnabled).toList();
+    }
+
     /**
-     * 获取事件计数
+     * 规则时间窗口，限制在 1 分钟到 MAX_WINDOW_MINUTES 之间
      */
-    private int getEventCount(String eventType, String username, int timeWindowMinutes) {
-        try {
-            String countKey = SECURITY_EVENT_PREFIX + "count:" + eventType + ":" + username;
-            String countStr = stringRedisTemplate.opsForValue().get(countKey);
-            return countStr != null ? Integer.parseInt(countStr) : 0;
-        } catch (Exception e) {
-            log.error("获取事件计数失败", e);
-            return 0;
-        }
+    private static int windowMinutes(AlertRule rule) {
+        return Math.max(1, Math.min(MAX_WINDOW_MINUTES, rule.getTimeWindowMinutes()));
     }
 
     /**
@@ -776,6 +975,7 @@ public class DataAccessSecurityComponent {
                 rule.getRuleId(), event.getEventType(), event.getUsername(), eventCount);
         
         // 创建告警记录
+        LocalDateTime triggeredTime = LocalDateTime.now();
         Map<String, Object> alertData = new HashMap<>();
         alertData.put("alertId", UUID.randomUUID().toString());
         alertData.put("ruleId", rule.getRuleId());
@@ -785,18 +985,25 @@ public class DataAccessSecurityComponent {
         alertData.put("eventCount", eventCount);
         alertData.put("threshold", rule.getThreshold());
         alertData.put("severity", rule.getSeverity());
-        alertData.put("triggeredTime", LocalDateTime.now().toString());
+        alertData.put("triggeredTime", triggeredTime.toString());
         alertData.put("description", String.format("用户 %s 在 %d 分钟内触发了 %d 次 %s 事件，超过阈值 %d",
                 event.getUsername(), rule.getTimeWindowMinutes(), eventCount, 
                 event.getEventType(), rule.getThreshold()));
         
         // 存储告警
         try {
-            String alertKey = ALERT_PREFIX + "triggered:" + alertData.get("alertId");
             String alertJson = objectMapper.writeValueAsString(alertData);
-            stringRedisTemplate.opsForValue().set(alertKey, alertJson, Duration.ofDays(7));
+            stringRedisTemplate.execute(
+                    RECORD_ALERT_SCRIPT,
+                    List.of(ALERT_STREAM_KEY, ALERT_STATS_PREFIX + hourBucket(triggeredTime)),
+                    alertJson,
+                    String.valueOf(rule.getSeverity()),
+                    String.valueOf(ALERT_STREAM_MAX_LENGTH),
+                    String.valueOf(STATS_RETENTION.getSeconds()));
         } catch (JsonProcessingException e) {
             log.error("存储告警失败", e);
+        } catch (Exception e) {
+            log.error("存储告警失败: ruleId={}", rule.getRuleId(), e);
         }
         
         // 发送通知
@@ -854,6 +1061,9 @@ public class DataAccessSecurityComponent {
 
     /**
      * 查询安全事件
+     * 
+     * 指定用户时读取该用户的索引流，只指定事件类型时读取该类型的索引流，
+     * 否则读取事件流；按时间范围倒序分页，直到取满 limit 条或读完整个时间范围
      */
     public List<SecurityEvent> querySecurityEvents(String eventType, String username,
                                                    LocalDateTime startTime, LocalDateTime endTime,
@@ -861,42 +1071,27 @@ public class DataAccessSecurityComponent {
         log.info("查询安全事件: eventType={}, username={}", eventType, username);
         
         List<SecurityEvent> events = new ArrayList<>();
+        if (limit <= 0) {
+            return events;
+        }
+        String indexKey = username != null ? EVENT_USER_INDEX_PREFIX + username
+                : eventType != null ? EVENT_TYPE_INDEX_PREFIX + eventType : null;
         
         try {
-            String pattern = SECURITY_EVENT_PREFIX + (eventType != null ? eventType : "*") + ":*";
-            Set<String> keys = stringRedisTemplate.keys(pattern);
-            
-            if (keys == null || keys.isEmpty()) {
-                return events;
-            }
-            
-            for (String key : keys) {
-                String eventJson = stringRedisTemplate.opsForValue().get(key);
-                if (eventJson != null) {
-                    SecurityEvent event = objectMapper.readValue(eventJson, SecurityEvent.class);
-                    
-                    // 过滤条件
-                    if (username != null && !username.equals(event.getUsername())) {
-                        continue;
-                    }
-                    if (startTime != null && event.getEventTime().isBefore(startTime)) {
-                        continue;
-                    }
-                    if (endTime != null && event.getEventTime().isAfter(endTime)) {
-                        continue;
-                    }
-                    
-                    events.add(event);
-                    
-                    if (events.size() >= limit) {
-                        break;
-                    }
+            scanStream(EVENT_STREAM_KEY, indexKey, "event", startTime, endTime, eventJson -> {
+                SecurityEvent event = objectMapper.readValue(eventJson, SecurityEvent.class);
+                
+                // 过滤条件
+                if (eventType != null && !eventType.equals(event.getEventType())) {
+                    return true;
                 }
-            }
-            
-            // 按时间排序
-            events.sort((e1, e2) -> e2.getEventTime().compareTo(e1.getEventTime()));
-            
+                if (username != null && !username.equals(event.getUsername())) {
+                    return true;
+                }
+                
+                events.add(event);
+                return events.size() < limit;
+            });
         } catch (Exception e) {
             log.error("查询安全事件失败", e);
         }
@@ -906,50 +1101,30 @@ public class DataAccessSecurityComponent {
 
     /**
      * 获取告警列表
+     * 按时间范围倒序分页读取告警流，直到取满 limit 条或读完整个时间范围
      */
     public List<Map<String, Object>> getAlerts(String severity, LocalDateTime startTime, 
                                                LocalDateTime endTime, int limit) {
         log.info("获取告警列表: severity={}", severity);
         
         List<Map<String, Object>> alerts = new ArrayList<>();
+        if (limit <= 0) {
+            return alerts;
+        }
         
         try {
-            Set<String> keys = stringRedisTemplate.keys(ALERT_PREFIX + "triggered:*");
-            
-            if (keys == null || keys.isEmpty()) {
-                return alerts;
-            }
-            
-            for (String key : keys) {
-                String alertJson = stringRedisTemplate.opsForValue().get(key);
-                if (alertJson != null) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> alert = objectMapper.readValue(alertJson, Map.class);
-                    
-                    // 过滤条件
-                    if (severity != null && !severity.equals(alert.get("severity"))) {
-                        continue;
-                    }
-                    
-                    String triggeredTimeStr = (String) alert.get("triggeredTime");
-                    if (triggeredTimeStr != null) {
-                        LocalDateTime triggeredTime = LocalDateTime.parse(triggeredTimeStr);
-                        if (startTime != null && triggeredTime.isBefore(startTime)) {
-                            continue;
-                        }
-                        if (endTime != null && triggeredTime.isAfter(endTime)) {
-                            continue;
-                        }
-                    }
-                    
-                    alerts.add(alert);
-                    
-                    if (alerts.size() >= limit) {
-                        break;
-                    }
+            scanStream(ALERT_STREAM_KEY, null, "alert", startTime, endTime, alertJson -> {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> alert = objectMapper.readValue(alertJson, Map.class);
+                
+                // 过滤条件
+                if (severity != null && !severity.equals(alert.get("severity"))) {
+                    return true;
                 }
-            }
-            
+                
+                alerts.add(alert);
+                return alerts.size() < limit;
+            });
         } catch (Exception e) {
             log.error("获取告警列表失败", e);
         }
@@ -959,32 +1134,33 @@ public class DataAccessSecurityComponent {
 
     /**
      * 获取安全监控统计
+     * 
+     * 直接汇总小时统计桶，不再逐条读取事件和告警。
+     * 统计粒度为小时，起止时间所在的整个小时都计入
      */
     public Map<String, Object> getSecurityMonitoringStats(LocalDateTime startTime, LocalDateTime endTime) {
         log.info("获取安全监控统计: startTime={}, endTime={}", startTime, endTime);
         
+        LocalDateTime end = endTime != null ? endTime : LocalDateTime.now();
+        LocalDateTime start = startTime != null ? startTime : end.minusDays(1);
+        
         Map<String, Object> stats = new HashMap<>();
         
         // 统计各类事件数量
         Map<String, Long> eventCounts = new HashMap<>();
-        String[] eventTypes = {"LOGIN_FAILED", "ROW_ACCESS_DENIED", "COLUMN_ACCESS_DENIED", 
-                              "PERMISSION_DENIED", "SUSPICIOUS_ACTIVITY"};
-        
-        for (String eventType : eventTypes) {
-            List<SecurityEvent> events = querySecurityEvents(eventType, null, startTime, endTime, 10000);
-            eventCounts.put(eventType, (long) events.size());
+        for (String eventType : new String[]{"LOGIN_FAILED", "ROW_ACCESS_DENIED", "COLUMN_ACCESS_DENIED", 
+                                             "PERMISSION_DENIED", "SUSPICIOUS_ACTIVITY"}) {
+            eventCounts.put(eventType, 0L);
         }
+        sumHourBuckets(EVENT_STATS_PREFIX, start, end, eventCounts);
         stats.put("eventCounts", eventCounts);
         
         // 统计告警数量
-        List<Map<String, Object>> highAlerts = getAlerts("HIGH", startTime, endTime, 1000);
-        List<Map<String, Object>> mediumAlerts = getAlerts("MEDIUM", startTime, endTime, 1000);
-        List<Map<String, Object>> lowAlerts = getAlerts("LOW", startTime, endTime, 1000);
-        
         Map<String, Long> alertCounts = new HashMap<>();
-        alertCounts.put("HIGH", (long) highAlerts.size());
-        alertCounts.put("MEDIUM", (long) mediumAlerts.size());
-        alertCounts.put("LOW", (long) lowAlerts.size());
+        alertCounts.put("HIGH", 0L);
+        alertCounts.put("MEDIUM", 0L);
+        alertCounts.put("LOW", 0L);
+        sumHourBuckets(ALERT_STATS_PREFIX, start, end, alertCounts);
         stats.put("alertCounts", alertCounts);
         
         // 计算安全评分
@@ -998,6 +1174,132 @@ public class DataAccessSecurityComponent {
         return stats;
     }
 
+    /**
+     * 流记录的处理函数，返回 false 时停止读取
+     */
+    @FunctionalInterface
+    private interface StreamVisitor {
+        boolean visit(String value) throws Exception;
+    }
+
+    /**
+     * 倒序分页读取流中时间范围内的记录，把指定字段的值逐条交给 visitor
+     * 
+     * 指定索引流时分页读取索引流，再按ID回查主流；
+     * 不设扫描上限，直到 visitor 停止或读完整个时间范围
+     */
+    private void scanStream(String streamKey, String indexKey, String field,
+                            LocalDateTime startTime, LocalDateTime endTime,
+                            StreamVisitor visitor) throws Exception {
+        String lower = startTime != null ? String.valueOf(toEpochMillis(startTime)) : "-";
+        String upper = endTime != null ? String.valueOf(toEpochMillis(endTime)) : "+";
+        
+        String lastId = null;
+        while (true) {
+            // 下一页以上一页最后一条为闭区间上界，跳过重复的这一条
+            List<String[]> page = indexKey != null
+                    ? readIndexPage(streamKey, indexKey, field, lower, lastId != null ? lastId : upper)
+                    : readStreamPage(streamKey, field, lower, lastId != null ? lastId : upper);
+            if (page.isEmpty()) {
+                return;
+            }
+            boolean progressed = false;
+            for (String[] entry : page) {
+                if (entry[0].equals(lastId)) {
+                    continue;
+                }
+                progressed = true;
+                if (entry[1] != null && !entry[1].isEmpty() && !visitor.visit(entry[1])) {
+                    return;
+                }
+            }
+            if (!progressed || page.size() < STREAM_SCAN_PAGE_SIZE) {
+                return;
+            }
+            lastId = page.get(page.size() - 1)[0];
+        }
+    }
+
+    /**
+     * 倒序读取一页流记录，返回 [ID, 字段值]
+     */
+    private List<String[]> readStreamPage(String streamKey, String field, String lower, String upper) {
+        StreamOperations<String, String, String> streamOps = stringRedisTemplate.opsForStream();
+        List<MapRecord<String, String, String>> records = streamOps.reverseRange(
+                streamKey, Range.closed(lower, upper), Limit.limit().count(STREAM_SCAN_PAGE_SIZE));
+        if (records == null) {
+            return List.of();
+        }
+        List<String[]> page = new ArrayList<>(records.size());
+        for (MapRecord<String, String, String> record : records) {
+            page.add(new String[]{record.getId().getValue(), record.getValue().get(field)});
+        }
+        return page;
+    }
+
+    /**
+     * 倒序读取一页索引流并回查主流，返回 [ID, 字段值]
+     */
+    private List<String[]> readIndexPage(String streamKey, String indexKey, String field,
+                                         String lower, String upper) {
+        List<?> flat = stringRedisTemplate.execute(SCAN_INDEX_SCRIPT, List.of(streamKey, indexKey),
+                upper, lower, String.valueOf(STREAM_SCAN_PAGE_SIZE), field);
+        if (flat == null) {
+            return List.of();
+        }
+        List<String[]> page = new ArrayList<>(flat.size() / 2);
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            page.add(new String[]{String.valueOf(flat.get(i)), String.valueOf(flat.get(i + 1))});
+        }
+        return page;
+    }
+
+    /**
+     * 汇总时间范围内的小时统计桶
+     */
+    private void sumHourBuckets(String prefix, LocalDateTime start, LocalDateTime end, Map<String, Long> totals) {
+        LocalDateTime earliest = LocalDateTime.now().minus(STATS_RETENTION);
+        LocalDateTime hour = (start.isBefore(earliest) ? earliest : start).truncatedTo(ChronoUnit.HOURS);
+        List<String> keys = new ArrayList<>();
+        while (!hour.isAfter(end)) {
+            keys.add(prefix + hourBucket(hour));
+            hour = hour.plusHours(1);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        
+        try {
+            List<Object> buckets = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.hashCommands().hGetAll(key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            if (buckets == null) {
+                return;
+            }
+            for (Object bucket : buckets) {
+                if (!(bucket instanceof Map<?, ?> counts)) {
+                    continue;
+                }
+                for (Map.Entry<?, ?> entry : counts.entrySet()) {
+                    totals.merge(String.valueOf(entry.getKey()), Long.parseLong(String.valueOf(entry.getValue())), Long::sum);
+                }
+            }
+        } catch (Exception e) {
+            log.error("读取统计桶失败: prefix={}", prefix, e);
+        }
+    }
+
+    private static String hourBucket(LocalDateTime time) {
+        return time.format(HOUR_BUCKET_FORMAT);
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     /**
      * 计算安全评分
      */
@@ -1036,42 +1338,6 @@ public class DataAccessSecurityComponent {
 
     // ==================== 辅助方法 ====================
 
-    /**
-     * 评估条件表达式
-     */
-    private boolean evaluateCondition(String expression, Map<String, Object> rowData, String username) {
-        if (expression == null || expression.isEmpty()) {
-            return true;
-        }
-        
-        // 简化的条件评估
-        // 支持格式: column = value, column = ${username}
-        try {
-            String[] parts = expression.split("\\s*=\\s*");
-            if (parts.length == 2) {
-                String column = parts[0].trim();
-                String expectedValue = parts[1].trim();
-                
-                // 替换变量
-                if (expectedValue.contains("${username}")) {
-                    expectedValue = expectedValue.replace("${username}", username);
-                }
-                
-                // 移除引号
-                expectedValue = expectedValue.replaceAll("^['\"]|['\"]$", "");
-                
-                Object actualValue = rowData.get(column);
-                if (actualValue != null) {
-                    return actualValue.toString().equals(expectedValue);
-                }
-            }
-        } catch (Exception e) {
-            log.error("评估条件表达式失败: expression={}", expression, e);
-        }
-        
-        return false;
-    }
-
     /**
      * 初始化默认告警规则
      */
@@ -7,25 +7,35 @@ import com.workflow.exception.WorkflowBusinessException;
 import com.workflow.exception.WorkflowValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * 数据表管理组件
  * 
  * 负责与PostgreSQL数据表的CRUD操作
- * 支持动态SQL生成和执行
- * 提供数据验证和类型转换功能
+ * 支持动态SQL生成和执行，SQL文本按语句形状缓存
+ * 提供数据验证和类型转换功能，字段名按information_schema中的实际字段校验
+ * 支持游标分页、窗口函数总数和大结果集流式读取
  * 
  * @author Workflow Engine
  * @version 1.0
@@ -37,18 +47,63 @@ public class DataTableManagerComponent {
 
     private final JdbcTemplate jdbcTemplate;
     
+    // 行级权限过滤下推到WHERE子句；未注入时设置了accessUser的查询会失败
+    @Autowired(required = false)
+    private DataAccessSecurityComponent dataAccessSecurity;
+    
     // 安全的表名和字段名模式（防止SQL注入）
     private static final String SAFE_NAME_PATTERN = "^[a-zA-Z_][a-zA-Z0-9_]*$";
+    private static final Pattern SAFE_NAME = Pattern.compile(SAFE_NAME_PATTERN);
+    
+    // 窗口函数总数列名
+    private static final String TOTAL_COUNT_COLUMN = "_total_count";
+    
+    // 语句形状缓存上限
+    private static final int STATEMENT_CACHE_SIZE = 512;
+    
+    // 当前search_path中指定表的字段
+    private static final String COLUMN_METADATA_SQL = 
+            "SELECT column_name FROM information_schema.columns " +
+            "WHERE table_schema = ANY (current_schemas(false)) AND table_name = ?";
+    
+    private static final ResultSetExtractor<Set<String>> COLUMN_NAMES_EXTRACTOR = rs -> {
+        Set<String> names = new HashSet<>();
+        while (rs.next()) {
+            names.add(rs.getString(1).toLowerCase(Locale.ROOT));
+        }
+        return names;
+    };
     
     // 允许的排序方向
     private static final Set<String> ALLOWED_ORDER_DIRECTIONS = Set.of("ASC", "DESC");
     
     // 允许的连接类型
     private static final Set<String> ALLOWED_JOIN_TYPES = Set.of("INNER", "LEFT", "RIGHT", "FULL");
+    
+    // 语句形状到SQL文本的缓存（LRU）
+    private final Map<String, String> statementCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > STATEMENT_CACHE_SIZE;
+                }
+            });
+    
+    // 表字段元数据缓存
+    private final Map<String, TableMetadata> metadataCache = new ConcurrentHashMap<>();
+    
+    @Value("${workflow.datatable.metadata-ttl-seconds:300}")
+    private long metadataTtlSeconds = 300;
+    
+    @Value("${workflow.datatable.stream-fetch-size:500}")
+    private int streamFetchSize = 500;
 
     /**
      * 查询数据表记录
      * 
+     * 设置windowTotalCount时总数由窗口函数在同一查询中返回；设置keysetValue时按排序字段游标分页，
+     * 结果中的nextKeysetValue用于请求下一页
+     * 
      * @param request 查询请求
      * @return 查询结果
      */
@@ -60,8 +115,13 @@ public class DataTableManagerComponent {
             // 验证请求参数
             validateQueryRequest(request);
             
+            // 窗口函数总数只用于偏移分页，游标分页时窗口内只剩游标之后的行
+            boolean keyset = request.getKeysetValue() != null;
+            boolean windowCount = request.getLimit() != null && !keyset
+                    && Boolean.TRUE.equals(request.getWindowTotalCount());
+            
             // 构建查询SQL
-            SqlBuilder sqlBuilder = buildSelectSql(request);
+            SqlBuilder sqlBuilder = buildSelectSql(request, windowCount);
             String sql = sqlBuilder.getSql();
             Object[] params = sqlBuilder.getParams().toArray();
             
@@ -72,25 +132,39 @@ public class DataTableManagerComponent {
             
             // 查询总数（如果需要分页）
             Long totalCount = null;
-            if (request.getLimit() != null) {
+            if (windowCount) {
+                totalCount = extractWindowTotalCount(data, request.getOffset());
+            }
+            if (totalCount == null && request.getLimit() != null) {
                 totalCount = queryTotalCount(request);
             }
             
-            return DataTableQueryResult.builder()
+            DataTableQueryResult.DataTableQueryResultBuilder result = DataTableQueryResult.builder()
                     .success(true)
                     .data(data)
                     .totalCount(totalCount)
-                    .currentPage(request.getOffset() != null && request.getLimit() != null ? 
+                    .currentPage(!keyset && request.getOffset() != null && request.getLimit() != null ? 
                                (request.getOffset() / request.getLimit()) + 1 : null)
                     .pageSize(request.getLimit())
-                    .executedSql(sql)
-                    .build();
+                    .executedSql(sql);
+            
+            // 下一页游标取自本页最后一行
+            if (request.getLimit() != null && StringUtils.hasText(request.getOrderBy()) && !data.isEmpty()) {
+                Map<String, Object> lastRow = data.get(data.size() - 1);
+                result.nextKeysetValue(lastRow.get(request.getOrderBy()));
+                if (StringUtils.hasText(request.getTieBreakerField())) {
+                    result.nextTieBreakerValue(lastRow.get(request.getTieBreakerField()));
+                }
+            }
+            
+            return result.build();
                     
         } catch (WorkflowValidationException e) {
             // 重新抛出验证异常，让调用者处理
             throw e;
         } catch (Exception e) {
             log.error("查询数据表失败: tableName={}, error={}", request.getTableName(), e.getMessage(), e);
+            evictOnSchemaError(request.getTableName(), e);
             return DataTableQueryResult.builder()
                     .success(false)
                     .errorMessage("查询失败: " + e.getMessage())
@@ -98,6 +172,93 @@ public class DataTableManagerComponent {
         }
     }
 
+    /**
+     * 流式查询数据表记录
+     * 
+     * 按fetchSize分批从数据库游标读取，逐行交给处理器而不在内存中汇总结果；
+     * 列名只在开始时传递一次，每行只传递值数组
+     * 
+     * @param request 查询请求，分页参数同queryTable
+     * @param handler 行处理器
+     * @return 处理的行数
+     */
+    @Transactional(readOnly = true)
+    public long streamTable(DataTableQueryRequest request, RowStreamHandler handler) {
+        log.info("流式查询数据表: tableName={}, conditions={}", request.getTableName(), request.getWhereConditions());
+        
+        validateQueryRequest(request);
+        
+        SqlBuilder sqlBuilder = buildSelectSql(request, false);
+        String sql = sqlBuilder.getSql();
+        Object[] params = sqlBuilder.getParams().toArray();
+        
+        log.debug("执行流式查询SQL: {}, 参数: {}", sql, Arrays.toString(params));
+        
+        Long rows;
+        try {
+            rows = streamRows(sql, params, handler);
+        } catch (BadSqlGrammarException e) {
+            evictOnSchemaError(request.getTableName(), e);
+            throw e;
+        }
+        
+        return rows != null ? rows : 0;
+    }
+    
+    private Long streamRows(String sql, Object[] params, RowStreamHandler handler) {
+        return jdbcTemplate.query(connection -> {
+            // PostgreSQL只有在事务内且只进游标时才按fetchSize分批读取
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps;
+        }, rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            List<String> columns = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                columns.add(JdbcUtils.lookupColumnName(metaData, i));
+            }
+            handler.onColumns(columns);
+            
+            long count = 0;
+            while (rs.next()) {
+                Object[] values = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = JdbcUtils.getResultSetValue(rs, i + 1);
+                }
+                handler.onRow(values);
+                count++;
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 清除表字段元数据缓存，表结构变更后调用
+     * 
+     * @param tableName 表名，为空时清除全部
+     */
+    public void evictTableMetadata(String tableName) {
+        if (StringUtils.hasText(tableName)) {
+            metadataCache.remove(tableName.toLowerCase(Locale.ROOT));
+        } else {
+            metadataCache.clear();
+        }
+        log.info("表元数据缓存已清除: tableName={}", tableName);
+    }
+
+    /**
+     * SQL语法错误通常是表结构已被其他服务变更（表或字段被删除、改名），清除该表的元数据缓存
+     */
+    private void evictOnSchemaError(String tableName, Exception e) {
+        if (e instanceof BadSqlGrammarException) {
+            evictTableMetadata(tableName);
+        }
+    }
+
     /**
      * 插入数据表记录
      * 
@@ -153,6 +314,7 @@ public class DataTableManagerComponent {
             throw e;
         } catch (Exception e) {
             log.error("插入数据表记录失败: tableName={}, error={}", request.getTableName(), e.getMessage(), e);
+            evictOnSchemaError(request.getTableName(), e);
             return DataTableOperationResult.builder()
                     .success(false)
                     .errorMessage("插入失败: " + e.getMessage())
@@ -196,6 +358,7 @@ public class DataTableManagerComponent {
             throw e;
         } catch (Exception e) {
             log.error("更新数据表记录失败: tableName={}, error={}", request.getTableName(), e.getMessage(), e);
+            evictOnSchemaError(request.getTableName(), e);
             return DataTableOperationResult.builder()
                     .success(false)
                     .errorMessage("更新失败: " + e.getMessage())
@@ -238,6 +401,7 @@ public class DataTableManagerComponent {
             throw e;
         } catch (Exception e) {
             log.error("删除数据表记录失败: tableName={}, error={}", request.getTableName(), e.getMessage(), e);
+            evictOnSchemaError(request.getTableName(), e);
             return DataTableOperationResult.builder()
                     .success(false)
                     .errorMessage("删除失败: " + e.getMessage())
@@ -288,6 +452,42 @@ public class DataTableManagerComponent {
             errors.add(new WorkflowValidationException.ValidationError("limit", "分页大小必须大于0", request.getLimit()));
         }
         
+        // 验证游标分页参数
+        if (request.getKeysetValue() != null) {
+            if (!StringUtils.hasText(request.getOrderBy())) {
+                errors.add(new WorkflowValidationException.ValidationError("keysetValue", "游标分页需要指定排序字段", request.getKeysetValue()));
+            }
+            if (request.getOffset() != null && request.getOffset() > 0) {
+                errors.add(new WorkflowValidationException.ValidationError("offset", "游标分页不能同时使用偏移量", request.getOffset()));
+            }
+        }
+        
+        if (StringUtils.hasText(request.getTieBreakerField())) {
+            if (!isValidName(request.getTieBreakerField())) {
+                errors.add(new WorkflowValidationException.ValidationError("tieBreakerField", "第二排序字段名格式不正确: " + request.getTieBreakerField(), request.getTieBreakerField()));
+            } else if (request.getKeysetValue() != null && request.getTieBreakerValue() == null) {
+                errors.add(new WorkflowValidationException.ValidationError("tieBreakerValue", "游标分页缺少第二排序字段值", null));
+            }
+        }
+        
+        // 按表的实际字段校验（多表查询的字段可能来自连接表，不做校验）
+        if (errors.isEmpty() && (request.getJoinConditions() == null || request.getJoinConditions().isEmpty())) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            if (request.getSelectFields() != null) {
+                request.getSelectFields().forEach(field -> fields.put(field, "selectFields"));
+            }
+            if (request.getWhereConditions() != null) {
+                request.getWhereConditions().keySet().forEach(field -> fields.putIfAbsent(field, "whereConditions"));
+            }
+            if (StringUtils.hasText(request.getOrderBy())) {
+                fields.putIfAbsent(request.getOrderBy(), "orderBy");
+            }
+            if (StringUtils.hasText(request.getTieBreakerField())) {
+                fields.putIfAbsent(request.getTieBreakerField(), "tieBreakerField");
+            }
+            validateColumns(request.getTableName(), fields, errors);
+        }
+        
         if (!errors.isEmpty()) {
             throw new WorkflowValidationException(errors);
         }
@@ -320,6 +520,12 @@ public class DataTableManagerComponent {
             }
         }
         
+        if (errors.isEmpty()) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            request.getData().keySet().forEach(field -> fields.put(field, "data"));
+            validateColumns(request.getTableName(), fields, errors);
+        }
+        
         if (!errors.isEmpty()) {
             throw new WorkflowValidationException(errors);
         }
@@ -364,6 +570,13 @@ public class DataTableManagerComponent {
             }
         }
         
+        if (errors.isEmpty()) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            request.getUpdateData().keySet().forEach(field -> fields.put(field, "updateData"));
+            request.getWhereConditions().keySet().forEach(field -> fields.putIfAbsent(field, "whereConditions"));
+            validateColumns(request.getTableName(), fields, errors);
+        }
+        
         if (!errors.isEmpty()) {
             throw new WorkflowValidationException(errors);
         }
@@ -396,6 +609,12 @@ public class DataTableManagerComponent {
             }
         }
         
+        if (errors.isEmpty()) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            request.getWhereConditions().keySet().forEach(field -> fields.put(field, "whereConditions"));
+            validateColumns(request.getTableName(), fields, errors);
+        }
+        
         if (!errors.isEmpty()) {
             throw new WorkflowValidationException(errors);
         }
@@ -405,70 +624,167 @@ public class DataTableManagerComponent {
      * 验证名称是否安全（防止SQL注入）
      */
     private boolean isValidName(String name) {
-        return name != null && name.matches(SAFE_NAME_PATTERN);
+        return name != null && SAFE_NAME.matcher(name).matches();
     }
 
     /**
-     * 构建查询SQL
+     * 按information_schema中的实际字段校验字段名
+     * 
+     * @param fields 字段名到请求参数名的映射，用于生成错误信息
      */
-    private SqlBuilder buildSelectSql(DataTableQueryRequest request) {
-        SqlBuilder builder = new SqlBuilder();
-        
-        // SELECT 子句
-        if (request.getSelectFields() != null && !request.getSelectFields().isEmpty()) {
-            String fields = request.getSelectFields().stream()
-                    .collect(Collectors.joining(", "));
-            builder.append("SELECT ").append(fields);
-        } else {
-            builder.append("SELECT *");
+    private void validateColumns(String tableName, Map<String, String> fields, 
+                                 List<WorkflowValidationException.ValidationError> errors) {
+        long validationStart = System.currentTimeMillis();
+        TableMetadata metadata = getTableMetadata(tableName, false);
+        if (metadata.loadedAt() < validationStart && !containsAllColumns(metadata.columns(), fields.keySet())) {
+            // 缓存可能早于其他服务执行的DDL（新建表、新增字段），重新读取一次再判定
+            metadata = getTableMetadata(tableName, true);
+        }
+        Set<String> columns = metadata.columns();
+        if (columns == null) {
+            // 元数据不可用时只做名称格式校验
+            return;
+        }
+        if (columns.isEmpty()) {
+            errors.add(new WorkflowValidationException.ValidationError("tableName", "表不存在: " + tableName, tableName));
+            return;
+        }
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (!columns.contains(field.getKey().toLowerCase(Locale.ROOT))) {
+                errors.add(new WorkflowValidationException.ValidationError(field.getValue(), "字段不存在: " + field.getKey(), field.getKey()));
+            }
+        }
+    }
+
+    private static boolean containsAllColumns(Set<String> columns, Set<String> fields) {
+        if (columns == null) {
+            return true;
+        }
+        if (columns.isEmpty()) {
+            return false;
+        }
+        for (String field : fields) {
+            if (!columns.contains(field.toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取表的字段元数据，按TTL缓存
+     * 
+     * 元数据中的字段集合为小写，表不存在时为空集合，元数据不可读时为null
+     * 
+     * @param refresh 为true时忽略缓存重新读取
+     */
+    private TableMetadata getTableMetadata(String tableName, boolean refresh) {
+        String key = tableName.toLowerCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+        TableMetadata cached = metadataCache.get(key);
+        if (!refresh && cached != null && now - cached.loadedAt() < metadataTtlSeconds * 1000) {
+            return cached;
         }
         
-        // FROM 子句
-        builder.append(" FROM ").append(request.getTableName());
+        Set<String> columns;
+        try {
+            columns = jdbcTemplate.query(COLUMN_METADATA_SQL, COLUMN_NAMES_EXTRACTOR, key);
+        } catch (DataAccessException e) {
+            log.warn("读取表元数据失败，跳过字段校验: tableName={}, error={}", tableName, e.getMessage());
+            columns = null;
+        }
+        TableMetadata metadata = new TableMetadata(columns, now);
+        metadataCache.put(key, metadata);
+        return metadata;
+    }
+
+    /**
+     * 构建查询SQL
+     * 
+     * SQL文本按语句形状（表、字段、条件字段、排序和分页方式）缓存，只有参数随请求变化，
+     * 相同形状的查询得到相同的SQL文本，驱动可以复用服务端预编译语句
+     */
+    private SqlBuilder buildSelectSql(DataTableQueryRequest request, boolean windowCount) {
+        List<Map.Entry<String, Object>> conditions = whereEntries(request.getWhereConditions());
+        DataAccessSecurityComponent.RowFilter rowFilter = resolveRowFilter(request);
+        boolean keyset = request.getKeysetValue() != null;
+        boolean tieBreaker = StringUtils.hasText(request.getTieBreakerField());
         
-        // JOIN 子句
-        if (request.getJoinConditions() != null && !request.getJoinConditions().isEmpty()) {
-            for (DataTableQueryRequest.JoinCondition join : request.getJoinConditions()) {
-                if (ALLOWED_JOIN_TYPES.contains(join.getJoinType().toUpperCase()) &&
-                    isValidName(join.getJoinTable()) &&
-                    StringUtils.hasText(join.getOnCondition())) {
-                    
-                    builder.append(" ").append(join.getJoinType().toUpperCase())
-                           .append(" JOIN ").append(join.getJoinTable())
-                           .append(" ON ").append(join.getOnCondition());
+        String shape = "select|" + request.getTableName()
+                + "|" + request.getSelectFields()
+                + "|" + joinShape(request)
+                + "|" + conditions.stream().map(Map.Entry::getKey).collect(Collectors.joining(","))
+                + "|" + (rowFilter != null ? rowFilter.getSql() : "")
+                + "|" + request.getOrderBy() + " " + request.getOrderDirection() + " " + request.getTieBreakerField()
+                + "|" + (request.getLimit() != null) + (request.getOffset() != null && !keyset) + keyset + windowCount;
+        String sql = statementCache.computeIfAbsent(shape, k -> {
+            SqlBuilder builder = new SqlBuilder();
+            
+            // SELECT 子句
+            if (request.getSelectFields() != null && !request.getSelectFields().isEmpty()) {
+                builder.append("SELECT ").append(String.join(", ", request.getSelectFields()));
+            } else {
+                builder.append("SELECT *");
+            }
+            if (windowCount) {
+                builder.append(", COUNT(*) OVER() AS ").append(TOTAL_COUNT_COLUMN);
+            }
+            
+            // FROM、JOIN、WHERE 子句
+            builder.append(" FROM ").append(request.getTableName());
+            appendJoins(builder, request);
+            boolean hasWhere = appendWhere(builder, conditions, rowFilter);
+            
+            // 游标条件：排序字段（和第二排序字段）越过上一页最后一行
+            String direction = StringUtils.hasText(request.getOrderDirection()) ? 
+                    request.getOrderDirection().toUpperCase() : "ASC";
+            if (keyset) {
+                builder.append(hasWhere ? " AND " : " WHERE ");
+                String comparator = "DESC".equals(direction) ? " < " : " > ";
+                if (tieBreaker) {
+                    builder.append("(").append(request.getOrderBy()).append(", ").append(request.getTieBreakerField())
+                           .append(")").append(comparator).append("(?, ?)");
+                } else {
+                    builder.append(request.getOrderBy()).append(comparator).append("?");
                 }
             }
-        }
-        
-        // WHERE 子句
-        if (request.getWhereConditions() != null && !request.getWhereConditions().isEmpty()) {
-            builder.append(" WHERE ");
-            boolean first = true;
-            for (Map.Entry<String, Object> entry : request.getWhereConditions().entrySet()) {
-                if (!first) {
-                    builder.append(" AND ");
+            
+            // ORDER BY 子句
+            if (StringUtils.hasText(request.getOrderBy())) {
+                builder.append(" ORDER BY ").append(request.getOrderBy());
+                if (StringUtils.hasText(request.getOrderDirection())) {
+                    builder.append(" ").append(request.getOrderDirection().toUpperCase());
+                }
+                if (tieBreaker) {
+                    builder.append(", ").append(request.getTieBreakerField()).append(" ").append(direction);
                 }
-                builder.append(entry.getKey()).append(" = ?");
-                builder.addParam(entry.getValue());
-                first = false;
             }
-        }
+            
+            // LIMIT 和 OFFSET 子句
+            if (request.getLimit() != null) {
+                builder.append(" LIMIT ?");
+                if (request.getOffset() != null && !keyset) {
+                    builder.append(" OFFSET ?");
+                }
+            }
+            return builder.getSql();
+        });
         
-        // ORDER BY 子句
-        if (StringUtils.hasText(request.getOrderBy())) {
-            builder.append(" ORDER BY ").append(request.getOrderBy());
-            if (StringUtils.hasText(request.getOrderDirection())) {
-                builder.append(" ").append(request.getOrderDirection().toUpperCase());
+        // 参数顺序与SQL中的占位符一致
+        SqlBuilder builder = new SqlBuilder().append(sql);
+        conditions.forEach(entry -> builder.addParam(entry.getValue()));
+        if (rowFilter != null) {
+            rowFilter.getParams().forEach(builder::addParam);
+        }
+        if (keyset) {
+            builder.addParam(request.getKeysetValue());
+            if (tieBreaker) {
+                builder.addParam(request.getTieBreakerValue());
             }
         }
-        
-        // LIMIT 和 OFFSET 子句
         if (request.getLimit() != null) {
-            builder.append(" LIMIT ?");
             builder.addParam(request.getLimit());
-            
-            if (request.getOffset() != null) {
-                builder.append(" OFFSET ?");
+            if (request.getOffset() != null && !keyset) {
                 builder.addParam(request.getOffset());
             }
         }
@@ -557,11 +873,65 @@ public class DataTableManagerComponent {
      * 查询总记录数
      */
     private Long queryTotalCount(DataTableQueryRequest request) {
-        SqlBuilder builder = new SqlBuilder();
+        List<Map.Entry<String, Object>> conditions = whereEntries(request.getWhereConditions());
+        DataAccessSecurityComponent.RowFilter rowFilter = resolveRowFilter(request);
         
-        builder.append("SELECT COUNT(*) FROM ").append(request.getTableName());
+        String shape = "count|" + request.getTableName()
+                + "|" + joinShape(request)
+                + "|" + conditions.stream().map(Map.Entry::getKey).collect(Collectors.joining(","))
+                + "|" + (rowFilter != null ? rowFilter.getSql() : "");
+        String sql = statementCache.computeIfAbsent(shape, k -> {
+            SqlBuilder builder = new SqlBuilder();
+            builder.append("SELECT COUNT(*) FROM ").append(request.getTableName());
+            appendJoins(builder, request);
+            appendWhere(builder, conditions, rowFilter);
+            return builder.getSql();
+        });
         
-        // JOIN 子句
+        List<Object> params = new ArrayList<>();
+        conditions.forEach(entry -> params.add(entry.getValue()));
+        if (rowFilter != null) {
+            params.addAll(rowFilter.getParams());
+        }
+        return jdbcTemplate.queryForObject(sql, params.toArray(), Long.class);
+    }
+
+    /**
+     * 取出窗口函数返回的总数并从结果行中移除该列
+     * 
+     * @return 总数，页超出范围没有返回行时为null
+     */
+    private Long extractWindowTotalCount(List<Map<String, Object>> data, Integer offset) {
+        if (data.isEmpty()) {
+            return offset != null && offset > 0 ? null : 0L;
+        }
+        Object total = data.get(0).get(TOTAL_COUNT_COLUMN);
+        for (Map<String, Object> row : data) {
+            row.remove(TOTAL_COUNT_COLUMN);
+        }
+        return total instanceof Number number ? number.longValue() : null;
+    }
+
+    /**
+     * 固定本次请求中条件的遍历顺序，SQL占位符和参数按同一顺序生成
+     */
+    private List<Map.Entry<String, Object>> whereEntries(Map<String, Object> whereConditions) {
+        if (whereConditions == null || whereConditions.isEmpty()) {
+            return List.of();
+        }
+        return new ArrayList<>(whereConditions.entrySet());
+    }
+
+    private String joinShape(DataTableQueryRequest request) {
+        if (request.getJoinConditions() == null || request.getJoinConditions().isEmpty()) {
+            return "";
+        }
+        return request.getJoinConditions().stream()
+                .map(join -> join.getJoinType() + " " + join.getJoinTable() + " " + join.getOnCondition())
+                .collect(Collectors.joining(";"));
+    }
+
+    private void appendJoins(SqlBuilder builder, DataTableQueryRequest request) {
         if (request.getJoinConditions() != null && !request.getJoinConditions().isEmpty()) {
             for (DataTableQueryRequest.JoinCondition join : request.getJoinConditions()) {
                 if (ALLOWED_JOIN_TYPES.contains(join.getJoinType().toUpperCase()) &&
@@ -574,23 +944,66 @@ public class DataTableManagerComponent {
                 }
             }
         }
+    }
+
+    /**
+     * 追加WHERE子句：等值条件加行级权限过滤
+     * 
+     * @return 是否生成了WHERE子句
+     */
+    private boolean appendWhere(SqlBuilder builder, List<Map.Entry<String, Object>> conditions, 
+                                DataAccessSecurityComponent.RowFilter rowFilter) {
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : conditions) {
+            builder.append(first ? " WHERE " : " AND ");
+            builder.append(entry.getKey()).append(" = ?");
+            first = false;
+        }
+        if (rowFilter != null) {
+            builder.append(first ? " WHERE " : " AND ").append("(").append(rowFilter.getSql()).append(")");
+            first = false;
+        }
+        return !first;
+    }
+
+    /**
+     * 解析请求用户的行级过滤条件，无限制时返回null
+     */
+    private DataAccessSecurityComponent.RowFilter resolveRowFilter(DataTableQueryRequest request) {
+        if (!StringUtils.hasText(request.getAccessUser())) {
+            return null;
+        }
+        if (dataAccessSecurity == null) {
+            throw new WorkflowBusinessException("ROW_SECURITY_UNAVAILABLE", "行级权限组件不可用，无法按用户过滤数据");
+        }
+        DataAccessSecurityComponent.RowFilter rowFilter = 
+                dataAccessSecurity.generateRowFilter(request.getAccessUser(), request.getTableName());
+        return rowFilter.isUnrestricted() ? null : rowFilter;
+    }
+
+    /**
+     * 流式查询的行处理器
+     */
+    public interface RowStreamHandler {
         
-        // WHERE 子句
-        if (request.getWhereConditions() != null && !request.getWhereConditions().isEmpty()) {
-            builder.append(" WHERE ");
-            boolean first = true;
-            for (Map.Entry<String, Object> entry : request.getWhereConditions().entrySet()) {
-                if (!first) {
-                    builder.append(" AND ");
-                }
-                builder.append(entry.getKey()).append(" = ?");
-                builder.addParam(entry.getValue());
-                first = false;
-            }
+        /**
+         * 开始读取行之前调用一次
+         * 
+         * @param columns 列名，顺序与onRow的值数组一致
+         */
+        default void onColumns(List<String> columns) {
         }
         
-        Object[] params = builder.getParams().toArray();
-        return jdbcTemplate.queryForObject(builder.getSql(), params, Long.class);
+        /**
+         * 每读取一行调用一次
+         */
+        void onRow(Object[] values);
+    }
+
+    /**
+     * 表字段元数据，columns为null表示元数据不可读
+     */
+    private record TableMetadata(Set<String> columns, long loadedAt) {
     }
 
     /**
@@ -0,0 +1,136 @@
+package com.workflow.component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 用户有效权限索引
+ *
+ * 由用户角色和角色权限（含 resource:* 与 *:* 通配符）一次展开为
+ * 资源 -> 动作 -> 授权角色序号 的只读表，检查时只做两次哈希查找，
+ * 不拼接字符串也不访问Redis。
+ *
+ * 授权角色与逐角色检查时一致：按角色顺序，第一个拥有精确权限、
+ * 资源通配或全局通配之一的角色。
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+final class EffectivePermissionIndex {
+
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final String[] roles;
+    private final Set<String> roleSet;
+    private final int globalGrant;
+    private final Map<String, ResourceGrants> resources;
+    private final long generation;
+    private final long expiresAt;
+
+    private EffectivePermissionIndex(String[] roles, int globalGrant, Map<String, ResourceGrants> resources,
+                                     long generation, long expiresAt) {
+        this.roles = roles;
+        this.roleSet = Set.copyOf(Arrays.asList(roles));
+        this.globalGrant = globalGrant;
+        this.resources = resources;
+        this.generation = generation;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 展开角色权限
+     *
+     * @param roles         用户角色，顺序决定授权角色
+     * @param permissionsOf 角色 -> 权限集合
+     * @param generation    构建时的权限版本，版本变化后索引失效
+     * @param expiresAt     过期时间戳（毫秒）
+     */
+    static EffectivePermissionIndex build(List<String> roles, Function<String, Set<String>> permissionsOf,
+                                          long generation, long expiresAt) {
+        int globalGrant = NONE;
+        Map<String, Integer> resourceWildcards = new HashMap<>();
+        Map<String, Map<String, Integer>> actions = new HashMap<>();
+
+        for (int position = 0; position < roles.size(); position++) {
+            for (String permission : permissionsOf.apply(roles.get(position))) {
+                if (permission == null) {
+                    continue;
+                }
+                if (permission.equals("*:*")) {
+                    globalGrant = Math.min(globalGrant, position);
+                }
+                if (permission.endsWith(":*")) {
+                    resourceWildcards.putIfAbsent(permission.substring(0, permission.length() - 2), position);
+                }
+                // 每个冒号都可能是资源与动作的分隔处，全部登记，查找结果与整串比较一致
+                for (int colon = permission.indexOf(':'); colon >= 0; colon = permission.indexOf(':', colon + 1)) {
+                    actions.computeIfAbsent(permission.substring(0, colon), k -> new HashMap<>())
+                            .putIfAbsent(permission.substring(colon + 1), position);
+                }
+            }
+        }
+
+        Map<String, ResourceGrants> resources = new HashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> entry : actions.entrySet()) {
+            resources.put(entry.getKey(), new ResourceGrants(
+                    resourceWildcards.getOrDefault(entry.getKey(), NONE), Map.copyOf(entry.getValue())));
+        }
+        for (Map.Entry<String, Integer> entry : resourceWildcards.entrySet()) {
+            resources.putIfAbsent(entry.getKey(), new ResourceGrants(entry.getValue(), Map.of()));
+        }
+        return new EffectivePermissionIndex(roles.toArray(new String[0]), globalGrant,
+                Map.copyOf(resources), generation, expiresAt);
+    }
+
+    /**
+     * 是否仍可使用
+     */
+    boolean isValid(long currentGeneration, long now) {
+        return generation == currentGeneration && now < expiresAt;
+    }
+
+    boolean hasNoRoles() {
+        return roles.length == 0;
+    }
+
+    boolean hasRole(String role) {
+        return role != null && roleSet.contains(role);
+    }
+
+    Set<String> getRoles() {
+        return roleSet;
+    }
+
+    /**
+     * 授予该权限的角色，没有返回null
+     */
+    String grantingRole(String resource, String action) {
+        int position = globalGrant;
+        ResourceGrants grants = resource != null ? resources.get(resource) : null;
+        if (grants != null) {
+            position = Math.min(position, grants.wildcard);
+            Integer exact = action != null ? grants.actions.get(action) : null;
+            if (exact != null) {
+                position = Math.min(position, exact);
+            }
+        }
+        return position == NONE ? null : roles[position];
+    }
+
+    /**
+     * 单个资源上的授权：资源通配的角色序号和各动作的角色序号
+     */
+    private static final class ResourceGrants {
+        private final int wildcard;
+        private final Map<String, Integer> actions;
+
+        private ResourceGrants(int wildcard, Map<String, Integer> actions) {
+            this.wildcard = wildcard;
+            this.actions = actions;
+        }
+    }
+}
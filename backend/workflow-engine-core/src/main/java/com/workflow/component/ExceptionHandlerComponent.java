@@ -12,9 +12,11 @@ import org.flowable.engine.runtime.ProcessInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -40,6 +42,13 @@ public class ExceptionHandlerComponent {
     @Autowired(required = false)
     private NotificationManagerComponent notificationManager;
     
+    // Multi-instance deployments split the alert sweep by partition
+    @Autowired(required = false)
+    private HorizontalScalingComponent scalingComponent;
+    
+    @Value("${workflow.exception.alert-batch-size:100}")
+    private int alertBatchSize = 100;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Transactional
@@ -371,6 +380,31 @@ public class ExceptionHandlerComponent {
         return exceptionRecordRepository.findExceptionsNeedingAlert();
     }
 
+    /**
+     * Sends alerts that could not be sent when the exception was recorded.
+     * Each node only loads the exceptions in its own partitions.
+     */
+    @Scheduled(fixedDelayString = "${workflow.exception.alert-dispatch-delay:60000}")
+    public void dispatchPendingAlerts() {
+        int partitionCount = scalingComponent != null ? scalingComponent.getPartitionCount() : 1;
+        Set<Integer> partitions = scalingComponent != null ? scalingComponent.getOwnedPartitions() : Set.of(0);
+        if (partitions.isEmpty()) {
+            return;
+        }
+        try {
+            List<ExceptionRecord> pending = exceptionRecordRepository
+                    .findExceptionsNeedingAlertInPartitions(partitionCount, partitions, alertBatchSize);
+            for (ExceptionRecord record : pending) {
+                sendAlert(record);
+            }
+            if (!pending.isEmpty()) {
+                log.info("Dispatched {} pending alerts", pending.size());
+            }
+        } catch (Exception e) {
+            log.error("Pending alert dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
     private boolean shouldSendAlert(ExceptionRecord record) {
         return record.getSeverity() == ExceptionSeverity.CRITICAL ||
                record.getSeverity() == ExceptionSeverity.HIGH;
@@ -0,0 +1,271 @@
+package com.workflow.component;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flowable.engine.ProcessEngine;
+import org.flowable.job.service.impl.asyncexecutor.AsyncExecutor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 优雅下线组件
+ *
+ * 热部署和滚动升级时按以下顺序排空当前节点：
+ * 1. 就绪探针返回不可用，负载均衡停止转发新请求
+ * 2. 停止Flowable异步作业和定时器作业的获取，已获取未执行的作业解锁交由其他节点执行
+ * 3. 等待进行中的请求和本节点锁定的作业完成，最长等待到截止时间
+ * 4. 交出领导权和工作分区
+ *
+ * 应用关闭时自动执行，也可在部署脚本中显式调用。
+ * 等待时长由 workflow.cluster.drain.timeout-seconds 配置，须小于容器的终止宽限期，
+ * 否则进程会在排空结束前被强制终止
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class GracefulDrainComponent {
+
+    public enum DrainState {
+        ACTIVE, DRAINING, DRAINED
+    }
+
+    private final HorizontalScalingComponent scalingComponent;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ProcessEngine> processEngineProvider;
+
+    @Value("${workflow.cluster.drain.timeout-seconds:20}")
+    private long drainTimeoutSeconds = 20;
+
+    @Value("${workflow.cluster.drain.poll-interval-ms:200}")
+    private long pollIntervalMs = 200;
+
+    @Value("${workflow.cluster.drain.on-shutdown:true}")
+    private boolean drainOnShutdown = true;
+
+    private final AtomicReference<DrainState> state = new AtomicReference<>(DrainState.ACTIVE);
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicInteger inFlightJobs = new AtomicInteger();
+
+    private volatile CompletableFuture<Void> jobAcquisitionStop;
+    private volatile Map<String, Object> lastResult = Map.of();
+
+    public GracefulDrainComponent(HorizontalScalingComponent scalingComponent,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectProvider<ProcessEngine> processEngineProvider) {
+        this.scalingComponent = scalingComponent;
+        this.eventPublisher = eventPublisher;
+        this.processEngineProvider = processEngineProvider;
+    }
+
+    // ==================== 进行中计数 ====================
+
+    /**
+     * 请求开始；排空期间仍正常处理，由就绪探针引导流量离开，已进入的请求都会被等待
+     */
+    public void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /**
+     * 引擎自身的后台作业（定时任务、重试调度）开始，Flowable作业按锁定者统计无需调用
+     */
+    public void jobStarted() {
+        inFlightJobs.incrementAndGet();
+    }
+
+    public void jobFinished() {
+        inFlightJobs.decrementAndGet();
+    }
+
+    /**
+     * 在作业计数内执行后台作业，排空会等待其完成
+     */
+    public void runJob(Runnable job) {
+        jobStarted();
+        try {
+            job.run();
+        } finally {
+            jobFinished();
+        }
+    }
+
+    public boolean isDraining() {
+        return state.get() != DrainState.ACTIVE;
+    }
+
+    public DrainState getState() {
+        return state.get();
+    }
+
+    // ==================== 排空与恢复 ====================
+
+    /**
+     * 使用默认超时排空当前节点
+     */
+    public Map<String, Object> drain() {
+        return drain(Duration.ofSeconds(drainTimeoutSeconds));
+    }
+
+    /**
+     * 排空当前节点
+     *
+     * @param timeout 等待进行中请求和作业完成的最长时间
+     * @return 排空结果，drained为false表示截止时仍有未完成的工作
+     */
+    public Map<String, Object> drain(Duration timeout) {
+        if (!state.compareAndSet(DrainState.ACTIVE, DrainState.DRAINING)) {
+            log.info("节点已在排空中或已排空: state={}", state.get());
+            return lastResult;
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        log.info("开始排空节点: nodeId={}, timeout={}s", scalingComponent.getNodeId(), timeout.toSeconds());
+
+        // 1. 就绪探针失败
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        // 2. 停止作业获取，关闭过程会等待执行中的作业，放到后台线程避免阻塞截止时间判断
+        stopJobAcquisition();
+
+        // 3. 等待进行中的工作完成
+        boolean drained = awaitQuiescence(deadline);
+
+        // 4. 交出领导权和分区
+        scalingComponent.prepareForHotDeploy();
+
+        state.set(DrainState.DRAINED);
+        Map<String, Object> result = new HashMap<>();
+        result.put("nodeId", scalingComponent.getNodeId());
+        result.put("drained", drained);
+        result.put("remainingRequests", inFlightRequests.get());
+        result.put("remainingJobs", countInFlightJobs());
+        result.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+        lastResult = result;
+
+        if (drained) {
+            log.info("节点排空完成: {}", result);
+        } else {
+            log.warn("节点排空超时，仍有未完成的工作: {}", result);
+        }
+        return result;
+    }
+
+    /**
+     * 恢复接收工作（热部署取消或完成后重新上线）
+     */
+    public void resume() {
+        if (state.getAndSet(DrainState.ACTIVE) == DrainState.ACTIVE) {
+            return;
+        }
+        AsyncExecutor asyncExecutor = getAsyncExecutor();
+        if (asyncExecutor != null && !asyncExecutor.isActive()) {
+            try {
+                asyncExecutor.start();
+            } catch (Exception e) {
+                log.error("重新启动Flowable异步执行器失败: {}", e.getMessage(), e);
+            }
+        }
+        scalingComponent.completeHotDeploy();
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        log.info("节点恢复接收工作: nodeId={}", scalingComponent.getNodeId());
+    }
+
+    /**
+     * 应用关闭时先排空，滚动升级中的进程在退出前完成手上的工作
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        if (drainOnShutdown && state.get() == DrainState.ACTIVE) {
+            drain();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", state.get().name());
+        stats.put("inFlightRequests", inFlightRequests.get());
+        stats.put("inFlightJobs", countInFlightJobs());
+        stats.put("lastResult", lastResult);
+        return stats;
+    }
+
+    // ==================== 私有方法 ====================
+
+    private void stopJobAcquisition() {
+        AsyncExecutor asyncExecutor = getAsyncExecutor();
+        if (asyncExecutor == null || !asyncExecutor.isActive()) {
+            return;
+        }
+        // shutdown停止异步作业和定时器作业的获取线程，并解锁已获取未执行的作业
+        jobAcquisitionStop = CompletableFuture.runAsync(asyncExecutor::shutdown, runnable -> {
+            Thread thread = new Thread(runnable, "workflow-drain-async-executor");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private boolean awaitQuiescence(long deadline) {
+        while (true) {
+            CompletableFuture<Void> stop = jobAcquisitionStop;
+            boolean executorStopped = stop == null || stop.isDone();
+            if (executorStopped && inFlightRequests.get() <= 0 && countInFlightJobs() == 0) {
+                return true;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 进行中的作业数：引擎后台作业计数加上本节点锁定的Flowable作业
+     */
+    private long countInFlightJobs() {
+        long count = Math.max(0, inFlightJobs.get());
+        AsyncExecutor asyncExecutor = getAsyncExecutor();
+        ProcessEngine processEngine = processEngineProvider.getIfAvailable();
+        if (asyncExecutor == null || processEngine == null || asyncExecutor.getLockOwner() == null) {
+            return count;
+        }
+        try {
+            count += processEngine.getManagementService().createJobQuery()
+                    .lockOwner(asyncExecutor.getLockOwner())
+                    .count();
+        } catch (Exception e) {
+            log.debug("查询本节点锁定的作业失败: {}", e.getMessage());
+        }
+        return count;
+    }
+
+    private AsyncExecutor getAsyncExecutor() {
+        ProcessEngine processEngine = processEngineProvider.getIfAvailable();
+        if (processEngine == null) {
+            return null;
+        }
+        return processEngine.getProcessEngineConfiguration().getAsyncExecutor();
+    }
+}
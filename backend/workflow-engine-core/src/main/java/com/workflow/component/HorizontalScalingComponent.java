@@ -6,19 +6,36 @@ import com.workflow.dto.response.ScalingMetrics;
 import com.workflow.exception.WorkflowBusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 
 /**
  * 水平扩展支持组件
@@ -41,7 +58,43 @@ public class HorizontalScalingComponent {
     private static final String NODE_REGISTRY = CLUSTER_PREFIX + "nodes";
     private static final String NODE_HEARTBEAT = CLUSTER_PREFIX + "heartbeat:";
     private static final String LEADER_KEY = CLUSTER_PREFIX + "leader";
+    private static final String LEADER_EPOCH_KEY = CLUSTER_PREFIX + "leader:epoch";
+    private static final String MEMBERSHIP_CHANNEL = CLUSTER_PREFIX + "membership";
     private static final String TASK_LOCK_PREFIX = CLUSTER_PREFIX + "lock:task:";
+    private static final String TASK_LOCK_FENCE_PREFIX = CLUSTER_PREFIX + "lock:fence:";
+    
+    // 任务锁脚本：获取时递增防护令牌，释放和续期均先比较持有值
+    // 防护计数器长期无人获取后过期，重建时从当前微秒时间起步，保证高于过期前发放的令牌
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TASK_LOCK_ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return {0} end "
+            + "if redis.call('exists', KEYS[2]) == 0 then redis.call('set', KEYS[2], ARGV[4]) end "
+            + "local token = redis.call('incr', KEYS[2]) "
+            + "redis.call('pexpire', KEYS[2], ARGV[3]) "
+            + "redis.call('set', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2]) "
+            + "return {token}", List.class);
+    private static final RedisScript<Long> TASK_LOCK_RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end "
+            + "return 0", Long.class);
+    private static final RedisScript<Long> TASK_LOCK_EXTEND_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) end "
+            + "return 0", Long.class);
+    
+    // 领导权脚本：空缺时递增任期并获取，由自己持有时续约，返回任期，失败返回0
+    private static final RedisScript<Long> LEADER_ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('get', KEYS[1]) "
+            + "if not v then "
+            + "  local epoch = redis.call('incr', KEYS[2]) "
+            + "  redis.call('set', KEYS[1], ARGV[1] .. ':' .. epoch, 'PX', ARGV[2]) "
+            + "  return epoch "
+            + "end "
+            + "local sep = string.find(v, ':[^:]*$') "
+            + "if sep and string.sub(v, 1, sep - 1) == ARGV[1] then "
+            + "  redis.call('pexpire', KEYS[1], ARGV[2]) "
+            + "  return tonumber(string.sub(v, sep + 1)) "
+            + "end "
+            + "return 0", Long.class);
+    private static final RedisScript<Long> LEADER_RELEASE_SCRIPT = TASK_LOCK_RELEASE_SCRIPT;
     
     // 节点配置
     private static final long HEARTBEAT_INTERVAL_MS = 10000; // 10秒
@@ -54,14 +107,66 @@ public class HorizontalScalingComponent {
     private int nodePort;
     private LocalDateTime startTime;
     private volatile boolean isLeader = false;
+    private volatile long leaderEpoch = 0;
+    private volatile long leaderLeaseDeadlineNanos = System.nanoTime();
+    private volatile boolean draining = false;
+    
+    // 协调配置
+    @Value("${workflow.cluster.coordination-enabled:true}")
+    private boolean coordinationEnabled = true;
+    
+    @Value("${workflow.cluster.partitions:64}")
+    private int partitionCount = 64;
+    
+    @Value("${workflow.cluster.virtual-nodes:128}")
+    private int virtualNodes = 128;
+    
+    // 任务锁防护计数器无人获取后的保留时间，需远大于任何锁超时
+    @Value("${workflow.cluster.lock.fence-ttl-ms:604800000}")
+    private long fenceTtlMs = 604800000L;
+    
+    // 分区分配，初始化时按配置的分区数负责全部分区，成员已知后重新分配
+    private volatile List<String> partitionMembers = List.of();
+    private volatile Set<Integer> ownedPartitions = Set.of();
+    private final List<Consumer<Boolean>> leadershipListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Set<Integer>>> partitionListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService coordinator;
     
     // 负载统计
     private final AtomicLong processedTasks = new AtomicLong(0);
     private final AtomicLong activeConnections = new AtomicLong(0);
-    private final ConcurrentHashMap<String, Long> taskProcessingTimes = new ConcurrentHashMap<>();
+    private final long[] latencyWindow = new long[256];
+    private int latencyCursor;
+    private int latencyCount;
+    private final Map<String, IntSupplier> queueDepthSources = new ConcurrentHashMap<>();
+    
+    // 负载采样（指数加权平均）
+    @Value("${workflow.cluster.load.ewma-alpha:0.3}")
+    private double ewmaAlpha = 0.3;
+    
+    @Value("${workflow.cluster.load.queue-capacity:100}")
+    private int queueCapacity = 100;
+    
+    @Value("${workflow.cluster.load.latency-target-ms:1000}")
+    private long latencyTargetMs = 1000;
+    
+    private volatile double cpuEwma = -1;
+    private volatile double heapEwma = -1;
+    private volatile double queueEwma = -1;
+    private volatile double latencyEwma = -1;
+    
+    // 当前节点持有的任务锁及其防护令牌
+    private final ConcurrentHashMap<String, Long> heldTaskLocks = new ConcurrentHashMap<>();
     
     // 节点缓存
     private final ConcurrentHashMap<String, ClusterNodeInfo> nodeCache = new ConcurrentHashMap<>();
+    
+    // 本地成员视图：心跳时全量刷新，其他节点的心跳广播增量更新，路由选择只读此视图
+    private final ConcurrentHashMap<String, ClusterNodeInfo> membershipView = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> membershipSeenAt = new ConcurrentHashMap<>();
+    
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
 
     @PostConstruct
     public void init() {
@@ -71,10 +176,14 @@ public class HorizontalScalingComponent {
             this.nodeHost = InetAddress.getLocalHost().getHostAddress();
             this.nodePort = 8080; // 默认端口，可从配置读取
             this.startTime = LocalDateTime.now();
+            this.ownedPartitions = allPartitions(partitionCount);
             
             // 注册节点
             registerNode();
             
+            subscribeMembership();
+            startCoordinator();
+            
             log.info("水平扩展组件初始化完成: nodeId={}, host={}", nodeId, nodeHost);
             
         } catch (UnknownHostException e) {
@@ -86,9 +195,48 @@ public class HorizontalScalingComponent {
     @PreDestroy
     public void shutdown() {
         log.info("节点下线: nodeId={}", nodeId);
+        if (coordinator != null) {
+            coordinator.shutdownNow();
+        }
         unregisterNode();
     }
 
+    /**
+     * 启动集群协调线程，按心跳间隔续约领导权并检查成员变化
+     */
+    private void startCoordinator() {
+        if (!coordinationEnabled || coordinator != null) {
+            return;
+        }
+        coordinator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "workflow-cluster-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        coordinator.scheduleWithFixedDelay(this::updateHeartbeat,
+                HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 更新本地领导状态，状态变化时通知回调
+     */
+    private void updateLeadership(boolean leader) {
+        boolean previous = isLeader;
+        isLeader = leader;
+        if (previous == leader) {
+            return;
+        }
+        log.info(leader ? "获取领导权成功: nodeId={}, epoch={}" : "失去领导权: nodeId={}, epoch={}",
+                nodeId, leaderEpoch);
+        for (Consumer<Boolean> listener : leadershipListeners) {
+            try {
+                listener.accept(leader);
+            } catch (Exception e) {
+                log.error("领导权变更回调失败: {}", e.getMessage(), e);
+            }
+        }
+    }
+
     // ==================== 节点注册和发现 ====================
 
     /**
@@ -121,6 +269,10 @@ public class HorizontalScalingComponent {
             stringRedisTemplate.opsForHash().delete(NODE_REGISTRY, nodeId);
             stringRedisTemplate.delete(NODE_HEARTBEAT + nodeId);
             
+            ClusterNodeInfo offline = buildCurrentNodeInfo();
+            offline.setStatus("OFFLINE");
+            publishMembership(serializeNodeInfo(offline));
+            
             // 如果是领导者，释放领导权
             if (isLeader) {
                 releaseLeadership();
@@ -134,9 +286,8 @@ public class HorizontalScalingComponent {
     }
 
     /**
-     * 更新心跳
+     * 更新心跳，同时续约领导权并按成员变化重新分配分区
      */
-    @Scheduled(fixedRate = HEARTBEAT_INTERVAL_MS)
     public void updateHeartbeat() {
         try {
             String heartbeatKey = NODE_HEARTBEAT + nodeId;
@@ -146,17 +297,24 @@ public class HorizontalScalingComponent {
                     Duration.ofMillis(NODE_TIMEOUT_MS * 2)
             );
             
-            // 更新节点信息
+            // 采样负载并更新节点信息
+            sampleLoad();
             ClusterNodeInfo nodeInfo = buildCurrentNodeInfo();
             String nodeJson = serializeNodeInfo(nodeInfo);
             stringRedisTemplate.opsForHash().put(NODE_REGISTRY, nodeId, nodeJson);
+            publishMembership(nodeJson);
             
-            // 尝试获取领导权
-            tryAcquireLeadership();
+            // 尝试获取或续约领导权，下线中的节点不参与选举
+            if (!draining) {
+                tryAcquireLeadership();
+            }
             
             // 清理过期节点
             cleanupExpiredNodes();
             
+            // 刷新成员视图，成员变化时重新分配分区
+            rebalancePartitions(refreshMembership());
+            
         } catch (Exception e) {
             log.error("心跳更新失败: {}", e.getMessage());
         }
@@ -213,37 +371,35 @@ public class HorizontalScalingComponent {
     // ==================== 领导者选举 ====================
 
     /**
-     * 尝试获取领导权
+     * 尝试获取或续约领导权
+     * 
+     * 获取与续约在同一脚本中完成：键不存在时递增任期并写入"节点ID:任期"，
+     * 已由当前节点持有时续约，否则失败，不存在先读后续约的竞态
      */
     public boolean tryAcquireLeadership() {
+        long renewStart = System.nanoTime();
         try {
-            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(
-                    LEADER_KEY, 
-                    nodeId, 
-                    Duration.ofSeconds(LEADER_LEASE_SECONDS)
+            Long epoch = stringRedisTemplate.execute(
+                    LEADER_ACQUIRE_SCRIPT,
+                    List.of(LEADER_KEY, LEADER_EPOCH_KEY),
+                    nodeId,
+                    String.valueOf(TimeUnit.SECONDS.toMillis(LEADER_LEASE_SECONDS))
             );
             
-            if (Boolean.TRUE.equals(acquired)) {
-                isLeader = true;
-                log.info("获取领导权成功: nodeId={}", nodeId);
-                return true;
-            }
-            
-            // 检查是否已经是领导者
-            String currentLeader = stringRedisTemplate.opsForValue().get(LEADER_KEY);
-            if (nodeId.equals(currentLeader)) {
-                // 续约
-                stringRedisTemplate.expire(LEADER_KEY, Duration.ofSeconds(LEADER_LEASE_SECONDS));
-                isLeader = true;
+            if (epoch != null && epoch > 0) {
+                // 租约从发起续约时计算，本地判断不会晚于Redis中的过期时间
+                leaderLeaseDeadlineNanos = renewStart + TimeUnit.SECONDS.toNanos(LEADER_LEASE_SECONDS);
+                leaderEpoch = epoch;
+                updateLeadership(true);
                 return true;
             }
             
-            isLeader = false;
+            updateLeadership(false);
             return false;
             
         } catch (Exception e) {
             log.error("获取领导权失败: {}", e.getMessage());
-            return false;
+            return isCurrentNodeLeader();
         }
     }
 
@@ -252,14 +408,18 @@ public class HorizontalScalingComponent {
      */
     public void releaseLeadership() {
         try {
-            String currentLeader = stringRedisTemplate.opsForValue().get(LEADER_KEY);
-            if (nodeId.equals(currentLeader)) {
-                stringRedisTemplate.delete(LEADER_KEY);
-                isLeader = false;
-                log.info("释放领导权: nodeId={}", nodeId);
+            Long released = stringRedisTemplate.execute(
+                    LEADER_RELEASE_SCRIPT,
+                    List.of(LEADER_KEY),
+                    nodeId + ":" + leaderEpoch
+            );
+            if (released != null && released == 1) {
+                log.info("释放领导权: nodeId={}, epoch={}", nodeId, leaderEpoch);
             }
         } catch (Exception e) {
             log.error("释放领导权失败: {}", e.getMessage());
+        } finally {
+            updateLeadership(false);
         }
     }
 
@@ -268,7 +428,12 @@ public class HorizontalScalingComponent {
      */
     public String getCurrentLeader() {
         try {
-            return stringRedisTemplate.opsForValue().get(LEADER_KEY);
+            String value = stringRedisTemplate.opsForValue().get(LEADER_KEY);
+            if (value == null) {
+                return null;
+            }
+            int separator = value.lastIndexOf(':');
+            return separator > 0 ? value.substring(0, separator) : value;
         } catch (Exception e) {
             log.error("获取领导者失败: {}", e.getMessage());
             return null;
@@ -277,33 +442,156 @@ public class HorizontalScalingComponent {
 
     /**
      * 检查当前节点是否是领导者
+     * 
+     * 本地租约到期后即使尚未完成续约也视为非领导者，避免停顿期间与新领导者同时工作
      */
     public boolean isCurrentNodeLeader() {
-        return isLeader;
+        return isLeader && System.nanoTime() - leaderLeaseDeadlineNanos < 0;
+    }
+
+    /**
+     * 获取当前领导者任期，每次领导权易主时递增
+     * 
+     * @return 当前节点作为领导者的任期，非领导者返回0
+     */
+    public long getLeaderEpoch() {
+        return isCurrentNodeLeader() ? leaderEpoch : 0;
+    }
+
+    /**
+     * 注册领导权变更回调，参数为当前节点是否成为领导者
+     */
+    public void addLeadershipListener(Consumer<Boolean> listener) {
+        leadershipListeners.add(listener);
+    }
+
+    // ==================== 工作分区 ====================
+
+    /**
+     * 获取键所属的分区
+     * 
+     * 取键的 MD5 前4字节作为无符号整数对分区数取模，数据库中可用同样的表达式按分区过滤，
+     * 见 {@link com.workflow.repository.ExceptionRecordRepository#PARTITION_OF_ID}
+     */
+    public int getPartition(String key) {
+        byte[] digest = md5(key);
+        long prefix = ((digest[0] & 0xFFL) << 24) | ((digest[1] & 0xFFL) << 16)
+                | ((digest[2] & 0xFFL) << 8) | (digest[3] & 0xFFL);
+        return (int) (prefix % partitionCount);
+    }
+
+    /**
+     * 检查键是否由当前节点负责
+     * 
+     * 定时任务按此过滤，只处理自己分区内的数据；加入节点后吞吐随之增加而不是重复执行
+     */
+    public boolean isOwnedByCurrentNode(String key) {
+        return ownedPartitions.contains(getPartition(key));
+    }
+
+    /**
+     * 获取当前节点负责的分区
+     */
+    public Set<Integer> getOwnedPartitions() {
+        return ownedPartitions;
+    }
+
+    /**
+     * 获取分区总数
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * 注册分区变更回调，参数为当前节点新的分区集合
+     */
+    public void addPartitionListener(Consumer<Set<Integer>> listener) {
+        partitionListeners.add(listener);
+    }
+
+    /**
+     * 按存活节点重新分配分区
+     * 
+     * 分区通过一致性哈希环映射到节点，成员变化时只有相邻节点的分区发生迁移；
+     * 下线中的节点不参与分配，当前节点不在成员列表中时不负责任何分区
+     */
+    public synchronized void rebalancePartitions(List<ClusterNodeInfo> activeNodes) {
+        List<String> members = activeNodes.stream()
+                .filter(node -> !"DRAINING".equals(node.getStatus()))
+                .map(ClusterNodeInfo::getNodeId)
+                .sorted()
+                .toList();
+        if (members.isEmpty() && !draining) {
+            // 无法获取成员信息时按单节点处理，保证后台任务不中断
+            members = List.of(nodeId);
+        }
+        if (members.equals(partitionMembers)) {
+            return;
+        }
+        
+        ConsistentHashRing ring = new ConsistentHashRing(members, virtualNodes);
+        Set<Integer> owned = new HashSet<>();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            if (nodeId.equals(ring.nodeFor("partition-" + partition))) {
+                owned.add(partition);
+            }
+        }
+        
+        partitionMembers = members;
+        Set<Integer> previous = ownedPartitions;
+        ownedPartitions = Collections.unmodifiableSet(owned);
+        if (!owned.equals(previous)) {
+            log.info("分区重新分配: nodeId={}, members={}, owned={}/{}",
+                    nodeId, members.size(), owned.size(), partitionCount);
+            for (Consumer<Set<Integer>> listener : partitionListeners) {
+                try {
+                    listener.accept(ownedPartitions);
+                } catch (Exception e) {
+                    log.error("分区变更回调失败: {}", e.getMessage(), e);
+                }
+            }
+        }
     }
 
     // ==================== 负载均衡 ====================
 
     /**
      * 选择最佳节点处理任务
+     * 
+     * 基于本地缓存的成员视图做两次随机选择（power of two choices）：随机取两个可路由节点，
+     * 选负载较低者。选择过程不访问Redis，也避免所有请求同时涌向同一个"最空闲"节点
      */
     public LoadBalancingResult selectBestNode(String taskType) {
         log.debug("选择最佳节点: taskType={}", taskType);
         
         try {
-            List<ClusterNodeInfo> activeNodes = getActiveNodes();
+            List<ClusterNodeInfo> candidates = getRoutableNodes();
+            if (candidates.isEmpty()) {
+                // 视图为空时（启动初期或订阅中断）才回源Redis
+                refreshMembership();
+                candidates = getRoutableNodes();
+            }
             
-            if (activeNodes.isEmpty()) {
+            if (candidates.isEmpty()) {
                 return LoadBalancingResult.builder()
                         .success(false)
                         .message("没有可用的节点")
                         .build();
             }
             
-            // 根据负载选择最佳节点（最小负载优先）
-            ClusterNodeInfo bestNode = activeNodes.stream()
-                    .min(Comparator.comparingDouble(ClusterNodeInfo::getLoadScore))
-                    .orElse(activeNodes.get(0));
+            ClusterNodeInfo bestNode = candidates.get(0);
+            if (candidates.size() > 1) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(candidates.size());
+                int second = random.nextInt(candidates.size() - 1);
+                if (second >= first) {
+                    second++;
+                }
+                ClusterNodeInfo a = candidates.get(first);
+                ClusterNodeInfo b = candidates.get(second);
+                bestNode = a.getLoadScore() <= b.getLoadScore() ? a : b;
+            }
             
             return LoadBalancingResult.builder()
                     .success(true)
@@ -311,7 +599,7 @@ public class HorizontalScalingComponent {
                     .selectedNodeHost(bestNode.getHost())
                     .selectedNodePort(bestNode.getPort())
                     .loadScore(bestNode.getLoadScore())
-                    .totalNodes(activeNodes.size())
+                    .totalNodes(candidates.size())
                     .message("节点选择成功")
                     .build();
                     
@@ -324,6 +612,32 @@ public class HorizontalScalingComponent {
         }
     }
 
+    /**
+     * 从Redis全量刷新本地成员视图，心跳时调用，两次心跳之间由广播增量更新
+     * 
+     * @return 存活节点列表
+     */
+    public List<ClusterNodeInfo> refreshMembership() {
+        List<ClusterNodeInfo> activeNodes = getActiveNodes();
+        long now = System.currentTimeMillis();
+        Set<String> alive = new HashSet<>();
+        for (ClusterNodeInfo node : activeNodes) {
+            alive.add(node.getNodeId());
+            membershipView.put(node.getNodeId(), node);
+            membershipSeenAt.put(node.getNodeId(), now);
+        }
+        membershipView.keySet().removeIf(id -> !alive.contains(id));
+        membershipSeenAt.keySet().removeIf(id -> !alive.contains(id));
+        return activeNodes;
+    }
+
+    /**
+     * 注册执行器队列深度来源，心跳时汇总为节点队列负载
+     */
+    public void registerQueueDepthSource(String name, IntSupplier queueDepth) {
+        queueDepthSources.put(name, queueDepth);
+    }
+
     /**
      * 获取负载均衡统计
      */
@@ -360,41 +674,67 @@ public class HorizontalScalingComponent {
      * 获取任务分布式锁
      */
     public boolean acquireTaskLock(String taskId, long timeoutMs) {
+        return acquireTaskLockWithToken(taskId, timeoutMs) > 0;
+    }
+
+    /**
+     * 获取任务分布式锁并返回防护令牌
+     * 
+     * 令牌按任务单调递增，下游写入时携带令牌即可拒绝已过期持有者的写入
+     * 
+     * @return 防护令牌，获取失败返回-1
+     */
+    public long acquireTaskLockWithToken(String taskId, long timeoutMs) {
         try {
             String lockKey = TASK_LOCK_PREFIX + taskId;
-            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(
-                    lockKey, 
-                    nodeId, 
-                    Duration.ofMillis(timeoutMs)
+            List<?> result = stringRedisTemplate.execute(
+                    TASK_LOCK_ACQUIRE_SCRIPT,
+                    List.of(lockKey, TASK_LOCK_FENCE_PREFIX + taskId),
+                    nodeId,
+                    String.valueOf(Math.max(1, timeoutMs)),
+                    String.valueOf(Math.max(fenceTtlMs, timeoutMs)),
+                    String.valueOf(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()))
             );
             
-            if (Boolean.TRUE.equals(acquired)) {
-                log.debug("获取任务锁成功: taskId={}, nodeId={}", taskId, nodeId);
-                return true;
+            long token = result != null && !result.isEmpty() && result.get(0) != null
+                    ? ((Number) result.get(0)).longValue() : 0;
+            if (token > 0) {
+                heldTaskLocks.put(taskId, token);
+                log.debug("获取任务锁成功: taskId={}, nodeId={}, token={}", taskId, nodeId, token);
+                return token;
             }
             
-            return false;
+            return -1;
             
         } catch (Exception e) {
             log.error("获取任务锁失败: taskId={}, error={}", taskId, e.getMessage());
-            return false;
+            return -1;
         }
     }
 
     /**
      * 释放任务分布式锁
+     * 
+     * 比较并删除在同一脚本中完成，锁过期后被其他节点获取时不会误删
      */
     public boolean releaseTaskLock(String taskId) {
+        Long token = heldTaskLocks.remove(taskId);
+        if (token == null) {
+            return false;
+        }
         try {
-            String lockKey = TASK_LOCK_PREFIX + taskId;
-            String lockHolder = stringRedisTemplate.opsForValue().get(lockKey);
+            Long released = stringRedisTemplate.execute(
+                    TASK_LOCK_RELEASE_SCRIPT,
+                    List.of(TASK_LOCK_PREFIX + taskId),
+                    nodeId + ":" + token
+            );
             
-            if (nodeId.equals(lockHolder)) {
-                stringRedisTemplate.delete(lockKey);
+            if (released != null && released == 1) {
                 log.debug("释放任务锁成功: taskId={}", taskId);
                 return true;
             }
             
+            log.warn("任务锁已过期或被其他节点持有: taskId={}, token={}", taskId, token);
             return false;
             
         } catch (Exception e) {
@@ -403,6 +743,46 @@ public class HorizontalScalingComponent {
         }
     }
 
+    /**
+     * 续期任务分布式锁，仅当锁仍由当前节点的本次获取持有时生效
+     */
+    public boolean extendTaskLock(String taskId, long timeoutMs) {
+        Long token = heldTaskLocks.get(taskId);
+        if (token == null) {
+            return false;
+        }
+        try {
+            Long extended = stringRedisTemplate.execute(
+                    TASK_LOCK_EXTEND_SCRIPT,
+                    List.of(TASK_LOCK_PREFIX + taskId),
+                    nodeId + ":" + token,
+                    String.valueOf(Math.max(1, timeoutMs))
+            );
+            
+            if (extended != null && extended == 1) {
+                return true;
+            }
+            
+            // 锁已丢失，不再视为持有
+            heldTaskLocks.remove(taskId, token);
+            log.warn("任务锁续期失败，锁已丢失: taskId={}, token={}", taskId, token);
+            return false;
+            
+        } catch (Exception e) {
+            log.error("续期任务锁失败: taskId={}, error={}", taskId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 获取当前节点持有的任务锁防护令牌
+     * 
+     * @return 防护令牌，未持有返回-1
+     */
+    public long getTaskLockFencingToken(String taskId) {
+        return heldTaskLocks.getOrDefault(taskId, -1L);
+    }
+
     /**
      * 检查任务是否被锁定
      */
@@ -463,12 +843,12 @@ public class HorizontalScalingComponent {
      */
     public void recordTaskProcessed(String taskId, long processingTimeMs) {
         processedTasks.incrementAndGet();
-        taskProcessingTimes.put(taskId, processingTimeMs);
         
-        // 保持最近1000个任务的处理时间
-        if (taskProcessingTimes.size() > 1000) {
-            String oldestKey = taskProcessingTimes.keySet().iterator().next();
-            taskProcessingTimes.remove(oldestKey);
+        // 保持最近的任务处理时间用于计算P95
+        synchronized (latencyWindow) {
+            latencyWindow[latencyCursor] = processingTimeMs;
+            latencyCursor = (latencyCursor + 1) % latencyWindow.length;
+            latencyCount = Math.min(latencyCount + 1, latencyWindow.length);
         }
     }
 
@@ -490,13 +870,15 @@ public class HorizontalScalingComponent {
 
     /**
      * 准备热部署（优雅下线）
+     * 
+     * 仅负责集群层面的交接：标记下线中、释放领导权和分区。
+     * 停止作业获取和等待进行中的工作由 {@link GracefulDrainComponent} 完成后再调用本方法
      */
     public void prepareForHotDeploy() {
         log.info("准备热部署: nodeId={}", nodeId);
         
-        // 停止接收新任务
-        // 等待当前任务完成
-        // 释放领导权
+        // 释放领导权和分区，交由其他节点接管
+        draining = true;
         if (isLeader) {
             releaseLeadership();
         }
@@ -507,9 +889,11 @@ public class HorizontalScalingComponent {
             nodeInfo.setStatus("DRAINING");
             String nodeJson = serializeNodeInfo(nodeInfo);
             stringRedisTemplate.opsForHash().put(NODE_REGISTRY, nodeId, nodeJson);
+            publishMembership(nodeJson);
         } catch (Exception e) {
             log.error("标记节点下线状态失败: {}", e.getMessage());
         }
+        rebalancePartitions(getActiveNodes());
     }
 
     /**
@@ -518,12 +902,29 @@ public class HorizontalScalingComponent {
     public void completeHotDeploy() {
         log.info("完成热部署: nodeId={}", nodeId);
         
-        // 重新注册节点
+        // 重新注册节点，心跳中重新参与选举和分区分配
+        draining = false;
         registerNode();
     }
 
     // ==================== 私有辅助方法 ====================
 
+    private static byte[] md5(String key) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 不可用", e);
+        }
+    }
+
+    private static Set<Integer> allPartitions(int count) {
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            partitions.add(i);
+        }
+        return Collections.unmodifiableSet(partitions);
+    }
+
     /**
      * 生成节点ID
      */
@@ -546,10 +947,14 @@ public class HorizontalScalingComponent {
                 .nodeId(nodeId)
                 .host(nodeHost)
                 .port(nodePort)
-                .status(isLeader ? "LEADER" : "FOLLOWER")
+                .status(draining ? "DRAINING" : isLeader ? "LEADER" : "FOLLOWER")
                 .loadScore(loadScore)
                 .processedTasks(processedTasks.get())
                 .activeConnections(activeConnections.get())
+                .cpuLoad(Math.max(0, cpuEwma))
+                .heapUsage(Math.max(0, heapEwma))
+                .queueDepth(Math.round(Math.max(0, queueEwma)))
+                .p95LatencyMs(Math.round(Math.max(0, latencyEwma)))
                 .startTime(startTime)
                 .lastHeartbeat(LocalDateTime.now())
                 .build();
@@ -559,14 +964,128 @@ public class HorizontalScalingComponent {
      * 计算当前负载分数
      */
     private double calculateCurrentLoadScore() {
-        // 基于活跃连接数和处理任务数计算负载分数
-        long connections = activeConnections.get();
+        if (cpuEwma < 0) {
+            // 尚未采样时仅按活跃连接数估算
+            return Math.min(1.0, activeConnections.get() / (double) queueCapacity);
+        }
+        double queueLoad = Math.min(1.0, queueEwma / queueCapacity);
+        double latencyLoad = Math.min(1.0, latencyEwma / latencyTargetMs);
+        double[] loads = {clamp(cpuEwma), clamp(heapEwma), queueLoad, latencyLoad};
         
-        // 简化的负载计算：连接数 / 100（假设最大100个连接）
-        double connectionLoad = Math.min(1.0, connections / 100.0);
+        // 最大值与平均值各占一半：任一资源饱和都会明显抬高分数
+        double max = 0;
+        double sum = 0;
+        for (double load : loads) {
+            max = Math.max(max, load);
+            sum += load;
+        }
+        return 0.5 * max + 0.5 * sum / loads.length;
+    }
+
+    /**
+     * 采样CPU、堆内存、队列深度和P95耗时，更新指数加权平均
+     */
+    private void sampleLoad() {
+        cpuEwma = ewma(cpuEwma, sampleCpu());
         
-        // 可以添加更多因素：CPU使用率、内存使用率等
-        return connectionLoad;
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long maxHeap = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        heapEwma = ewma(heapEwma, maxHeap > 0 ? (double) heap.getUsed() / maxHeap : 0);
+        
+        long queued = activeConnections.get();
+        for (IntSupplier source : queueDepthSources.values()) {
+            try {
+                queued += source.getAsInt();
+            } catch (Exception e) {
+                log.debug("读取队列深度失败: {}", e.getMessage());
+            }
+        }
+        queueEwma = ewma(queueEwma, queued);
+        latencyEwma = ewma(latencyEwma, currentP95Latency());
+    }
+
+    private double sampleCpu() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            double processCpu = sunOs.getProcessCpuLoad();
+            if (processCpu >= 0) {
+                return processCpu;
+            }
+        }
+        double loadAverage = os.getSystemLoadAverage();
+        return loadAverage >= 0 ? clamp(loadAverage / os.getAvailableProcessors()) : 0;
+    }
+
+    private long currentP95Latency() {
+        long[] samples;
+        synchronized (latencyWindow) {
+            if (latencyCount == 0) {
+                return 0;
+            }
+            samples = Arrays.copyOf(latencyWindow, latencyCount);
+        }
+        Arrays.sort(samples);
+        return samples[(int) Math.ceil(samples.length * 0.95) - 1];
+    }
+
+    private double ewma(double previous, double sample) {
+        return previous < 0 ? sample : ewmaAlpha * sample + (1 - ewmaAlpha) * previous;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1.0, value));
+    }
+
+    /**
+     * 获取可路由节点：视图中未下线且在超时时间内有更新的节点
+     */
+    private List<ClusterNodeInfo> getRoutableNodes() {
+        long now = System.currentTimeMillis();
+        List<ClusterNodeInfo> nodes = new ArrayList<>();
+        for (ClusterNodeInfo node : membershipView.values()) {
+            Long seenAt = membershipSeenAt.get(node.getNodeId());
+            if (seenAt != null && now - seenAt < NODE_TIMEOUT_MS && !"DRAINING".equals(node.getStatus())) {
+                nodes.add(node);
+            }
+        }
+        return nodes;
+    }
+
+    private void subscribeMembership() {
+        if (listenerContainer == null) {
+            return;
+        }
+        listenerContainer.addMessageListener((message, pattern) ->
+                onMembershipMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(MEMBERSHIP_CHANNEL));
+    }
+
+    /**
+     * 广播当前节点信息，其他节点据此更新本地视图
+     */
+    private void publishMembership(String nodeJson) {
+        if (listenerContainer == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(MEMBERSHIP_CHANNEL, nodeJson);
+        } catch (Exception e) {
+            log.debug("广播节点信息失败: {}", e.getMessage());
+        }
+    }
+
+    void onMembershipMessage(String nodeJson) {
+        ClusterNodeInfo node = deserializeNodeInfo(nodeJson);
+        if (node == null) {
+            return;
+        }
+        if ("OFFLINE".equals(node.getStatus())) {
+            membershipView.remove(node.getNodeId());
+            membershipSeenAt.remove(node.getNodeId());
+            return;
+        }
+        membershipView.put(node.getNodeId(), node);
+        membershipSeenAt.put(node.getNodeId(), System.currentTimeMillis());
     }
 
     /**
@@ -608,7 +1127,7 @@ public class HorizontalScalingComponent {
      */
     private String serializeNodeInfo(ClusterNodeInfo nodeInfo) {
         // 简化的序列化，实际应使用JSON
-        return String.format("%s|%s|%d|%s|%.2f|%d|%d|%s|%s",
+        return String.format(Locale.ROOT, "%s|%s|%d|%s|%.4f|%d|%d|%s|%s|%.4f|%.4f|%d|%d",
                 nodeInfo.getNodeId(),
                 nodeInfo.getHost(),
                 nodeInfo.getPort(),
@@ -617,7 +1136,11 @@ public class HorizontalScalingComponent {
                 nodeInfo.getProcessedTasks(),
                 nodeInfo.getActiveConnections(),
                 nodeInfo.getStartTime(),
-                nodeInfo.getLastHeartbeat()
+                nodeInfo.getLastHeartbeat(),
+                nodeInfo.getCpuLoad(),
+                nodeInfo.getHeapUsage(),
+                nodeInfo.getQueueDepth(),
+                nodeInfo.getP95LatencyMs()
         );
     }
 
@@ -631,7 +1154,7 @@ public class HorizontalScalingComponent {
                 return null;
             }
             
-            return ClusterNodeInfo.builder()
+            ClusterNodeInfo nodeInfo = ClusterNodeInfo.builder()
                     .nodeId(parts[0])
                     .host(parts[1])
                     .port(Integer.parseInt(parts[2]))
@@ -642,6 +1165,15 @@ public class HorizontalScalingComponent {
                     .startTime(LocalDateTime.parse(parts[7]))
                     .lastHeartbeat(LocalDateTime.parse(parts[8]))
                     .build();
+            
+            // 旧版本节点不上报负载明细
+            if (parts.length >= 13) {
+                nodeInfo.setCpuLoad(Double.parseDouble(parts[9]));
+                nodeInfo.setHeapUsage(Double.parseDouble(parts[10]));
+                nodeInfo.setQueueDepth(Long.parseLong(parts[11]));
+                nodeInfo.setP95LatencyMs(Long.parseLong(parts[12]));
+            }
+            return nodeInfo;
                     
         } catch (Exception e) {
             log.error("反序列化节点信息失败: {}", e.getMessage());
@@ -0,0 +1,140 @@
+package com.workflow.component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 多关键字匹配器（Aho-Corasick 自动机）
+ *
+ * 构建时把关键字集合编译为完整的状态转移表，扫描文本时每个字符只做一次查表，
+ * 与关键字数量无关。匹配不区分大小写，关键字限于ASCII字符，
+ * 非ASCII字符直接回到初始状态。
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+final class KeywordMatcher {
+
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions;
+    private final boolean[] accepting;
+
+    private KeywordMatcher(int[][] transitions, boolean[] accepting) {
+        this.transitions = transitions;
+        this.accepting = accepting;
+    }
+
+    /**
+     * 编译关键字集合
+     *
+     * @throws IllegalArgumentException 关键字为空或包含非ASCII字符
+     */
+    static KeywordMatcher of(Collection<String> keywords) {
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(newState());
+        terminal.add(false);
+
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("关键字不能为空");
+            }
+            int state = 0;
+            for (char c : keyword.toLowerCase(Locale.ROOT).toCharArray()) {
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("关键字只支持ASCII字符: " + keyword);
+                }
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    terminal.add(false);
+                }
+                state = trie.get(state)[c];
+            }
+            terminal.set(state, true);
+        }
+
+        // 按层次遍历计算失败链接，同时把缺失的转移补全为确定性转移
+        int size = trie.size();
+        int[][] transitions = trie.toArray(new int[size][]);
+        boolean[] accepting = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            accepting[i] = terminal.get(i);
+        }
+        int[] failure = new int[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = transitions[0][c];
+            if (next < 0) {
+                transitions[0][c] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] |= accepting[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+        return new KeywordMatcher(transitions, accepting);
+    }
+
+    /**
+     * 初始状态
+     */
+    int start() {
+        return 0;
+    }
+
+    /**
+     * 读入一个字符后的状态
+     */
+    int step(int state, char c) {
+        if (c >= 'A' && c <= 'Z') {
+            c = (char) (c + ('a' - 'A'));
+        }
+        return c < ALPHABET ? transitions[state][c] : 0;
+    }
+
+    /**
+     * 当前状态是否刚匹配到某个关键字
+     */
+    boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * 文本中是否包含任一关键字
+     */
+    boolean containsAny(CharSequence text) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
@@ -0,0 +1,216 @@
+package com.workflow.component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * 受管线程池
+ *
+ * 有界队列加明确的拒绝策略，记录提交、完成、拒绝数和任务排队等待时间。
+ * 通过 {@link #sharedView(String)} 交给 Spring @Async、Flowable 等外部使用方时，
+ * 使用方关闭的只是自己的视图，不会关闭共享的线程池
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+public class ManagedExecutor extends ThreadPoolExecutor {
+
+    /**
+     * 队列满时的处理方式
+     */
+    public enum RejectionPolicy {
+        /** 抛出RejectedExecutionException，由调用方降级 */
+        ABORT,
+        /** 由提交线程执行，形成背压 */
+        CALLER_RUNS,
+        /** 丢弃队列中最早的任务 */
+        DISCARD_OLDEST
+    }
+
+    private final String name;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile LongConsumer waitListener = nanos -> { };
+
+    public ManagedExecutor(String name, int coreSize, int maxSize, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        super(coreSize, Math.max(coreSize, maxSize), 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory(name), handler(rejectionPolicy));
+        this.name = name;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submittedCount.incrementAndGet();
+        try {
+            super.execute(new TimedTask(command));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        if (task instanceof TimedTask timedTask) {
+            long waited = System.nanoTime() - timedTask.enqueuedAt;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            waitListener.accept(waited);
+        }
+        super.beforeExecute(thread, task);
+    }
+
+    /**
+     * 设置排队等待时间回调，用于对接指标系统
+     */
+    public void setWaitListener(LongConsumer waitListener) {
+        this.waitListener = waitListener != null ? waitListener : nanos -> { };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long completed = getCompletedTaskCount();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("name", name);
+        stats.put("poolSize", getPoolSize());
+        stats.put("corePoolSize", getCorePoolSize());
+        stats.put("maxPoolSize", getMaximumPoolSize());
+        stats.put("activeCount", getActiveCount());
+        stats.put("queueDepth", getQueueDepth());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("rejectionPolicy", rejectionPolicy.name());
+        stats.put("submitted", submittedCount.get());
+        stats.put("completed", completed);
+        stats.put("rejected", rejectedCount.get());
+        stats.put("avgWaitMs", completed > 0 ? totalWaitNanos.get() / completed / 1_000_000.0 : 0.0);
+        stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    /**
+     * 获取共享视图，外部框架按自己的生命周期关闭视图时不影响线程池和其他使用方
+     */
+    public ExecutorService sharedView(String owner) {
+        return new SharedView(owner);
+    }
+
+    // ==================== 内部实现 ====================
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "workflow-" + name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static RejectedExecutionHandler handler(RejectionPolicy policy) {
+        return switch (policy) {
+            case CALLER_RUNS -> new CallerRunsPolicy();
+            case DISCARD_OLDEST -> new DiscardOldestPolicy();
+            default -> new AbortPolicy();
+        };
+    }
+
+    private static final class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long enqueuedAt = System.nanoTime();
+
+        private TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    private final class SharedView extends AbstractExecutorService {
+        private final String owner;
+        private final AtomicInteger running = new AtomicInteger();
+        private volatile boolean shutdown;
+
+        private SharedView(String owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException(owner + " 已关闭对线程池 " + name + " 的使用");
+            }
+            running.incrementAndGet();
+            try {
+                ManagedExecutor.this.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown || ManagedExecutor.this.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return isShutdown() && running.get() == 0;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.workflow.component;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.messaging.service.EventPublisher;
 import com.workflow.dto.response.NotificationResult;
 import com.workflow.exception.WorkflowBusinessException;
 import com.workflow.exception.WorkflowValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
@@ -49,7 +51,7 @@ public class NotificationManagerComponent {
     // 通知历史记录
     private final List<NotificationRecord> notificationHistory = new CopyOnWriteArrayList<>();
     
-    // Kafka消息处理器（模拟）
+    // Kafka消息处理器（由WorkflowEventKafkaListener批量消费后分发）
     private final Map<String, List<Consumer<WorkflowEvent>>> kafkaConsumers = new ConcurrentHashMap<>();
     
     // 通知模板
@@ -58,6 +60,16 @@ public class NotificationManagerComponent {
     // 用户通知偏好
     private final Map<String, UserNotificationPreference> userPreferences = new ConcurrentHashMap<>();
     
+    // 集群通知总线（多节点部署时跨节点投递）
+    private ClusterNotificationBus clusterNotificationBus;
+    
+    // Kafka事件发布（未配置时退化为Redis列表模拟）
+    @Autowired(required = false)
+    private EventPublisher kafkaEventPublisher;
+    
+    @Autowired(required = false)
+    private WorkflowEventConverter workflowEventConverter;
+    
     // 缓存键前缀
     private static final String NOTIFICATION_PREFIX = "notification:";
     private static final String KAFKA_TOPIC_PREFIX = "workflow:";
@@ -155,6 +167,19 @@ public class NotificationManagerComponent {
             this.timestamp = LocalDateTime.now();
         }
         
+        /**
+         * 还原已有事件（如从Kafka消费的事件），保留原事件ID和时间
+         */
+        public WorkflowEvent(String eventId, String eventType, String sourceId, String sourceType,
+                             Map<String, Object> eventData, LocalDateTime timestamp) {
+            this.eventId = eventId != null ? eventId : UUID.randomUUID().toString();
+            this.eventType = eventType;
+            this.sourceId = sourceId;
+            this.sourceType = sourceType;
+            this.eventData = eventData != null ? eventData : new HashMap<>();
+            this.timestamp = timestamp != null ? timestamp : LocalDateTime.now();
+        }
+        
         // Getters
         public String getEventId() { return eventId; }
         public String getEventType() { return eventType; }
@@ -302,6 +327,15 @@ public class NotificationManagerComponent {
         public void setOffset(long offset) { this.offset = offset; }
     }
 
+    /**
+     * 注入集群通知总线，并注册本地会话投递回调
+     */
+    @Autowired(required = false)
+    public void setClusterNotificationBus(ClusterNotificationBus clusterNotificationBus) {
+        this.clusterNotificationBus = clusterNotificationBus;
+        clusterNotificationBus.registerLocalDelivery(this::sendWebSocketNotification);
+    }
+
     /**
      * 注册WebSocket会话
      * 
@@ -321,6 +355,10 @@ public class NotificationManagerComponent {
             WebSocketSession session = new WebSocketSession(sessionId, userId);
             activeSessions.put(sessionId, session);
             
+            if (clusterNotificationBus != null) {
+                clusterNotificationBus.userConnected(userId);
+            }
+            
             // 发布会话连接事件
             WorkflowEvent event = new WorkflowEvent(
                     "SESSION_CONNECTED",
@@ -361,6 +399,10 @@ public class NotificationManagerComponent {
             if (session != null) {
                 session.setActive(false);
                 
+                if (clusterNotificationBus != null && !hasLocalSession(session.getUserId())) {
+                    clusterNotificationBus.userDisconnected(session.getUserId());
+                }
+                
                 // 发布会话断开事件
                 WorkflowEvent event = new WorkflowEvent(
                         "SESSION_DISCONNECTED",
@@ -764,6 +806,9 @@ public class NotificationManagerComponent {
                 eventPublisher.publishEvent(event);
             }
             
+            // 发布到Kafka供其他服务消费
+            publishToKafka(event);
+            
             // 处理事件订阅
             List<EventSubscription> subscriptions = eventSubscriptions.get(event.getEventType());
             if (subscriptions != null) {
@@ -804,7 +849,7 @@ public class NotificationManagerComponent {
             notificationHistory.add(record);
             
             // 发送WebSocket通知
-            boolean delivered = sendWebSocketNotification(subscription.getUserId(), message);
+            boolean delivered = pushToUser(subscription.getUserId(), event.getEventId(), message);
             record.setDelivered(delivered);
             
             log.info("向用户发送通知: userId={}, eventType={}, delivered={}", 
@@ -816,7 +861,19 @@ public class NotificationManagerComponent {
     }
 
     /**
-     * 发送WebSocket通知
+     * 向用户推送WebSocket通知
+     * 本节点的会话直接推送，其他节点的会话通过集群通知总线投递
+     */
+    private boolean pushToUser(String userId, String eventId, String message) {
+        boolean delivered = sendWebSocketNotification(userId, message);
+        if (clusterNotificationBus != null) {
+            delivered |= clusterNotificationBus.publish(userId, eventId, message) > 0;
+        }
+        return delivered;
+    }
+
+    /**
+     * 发送WebSocket通知（仅本节点会话）
      */
     private boolean sendWebSocketNotification(String userId, String message) {
         boolean delivered = false;
@@ -831,6 +888,18 @@ public class NotificationManagerComponent {
         return delivered;
     }
 
+    /**
+     * 检查用户在本节点是否还有活跃会话
+     */
+    private boolean hasLocalSession(String userId) {
+        for (WebSocketSession session : activeSessions.values()) {
+            if (session.isActive() && userId.equals(session.getUserId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 构建通知消息
      */
@@ -914,10 +983,14 @@ public class NotificationManagerComponent {
     public NotificationResult sendKafkaMessage(String topic, String key, WorkflowEvent event) {
         log.info("发送Kafka消息: topic={}, key={}, eventType={}", topic, key, event.getEventType());
         
+        if (isKafkaEnabled()) {
+            return sendToKafka(topic, key, event);
+        }
+        
         try {
             KafkaMessage message = new KafkaMessage(KAFKA_TOPIC_PREFIX + topic, key, event);
             
-            // 模拟Kafka发送（实际实现中应该使用KafkaTemplate）
+            // 未配置Kafka时使用Redis列表模拟
             String messageJson = objectMapper.writeValueAsString(message);
             
             // 存储到Redis模拟Kafka队列
@@ -926,7 +999,7 @@ public class NotificationManagerComponent {
             stringRedisTemplate.expire(queueKey, Duration.ofDays(7));
             
             // 触发消费者
-            triggerKafkaConsumers(topic, event);
+            triggerKafkaConsumers(WorkflowEventConverter.resolveTopic(topic), event);
             
             log.info("Kafka消息发送成功: messageId={}", message.getMessageId());
             
@@ -945,6 +1018,59 @@ public class NotificationManagerComponent {
         }
     }
 
+    /**
+     * 通过EventPublisher发送到Kafka
+     * 发送是异步的，生产者按分区攒批并压缩，失败时记录日志
+     */
+    private NotificationResult sendToKafka(String topic, String key, WorkflowEvent event) {
+        try {
+            String kafkaTopic = WorkflowEventConverter.resolveTopic(topic);
+            kafkaEventPublisher.publish(workflowEventConverter.toTopicEvent(event, kafkaTopic, key))
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("Kafka消息发送失败: topic={}, eventId={}, error={}",
+                                    kafkaTopic, event.getEventId(), ex.getMessage());
+                        }
+                    });
+            
+            return NotificationResult.builder()
+                    .success(true)
+                    .message("Kafka消息发送成功")
+                    .eventId(event.getEventId())
+                    .build();
+                    
+        } catch (Exception e) {
+            log.error("发送Kafka消息失败: {}", e.getMessage(), e);
+            throw new WorkflowBusinessException("KAFKA_SEND_FAILED", "发送Kafka消息失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 将引擎事件发布到对应的Kafka主题
+     */
+    private void publishToKafka(WorkflowEvent event) {
+        if (!isKafkaEnabled()) {
+            return;
+        }
+        
+        try {
+            kafkaEventPublisher.publish(workflowEventConverter.toPlatformEvent(event))
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("事件发布到Kafka失败: eventType={}, eventId={}, error={}",
+                                    event.getEventType(), event.getEventId(), ex.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            // Kafka不可用不影响本地通知
+            log.error("事件发布到Kafka失败: eventType={}, error={}", event.getEventType(), e.getMessage());
+        }
+    }
+
+    private boolean isKafkaEnabled() {
+        return kafkaEventPublisher != null && workflowEventConverter != null;
+    }
+
     /**
      * 注册Kafka消费者
      * 
@@ -955,7 +1081,7 @@ public class NotificationManagerComponent {
     public NotificationResult registerKafkaConsumer(String topic, Consumer<WorkflowEvent> consumer) {
         log.info("注册Kafka消费者: topic={}", topic);
         
-        kafkaConsumers.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>()).add(consumer);
+        kafkaConsumers.computeIfAbsent(WorkflowEventConverter.resolveTopic(topic), k -> new CopyOnWriteArrayList<>()).add(consumer);
         
         return NotificationResult.builder()
                 .success(true)
@@ -963,6 +1089,24 @@ public class NotificationManagerComponent {
                 .build();
     }
 
+    /**
+     * 分发从Kafka消费的事件到已注册的消费者
+     * 
+     * @param kafkaTopic Kafka主题
+     * @param event 工作流事件
+     */
+    public void dispatchKafkaMessage(String kafkaTopic, WorkflowEvent event) {
+        triggerKafkaConsumers(kafkaTopic, event);
+    }
+
+    /**
+     * 是否有消费者注册到该主题
+     */
+    public boolean hasKafkaConsumers(String kafkaTopic) {
+        List<Consumer<WorkflowEvent>> consumers = kafkaConsumers.get(kafkaTopic);
+        return consumers != null && !consumers.isEmpty();
+    }
+
     /**
      * 触发Kafka消费者
      */
@@ -1122,7 +1266,7 @@ public class NotificationManagerComponent {
             notificationHistory.add(record);
             
             // 同时发送WebSocket通知
-            sendWebSocketNotification(userId, title + ": " + content);
+            pushToUser(userId, messageId, title + ": " + content);
             
             return NotificationResult.builder()
                     .success(true)
@@ -1164,7 +1308,7 @@ public class NotificationManagerComponent {
                 try {
                     switch (channel) {
                         case "WEBSOCKET":
-                            if (sendWebSocketNotification(userId, message)) {
+                            if (pushToUser(userId, event.getEventId(), message)) {
                                 successCount++;
                             }
                             break;
@@ -0,0 +1,96 @@
+package com.workflow.component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 集群通知传输层
+ *
+ * 抽象节点收件箱流和用户在线状态的存储：
+ * - 每个节点拥有一个收件箱流，只有该节点消费
+ * - 用户在线状态记录用户会话所在的节点，用于按用户ID路由
+ * - 节点下线后其收件箱由存活节点接管，剩余消息重新路由后删除收件箱
+ *
+ * 生产环境使用Redis Stream实现，测试中可替换为内存实现
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+public interface NotificationStreamTransport {
+
+    /**
+     * 记录用户在指定节点在线，超过ttl未续期视为离线
+     */
+    void markPresent(String userId, String nodeId, Duration ttl);
+
+    /**
+     * 清除用户在指定节点的在线状态
+     */
+    void clearPresence(String userId, String nodeId);
+
+    /**
+     * 查询持有该用户会话的所有节点
+     */
+    Set<String> findPresentNodes(String userId);
+
+    /**
+     * 追加消息到节点收件箱
+     *
+     * @return 消息记录ID
+     */
+    String append(String nodeId, Map<String, String> fields);
+
+    /**
+     * 读取节点收件箱
+     *
+     * @param nodeId 节点ID
+     * @param count 最大读取条数
+     * @param block 无消息时的最长阻塞时间，为null时不阻塞
+     * @param pendingOnly 为true时只读取已投递但未确认的消息（用于重投）
+     */
+    List<StreamEntry> read(String nodeId, int count, Duration block, boolean pendingOnly);
+
+    /**
+     * 确认消息已处理，确认后不会再次投递
+     */
+    void acknowledge(String nodeId, List<String> entryIds);
+
+    /**
+     * 列出存在收件箱的节点，包括已下线节点遗留的收件箱
+     */
+    Set<String> findInboxNodes();
+
+    /**
+     * 抢占接管指定节点收件箱的权利，超过ttl自动释放；同一接管者可以续期
+     *
+     * @return 是否抢占成功
+     */
+    boolean claimInbox(String nodeId, String claimant, Duration ttl);
+
+    /**
+     * 按顺序读取收件箱中尚未确认的消息（包括已投递未确认和尚未投递的），不经过消费者组
+     *
+     * @param afterId 从该消息之后开始读取，为null时从头读取
+     */
+    List<StreamEntry> range(String nodeId, String afterId, int count);
+
+    /**
+     * 从收件箱删除消息
+     */
+    void remove(String nodeId, List<String> entryIds);
+
+    /**
+     * 收件箱已清空时删除收件箱及其消费者组
+     *
+     * @return 是否已删除
+     */
+    boolean deleteInboxIfEmpty(String nodeId);
+
+    /**
+     * 收件箱消息
+     */
+    record StreamEntry(String id, Map<String, String> fields) {
+    }
+}
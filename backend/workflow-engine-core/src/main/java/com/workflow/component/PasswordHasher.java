@@ -0,0 +1,127 @@
+package com.workflow.component;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * 口令哈希
+ *
+ * 新口令使用带盐的 bcrypt（$2a$，成本因子可调），校验时兼容旧版的
+ * 无盐 SHA-256 十六进制摘要；旧摘要或成本因子与当前配置不同的哈希
+ * 在登录成功后应重新计算（{@link #needsRehash}）。
+ *
+ * 所有比较都是常量时间，避免按响应时间猜测哈希内容。
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+final class PasswordHasher {
+
+    static final int MIN_COST = 4;
+    static final int MAX_COST = 31;
+
+    private static final int LEGACY_HASH_LENGTH = 64;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * 计算口令哈希
+     *
+     * @param cost bcrypt 成本因子，每加1耗时翻倍
+     */
+    static String hash(String password, int cost) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(clampCost(cost), RANDOM));
+    }
+
+    /**
+     * 校验口令，哈希格式无法识别时返回false
+     */
+    static boolean matches(String password, String storedHash) {
+        if (password == null || storedHash == null) {
+            return false;
+        }
+        if (isBcrypt(storedHash)) {
+            try {
+                return BCrypt.checkpw(password, storedHash);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        if (isLegacy(storedHash)) {
+            return MessageDigest.isEqual(
+                    sha256Hex(password).getBytes(StandardCharsets.US_ASCII),
+                    storedHash.toLowerCase().getBytes(StandardCharsets.US_ASCII));
+        }
+        return false;
+    }
+
+    /**
+     * 校验开销是否可以忽略（旧版摘要），可在调用线程直接执行
+     */
+    static boolean isCheap(String storedHash) {
+        return storedHash == null || !isBcrypt(storedHash);
+    }
+
+    /**
+     * 是否需要按当前成本因子重新计算
+     */
+    static boolean needsRehash(String storedHash, int cost) {
+        if (storedHash == null) {
+            return false;
+        }
+        if (isLegacy(storedHash)) {
+            return true;
+        }
+        return isBcrypt(storedHash) && costOf(storedHash) != clampCost(cost);
+    }
+
+    /**
+     * bcrypt 哈希中的成本因子，格式为 $2a$NN$...
+     */
+    static int costOf(String bcryptHash) {
+        return Integer.parseInt(bcryptHash.substring(4, 6));
+    }
+
+    /**
+     * 无盐 SHA-256 十六进制摘要，用于确定性的签名与键名，不可用于口令
+     */
+    static String sha256Hex(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(input.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    private static boolean isBcrypt(String hash) {
+        return hash.length() == 60 && hash.charAt(0) == '$' && hash.charAt(1) == '2'
+                && hash.charAt(3) == '$' && hash.charAt(6) == '$'
+                && Character.isDigit(hash.charAt(4)) && Character.isDigit(hash.charAt(5));
+    }
+
+    private static boolean isLegacy(String hash) {
+        if (hash.length() != LEGACY_HASH_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int clampCost(int cost) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+}
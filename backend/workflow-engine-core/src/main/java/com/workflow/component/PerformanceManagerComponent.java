@@ -13,6 +13,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.flowable.engine.RuntimeService;
 import org.flowable.engine.TaskService;
 import org.flowable.engine.ManagementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Async;
@@ -53,19 +55,37 @@ public class PerformanceManagerComponent {
     // 缓存统计
     private final AtomicLong cacheHitCount = new AtomicLong(0);
     private final AtomicLong cacheMissCount = new AtomicLong(0);
+    private final AtomicLong coalescedLoadCount = new AtomicLong(0);
+    private final AtomicLong earlyRefreshCount = new AtomicLong(0);
+    private final AtomicLong staleServedCount = new AtomicLong(0);
     
-    // 异步操作执行器
-    private final ExecutorService asyncExecutor = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors() * 2,
-            r -> {
-                Thread t = new Thread(r, "async-workflow-");
-                t.setDaemon(true);
-                return t;
-            }
-    );
+    // 正在进行的缓存加载，同一键并发未命中时共用一次加载
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    
+    // XFetch提前刷新系数，越大越早刷新
+    @Value("${workflow.cache.xfetch-beta:1.0}")
+    private double xfetchBeta = 1.0;
+    
+    // 逻辑过期后仍可返回旧值的时间（秒），仅对getFromCacheOrLoadAllowingStale生效
+    @Value("${workflow.cache.stale-seconds:30}")
+    private long staleSeconds = 30;
+    
+    // 等待其他调用方加载同一键的最长时间（毫秒），超时后自行加载
+    @Value("${workflow.cache.load-wait-ms:10000}")
+    private long loadWaitMs = 10000;
+    
+    // 受管线程池，未注入时（如单元测试）使用本地实例
+    @Autowired(required = false)
+    private ManagedExecutorRegistry executorRegistry;
+    private ManagedExecutorRegistry localExecutorRegistry;
     
-    // 异步操作结果存储
-    private final ConcurrentHashMap<String, CompletableFuture<?>> asyncOperations = new ConcurrentHashMap<>();
+    // 异步操作结果存储，完成后保留一段时间供查询，超过TTL自动清理
+    private final ConcurrentHashMap<String, TrackedOperation> asyncOperations = new ConcurrentHashMap<>();
+    
+    @Value("${workflow.executor.operation-ttl-seconds:600}")
+    private long operationTtlSeconds = 600;
+    
+    private final AtomicLong lastOperationSweep = new AtomicLong(System.currentTimeMillis());
     
     // 慢查询阈值（毫秒）
     private static final long SLOW_QUERY_THRESHOLD_MS = 500;
@@ -82,6 +102,7 @@ public class PerformanceManagerComponent {
 
     /**
      * 从缓存获取数据，如果不存在则从数据源加载
+     * 过期的值不会返回
      * 
      * @param key 缓存键
      * @param type 数据类型
@@ -90,42 +111,81 @@ public class PerformanceManagerComponent {
      * @return 缓存数据
      */
     public <T> T getFromCacheOrLoad(String key, Class<T> type, Supplier<T> loader, long ttlSeconds) {
+        return getFromCacheOrLoad(key, type, loader, ttlSeconds, 0);
+    }
+
+    /**
+     * 从缓存获取数据，过期后在workflow.cache.stale-seconds窗口内先返回旧值并在后台刷新
+     * 仅用于能容忍短暂旧数据的调用方
+     * 
+     * @param key 缓存键
+     * @param type 数据类型
+     * @param loader 数据加载器
+     * @param ttlSeconds 过期时间（秒）
+     * @return 缓存数据
+     */
+    public <T> T getFromCacheOrLoadAllowingStale(String key, Class<T> type, Supplier<T> loader, long ttlSeconds) {
+        return getFromCacheOrLoad(key, type, loader, ttlSeconds, staleSeconds);
+    }
+
+    /**
+     * 从缓存获取数据，防止热点键过期时的缓存击穿
+     * 
+     * - 单飞加载：同一节点同一键只有一个调用方执行loader，其他调用方等待其结果
+     * - 提前刷新（XFetch）：临近过期时按加载耗时概率性地在后台提前刷新，
+     *   加载越慢、越接近过期，刷新概率越高
+     * - 过期后在staleSeconds窗口内先返回旧值，同时在后台重新加载
+     * 
+     * @param key 缓存键
+     * @param type 数据类型
+     * @param loader 数据加载器
+     * @param ttlSeconds 过期时间（秒）
+     * @param staleSeconds 过期后允许返回旧值的时间（秒），0表示不返回旧值
+     * @return 缓存数据
+     */
+    public <T> T getFromCacheOrLoad(String key, Class<T> type, Supplier<T> loader,
+                                    long ttlSeconds, long staleSeconds) {
         String cacheKey = buildCacheKey(key);
         
+        CacheEntry entry;
         try {
-            // 尝试从缓存获取
-            String cachedValue = stringRedisTemplate.opsForValue().get(cacheKey);
-            
-            if (cachedValue != null) {
-                cacheHitCount.incrementAndGet();
-                log.debug("缓存命中: key={}", cacheKey);
-                return objectMapper.readValue(cachedValue, type);
-            }
-            
-            cacheMissCount.incrementAndGet();
-            log.debug("缓存未命中: key={}", cacheKey);
-            
-            // 从数据源加载
-            T value = loader.get();
-            
-            if (value != null) {
-                // 存入缓存
-                String jsonValue = objectMapper.writeValueAsString(value);
-                stringRedisTemplate.opsForValue().set(cacheKey, jsonValue, Duration.ofSeconds(ttlSeconds));
-                log.debug("数据已缓存: key={}, ttl={}s", cacheKey, ttlSeconds);
-            }
-            
-            return value;
-            
-        } catch (JsonProcessingException e) {
-            log.error("缓存序列化/反序列化失败: key={}, error={}", cacheKey, e.getMessage());
-            // 降级：直接从数据源加载
-            return loader.get();
+            entry = CacheEntry.decode(stringRedisTemplate.opsForValue().get(cacheKey));
         } catch (Exception e) {
             log.error("缓存操作失败: key={}, error={}", cacheKey, e.getMessage());
             // 降级：直接从数据源加载
             return loader.get();
         }
+        
+        long now = System.currentTimeMillis();
+        if (entry != null && entry.isExpired(now) && staleSeconds <= 0) {
+            // 不允许返回旧值时，Redis尚未删除的过期条目按未命中处理
+            entry = null;
+        }
+        if (entry != null) {
+            try {
+                T value = objectMapper.readValue(entry.json(), type);
+                cacheHitCount.incrementAndGet();
+                if (entry.isExpired(now)) {
+                    staleServedCount.incrementAndGet();
+                    log.debug("返回过期缓存并后台刷新: key={}", cacheKey);
+                    refreshInBackground(cacheKey, loader, ttlSeconds, staleSeconds);
+                } else if (entry.shouldRefreshEarly(now, xfetchBeta)) {
+                    earlyRefreshCount.incrementAndGet();
+                    log.debug("缓存提前刷新: key={}", cacheKey);
+                    refreshInBackground(cacheKey, loader, ttlSeconds, staleSeconds);
+                } else {
+                    log.debug("缓存命中: key={}", cacheKey);
+                }
+                return value;
+            } catch (JsonProcessingException e) {
+                log.error("缓存序列化/反序列化失败: key={}, error={}", cacheKey, e.getMessage());
+                // 按未命中处理，重新加载覆盖损坏的缓存
+            }
+        }
+        
+        cacheMissCount.incrementAndGet();
+        log.debug("缓存未命中: key={}", cacheKey);
+        return convertLoaded(loadSingleFlight(cacheKey, loader, ttlSeconds, staleSeconds), type);
     }
 
     /**
@@ -166,7 +226,7 @@ public class PerformanceManagerComponent {
             
             if (cachedValue != null) {
                 cacheHitCount.incrementAndGet();
-                return objectMapper.readValue(cachedValue, type);
+                return objectMapper.readValue(CacheEntry.decode(cachedValue).json(), type);
             }
             
             cacheMissCount.incrementAndGet();
@@ -282,6 +342,9 @@ public class PerformanceManagerComponent {
                     .hitRate(hitRate)
                     .totalKeys(totalKeys)
                     .cacheTypeStatistics(cacheTypeStatistics)
+                    .coalescedLoadCount(coalescedLoadCount.get())
+                    .earlyRefreshCount(earlyRefreshCount.get())
+                    .staleServedCount(staleServedCount.get())
                     .statisticsTime(LocalDateTime.now())
                     .build();
                     
@@ -297,6 +360,9 @@ public class PerformanceManagerComponent {
     public void resetCacheStatistics() {
         cacheHitCount.set(0);
         cacheMissCount.set(0);
+        coalescedLoadCount.set(0);
+        earlyRefreshCount.set(0);
+        staleServedCount.set(0);
         log.info("缓存统计已重置");
     }
 
@@ -314,32 +380,55 @@ public class PerformanceManagerComponent {
     // ==================== 异步处理方法 ====================
 
     /**
-     * 异步执行操作
+     * 异步执行操作（阻塞型，使用IO线程池）
      * 
      * @param operationId 操作ID
      * @param operation 操作逻辑
      * @return 异步操作结果
      */
     public <T> CompletableFuture<AsyncOperationResult<T>> executeAsync(String operationId, Supplier<T> operation) {
-        log.info("开始异步操作: operationId={}", operationId);
+        return executeAsync(operationId, operation, ManagedExecutorRegistry.ExecutorType.IO);
+    }
+
+    /**
+     * 在指定类型的线程池中异步执行操作
+     * 
+     * @param operationId 操作ID
+     * @param operation 操作逻辑
+     * @param executorType 负载类型
+     * @return 异步操作结果，线程池已满时直接返回失败结果
+     */
+    public <T> CompletableFuture<AsyncOperationResult<T>> executeAsync(String operationId, Supplier<T> operation,
+                                                                       ManagedExecutorRegistry.ExecutorType executorType) {
+        log.info("开始异步操作: operationId={}, executor={}", operationId, executorType);
+        evictExpiredOperations();
         
-        CompletableFuture<AsyncOperationResult<T>> future = CompletableFuture.supplyAsync(() -> {
-            long startTime = System.currentTimeMillis();
+        CompletableFuture<AsyncOperationResult<T>> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                long startTime = System.currentTimeMillis();
             
-            try {
-                T result = operation.get();
-                long executionTime = System.currentTimeMillis() - startTime;
+                try {
+                    T result = operation.get();
+                    long executionTime = System.currentTimeMillis() - startTime;
                 
-                log.info("异步操作完成: operationId={}, executionTime={}ms", operationId, executionTime);
-                return AsyncOperationResult.success(operationId, result, executionTime);
+                    log.info("异步操作完成: operationId={}, executionTime={}ms", operationId, executionTime);
+                    return AsyncOperationResult.success(operationId, result, executionTime);
                 
-            } catch (Exception e) {
-                log.error("异步操作失败: operationId={}, error={}", operationId, e.getMessage(), e);
-                return AsyncOperationResult.failure(operationId, e.getMessage());
-            }
-        }, asyncExecutor);
+                } catch (Exception e) {
+                    log.error("异步操作失败: operationId={}, error={}", operationId, e.getMessage(), e);
+                    return AsyncOperationResult.failure(operationId, e.getMessage());
+                }
+            }, executors().get(executorType));
+        } catch (RejectedExecutionException e) {
+            log.warn("异步线程池已满，拒绝操作: operationId={}, executor={}", operationId, executorType);
+            future = CompletableFuture.completedFuture(
+                    AsyncOperationResult.failure(operationId, "系统繁忙，异步操作被拒绝"));
+        }
         
-        asyncOperations.put(operationId, future);
+        TrackedOperation tracked = new TrackedOperation(future);
+        future.whenComplete((result, ex) -> tracked.completedAt = System.currentTimeMillis());
+        asyncOperations.put(operationId, tracked);
         return future;
     }
 
@@ -376,11 +465,12 @@ public class PerformanceManagerComponent {
      * @return 操作状态
      */
     public AsyncOperationResult.OperationStatus getAsyncOperationStatus(String operationId) {
-        CompletableFuture<?> future = asyncOperations.get(operationId);
+        TrackedOperation tracked = asyncOperations.get(operationId);
         
-        if (future == null) {
+        if (tracked == null) {
             return null;
         }
+        CompletableFuture<?> future = tracked.future;
         
         if (future.isDone()) {
             if (future.isCompletedExceptionally()) {
@@ -402,7 +492,8 @@ public class PerformanceManagerComponent {
      * @return 是否取消成功
      */
     public boolean cancelAsyncOperation(String operationId) {
-        CompletableFuture<?> future = asyncOperations.get(operationId);
+        TrackedOperation tracked = asyncOperations.get(operationId);
+        CompletableFuture<?> future = tracked != null ? tracked.future : null;
         
         if (future != null && !future.isDone()) {
             boolean cancelled = future.cancel(true);
@@ -417,10 +508,38 @@ public class PerformanceManagerComponent {
      * 清理已完成的异步操作
      */
     public void cleanupCompletedAsyncOperations() {
-        asyncOperations.entrySet().removeIf(entry -> entry.getValue().isDone());
+        asyncOperations.entrySet().removeIf(entry -> entry.getValue().future.isDone());
         log.debug("清理已完成的异步操作");
     }
 
+    /**
+     * 清理完成时间超过TTL的异步操作，提交新操作时按TTL的十分之一间隔顺带执行
+     */
+    public int evictExpiredOperations() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = TimeUnit.SECONDS.toMillis(operationTtlSeconds);
+        long last = lastOperationSweep.get();
+        if (now - last < ttlMillis / 10 || !lastOperationSweep.compareAndSet(last, now)) {
+            return 0;
+        }
+        int before = asyncOperations.size();
+        asyncOperations.values().removeIf(tracked -> tracked.completedAt > 0 && now - tracked.completedAt >= ttlMillis);
+        int removed = before - asyncOperations.size();
+        if (removed > 0) {
+            log.debug("清理过期异步操作: removed={}", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * 获取受管线程池统计（队列深度、活跃线程数、等待时间、拒绝数）
+     */
+    public Map<String, Object> getExecutorStatistics() {
+        Map<String, Object> stats = executors().getStatistics();
+        stats.put("trackedOperations", asyncOperations.size());
+        return stats;
+    }
+
     // ==================== 性能监控方法 ====================
 
     /**
@@ -782,7 +901,18 @@ public class PerformanceManagerComponent {
      */
     public <T, R> List<R> executeParallelBatch(List<T> items, int batchSize, 
                                                 java.util.function.Function<List<T>, List<R>> processor) {
-        log.info("开始并行批量操作: totalItems={}, batchSize={}", items.size(), batchSize);
+        // 批处理通常包含数据库操作，默认使用IO线程池，避免占满CPU线程池
+        return executeParallelBatch(items, batchSize, processor, ManagedExecutorRegistry.ExecutorType.IO);
+    }
+
+    /**
+     * 在指定类型的线程池中并行批量执行操作，线程池已满时由调用线程执行该批次
+     */
+    public <T, R> List<R> executeParallelBatch(List<T> items, int batchSize,
+                                                java.util.function.Function<List<T>, List<R>> processor,
+                                                ManagedExecutorRegistry.ExecutorType executorType) {
+        log.info("开始并行批量操作: totalItems={}, batchSize={}, executor={}", items.size(), batchSize, executorType);
+        Executor executor = executors().get(executorType);
         
         List<List<T>> batches = new ArrayList<>();
         for (int i = 0; i < items.size(); i += batchSize) {
@@ -791,7 +921,13 @@ public class PerformanceManagerComponent {
         }
         
         List<CompletableFuture<List<R>>> futures = batches.stream()
-                .map(batch -> CompletableFuture.supplyAsync(() -> processor.apply(batch), asyncExecutor))
+                .map(batch -> {
+                    try {
+                        return CompletableFuture.supplyAsync(() -> processor.apply(batch), executor);
+                    } catch (RejectedExecutionException e) {
+                        return CompletableFuture.completedFuture(processor.apply(batch));
+                    }
+                })
                 .toList();
         
         List<R> results = futures.stream()
@@ -833,14 +969,185 @@ public class PerformanceManagerComponent {
      */
     public void shutdown() {
         log.info("关闭性能管理组件");
-        asyncExecutor.shutdown();
+        // 共享线程池由注册中心随容器关闭，这里只关闭本地实例
+        synchronized (this) {
+            if (localExecutorRegistry != null) {
+                localExecutorRegistry.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 单飞加载：第一个未命中的调用方执行loader并写入缓存，并发的调用方等待同一结果
+     */
+    private Object loadSingleFlight(String cacheKey, Supplier<?> loader, long ttlSeconds, long staleSeconds) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(cacheKey, flight);
+        if (existing != null) {
+            coalescedLoadCount.incrementAndGet();
+            log.debug("合并并发加载: key={}", cacheKey);
+            try {
+                return existing.get(loadWaitMs, TimeUnit.MILLISECONDS);
+            } catch (CancellationException e) {
+                // 后台刷新被线程池拒绝，由当前调用方重新加载
+                return loadSingleFlight(cacheKey, loader, ttlSeconds, staleSeconds);
+            } catch (TimeoutException e) {
+                // 正在进行的加载卡住时不无限等待，由当前调用方直接加载
+                log.warn("等待并发加载超时，直接加载: key={}, waitMs={}", cacheKey, loadWaitMs);
+                return loadAndStore(cacheKey, loader, ttlSeconds, staleSeconds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WorkflowBusinessException("CACHE_LOAD_FAILED", "等待缓存加载被中断", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new WorkflowBusinessException("CACHE_LOAD_FAILED", "缓存加载失败: " + cause.getMessage(), cause);
+            }
+        }
+        
+        try {
+            Object value = loadAndStore(cacheKey, loader, ttlSeconds, staleSeconds);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(cacheKey, flight);
+        }
+    }
+
+    /**
+     * 在IO线程池中刷新缓存，同一键已有加载在进行时直接返回
+     */
+    private void refreshInBackground(String cacheKey, Supplier<?> loader, long ttlSeconds, long staleSeconds) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(cacheKey, flight) != null) {
+            return;
+        }
+        
         try {
-            if (!asyncExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
-                asyncExecutor.shutdownNow();
+            executors().io().execute(() -> {
+                try {
+                    flight.complete(loadAndStore(cacheKey, loader, ttlSeconds, staleSeconds));
+                } catch (Throwable e) {
+                    log.warn("缓存后台刷新失败: key={}, error={}", cacheKey, e.getMessage());
+                    flight.completeExceptionally(e);
+                } finally {
+                    inFlightLoads.remove(cacheKey, flight);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 线程池繁忙时放弃本次刷新，旧值仍然可用
+            inFlightLoads.remove(cacheKey, flight);
+            flight.cancel(false);
+        }
+    }
+
+    /**
+     * 执行loader并写入缓存，记录加载耗时供提前刷新计算使用
+     */
+    private Object loadAndStore(String cacheKey, Supplier<?> loader, long ttlSeconds, long staleSeconds) {
+        long start = System.currentTimeMillis();
+        Object value = loader.get();
+        long loadMillis = System.currentTimeMillis() - start;
+        
+        if (value != null) {
+            try {
+                String encoded = CacheEntry.encode(objectMapper.writeValueAsString(value), loadMillis,
+                        start + loadMillis + ttlSeconds * 1000);
+                stringRedisTemplate.opsForValue().set(cacheKey, encoded,
+                        Duration.ofSeconds(ttlSeconds + Math.max(0, staleSeconds)));
+                log.debug("数据已缓存: key={}, ttl={}s, loadTime={}ms", cacheKey, ttlSeconds, loadMillis);
+            } catch (Exception e) {
+                log.error("缓存写入失败: key={}, error={}", cacheKey, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T convertLoaded(Object value, Class<T> type) {
+        if (value == null || type.isInstance(value)) {
+            return (T) value;
+        }
+        return objectMapper.convertValue(value, type);
+    }
+
+    /**
+     * 获取受管线程池注册中心
+     */
+    private ManagedExecutorRegistry executors() {
+        if (executorRegistry != null) {
+            return executorRegistry;
+        }
+        synchronized (this) {
+            if (localExecutorRegistry == null) {
+                localExecutorRegistry = new ManagedExecutorRegistry();
+            }
+            return localExecutorRegistry;
+        }
+    }
+
+    /**
+     * 被跟踪的异步操作，completedAt为0表示尚未完成
+     */
+    private static final class TrackedOperation {
+        private final CompletableFuture<?> future;
+        private volatile long completedAt;
+
+        private TrackedOperation(CompletableFuture<?> future) {
+            this.future = future;
+        }
+    }
+
+    /**
+     * 缓存条目：值的JSON加上加载耗时和逻辑过期时间
+     * 物理TTL比逻辑过期时间多出返回旧值的窗口；没有元数据的值（如setCache写入）视为不会逻辑过期
+     */
+    private record CacheEntry(String json, long loadMillis, long expiresAt) {
+
+        private static final String MARKER = "xf1|";
+
+        static String encode(String json, long loadMillis, long expiresAt) {
+            return MARKER + loadMillis + "|" + expiresAt + "|" + json;
+        }
+
+        static CacheEntry decode(String raw) {
+            if (raw == null) {
+                return null;
+            }
+            if (raw.startsWith(MARKER)) {
+                int first = raw.indexOf('|', MARKER.length());
+                int second = first < 0 ? -1 : raw.indexOf('|', first + 1);
+                if (second > 0) {
+                    try {
+                        return new CacheEntry(raw.substring(second + 1),
+                                Long.parseLong(raw.substring(MARKER.length(), first)),
+                                Long.parseLong(raw.substring(first + 1, second)));
+                    } catch (NumberFormatException ignored) {
+                        // 按普通值处理
+                    }
+                }
+            }
+            return new CacheEntry(raw, 0, Long.MAX_VALUE);
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        /**
+         * XFetch：now - loadMillis * beta * ln(rand) >= expiresAt 时提前刷新
+         */
+        boolean shouldRefreshEarly(long now, double beta) {
+            if (loadMillis <= 0 || expiresAt == Long.MAX_VALUE) {
+                return false;
             }
-        } catch (InterruptedException e) {
-            asyncExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
+            double random = ThreadLocalRandom.current().nextDouble();
+            return now - loadMillis * beta * Math.log(random) >= expiresAt;
         }
     }
 }
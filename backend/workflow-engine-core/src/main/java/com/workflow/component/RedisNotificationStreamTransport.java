@@ -0,0 +1,243 @@
+package com.workflow.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于Redis Stream的集群通知传输层
+ *
+ * - 节点收件箱: workflow:notify:inbox:{nodeId}，使用消费者组实现确认和未确认消息重投
+ * - 用户在线状态: workflow:notify:presence:{userId}，Hash结构 nodeId -> 过期时间戳
+ * - 收件箱索引: workflow:notify:inboxes，记录存在收件箱的节点，用于发现已下线节点遗留的收件箱
+ * - 接管锁: workflow:notify:takeover:{nodeId}，保证同一时刻只有一个存活节点接管
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisNotificationStreamTransport implements NotificationStreamTransport {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private static final String NOTIFY_PREFIX = "workflow:notify:";
+    private static final String INBOX_PREFIX = NOTIFY_PREFIX + "inbox:";
+    private static final String PRESENCE_PREFIX = NOTIFY_PREFIX + "presence:";
+    private static final String INBOX_INDEX = NOTIFY_PREFIX + "inboxes";
+    private static final String TAKEOVER_PREFIX = NOTIFY_PREFIX + "takeover:";
+    private static final String CONSUMER_GROUP = "notification-delivery";
+
+    // 收件箱最大长度（近似裁剪）
+    private static final long INBOX_MAX_LENGTH = 100_000;
+
+    // 接管锁：空闲或由自己持有时获取并设置过期时间
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('get', KEYS[1]) "
+            + "if not v or v == ARGV[1] then "
+            + "  redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+            + "  return 1 "
+            + "end "
+            + "return 0", Long.class);
+
+    // 收件箱为空时才删除，避免删除接管过程中新追加的消息
+    private static final RedisScript<Long> DELETE_IF_EMPTY_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 and redis.call('xlen', KEYS[1]) > 0 then return 0 end "
+            + "redis.call('del', KEYS[1]) "
+            + "redis.call('srem', KEYS[2], ARGV[1]) "
+            + "return 1", Long.class);
+
+    // 已创建消费者组的收件箱
+    private final Set<String> initializedInboxes = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void markPresent(String userId, String nodeId, Duration ttl) {
+        String presenceKey = PRESENCE_PREFIX + userId;
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        stringRedisTemplate.opsForHash().put(presenceKey, nodeId, String.valueOf(expiresAt));
+        stringRedisTemplate.expire(presenceKey, ttl);
+    }
+
+    @Override
+    public void clearPresence(String userId, String nodeId) {
+        stringRedisTemplate.opsForHash().delete(PRESENCE_PREFIX + userId, nodeId);
+    }
+
+    @Override
+    public Set<String> findPresentNodes(String userId) {
+        String presenceKey = PRESENCE_PREFIX + userId;
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(presenceKey);
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        long now = System.currentTimeMillis();
+        Set<String> nodes = new HashSet<>();
+        List<Object> expired = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (parseExpiry(entry.getValue()) > now) {
+                nodes.add((String) entry.getKey());
+            } else {
+                expired.add(entry.getKey());
+            }
+        }
+
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.opsForHash().delete(presenceKey, expired.toArray());
+        }
+        return nodes;
+    }
+
+    @Override
+    public String append(String nodeId, Map<String, String> fields) {
+        String inboxKey = ensureInbox(nodeId);
+        StreamOperations<String, String, String> streamOps = stringRedisTemplate.opsForStream();
+        RecordId recordId = streamOps.add(StreamRecords.newRecord().in(inboxKey).ofMap(fields));
+        // 每次追加都登记索引：收件箱被接管删除后，追加会重新创建它
+        stringRedisTemplate.opsForSet().add(INBOX_INDEX, nodeId);
+        return recordId != null ? recordId.getValue() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<StreamEntry> read(String nodeId, int count, Duration block, boolean pendingOnly) {
+        String inboxKey = ensureInbox(nodeId);
+        StreamOperations<String, String, String> streamOps = stringRedisTemplate.opsForStream();
+
+        StreamReadOptions options = StreamReadOptions.empty().count(count);
+        if (block != null && !pendingOnly) {
+            options = options.block(block);
+        }
+        ReadOffset offset = pendingOnly ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+
+        List<MapRecord<String, String, String>> records;
+        try {
+            records = streamOps.read(Consumer.from(CONSUMER_GROUP, nodeId), options,
+                    StreamOffset.create(inboxKey, offset));
+        } catch (RuntimeException e) {
+            // NOGROUP: 收件箱被误判下线的节点接管删除，下一轮重新创建消费者组
+            initializedInboxes.remove(inboxKey);
+            throw e;
+        }
+        if (records == null || records.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<StreamEntry> entries = new ArrayList<>(records.size());
+        for (MapRecord<String, String, String> record : records) {
+            entries.add(new StreamEntry(record.getId().getValue(), record.getValue()));
+        }
+        return entries;
+    }
+
+    @Override
+    public void acknowledge(String nodeId, List<String> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        String inboxKey = INBOX_PREFIX + nodeId;
+        StreamOperations<String, String, String> streamOps = stringRedisTemplate.opsForStream();
+        String[] ids = entryIds.toArray(new String[0]);
+        streamOps.acknowledge(inboxKey, CONSUMER_GROUP, ids);
+        // 已确认的消息不再需要保留
+        streamOps.delete(inboxKey, ids);
+        streamOps.trim(inboxKey, INBOX_MAX_LENGTH, true);
+    }
+
+    @Override
+    public Set<String> findInboxNodes() {
+        Set<String> nodes = stringRedisTemplate.opsForSet().members(INBOX_INDEX);
+        return nodes != null ? nodes : Collections.emptySet();
+    }
+
+    @Override
+    public boolean claimInbox(String nodeId, String claimant, Duration ttl) {
+        Long claimed = stringRedisTemplate.execute(CLAIM_SCRIPT,
+                Collections.singletonList(TAKEOVER_PREFIX + nodeId), claimant, String.valueOf(ttl.toMillis()));
+        return claimed != null && claimed == 1L;
+    }
+
+    @Override
+    public List<StreamEntry> range(String nodeId, String afterId, int count) {
+        StreamOperations<String, String, String> streamOps = stringRedisTemplate.opsForStream();
+        Range<String> range = afterId != null
+                ? Range.rightUnbounded(Range.Bound.exclusive(afterId))
+                : Range.unbounded();
+        List<MapRecord<String, String, String>> records =
+                streamOps.range(INBOX_PREFIX + nodeId, range, Limit.limit().count(count));
+        if (records == null || records.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<StreamEntry> entries = new ArrayList<>(records.size());
+        for (MapRecord<String, String, String> record : records) {
+            entries.add(new StreamEntry(record.getId().getValue(), record.getValue()));
+        }
+        return entries;
+    }
+
+    @Override
+    public void remove(String nodeId, List<String> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.opsForStream().delete(INBOX_PREFIX + nodeId, entryIds.toArray(new String[0]));
+    }
+
+    @Override
+    public boolean deleteInboxIfEmpty(String nodeId) {
+        String inboxKey = INBOX_PREFIX + nodeId;
+        Long deleted = stringRedisTemplate.execute(DELETE_IF_EMPTY_SCRIPT,
+                Arrays.asList(inboxKey, INBOX_INDEX), nodeId);
+        if (deleted != null && deleted == 1L) {
+            initializedInboxes.remove(inboxKey);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 确保收件箱流和消费者组存在
+     */
+    private String ensureInbox(String nodeId) {
+        String inboxKey = INBOX_PREFIX + nodeId;
+        if (initializedInboxes.contains(inboxKey)) {
+            return inboxKey;
+        }
+
+        try {
+            stringRedisTemplate.opsForStream().createGroup(inboxKey, ReadOffset.from("0"), CONSUMER_GROUP);
+        } catch (Exception e) {
+            // BUSYGROUP: 消费者组已存在
+            log.debug("消费者组已存在或创建失败: inbox={}, error={}", inboxKey, e.getMessage());
+        }
+        initializedInboxes.add(inboxKey);
+        return inboxKey;
+    }
+
+    private long parseExpiry(Object value) {
+        try {
+            return Long.parseLong(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
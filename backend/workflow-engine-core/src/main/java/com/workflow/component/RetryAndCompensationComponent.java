@@ -1,25 +1,39 @@
 package com.workflow.component;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workflow.entity.CompensationRecord;
+import com.workflow.entity.CompensationRecord.CompensationStatus;
+import com.workflow.entity.DeadLetterMessageRecord;
 import com.workflow.entity.ExceptionRecord;
 import com.workflow.entity.ExceptionRecord.ExceptionSeverity;
 import com.workflow.entity.ExceptionRecord.ExceptionStatus;
+import com.workflow.repository.CompensationRecordRepository;
+import com.workflow.repository.DeadLetterMessageRepository;
 import com.workflow.repository.ExceptionRecordRepository;
+import jakarta.annotation.PreDestroy;
 import org.flowable.engine.RuntimeService;
 import org.flowable.engine.runtime.Execution;
 import org.flowable.engine.runtime.ProcessInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 自动重试和补偿机制组件
@@ -29,6 +43,10 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * - 异常的自动重试机制和指数退避策略
  * - 死信队列处理避免无限重试
  * - 流程的补偿事务和回滚机制
+ *
+ * 补偿注册表和死信队列在配置了对应Repository时持久化到数据库，否则保存在内存中。
+ * 补偿步骤按流程实例索引；执行时按依赖关系分波次，同一波次内的独立步骤并行补偿，
+ * 每个步骤的状态即检查点，节点重启后由启动恢复继续执行中断的补偿计划。
  */
 @Component
 public class RetryAndCompensationComponent {
@@ -47,11 +65,32 @@ public class RetryAndCompensationComponent {
     @Autowired(required = false)
     private NotificationManagerComponent notificationManager;
     
-    // 死信队列
+    // 延迟获取，RetryScheduler 依赖本组件
+    @Autowired(required = false)
+    private ObjectProvider<RetryScheduler> retrySchedulerProvider;
+    
+    @Autowired(required = false)
+    private CompensationRecordRepository compensationRecordRepository;
+    
+    @Autowired(required = false)
+    private DeadLetterMessageRepository deadLetterMessageRepository;
+    
+    // 多实例部署时按分区和领导权划分定时任务
+    @Autowired(required = false)
+    private HorizontalScalingComponent scalingComponent;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // 死信队列（未配置DeadLetterMessageRepository时使用）
     private final Queue<DeadLetterMessage> deadLetterQueue = new ConcurrentLinkedQueue<>();
     
-    // 补偿事务注册表
-    private final Map<String, CompensationTransaction> compensationRegistry = new ConcurrentHashMap<>();
+    // 补偿事务索引: processInstanceId -> (activityId -> 补偿事务)，未配置CompensationRecordRepository时使用
+    private final Map<String, Map<String, CompensationTransaction>> compensationIndex = new ConcurrentHashMap<>();
+    
+    private final String nodeName = ManagementFactory.getRuntimeMXBean().getName();
+    
+    private volatile ExecutorService compensationExecutor;
     
     // 重试配置
     @Value("${workflow.retry.max-attempts:3}")
@@ -65,6 +104,13 @@ public class RetryAndCompensationComponent {
     
     @Value("${workflow.deadletter.retention-days:30}")
     private int deadLetterRetentionDays = 30;
+    
+    // 补偿配置
+    @Value("${workflow.compensation.parallelism:4}")
+    private int compensationParallelism = 4;
+    
+    @Value("${workflow.compensation.lease-seconds:300}")
+    private int compensationLeaseSeconds = 300;
 
     /**
      * 死信消息类
@@ -94,6 +140,20 @@ public class RetryAndCompensationComponent {
             this.processed = false;
         }
         
+        private DeadLetterMessage(DeadLetterMessageRecord record) {
+            this.id = record.getId();
+            this.exceptionRecordId = record.getExceptionRecordId();
+            this.processInstanceId = record.getProcessInstanceId();
+            this.taskId = record.getTaskId();
+            this.reason = record.getReason();
+            this.totalRetryAttempts = record.getTotalRetryAttempts() != null ? record.getTotalRetryAttempts() : 0;
+            this.createdTime = record.getCreatedTime();
+            this.processed = Boolean.TRUE.equals(record.getProcessed());
+            this.processedTime = record.getProcessedTime();
+            this.processedBy = record.getProcessedBy();
+            this.processedNote = record.getProcessedNote();
+        }
+        
         // Getters and setters
         public String getId() { return id; }
         public String getExceptionRecordId() { return exceptionRecordId; }
@@ -122,20 +182,28 @@ public class RetryAndCompensationComponent {
         private final String compensationType;
         private final Map<String, Object> compensationData;
         private final LocalDateTime registeredTime;
-        private boolean executed;
+        private long sequenceNumber;
+        private Set<String> dependsOn;
+        private volatile CompensationStatus status;
         private LocalDateTime executedTime;
         private boolean success;
         private String errorMessage;
         
         public CompensationTransaction(String processInstanceId, String activityId, 
                 String compensationType, Map<String, Object> compensationData) {
-            this.id = UUID.randomUUID().toString();
+            this(UUID.randomUUID().toString(), processInstanceId, activityId, compensationType,
+                    compensationData, LocalDateTime.now());
+        }
+        
+        private CompensationTransaction(String id, String processInstanceId, String activityId,
+                String compensationType, Map<String, Object> compensationData, LocalDateTime registeredTime) {
+            this.id = id;
             this.processInstanceId = processInstanceId;
             this.activityId = activityId;
             this.compensationType = compensationType;
             this.compensationData = compensationData != null ? compensationData : new HashMap<>();
-            this.registeredTime = LocalDateTime.now();
-            this.executed = false;
+            this.registeredTime = registeredTime;
+            this.status = CompensationStatus.REGISTERED;
         }
         
         // Getters and setters
@@ -145,8 +213,15 @@ public class RetryAndCompensationComponent {
         public String getCompensationType() { return compensationType; }
         public Map<String, Object> getCompensationData() { return compensationData; }
         public LocalDateTime getRegisteredTime() { return registeredTime; }
-        public boolean isExecuted() { return executed; }
-        public void setExecuted(boolean executed) { this.executed = executed; }
+        public long getSequenceNumber() { return sequenceNumber; }
+        public void setSequenceNumber(long sequenceNumber) { this.sequenceNumber = sequenceNumber; }
+        public Set<String> getDependsOn() { return dependsOn; }
+        public void setDependsOn(Set<String> dependsOn) { this.dependsOn = dependsOn; }
+        public CompensationStatus getStatus() { return status; }
+        public void setStatus(CompensationStatus status) { this.status = status; }
+        public boolean isExecuted() {
+            return status == CompensationStatus.COMPENSATED || status == CompensationStatus.FAILED;
+        }
         public LocalDateTime getExecutedTime() { return executedTime; }
         public void setExecutedTime(LocalDateTime executedTime) { this.executedTime = executedTime; }
         public boolean isSuccess() { return success; }
@@ -261,13 +336,16 @@ public class RetryAndCompensationComponent {
      */
     @Transactional
     public List<RetryResult> executePendingRetries() {
+        return executePendingRetries(() -> exceptionRecordRepository.findPendingRetryExceptions(LocalDateTime.now()));
+    }
+
+    private List<RetryResult> executePendingRetries(Supplier<List<ExceptionRecord>> query) {
         log.info("执行待重试的异常");
         
         List<RetryResult> results = new ArrayList<>();
         
         try {
-            List<ExceptionRecord> pendingRetries = exceptionRecordRepository
-                    .findPendingRetryExceptions(LocalDateTime.now());
+            List<ExceptionRecord> pendingRetries = query.get();
             
             for (ExceptionRecord record : pendingRetries) {
                 try {
@@ -291,12 +369,30 @@ public class RetryAndCompensationComponent {
 
     /**
      * 定时执行待重试任务
+     * 启用RetryScheduler时只唤醒调度器，由其分片认领并行执行；
+     * 否则每个节点只处理自己分区内的记录
      */
     @Scheduled(fixedDelayString = "${workflow.retry.schedule-delay:60000}")
     public void scheduledRetryExecution() {
         log.debug("定时执行待重试任务");
+        RetryScheduler scheduler = retrySchedulerProvider != null ? retrySchedulerProvider.getIfAvailable() : null;
+        if (scheduler != null && scheduler.isRunning()) {
+            scheduler.wakeUp();
+            return;
+        }
         try {
-            executePendingRetries();
+            if (scalingComponent == null) {
+                executePendingRetries();
+                return;
+            }
+            Set<Integer> partitions = scalingComponent.getOwnedPartitions();
+            if (partitions.isEmpty()) {
+                log.debug("当前节点未分配分区，跳过定时重试");
+                return;
+            }
+            // 按分区在数据库中过滤，只加载本节点负责的记录
+            executePendingRetries(() -> exceptionRecordRepository.findPendingRetryExceptionsInPartitions(
+                    LocalDateTime.now(), scalingComponent.getPartitionCount(), partitions));
         } catch (Exception e) {
             log.error("定时重试执行失败: {}", e.getMessage(), e);
         }
@@ -319,7 +415,7 @@ public class RetryAndCompensationComponent {
                     record.getRetryCount()
             );
             
-            deadLetterQueue.add(message);
+            saveDeadLetterMessage(message);
             
             // 更新异常记录状态
             record.setStatus(ExceptionStatus.PENDING);
@@ -351,9 +447,7 @@ public class RetryAndCompensationComponent {
         result.put("processedTime", LocalDateTime.now());
         
         try {
-            DeadLetterMessage message = deadLetterQueue.stream()
-                    .filter(m -> messageId.equals(m.getId()))
-                    .findFirst()
+            DeadLetterMessage message = findDeadLetterMessage(messageId)
                     .orElseThrow(() -> new RuntimeException("死信消息不存在: " + messageId));
             
             if (message.isProcessed()) {
@@ -400,6 +494,7 @@ public class RetryAndCompensationComponent {
             message.setProcessedTime(LocalDateTime.now());
             message.setProcessedBy(processedBy);
             message.setProcessedNote(note);
+            saveDeadLetterMessage(message);
             
             result.put("success", true);
             result.put("message", "处理成功");
@@ -419,7 +514,7 @@ public class RetryAndCompensationComponent {
     public List<Map<String, Object>> getDeadLetterMessages(boolean includeProcessed) {
         List<Map<String, Object>> messages = new ArrayList<>();
         
-        for (DeadLetterMessage message : deadLetterQueue) {
+        for (DeadLetterMessage message : listDeadLetterMessages(includeProcessed)) {
             if (includeProcessed || !message.isProcessed()) {
                 Map<String, Object> msgInfo = new HashMap<>();
                 msgInfo.put("id", message.getId());
@@ -443,19 +538,53 @@ public class RetryAndCompensationComponent {
     /**
      * 注册补偿事务
      * 需求 9.8: 补偿事务机制
+     * 未声明依赖时依赖前一个注册的步骤，补偿按注册顺序倒序执行
      */
-    @Transactional
     public CompensationTransaction registerCompensation(String processInstanceId, String activityId,
             String compensationType, Map<String, Object> compensationData) {
+        return registerCompensation(processInstanceId, activityId, compensationType, compensationData, null);
+    }
+
+    /**
+     * 注册补偿事务并声明依赖
+     *
+     * @param dependsOn 该步骤依赖的活动ID，补偿时依赖方先于被依赖方执行；
+     *                  null表示依赖前一个注册的步骤，空集合表示独立步骤，可与其他步骤并行补偿
+     */
+    @Transactional
+    public CompensationTransaction registerCompensation(String processInstanceId, String activityId,
+            String compensationType, Map<String, Object> compensationData, Set<String> dependsOn) {
         log.info("注册补偿事务: processInstanceId={}, activityId={}, type={}", 
                 processInstanceId, activityId, compensationType);
         
         try {
             CompensationTransaction transaction = new CompensationTransaction(
                     processInstanceId, activityId, compensationType, compensationData);
+            transaction.setDependsOn(dependsOn != null ? new LinkedHashSet<>(dependsOn) : null);
             
-            String key = processInstanceId + ":" + activityId;
-            compensationRegistry.put(key, transaction);
+            if (compensationRecordRepository != null) {
+                // 同一活动重复注册时替换尚未执行的步骤
+                List<CompensationRecord> existing = compensationRecordRepository
+                        .findByProcessInstanceIdOrderBySequenceNumberAsc(processInstanceId);
+                existing.stream()
+                        .filter(r -> activityId.equals(r.getActivityId()))
+                        .filter(r -> r.getStatus() == CompensationStatus.REGISTERED)
+                        .forEach(compensationRecordRepository::delete);
+                // 顺序号取自数据库序列：并发注册各自取到不同的值，且仍按注册先后递增；
+                // (process_instance_id, sequence_number) 唯一约束兜底
+                transaction.setSequenceNumber(compensationRecordRepository.nextSequenceNumber());
+                compensationRecordRepository.save(toCompensationRecord(transaction));
+            } else {
+                Map<String, CompensationTransaction> steps =
+                        compensationIndex.computeIfAbsent(processInstanceId, k -> new LinkedHashMap<>());
+                synchronized (steps) {
+                    long lastSequence = steps.values().stream()
+                            .mapToLong(CompensationTransaction::getSequenceNumber).max().orElse(0L);
+                    transaction.setSequenceNumber(lastSequence + 1);
+                    steps.remove(activityId);
+                    steps.put(activityId, transaction);
+                }
+            }
             
             log.info("补偿事务已注册: id={}", transaction.getId());
             return transaction;
@@ -468,24 +597,38 @@ public class RetryAndCompensationComponent {
 
     /**
      * 执行补偿事务
+     * 先把待补偿步骤标记为SCHEDULED作为检查点，再按依赖关系分波次执行：
+     * 步骤在所有依赖它的步骤补偿完成后才执行，同一波次内的步骤并行执行，每个步骤独立提交状态。
+     * 步骤被其他节点认领时说明计划已由其他节点接管，本节点在当前波次结束后停止
      */
-    @Transactional
     public List<Map<String, Object>> executeCompensation(String processInstanceId) {
         log.info("执行补偿事务: processInstanceId={}", processInstanceId);
         
         List<Map<String, Object>> results = new ArrayList<>();
         
         try {
-            // 获取该流程实例的所有补偿事务（按注册时间倒序执行）
-            List<CompensationTransaction> transactions = compensationRegistry.values().stream()
-                    .filter(t -> processInstanceId.equals(t.getProcessInstanceId()))
+            List<CompensationTransaction> steps = loadCompensationTransactions(processInstanceId);
+            List<CompensationTransaction> pending = steps.stream()
                     .filter(t -> !t.isExecuted())
-                    .sorted((a, b) -> b.getRegisteredTime().compareTo(a.getRegisteredTime()))
                     .toList();
+            if (pending.isEmpty()) {
+                return results;
+            }
+            
+            // 检查点: 纳入补偿计划
+            List<CompensationTransaction> newlyScheduled = pending.stream()
+                    .filter(t -> t.getStatus() == CompensationStatus.REGISTERED)
+                    .toList();
+            newlyScheduled.forEach(t -> t.setStatus(CompensationStatus.SCHEDULED));
+            saveCompensationTransactions(newlyScheduled);
             
-            for (CompensationTransaction transaction : transactions) {
-                Map<String, Object> result = executeCompensationTransaction(transaction);
-                results.add(result);
+            for (List<CompensationTransaction> wave : buildCompensationWaves(pending)) {
+                List<Map<String, Object>> waveResults = executeCompensationWave(wave);
+                results.addAll(waveResults);
+                if (waveResults.size() < wave.size()) {
+                    log.info("补偿计划已由其他节点接管: processInstanceId={}", processInstanceId);
+                    break;
+                }
             }
             
             log.info("补偿事务执行完成: 处理了{}个事务", results.size());
@@ -497,6 +640,150 @@ public class RetryAndCompensationComponent {
         }
     }
 
+    /**
+     * 恢复中断的补偿计划
+     * 启动后在后台继续执行SCHEDULED步骤以及超过租约仍为RUNNING的步骤
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedCompensations() {
+        if (compensationRecordRepository == null) {
+            return;
+        }
+        Thread resumer = new Thread(() -> {
+            try {
+                LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(compensationLeaseSeconds);
+                List<String> processInstanceIds = compensationRecordRepository.findInterruptedPlans(staleBefore);
+                for (String processInstanceId : processInstanceIds) {
+                    try {
+                        log.info("恢复中断的补偿计划: processInstanceId={}", processInstanceId);
+                        executeCompensation(processInstanceId);
+                    } catch (Exception e) {
+                        log.error("恢复补偿计划失败: processInstanceId={}, error={}", processInstanceId, e.getMessage());
+                    }
+                }
+            } catch (Exception e) {
+                log.error("查询中断的补偿计划失败: {}", e.getMessage(), e);
+            }
+        }, "workflow-compensation-resume");
+        resumer.setDaemon(true);
+        resumer.start();
+    }
+
+    @PreDestroy
+    public void shutdownCompensationExecutor() {
+        ExecutorService executor = compensationExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 按依赖关系把待补偿步骤分为波次
+     * 步骤A依赖步骤B时，A必须在B之前补偿；同一波次内的步骤互不依赖
+     */
+    List<List<CompensationTransaction>> buildCompensationWaves(List<CompensationTransaction> pending) {
+        List<CompensationTransaction> ordered = new ArrayList<>(pending);
+        ordered.sort(Comparator.comparingLong(CompensationTransaction::getSequenceNumber));
+        
+        Map<String, List<CompensationTransaction>> byActivity = new HashMap<>();
+        for (CompensationTransaction step : ordered) {
+            byActivity.computeIfAbsent(step.getActivityId(), k -> new ArrayList<>()).add(step);
+        }
+        
+        // 每个步骤被多少个未补偿的步骤依赖
+        Map<String, List<CompensationTransaction>> dependencies = new HashMap<>();
+        Map<String, Integer> dependents = new HashMap<>();
+        ordered.forEach(step -> dependents.put(step.getId(), 0));
+        CompensationTransaction previous = null;
+        for (CompensationTransaction step : ordered) {
+            List<CompensationTransaction> deps = new ArrayList<>();
+            if (step.getDependsOn() == null) {
+                if (previous != null) {
+                    deps.add(previous);
+                }
+            } else {
+                for (String activityId : step.getDependsOn()) {
+                    for (CompensationTransaction candidate : byActivity.getOrDefault(activityId, List.of())) {
+                        if (candidate.getSequenceNumber() < step.getSequenceNumber()) {
+                            deps.add(candidate);
+                        }
+                    }
+                }
+            }
+            deps.forEach(dep -> dependents.merge(dep.getId(), 1, Integer::sum));
+            dependencies.put(step.getId(), deps);
+            previous = step;
+        }
+        
+        List<List<CompensationTransaction>> waves = new ArrayList<>();
+        List<CompensationTransaction> remaining = new ArrayList<>(ordered);
+        while (!remaining.isEmpty()) {
+            List<CompensationTransaction> wave = remaining.stream()
+                    .filter(step -> dependents.get(step.getId()) == 0)
+                    .sorted(Comparator.comparingLong(CompensationTransaction::getSequenceNumber).reversed())
+                    .toList();
+            if (wave.isEmpty()) {
+                // 依赖只能指向更早注册的步骤，不会成环
+                throw new IllegalStateException("补偿步骤依赖关系存在循环");
+            }
+            waves.add(wave);
+            remaining.removeAll(wave);
+            for (CompensationTransaction step : wave) {
+                for (CompensationTransaction dep : dependencies.get(step.getId())) {
+                    dependents.merge(dep.getId(), -1, Integer::sum);
+                }
+            }
+        }
+        return waves;
+    }
+
+    /**
+     * 执行一个波次，多个步骤时在补偿线程池中并行执行
+     * 返回本节点成功认领并执行的步骤结果
+     */
+    private List<Map<String, Object>> executeCompensationWave(List<CompensationTransaction> wave) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (wave.size() == 1) {
+            Map<String, Object> result = runCompensationStep(wave.get(0));
+            if (result != null) {
+                results.add(result);
+            }
+            return results;
+        }
+        
+        ExecutorService executor = getCompensationExecutor();
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(wave.size());
+        for (CompensationTransaction step : wave) {
+            futures.add(executor.submit(() -> runCompensationStep(step)));
+        }
+        for (Future<Map<String, Object>> future : futures) {
+            try {
+                Map<String, Object> result = future.get();
+                if (result != null) {
+                    results.add(result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("补偿执行被中断", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("补偿步骤执行异常: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 认领并执行单个补偿步骤，认领失败返回null
+     */
+    private Map<String, Object> runCompensationStep(CompensationTransaction transaction) {
+        if (!claimCompensationTransaction(transaction)) {
+            return null;
+        }
+        Map<String, Object> result = executeCompensationTransaction(transaction);
+        saveCompensationTransactions(List.of(transaction));
+        return result;
+    }
+
     /**
      * 执行单个补偿事务
      */
@@ -532,9 +819,9 @@ public class RetryAndCompensationComponent {
                     log.warn("未知的补偿类型: {}", transaction.getCompensationType());
             }
             
-            transaction.setExecuted(true);
             transaction.setExecutedTime(LocalDateTime.now());
             transaction.setSuccess(true);
+            transaction.setStatus(CompensationStatus.COMPENSATED);
             
             result.put("success", true);
             result.put("message", "补偿执行成功");
@@ -542,10 +829,10 @@ public class RetryAndCompensationComponent {
         } catch (Exception e) {
             log.error("执行补偿事务失败: {}", e.getMessage(), e);
             
-            transaction.setExecuted(true);
             transaction.setExecutedTime(LocalDateTime.now());
             transaction.setSuccess(false);
             transaction.setErrorMessage(e.getMessage());
+            transaction.setStatus(CompensationStatus.FAILED);
             
             result.put("success", false);
             result.put("error", e.getMessage());
@@ -642,27 +929,232 @@ public class RetryAndCompensationComponent {
             boolean includeExecuted) {
         List<Map<String, Object>> transactions = new ArrayList<>();
         
-        for (CompensationTransaction transaction : compensationRegistry.values()) {
-            if (processInstanceId == null || processInstanceId.equals(transaction.getProcessInstanceId())) {
-                if (includeExecuted || !transaction.isExecuted()) {
-                    Map<String, Object> txInfo = new HashMap<>();
-                    txInfo.put("id", transaction.getId());
-                    txInfo.put("processInstanceId", transaction.getProcessInstanceId());
-                    txInfo.put("activityId", transaction.getActivityId());
-                    txInfo.put("compensationType", transaction.getCompensationType());
-                    txInfo.put("registeredTime", transaction.getRegisteredTime());
-                    txInfo.put("executed", transaction.isExecuted());
-                    txInfo.put("executedTime", transaction.getExecutedTime());
-                    txInfo.put("success", transaction.isSuccess());
-                    txInfo.put("errorMessage", transaction.getErrorMessage());
-                    transactions.add(txInfo);
-                }
+        List<CompensationTransaction> candidates;
+        if (processInstanceId != null) {
+            candidates = loadCompensationTransactions(processInstanceId);
+        } else if (compensationRecordRepository != null) {
+            candidates = compensationRecordRepository.findAll().stream()
+                    .map(this::toCompensationTransaction)
+                    .toList();
+        } else {
+            candidates = compensationIndex.values().stream()
+                    .flatMap(steps -> snapshot(steps).stream())
+                    .toList();
+        }
+        
+        for (CompensationTransaction transaction : candidates) {
+            if (includeExecuted || !transaction.isExecuted()) {
+                Map<String, Object> txInfo = new HashMap<>();
+                txInfo.put("id", transaction.getId());
+                txInfo.put("processInstanceId", transaction.getProcessInstanceId());
+                txInfo.put("activityId", transaction.getActivityId());
+                txInfo.put("compensationType", transaction.getCompensationType());
+                txInfo.put("registeredTime", transaction.getRegisteredTime());
+                txInfo.put("sequenceNumber", transaction.getSequenceNumber());
+                txInfo.put("dependsOn", transaction.getDependsOn());
+                txInfo.put("status", transaction.getStatus().name());
+                txInfo.put("executed", transaction.isExecuted());
+                txInfo.put("executedTime", transaction.getExecutedTime());
+                txInfo.put("success", transaction.isSuccess());
+                txInfo.put("errorMessage", transaction.getErrorMessage());
+                transactions.add(txInfo);
             }
         }
         
         return transactions;
     }
 
+    // ==================== 补偿注册表与死信队列存储 ====================
+
+    /**
+     * 按注册顺序加载流程实例的补偿步骤
+     */
+    private List<CompensationTransaction> loadCompensationTransactions(String processInstanceId) {
+        if (compensationRecordRepository != null) {
+            return compensationRecordRepository.findByProcessInstanceIdOrderBySequenceNumberAsc(processInstanceId)
+                    .stream()
+                    .map(this::toCompensationTransaction)
+                    .collect(Collectors.toList());
+        }
+        Map<String, CompensationTransaction> steps = compensationIndex.get(processInstanceId);
+        return steps != null ? snapshot(steps) : new ArrayList<>();
+    }
+
+    private List<CompensationTransaction> snapshot(Map<String, CompensationTransaction> steps) {
+        synchronized (steps) {
+            List<CompensationTransaction> list = new ArrayList<>(steps.values());
+            list.sort(Comparator.comparingLong(CompensationTransaction::getSequenceNumber));
+            return list;
+        }
+    }
+
+    /**
+     * 回写步骤状态，保留认领时写入的开始时间和执行节点
+     */
+    private void saveCompensationTransactions(List<CompensationTransaction> transactions) {
+        // 内存模式下索引中保存的就是同一对象，无需回写
+        if (compensationRecordRepository == null || transactions.isEmpty()) {
+            return;
+        }
+        Map<String, CompensationRecord> records = compensationRecordRepository
+                .findAllById(transactions.stream().map(CompensationTransaction::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(CompensationRecord::getId, r -> r));
+        List<CompensationRecord> updated = new ArrayList<>(transactions.size());
+        for (CompensationTransaction transaction : transactions) {
+            CompensationRecord record = records.get(transaction.getId());
+            if (record == null) {
+                updated.add(toCompensationRecord(transaction));
+                continue;
+            }
+            record.setStatus(transaction.getStatus());
+            record.setExecutedTime(transaction.getExecutedTime());
+            record.setErrorMessage(truncate(transaction.getErrorMessage(), 2000));
+            updated.add(record);
+        }
+        compensationRecordRepository.saveAll(updated);
+    }
+
+    /**
+     * 认领补偿步骤，同一步骤只会被一个节点执行；超过租约的RUNNING步骤视为节点中断，可重新认领
+     */
+    private boolean claimCompensationTransaction(CompensationTransaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        if (compensationRecordRepository != null) {
+            boolean claimed = compensationRecordRepository.claim(transaction.getId(), nodeName, now,
+                    now.minusSeconds(compensationLeaseSeconds)) == 1;
+            if (claimed) {
+                transaction.setStatus(CompensationStatus.RUNNING);
+            }
+            return claimed;
+        }
+        synchronized (transaction) {
+            if (transaction.getStatus() == CompensationStatus.REGISTERED
+                    || transaction.getStatus() == CompensationStatus.SCHEDULED) {
+                transaction.setStatus(CompensationStatus.RUNNING);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private CompensationRecord toCompensationRecord(CompensationTransaction transaction) {
+        Set<String> dependsOn = transaction.getDependsOn();
+        String compensationData;
+        try {
+            compensationData = objectMapper.writeValueAsString(transaction.getCompensationData());
+        } catch (Exception e) {
+            throw new RuntimeException("序列化补偿数据失败: " + e.getMessage(), e);
+        }
+        return CompensationRecord.builder()
+                .id(transaction.getId())
+                .processInstanceId(transaction.getProcessInstanceId())
+                .activityId(transaction.getActivityId())
+                .compensationType(transaction.getCompensationType())
+                .compensationData(compensationData)
+                .sequenceNumber(transaction.getSequenceNumber())
+                .dependsOn(dependsOn != null && !dependsOn.isEmpty() ? String.join(",", dependsOn) : null)
+                .independent(dependsOn != null && dependsOn.isEmpty())
+                .status(transaction.getStatus())
+                .errorMessage(truncate(transaction.getErrorMessage(), 2000))
+                .registeredTime(transaction.getRegisteredTime())
+                .executedTime(transaction.getExecutedTime())
+                .build();
+    }
+
+    private CompensationTransaction toCompensationTransaction(CompensationRecord record) {
+        Map<String, Object> compensationData = new HashMap<>();
+        if (record.getCompensationData() != null && !record.getCompensationData().isEmpty()) {
+            try {
+                compensationData = objectMapper.readValue(record.getCompensationData(),
+                        new TypeReference<Map<String, Object>>() {});
+            } catch (Exception e) {
+                log.warn("解析补偿数据失败: id={}, error={}", record.getId(), e.getMessage());
+            }
+        }
+        CompensationTransaction transaction = new CompensationTransaction(record.getId(),
+                record.getProcessInstanceId(), record.getActivityId(), record.getCompensationType(),
+                compensationData, record.getRegisteredTime());
+        transaction.setSequenceNumber(record.getSequenceNumber());
+        if (Boolean.TRUE.equals(record.getIndependent())) {
+            transaction.setDependsOn(new LinkedHashSet<>());
+        } else if (record.getDependsOn() != null && !record.getDependsOn().isEmpty()) {
+            transaction.setDependsOn(new LinkedHashSet<>(Arrays.asList(record.getDependsOn().split(","))));
+        }
+        transaction.setStatus(record.getStatus());
+        transaction.setExecutedTime(record.getExecutedTime());
+        transaction.setSuccess(record.getStatus() == CompensationStatus.COMPENSATED);
+        transaction.setErrorMessage(record.getErrorMessage());
+        return transaction;
+    }
+
+    private ExecutorService getCompensationExecutor() {
+        ExecutorService executor = compensationExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = compensationExecutor;
+                if (executor == null) {
+                    int poolSize = Math.max(1, compensationParallelism);
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    // 队列满时由调用线程执行，避免无界排队
+                    executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(poolSize * 16), r -> {
+                                Thread thread = new Thread(r, "workflow-compensation-" + threadIndex.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }, new ThreadPoolExecutor.CallerRunsPolicy());
+                    compensationExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private void saveDeadLetterMessage(DeadLetterMessage message) {
+        if (deadLetterMessageRepository == null) {
+            if (!deadLetterQueue.contains(message)) {
+                deadLetterQueue.add(message);
+            }
+            return;
+        }
+        deadLetterMessageRepository.save(DeadLetterMessageRecord.builder()
+                .id(message.getId())
+                .exceptionRecordId(message.getExceptionRecordId())
+                .processInstanceId(message.getProcessInstanceId())
+                .taskId(message.getTaskId())
+                .reason(truncate(message.getReason(), 1000))
+                .totalRetryAttempts(message.getTotalRetryAttempts())
+                .createdTime(message.getCreatedTime())
+                .processed(message.isProcessed())
+                .processedTime(message.getProcessedTime())
+                .processedBy(message.getProcessedBy())
+                .processedNote(message.getProcessedNote())
+                .build());
+    }
+
+    private Optional<DeadLetterMessage> findDeadLetterMessage(String messageId) {
+        if (deadLetterMessageRepository != null) {
+            return deadLetterMessageRepository.findById(messageId).map(DeadLetterMessage::new);
+        }
+        return deadLetterQueue.stream()
+                .filter(m -> messageId.equals(m.getId()))
+                .findFirst();
+    }
+
+    private List<DeadLetterMessage> listDeadLetterMessages(boolean includeProcessed) {
+        if (deadLetterMessageRepository != null) {
+            List<DeadLetterMessageRecord> records = includeProcessed
+                    ? deadLetterMessageRepository.findAllByOrderByCreatedTimeDesc()
+                    : deadLetterMessageRepository.findByProcessedFalseOrderByCreatedTimeDesc();
+            return records.stream().map(DeadLetterMessage::new).toList();
+        }
+        return new ArrayList<>(deadLetterQueue);
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
     // ==================== 辅助方法 ====================
 
     /**
@@ -750,10 +1242,22 @@ public class RetryAndCompensationComponent {
      */
     @Scheduled(cron = "${workflow.deadletter.cleanup-cron:0 0 2 * * ?}")
     public void cleanupExpiredDeadLetterMessages() {
+        if (deadLetterMessageRepository != null && scalingComponent != null
+                && !scalingComponent.isCurrentNodeLeader()) {
+            // 共享存储只需领导者清理一次
+            log.debug("非领导者节点，跳过死信清理");
+            return;
+        }
         log.info("清理过期的死信消息");
         
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(deadLetterRetentionDays);
         
+        if (deadLetterMessageRepository != null) {
+            int removed = deadLetterMessageRepository.deleteProcessedBefore(cutoffTime);
+            log.info("已清理{}条过期死信消息", removed);
+            return;
+        }
+        
         int removed = 0;
         Iterator<DeadLetterMessage> iterator = deadLetterQueue.iterator();
         while (iterator.hasNext()) {
@@ -775,8 +1279,15 @@ public class RetryAndCompensationComponent {
         Map<String, Object> stats = new HashMap<>();
         
         // 死信队列统计
-        long totalDeadLetters = deadLetterQueue.size();
-        long processedDeadLetters = deadLetterQueue.stream().filter(DeadLetterMessage::isProcessed).count();
+        long totalDeadLetters;
+        long processedDeadLetters;
+        if (deadLetterMessageRepository != null) {
+            totalDeadLetters = deadLetterMessageRepository.count();
+            processedDeadLetters = deadLetterMessageRepository.countByProcessedTrue();
+        } else {
+            totalDeadLetters = deadLetterQueue.size();
+            processedDeadLetters = deadLetterQueue.stream().filter(DeadLetterMessage::isProcessed).count();
+        }
         long pendingDeadLetters = totalDeadLetters - processedDeadLetters;
         
         stats.put("deadLetterTotal", totalDeadLetters);
@@ -784,11 +1295,22 @@ public class RetryAndCompensationComponent {
         stats.put("deadLetterPending", pendingDeadLetters);
         
         // 补偿事务统计
-        long totalCompensations = compensationRegistry.size();
-        long executedCompensations = compensationRegistry.values().stream()
-                .filter(CompensationTransaction::isExecuted).count();
-        long successfulCompensations = compensationRegistry.values().stream()
-                .filter(t -> t.isExecuted() && t.isSuccess()).count();
+        long totalCompensations;
+        long executedCompensations;
+        long successfulCompensations;
+        if (compensationRecordRepository != null) {
+            totalCompensations = compensationRecordRepository.count();
+            executedCompensations = compensationRecordRepository.countByStatusIn(
+                    EnumSet.of(CompensationStatus.COMPENSATED, CompensationStatus.FAILED));
+            successfulCompensations = compensationRecordRepository.countByStatus(CompensationStatus.COMPENSATED);
+        } else {
+            List<CompensationTransaction> all = compensationIndex.values().stream()
+                    .flatMap(steps -> snapshot(steps).stream())
+                    .toList();
+            totalCompensations = all.size();
+            executedCompensations = all.stream().filter(CompensationTransaction::isExecuted).count();
+            successfulCompensations = all.stream().filter(t -> t.isExecuted() && t.isSuccess()).count();
+        }
         
         stats.put("compensationTotal", totalCompensations);
         stats.put("compensationExecuted", executedCompensations);
@@ -799,6 +1321,11 @@ public class RetryAndCompensationComponent {
                 .findPendingRetryExceptions(LocalDateTime.now());
         stats.put("pendingRetries", pendingRetries.size());
         
+        RetryScheduler scheduler = retrySchedulerProvider != null ? retrySchedulerProvider.getIfAvailable() : null;
+        if (scheduler != null) {
+            stats.put("scheduler", scheduler.getStatistics());
+        }
+        
         return stats;
     }
 }
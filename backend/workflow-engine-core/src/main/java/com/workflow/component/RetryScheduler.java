@@ -0,0 +1,318 @@
+package com.workflow.component;
+
+import com.workflow.entity.ExceptionRecord;
+import com.workflow.entity.ExceptionRecord.ExceptionStatus;
+import com.workflow.repository.ExceptionRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分片并行重试调度器
+ *
+ * 替代每个节点全量扫描的定时重试：
+ * - 以 FOR UPDATE SKIP LOCKED 批量认领到期记录，认领时标记为PROCESSING并设置租约，
+ *   各节点认领互不重叠，吞吐随节点数线性扩展
+ * - 认领的记录在有界工作线程池中执行，每条记录独立事务，慢重试不会阻塞其他记录
+ * - 使用延迟队列按下一个到期时间唤醒，而不是固定间隔轮询；
+ *   空闲时按最大间隔兜底检查其他节点新增的记录
+ * - 节点崩溃时，租约过期的PROCESSING记录会被其他节点重新认领
+ * - 节点排空时停止认领，已认领的记录计入排空等待的作业
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class RetryScheduler {
+
+    private final ExceptionRecordRepository exceptionRecordRepository;
+    private final RetryAndCompensationComponent retryComponent;
+    private final TransactionTemplate transactionTemplate;
+    private final GracefulDrainComponent drainComponent;
+
+    @Value("${workflow.retry.scheduler.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${workflow.retry.scheduler.workers:4}")
+    private int workers = 4;
+
+    @Value("${workflow.retry.scheduler.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${workflow.retry.scheduler.lease-seconds:300}")
+    private int leaseSeconds = 300;
+
+    @Value("${workflow.retry.scheduler.max-idle-ms:30000}")
+    private long maxIdleMs = 30000;
+
+    private final DelayQueue<WakeUp> wakeUps = new DelayQueue<>();
+    private final Set<String> claimedNotStarted = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong claimedCount = new AtomicLong();
+    private final AtomicLong succeededCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Semaphore permits;
+    private ThreadPoolExecutor workerPool;
+    private ExecutorService dispatcher;
+    private volatile boolean running;
+
+    public RetryScheduler(ExceptionRecordRepository exceptionRecordRepository,
+                          RetryAndCompensationComponent retryComponent,
+                          PlatformTransactionManager transactionManager,
+                          GracefulDrainComponent drainComponent) {
+        this.exceptionRecordRepository = exceptionRecordRepository;
+        this.retryComponent = retryComponent;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.drainComponent = drainComponent;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("重试调度器未启用");
+            return;
+        }
+        int poolSize = Math.max(1, workers);
+        // 工作线程数加同样深度的队列，认领数量不超过可用许可
+        permits = new Semaphore(poolSize * 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        workerPool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "workflow-retry-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "workflow-retry-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcher.submit(this::dispatchLoop);
+        log.info("重试调度器已启动: workers={}, batchSize={}, leaseSeconds={}", poolSize, batchSize, leaseSeconds);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUp();
+        dispatcher.shutdownNow();
+        workerPool.shutdown();
+        try {
+            if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+                workerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        releaseUnstarted();
+        log.info("重试调度器已停止: claimed={}, succeeded={}, failed={}",
+                claimedCount.get(), succeededCount.get(), failedCount.get());
+    }
+
+    /**
+     * 立即检查到期记录
+     */
+    public void wakeUp() {
+        wakeUps.add(new WakeUp(System.currentTimeMillis()));
+    }
+
+    /**
+     * 在指定时间唤醒调度器，只保留比当前最早唤醒时间更早的时间点
+     */
+    public void scheduleAt(LocalDateTime dueTime) {
+        if (dueTime == null) {
+            return;
+        }
+        long dueAt = dueTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        WakeUp head = wakeUps.peek();
+        if (head == null || dueAt < head.dueAt) {
+            wakeUps.add(new WakeUp(dueAt));
+        }
+    }
+
+    /**
+     * 认领并分发一轮到期记录
+     *
+     * @return 本轮认领的记录数
+     */
+    public int dispatchDue() {
+        int dispatched = 0;
+        while (running && !drainComponent.isDraining()) {
+            int capacity = Math.min(batchSize, permits.availablePermits());
+            if (capacity <= 0) {
+                // 工作线程释放许可时会再次唤醒
+                break;
+            }
+            List<String> ids = claim(capacity);
+            for (String id : ids) {
+                permits.acquireUninterruptibly();
+                claimedNotStarted.add(id);
+                inFlight.incrementAndGet();
+                drainComponent.jobStarted();
+                workerPool.execute(() -> runRetry(id));
+            }
+            dispatched += ids.size();
+            if (ids.size() < capacity) {
+                break;
+            }
+        }
+        return dispatched;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running);
+        stats.put("claimed", claimedCount.get());
+        stats.put("succeeded", succeededCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("inFlight", inFlight.get());
+        WakeUp next = wakeUps.peek();
+        stats.put("nextWakeUp", next != null ? new Date(next.dueAt) : null);
+        return stats;
+    }
+
+    // ==================== 内部实现 ====================
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                wakeUps.poll(maxIdleMs, TimeUnit.MILLISECONDS);
+                // 丢弃所有已到期的唤醒点，一轮认领即可覆盖
+                wakeUps.drainTo(new ArrayList<>());
+                if (!running) {
+                    return;
+                }
+                dispatchDue();
+                scheduleAt(exceptionRecordRepository.findEarliestNextRetryTime());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("重试调度失败: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 在短事务中认领记录：标记为PROCESSING，并把下次重试时间设为租约到期时间
+     */
+    private List<String> claim(int limit) {
+        List<String> ids = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ExceptionRecord> records = exceptionRecordRepository
+                    .claimDueRetryExceptions(now, PageRequest.of(0, limit));
+            List<String> claimed = new ArrayList<>(records.size());
+            for (ExceptionRecord record : records) {
+                record.setStatus(ExceptionStatus.PROCESSING);
+                record.setNextRetryTime(now.plusSeconds(leaseSeconds));
+                claimed.add(record.getId());
+            }
+            exceptionRecordRepository.saveAll(records);
+            return claimed;
+        });
+        List<String> result = ids != null ? ids : List.of();
+        claimedCount.addAndGet(result.size());
+        if (!result.isEmpty()) {
+            log.debug("认领待重试记录: {}", result.size());
+        }
+        return result;
+    }
+
+    private void runRetry(String id) {
+        claimedNotStarted.remove(id);
+        try {
+            // executeRetry 经代理调用，每条记录独立事务
+            RetryAndCompensationComponent.RetryResult result = retryComponent.executeRetry(id);
+            if (result.isSuccess()) {
+                succeededCount.incrementAndGet();
+            } else {
+                failedCount.incrementAndGet();
+                scheduleAt(result.getNextRetryTime());
+            }
+        } catch (Exception e) {
+            // 记录保持PROCESSING，租约过期后重新认领
+            failedCount.incrementAndGet();
+            log.error("执行重试失败: id={}, error={}", id, e.getMessage());
+        } finally {
+            inFlight.decrementAndGet();
+            drainComponent.jobFinished();
+            boolean wasExhausted = permits.availablePermits() == 0;
+            permits.release();
+            if (wasExhausted) {
+                wakeUp();
+            }
+        }
+    }
+
+    /**
+     * 停止时把已认领但未开始执行的记录交还，其他节点无需等待租约过期
+     */
+    private void releaseUnstarted() {
+        if (claimedNotStarted.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(claimedNotStarted);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<ExceptionRecord> records = exceptionRecordRepository.findAllById(ids);
+                for (ExceptionRecord record : records) {
+                    if (record.getStatus() == ExceptionStatus.PROCESSING) {
+                        record.setStatus(ExceptionStatus.PENDING);
+                        record.setNextRetryTime(now);
+                    }
+                }
+                exceptionRecordRepository.saveAll(records);
+            });
+            log.info("已交还{}条未执行的重试记录", ids.size());
+        } catch (Exception e) {
+            log.warn("交还未执行的重试记录失败，将在租约过期后重新认领: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 延迟队列中的唤醒时间点
+     */
+    private static final class WakeUp implements Delayed {
+        private final long dueAt;
+
+        private WakeUp(long dueAt) {
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((WakeUp) other).dueAt);
+        }
+    }
+}
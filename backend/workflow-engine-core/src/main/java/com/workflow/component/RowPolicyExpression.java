@@ -0,0 +1,466 @@
+package com.workflow.component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 行级权限条件表达式
+ *
+ * 策略定义时编译一次为语法树，之后对每行数据直接求值，生成SQL时条件值全部作为参数绑定。
+ * 支持的语法：
+ * - 比较：column = value，运算符 = != <> < <= > >=
+ * - 集合：column IN (v1, v2, ...)
+ * - 空值：column IS NULL / column IS NOT NULL
+ * - 组合：AND、OR、NOT 和括号
+ * 值可以是带引号的字符串、数字、变量 ${username} / ${userId}，
+ * 不带引号的单词按字符串处理（兼容早期 "status = ACTIVE" 写法）
+ *
+ * 字段或变量为NULL时比较结果为假，NOT取反后为真；生成的SQL按同样的二值逻辑处理NULL，
+ * 内存求值与SQL下推对同一行的结果一致
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+final class RowPolicyExpression {
+
+    private static final Set<String> VARIABLES = Set.of("username", "userId");
+
+    private final String source;
+    private final Node root;
+
+    private RowPolicyExpression(String source, Node root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * 编译条件表达式
+     *
+     * @throws IllegalArgumentException 表达式语法错误
+     */
+    static RowPolicyExpression compile(String expression) {
+        Parser parser = new Parser(tokenize(expression));
+        Node root = parser.parseOr();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("无法解析的内容: " + parser.peek().text);
+        }
+        return new RowPolicyExpression(expression, root);
+    }
+
+    /**
+     * 对一行数据求值，字段缺失按NULL处理
+     */
+    boolean test(Map<String, Object> row, Map<String, Object> variables) {
+        return root.test(row, variables);
+    }
+
+    /**
+     * 生成参数化SQL片段，条件值按出现顺序追加到params
+     */
+    void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables) {
+        root.appendSql(sql, params, variables);
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    static Map<String, Object> variablesFor(String username) {
+        return Map.of("username", username, "userId", username);
+    }
+
+    // ==================== 语法树 ====================
+
+    private interface Node {
+        boolean test(Map<String, Object> row, Map<String, Object> variables);
+
+        void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables);
+    }
+
+    private record And(List<Node> children) implements Node {
+        public boolean test(Map<String, Object> row, Map<String, Object> variables) {
+            for (Node child : children) {
+                if (!child.test(row, variables)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables) {
+            appendJoined(sql, params, variables, children, " AND ");
+        }
+    }
+
+    private record Or(List<Node> children) implements Node {
+        public boolean test(Map<String, Object> row, Map<String, Object> variables) {
+            for (Node child : children) {
+                if (child.test(row, variables)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables) {
+            appendJoined(sql, params, variables, children, " OR ");
+        }
+    }
+
+    private record Not(Node child) implements Node {
+        public boolean test(Map<String, Object> row, Map<String, Object> variables) {
+            return !child.test(row, variables);
+        }
+
+        public void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables) {
+            // SQL中与NULL比较得到UNKNOWN，NOT后仍为UNKNOWN；先按假处理再取反，与内存求值一致
+            sql.append("NOT COALESCE((");
+            child.appendSql(sql, params, variables);
+            sql.append("), FALSE)");
+        }
+    }
+
+    private record Compare(String column, String operator, Operand operand) implements Node {
+        public boolean test(Map<String, Object> row, Map<String, Object> variables) {
+            Object actual = columnValue(row, column);
+            Object expected = operand.resolve(variables);
+            if (actual == null || expected == null) {
+                return false;
+            }
+            return switch (operator) {
+                case "=" -> valuesEqual(actual, expected);
+                case "!=", "<>" -> !valuesEqual(actual, expected);
+                case "<" -> compareValues(actual, expected) < 0;
+                case "<=" -> compareValues(actual, expected) <= 0;
+                case ">" -> compareValues(actual, expected) > 0;
+                default -> compareValues(actual, expected) >= 0;
+            };
+        }
+
+        public void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables) {
+            sql.append(column).append(' ').append("!=".equals(operator) ? "<>" : operator).append(" ?");
+            params.add(operand.resolve(variables));
+        }
+    }
+
+    private record In(String column, List<Operand> operands) implements Node {
+        public boolean test(Map<String, Object> row, Map<String, Object> variables) {
+            Object actual = columnValue(row, column);
+            if (actual == null) {
+                return false;
+            }
+            for (Operand operand : operands) {
+                Object expected = operand.resolve(variables);
+                if (expected != null && valuesEqual(actual, expected)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables) {
+            sql.append(column).append(" IN (");
+            for (int i = 0; i < operands.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                params.add(operands.get(i).resolve(variables));
+            }
+            sql.append(")");
+        }
+    }
+
+    private record IsNull(String column, boolean negated) implements Node {
+        public boolean test(Map<String, Object> row, Map<String, Object> variables) {
+            return (columnValue(row, column) == null) != negated;
+        }
+
+        public void appendSql(StringBuilder sql, List<Object> params, Map<String, Object> variables) {
+            sql.append(column).append(negated ? " IS NOT NULL" : " IS NULL");
+        }
+    }
+
+    /**
+     * 字面量或变量
+     */
+    private record Operand(Object literal, String variable) {
+        Object resolve(Map<String, Object> variables) {
+            return variable != null ? variables.get(variable) : literal;
+        }
+    }
+
+    private static void appendJoined(StringBuilder sql, List<Object> params, Map<String, Object> variables,
+                                     List<Node> children, String separator) {
+        sql.append("(");
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                sql.append(separator);
+            }
+            children.get(i).appendSql(sql, params, variables);
+        }
+        sql.append(")");
+    }
+
+    private static Object columnValue(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        int dot = column.lastIndexOf('.');
+        if (value == null && dot >= 0) {
+            value = row.get(column.substring(dot + 1));
+        }
+        return value;
+    }
+
+    private static boolean valuesEqual(Object actual, Object expected) {
+        BigDecimal actualNumber = toNumber(actual);
+        BigDecimal expectedNumber = toNumber(expected);
+        if (actualNumber != null && expectedNumber != null) {
+            return actualNumber.compareTo(expectedNumber) == 0;
+        }
+        return actual.toString().equals(expected.toString());
+    }
+
+    private static int compareValues(Object actual, Object expected) {
+        BigDecimal actualNumber = toNumber(actual);
+        BigDecimal expectedNumber = toNumber(expected);
+        if (actualNumber != null && expectedNumber != null) {
+            return actualNumber.compareTo(expectedNumber);
+        }
+        return actual.toString().compareTo(expected.toString());
+    }
+
+    private static BigDecimal toNumber(Object value) {
+        if (value instanceof BigDecimal number) {
+            return number;
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return null;
+    }
+
+    // ==================== 词法和语法分析 ====================
+
+    private enum TokenType {
+        IDENTIFIER, STRING, NUMBER, VARIABLE, OPERATOR, LPAREN, RPAREN, COMMA
+    }
+
+    private record Token(TokenType type, String text) {
+        boolean isKeyword(String keyword) {
+            return type == TokenType.IDENTIFIER && text.equalsIgnoreCase(keyword);
+        }
+    }
+
+    private static List<Token> tokenize(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("条件表达式为空");
+        }
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = expression.length();
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(new Token(c == '(' ? TokenType.LPAREN : c == ')' ? TokenType.RPAREN : TokenType.COMMA,
+                        String.valueOf(c)));
+                i++;
+            } else if (c == '\'' || c == '"') {
+                StringBuilder text = new StringBuilder();
+                int j = i + 1;
+                while (true) {
+                    if (j >= length) {
+                        throw new IllegalArgumentException("字符串未结束: " + expression.substring(i));
+                    }
+                    char ch = expression.charAt(j);
+                    if (ch == c) {
+                        // 两个连续引号表示引号本身
+                        if (j + 1 < length && expression.charAt(j + 1) == c) {
+                            text.append(c);
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    text.append(ch);
+                    j++;
+                }
+                tokens.add(new Token(TokenType.STRING, text.toString()));
+                i = j + 1;
+            } else if (c == '$' && i + 1 < length && expression.charAt(i + 1) == '{') {
+                int end = expression.indexOf('}', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("变量未结束: " + expression.substring(i));
+                }
+                String name = expression.substring(i + 2, end).trim();
+                if (!VARIABLES.contains(name)) {
+                    throw new IllegalArgumentException("不支持的变量: " + name);
+                }
+                tokens.add(new Token(TokenType.VARIABLE, name));
+                i = end + 1;
+            } else if (c == '=' || c == '<' || c == '>' || c == '!') {
+                String op = i + 1 < length ? expression.substring(i, i + 2) : "";
+                if (op.equals("<=") || op.equals(">=") || op.equals("<>") || op.equals("!=")) {
+                    tokens.add(new Token(TokenType.OPERATOR, op));
+                    i += 2;
+                } else if (c != '!') {
+                    tokens.add(new Token(TokenType.OPERATOR, String.valueOf(c)));
+                    i++;
+                } else {
+                    throw new IllegalArgumentException("无法识别的运算符: !");
+                }
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < length && Character.isDigit(expression.charAt(i + 1)))) {
+                int j = i + 1;
+                while (j < length && (Character.isDigit(expression.charAt(j)) || expression.charAt(j) == '.')) {
+                    j++;
+                }
+                tokens.add(new Token(TokenType.NUMBER, expression.substring(i, j)));
+                i = j;
+            } else if (Character.isLetter(c) || c == '_') {
+                int j = i + 1;
+                while (j < length && (Character.isLetterOrDigit(expression.charAt(j))
+                        || expression.charAt(j) == '_' || expression.charAt(j) == '.')) {
+                    j++;
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER, expression.substring(i, j)));
+                i = j;
+            } else {
+                throw new IllegalArgumentException("无法识别的字符: " + c);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Parser {
+        private final List<Token> tokens;
+        private int position;
+
+        private Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        Node parseOr() {
+            List<Node> children = new ArrayList<>();
+            children.add(parseAnd());
+            while (!atEnd() && peek().isKeyword("OR")) {
+                position++;
+                children.add(parseAnd());
+            }
+            return children.size() == 1 ? children.get(0) : new Or(List.copyOf(children));
+        }
+
+        private Node parseAnd() {
+            List<Node> children = new ArrayList<>();
+            children.add(parseNot());
+            while (!atEnd() && peek().isKeyword("AND")) {
+                position++;
+                children.add(parseNot());
+            }
+            return children.size() == 1 ? children.get(0) : new And(List.copyOf(children));
+        }
+
+        private Node parseNot() {
+            if (!atEnd() && peek().isKeyword("NOT")) {
+                position++;
+                return new Not(parseNot());
+            }
+            if (!atEnd() && peek().type == TokenType.LPAREN) {
+                position++;
+                Node inner = parseOr();
+                expect(TokenType.RPAREN);
+                return inner;
+            }
+            return parsePredicate();
+        }
+
+        private Node parsePredicate() {
+            Token column = expect(TokenType.IDENTIFIER);
+            if (isReserved(column)) {
+                throw new IllegalArgumentException("缺少字段名: " + column.text);
+            }
+            Token next = next();
+            if (next.isKeyword("IS")) {
+                boolean negated = !atEnd() && peek().isKeyword("NOT");
+                if (negated) {
+                    position++;
+                }
+                if (!next().isKeyword("NULL")) {
+                    throw new IllegalArgumentException("IS 后应为 NULL 或 NOT NULL");
+                }
+                return new IsNull(column.text, negated);
+            }
+            if (next.isKeyword("NOT")) {
+                if (!next().isKeyword("IN")) {
+                    throw new IllegalArgumentException("NOT 后应为 IN");
+                }
+                return new Not(parseIn(column.text));
+            }
+            if (next.isKeyword("IN")) {
+                return parseIn(column.text);
+            }
+            if (next.type != TokenType.OPERATOR) {
+                throw new IllegalArgumentException("字段 " + column.text + " 后应为比较运算符");
+            }
+            return new Compare(column.text, next.text, parseOperand());
+        }
+
+        private Node parseIn(String column) {
+            expect(TokenType.LPAREN);
+            List<Operand> operands = new ArrayList<>();
+            operands.add(parseOperand());
+            while (!atEnd() && peek().type == TokenType.COMMA) {
+                position++;
+                operands.add(parseOperand());
+            }
+            expect(TokenType.RPAREN);
+            return new In(column, List.copyOf(operands));
+        }
+
+        private Operand parseOperand() {
+            Token token = next();
+            return switch (token.type) {
+                case STRING -> new Operand(token.text, null);
+                case NUMBER -> new Operand(new BigDecimal(token.text), null);
+                case VARIABLE -> new Operand(null, token.text);
+                case IDENTIFIER -> {
+                    if (isReserved(token)) {
+                        throw new IllegalArgumentException("缺少比较值: " + token.text);
+                    }
+                    yield new Operand(token.text, null);
+                }
+                default -> throw new IllegalArgumentException("缺少比较值: " + token.text);
+            };
+        }
+
+        private boolean isReserved(Token token) {
+            String upper = token.text.toUpperCase(Locale.ROOT);
+            return upper.equals("AND") || upper.equals("OR") || upper.equals("NOT")
+                    || upper.equals("IN") || upper.equals("IS") || upper.equals("NULL");
+        }
+
+        private Token expect(TokenType type) {
+            Token token = next();
+            if (token.type != type) {
+                throw new IllegalArgumentException("期望 " + type + "，实际为: " + token.text);
+            }
+            return token;
+        }
+
+        private Token next() {
+            if (atEnd()) {
+                throw new IllegalArgumentException("表达式不完整");
+            }
+            return tokens.get(position++);
+        }
+
+        Token peek() {
+            return tokens.get(position);
+        }
+
+        boolean atEnd() {
+            return position >= tokens.size();
+        }
+    }
+}
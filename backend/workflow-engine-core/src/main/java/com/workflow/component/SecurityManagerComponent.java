@@ -11,9 +11,15 @@ import com.workflow.dto.response.UserSecurityInfo;
 import com.workflow.enums.AuditOperationType;
 import com.workflow.enums.AuditResourceType;
 import com.workflow.exception.WorkflowBusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
@@ -21,12 +27,17 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -76,14 +87,63 @@ public class SecurityManagerComponent {
     private static final String PERMISSION_CACHE_PREFIX = "security:permission:";
     private static final String BLACKLIST_PREFIX = "security:blacklist:";
     
+    // 角色或角色权限变更广播，各节点据此使本地权限索引失效
+    private static final String PERMISSION_CHANGE_CHANNEL = PERMISSION_CACHE_PREFIX + "changed";
+    private static final int MAX_PERMISSION_INDEX_ENTRIES = 10_000;
+    
     // 内存缓存（用于角色和权限定义）
     private final Map<String, Set<String>> rolePermissions = new ConcurrentHashMap<>();
     private final Map<String, UserSecurityInfo> userCache = new ConcurrentHashMap<>();
     
+    // 用户有效权限索引（近端缓存），权限版本变化或过期后重建
+    private final Map<String, EffectivePermissionIndex> permissionIndexCache = new ConcurrentHashMap<>();
+    private final AtomicLong permissionGeneration = new AtomicLong();
+    private final String instanceId = UUID.randomUUID().toString();
+    
+    @Value("${workflow.security.permission-index-ttl-seconds:300}")
+    private long permissionIndexTtlSeconds = 300;
+    
+    // 口令哈希：bcrypt 成本因子，取值用 PasswordHashingBenchmark 按目标登录耗时标定
+    @Value("${workflow.security.password.bcrypt-cost:12}")
+    private int passwordHashCost = 12;
+    
+    // 口令校验专用有界线程池，限制同时进行的哈希计算，登录高峰不占满请求线程的CPU
+    @Value("${workflow.security.password.verify-threads:0}")
+    private int passwordVerifyThreads = 0;
+    
+    @Value("${workflow.security.password.verify-queue-capacity:200}")
+    private int passwordVerifyQueueCapacity = 200;
+    
+    @Value("${workflow.security.password.verify-timeout-ms:5000}")
+    private long passwordVerifyTimeoutMs = 5000;
+    
+    private volatile ManagedExecutor passwordVerifyExecutor;
+    
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+    
     // LDAP/SSO配置接口
     private LdapAuthenticationProvider ldapProvider;
     private SsoAuthenticationProvider ssoProvider;
 
+    @PostConstruct
+    public void subscribePermissionChanges() {
+        if (listenerContainer == null) {
+            return;
+        }
+        listenerContainer.addMessageListener((message, pattern) ->
+                onPermissionChangeMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(PERMISSION_CHANGE_CHANNEL));
+    }
+
+    @PreDestroy
+    public void shutdownPasswordVerifyExecutor() {
+        ManagedExecutor executor = passwordVerifyExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
     // ==================== JWT认证方法 ====================
 
     /**
@@ -243,23 +303,15 @@ public class SecurityManagerComponent {
         log.debug("检查权限: username={}, resource={}, action={}", username, resource, action);
         
         try {
-            // 获取用户角色
-            Set<String> userRoles = getUserRoles(username);
+            EffectivePermissionIndex index = getPermissionIndex(username);
             
-            if (userRoles.isEmpty()) {
+            if (index.hasNoRoles()) {
                 return PermissionCheckResult.denied("用户没有分配任何角色");
             }
             
-            // 构建权限标识
-            String permission = resource + ":" + action;
-            
-            // 检查是否有权限
-            for (String role : userRoles) {
-                Set<String> permissions = getRolePermissions(role);
-                if (permissions.contains(permission) || permissions.contains(resource + ":*") 
-                        || permissions.contains("*:*")) {
-                    return PermissionCheckResult.allowed(role, permission);
-                }
+            String grantingRole = index.grantingRole(resource, action);
+            if (grantingRole != null) {
+                return PermissionCheckResult.allowed(grantingRole, resource + ":" + action);
             }
             
             return PermissionCheckResult.denied("用户没有执行此操作的权限");
@@ -271,21 +323,34 @@ public class SecurityManagerComponent {
         }
     }
 
+    /**
+     * 检查用户是否有权限
+     * 索引命中时不访问Redis也不分配对象，适合每个请求都要调用的场景
+     */
+    public boolean isPermitted(String username, String resource, String action) {
+        try {
+            return getPermissionIndex(username).grantingRole(resource, action) != null;
+        } catch (Exception e) {
+            log.error("权限检查失败: username={}, resource={}, action={}, error={}", 
+                    username, resource, action, e.getMessage(), e);
+            return false;
+        }
+    }
+
     /**
      * 检查用户是否有指定角色
      */
     public boolean hasRole(String username, String role) {
-        Set<String> userRoles = getUserRoles(username);
-        return userRoles.contains(role);
+        return getPermissionIndex(username).hasRole(role);
     }
 
     /**
      * 检查用户是否有任意一个指定角色
      */
     public boolean hasAnyRole(String username, String... roles) {
-        Set<String> userRoles = getUserRoles(username);
+        EffectivePermissionIndex index = getPermissionIndex(username);
         for (String role : roles) {
-            if (userRoles.contains(role)) {
+            if (index.hasRole(role)) {
                 return true;
             }
         }
@@ -301,8 +366,7 @@ public class SecurityManagerComponent {
         
         try {
             // 检查操作者权限
-            PermissionCheckResult permCheck = checkPermission(request.getOperator(), "USER", "ASSIGN_ROLE");
-            if (!permCheck.isAllowed()) {
+            if (!isPermitted(request.getOperator(), "USER", "ASSIGN_ROLE")) {
                 log.warn("角色分配被拒绝: 操作者没有权限");
                 return false;
             }
@@ -314,8 +378,9 @@ public class SecurityManagerComponent {
             // 保存用户角色
             saveUserRoles(request.getUsername(), userRoles);
             
-            // 清除用户缓存
+            // 清除用户缓存并使各节点的权限索引失效
             clearUserCache(request.getUsername());
+            publishPermissionChange(null);
             
             // 记录审计日志
             auditManagerComponent.recordAuditLog(
@@ -345,8 +410,7 @@ public class SecurityManagerComponent {
         
         try {
             // 检查操作者权限
-            PermissionCheckResult permCheck = checkPermission(request.getOperator(), "USER", "REVOKE_ROLE");
-            if (!permCheck.isAllowed()) {
+            if (!isPermitted(request.getOperator(), "USER", "REVOKE_ROLE")) {
                 log.warn("角色撤销被拒绝: 操作者没有权限");
                 return false;
             }
@@ -358,8 +422,9 @@ public class SecurityManagerComponent {
             // 保存用户角色
             saveUserRoles(request.getUsername(), userRoles);
             
-            // 清除用户缓存
+            // 清除用户缓存并使各节点的权限索引失效
             clearUserCache(request.getUsername());
+            publishPermissionChange(null);
             
             // 记录审计日志
             auditManagerComponent.recordAuditLog(
@@ -395,6 +460,9 @@ public class SecurityManagerComponent {
         } catch (JsonProcessingException e) {
             log.error("缓存角色权限失败: role={}", role, e);
         }
+        
+        // 先写Redis再广播，其他节点丢弃该角色的本地副本后从Redis重新读取
+        publishPermissionChange(role);
     }
 
     /**
@@ -668,24 +736,11 @@ public class SecurityManagerComponent {
     }
 
     /**
-     * 哈希密码
+     * 哈希密码（带盐 bcrypt）
      */
     public String hashPassword(String password) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            
-            return hexString.toString();
-            
+            return PasswordHasher.hash(password, passwordHashCost);
         } catch (Exception e) {
             log.error("密码哈希失败: {}", e.getMessage(), e);
             throw new WorkflowBusinessException("HASH_FAILED", "密码哈希失败");
@@ -694,10 +749,58 @@ public class SecurityManagerComponent {
 
     /**
      * 验证密码
+     *
+     * bcrypt 校验在口令校验线程池中执行，调用线程等待结果；
+     * 线程池排满或等待超时时抛出 PASSWORD_VERIFY_BUSY，由调用方提示稍后重试
      */
     public boolean verifyPassword(String password, String hashedPassword) {
-        String hash = hashPassword(password);
-        return hash.equals(hashedPassword);
+        if (PasswordHasher.isCheap(hashedPassword)) {
+            return PasswordHasher.matches(password, hashedPassword);
+        }
+        try {
+            return verifyPasswordAsync(password, hashedPassword)
+                    .get(passwordVerifyTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WorkflowBusinessException("PASSWORD_VERIFY_BUSY", "登录请求繁忙，请稍后重试");
+        } catch (TimeoutException e) {
+            log.warn("密码校验等待超时: timeoutMs={}", passwordVerifyTimeoutMs);
+            throw new WorkflowBusinessException("PASSWORD_VERIFY_BUSY", "登录请求繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                log.warn("密码校验线程池已满，拒绝本次校验");
+                throw new WorkflowBusinessException("PASSWORD_VERIFY_BUSY", "登录请求繁忙，请稍后重试");
+            }
+            log.error("密码校验失败: {}", e.getCause().getMessage(), e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * 异步验证密码，在口令校验线程池中执行；线程池排满时返回以
+     * RejectedExecutionException 失败的 future
+     */
+    public CompletableFuture<Boolean> verifyPasswordAsync(String password, String hashedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> PasswordHasher.matches(password, hashedPassword), getPasswordVerifyExecutor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 口令校验线程池统计
+     */
+    public Map<String, Object> getPasswordVerifyStatistics() {
+        return getPasswordVerifyExecutor().getStatistics();
+    }
+
+    /**
+     * 计算确定性摘要（SHA-256十六进制），用于令牌签名、黑名单键和匿名化ID，不可用于口令
+     */
+    public String digest(String data) {
+        return PasswordHasher.sha256Hex(data);
     }
 
     /**
@@ -996,7 +1099,48 @@ public class SecurityManagerComponent {
             return false;
         }
         
-        return verifyPassword(password, storedPassword);
+        if (!verifyPassword(password, storedPassword)) {
+            return false;
+        }
+        if (PasswordHasher.needsRehash(storedPassword, passwordHashCost)) {
+            upgradePasswordHash(cacheKey, username, password);
+        }
+        return true;
+    }
+
+    /**
+     * 旧版摘要或成本因子变化的口令在登录成功后重新哈希，
+     * 在口令校验线程池中异步执行，线程池已满时跳过，下次登录再升级
+     */
+    private void upgradePasswordHash(String cacheKey, String username, String password) {
+        try {
+            getPasswordVerifyExecutor().execute(() -> {
+                try {
+                    stringRedisTemplate.opsForValue().set(cacheKey, hashPassword(password));
+                    log.info("用户口令哈希已升级: username={}, cost={}", username, passwordHashCost);
+                } catch (Exception e) {
+                    log.warn("用户口令哈希升级失败: username={}, error={}", username, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("口令校验线程池已满，跳过哈希升级: username={}", username);
+        }
+    }
+
+    private ManagedExecutor getPasswordVerifyExecutor() {
+        ManagedExecutor executor = passwordVerifyExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (passwordVerifyExecutor == null) {
+                    int threads = passwordVerifyThreads > 0
+                            ? passwordVerifyThreads : Runtime.getRuntime().availableProcessors();
+                    passwordVerifyExecutor = new ManagedExecutor("password-verify", threads, threads,
+                            passwordVerifyQueueCapacity, ManagedExecutor.RejectionPolicy.ABORT);
+                }
+                executor = passwordVerifyExecutor;
+            }
+        }
+        return executor;
     }
 
     /**
@@ -1019,7 +1163,7 @@ public class SecurityManagerComponent {
                     .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
             
             // 简化的签名（实际应使用HMAC-SHA256）
-            String signature = hashPassword(encodedPayload + jwtSecretKey);
+            String signature = digest(encodedPayload + jwtSecretKey);
             
             return encodedPayload + "." + signature;
             
@@ -1047,7 +1191,7 @@ public class SecurityManagerComponent {
             String encodedPayload = Base64.getUrlEncoder().withoutPadding()
                     .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
             
-            String signature = hashPassword(encodedPayload + jwtSecretKey);
+            String signature = digest(encodedPayload + jwtSecretKey);
             
             return encodedPayload + "." + signature;
             
@@ -1071,7 +1215,7 @@ public class SecurityManagerComponent {
             String signature = parts[1];
             
             // 验证签名
-            String expectedSignature = hashPassword(encodedPayload + jwtSecretKey);
+            String expectedSignature = digest(encodedPayload + jwtSecretKey);
             if (!expectedSignature.equals(signature)) {
                 return null;
             }
@@ -1129,7 +1273,7 @@ public class SecurityManagerComponent {
      * 将令牌加入黑名单
      */
     private void blacklistToken(String token) {
-        String blacklistKey = BLACKLIST_PREFIX + hashPassword(token).substring(0, 32);
+        String blacklistKey = BLACKLIST_PREFIX + digest(token).substring(0, 32);
         stringRedisTemplate.opsForValue().set(blacklistKey, "1", Duration.ofDays(7));
     }
 
@@ -1137,10 +1281,85 @@ public class SecurityManagerComponent {
      * 检查令牌是否在黑名单中
      */
     private boolean isTokenBlacklisted(String token) {
-        String blacklistKey = BLACKLIST_PREFIX + hashPassword(token).substring(0, 32);
+        String blacklistKey = BLACKLIST_PREFIX + digest(token).substring(0, 32);
         return Boolean.TRUE.equals(stringRedisTemplate.hasKey(blacklistKey));
     }
 
+    /**
+     * 获取用户有效权限索引，未命中、过期或权限版本变化时重建
+     */
+    private EffectivePermissionIndex getPermissionIndex(String username) {
+        long generation = permissionGeneration.get();
+        long now = System.currentTimeMillis();
+        EffectivePermissionIndex index = permissionIndexCache.get(username);
+        if (index != null && index.isValid(generation, now)) {
+            return index;
+        }
+        
+        List<String> roles;
+        boolean cacheable = true;
+        try {
+            roles = readUserRoles(username).stream().filter(Objects::nonNull).toList();
+        } catch (Exception e) {
+            // 读取失败时按默认角色检查，但不缓存，下次重新读取
+            log.error("获取用户角色失败: username={}", username, e);
+            roles = List.of("USER");
+            cacheable = false;
+        }
+        
+        index = EffectivePermissionIndex.build(roles, this::getRolePermissions, generation,
+                now + permissionIndexTtlSeconds * 1000);
+        if (cacheable) {
+            if (permissionIndexCache.size() >= MAX_PERMISSION_INDEX_ENTRIES) {
+                permissionIndexCache.clear();
+            }
+            permissionIndexCache.put(username, index);
+        }
+        return index;
+    }
+
+    /**
+     * 角色或角色权限变更：本节点立即失效，并广播给其他节点
+     *
+     * @param role 权限定义发生变化的角色，用户角色分配变化时为null
+     */
+    private void publishPermissionChange(String role) {
+        onPermissionChanged();
+        if (listenerContainer == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(PERMISSION_CHANGE_CHANNEL,
+                    instanceId + "|" + (role != null ? role : ""));
+        } catch (Exception e) {
+            log.warn("广播权限变更失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 收到其他节点的权限变更广播
+     */
+    private void onPermissionChangeMessage(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        String role = message.substring(separator + 1);
+        if (!role.isEmpty()) {
+            rolePermissions.remove(role);
+        }
+        onPermissionChanged();
+    }
+
+    /**
+     * 权限版本加一，已构建的索引全部失效
+     */
+    private void onPermissionChanged() {
+        permissionGeneration.incrementAndGet();
+        permissionIndexCache.clear();
+        userCache.clear();
+    }
+
     /**
      * 获取用户安全信息
      */
@@ -1174,31 +1393,34 @@ public class SecurityManagerComponent {
      */
     public Set<String> getUserRoles(String username) {
         try {
-            String cacheKey = USER_CACHE_PREFIX + username + ":roles";
-            String rolesJson = stringRedisTemplate.opsForValue().get(cacheKey);
-            
-            if (rolesJson != null) {
-                return objectMapper.readValue(rolesJson, 
-                        objectMapper.getTypeFactory().constructCollectionType(Set.class, String.class));
-            }
-            
-            // 默认角色
-            Set<String> defaultRoles = new HashSet<>();
-            if ("admin".equals(username)) {
-                defaultRoles.add("ADMIN");
-                defaultRoles.add("USER");
-            } else {
-                defaultRoles.add("USER");
-            }
-            
-            return defaultRoles;
-            
+            return readUserRoles(username);
         } catch (Exception e) {
             log.error("获取用户角色失败: username={}", username, e);
             return Collections.singleton("USER");
         }
     }
 
+    private Set<String> readUserRoles(String username) throws JsonProcessingException {
+        String cacheKey = USER_CACHE_PREFIX + username + ":roles";
+        String rolesJson = stringRedisTemplate.opsForValue().get(cacheKey);
+        
+        if (rolesJson != null) {
+            return objectMapper.readValue(rolesJson, 
+                    objectMapper.getTypeFactory().constructCollectionType(Set.class, String.class));
+        }
+        
+        // 默认角色
+        Set<String> defaultRoles = new HashSet<>();
+        if ("admin".equals(username)) {
+            defaultRoles.add("ADMIN");
+            defaultRoles.add("USER");
+        } else {
+            defaultRoles.add("USER");
+        }
+        
+        return defaultRoles;
+    }
+
     /**
      * 保存用户角色
      */
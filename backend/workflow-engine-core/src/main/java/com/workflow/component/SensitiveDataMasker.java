@@ -0,0 +1,383 @@
+package com.workflow.component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 敏感数据单遍脱敏
+ *
+ * 文本脱敏：先用一次字符扫描做预筛（'@'、连续11位以上数字、关键字自动机），
+ * 不可能含敏感数据的文本直接返回；否则用合并后的单个正则一次扫描全部类型，
+ * 同一位置按 邮箱 > 身份证 > 银行卡 > 手机号 > 口令关键字 的优先级取匹配。
+ *
+ * JSON脱敏：序列化时经由脱敏生成器写出，字段名命中关键字时只改写该字段的值，
+ * 不再先序列化为字符串再解析改写。
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+final class SensitiveDataMasker {
+
+    /**
+     * 文本中按关键字识别的口令类字段
+     */
+    static final List<String> TEXT_KEYWORDS = List.of("password", "pwd", "secret", "key");
+
+    private static final KeywordMatcher TEXT_KEYWORD_MATCHER = KeywordMatcher.of(TEXT_KEYWORDS);
+
+    /**
+     * 手机号是最短的数字类敏感数据
+     */
+    private static final int MIN_DIGIT_RUN = 11;
+
+    // 邮箱只从单词起点匹配，占有量词避免在长数字串上逐位回溯
+    private static final Pattern COMBINED = Pattern.compile(
+            "(?<EMAIL>(?<![\\w.-])[\\w.-]++@[\\w.-]+\\.[a-zA-Z]{2,})"
+                    + "|(?<IDCARD>\\d{17}[\\dXx](?!\\d))"
+                    + "|(?<BANKCARD>\\d{16,19})"
+                    + "|(?<PHONE>1[3-9]\\d{9})"
+                    + "|(?<PASSWORD>(?i:password|pwd|secret|key))");
+
+    private static final String[][] GROUP_TYPES = {
+            {"EMAIL", "EMAIL"},
+            {"IDCARD", "ID_CARD"},
+            {"BANKCARD", "BANK_CARD"},
+            {"PHONE", "PHONE"},
+            {"PASSWORD", "PASSWORD"}
+    };
+
+    private SensitiveDataMasker() {
+    }
+
+    /**
+     * 预筛：一次扫描判断文本是否可能包含敏感数据
+     */
+    static boolean mayContainSensitiveData(String text) {
+        int state = TEXT_KEYWORD_MATCHER.start();
+        int digitRun = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '@') {
+                return true;
+            }
+            if (c >= '0' && c <= '9') {
+                if (++digitRun >= MIN_DIGIT_RUN) {
+                    return true;
+                }
+            } else {
+                digitRun = 0;
+            }
+            state = TEXT_KEYWORD_MATCHER.step(state, c);
+            if (TEXT_KEYWORD_MATCHER.isAccepting(state)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 扫描文本并替换全部敏感片段
+     *
+     * @param masker 参数为数据类型（PHONE、ID_CARD、EMAIL、BANK_CARD、PASSWORD）和命中的原文
+     */
+    static String maskText(String text, BiFunction<String, String, String> masker) {
+        if (text == null || text.isEmpty() || !mayContainSensitiveData(text)) {
+            return text;
+        }
+        Matcher matcher = COMBINED.matcher(text);
+        StringBuilder result = null;
+        int last = 0;
+        while (matcher.find()) {
+            if (result == null) {
+                result = new StringBuilder(text.length());
+            }
+            result.append(text, last, matcher.start())
+                    .append(masker.apply(matchedType(matcher), matcher.group()));
+            last = matcher.end();
+        }
+        if (result == null) {
+            return text;
+        }
+        return result.append(text, last, text.length()).toString();
+    }
+
+    /**
+     * 序列化对象并在写出时脱敏，字段名包含任一关键字（不区分大小写）时脱敏其值
+     *
+     * 标量值按文本脱敏，对象或数组写入临时缓冲后整体按其紧凑JSON文本脱敏，null保持不变。
+     * 只序列化一次，不再先生成完整JSON再解析改写
+     *
+     * @throws IOException 序列化失败
+     */
+    static String writeMaskedJson(ObjectMapper objectMapper, Object value, KeywordMatcher fieldMatcher,
+                                  UnaryOperator<String> valueMasker) throws IOException {
+        JsonFactory factory = objectMapper.getFactory();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = new MaskingJsonGenerator(
+                factory, factory.createGenerator(writer), fieldMatcher, valueMasker)) {
+            objectMapper.writeValue(generator, value);
+        }
+        return writer.toString();
+    }
+
+    // ==================== 私有方法 ====================
+
+    private static String matchedType(Matcher matcher) {
+        for (String[] groupType : GROUP_TYPES) {
+            if (matcher.start(groupType[0]) >= 0) {
+                return groupType[1];
+            }
+        }
+        throw new IllegalStateException("未识别的匹配: " + matcher.group());
+    }
+
+    /**
+     * 写出时脱敏的生成器
+     *
+     * 字段名命中关键字后，紧随其后的标量值改写为脱敏后的字符串；
+     * 值为对象或数组时先写入临时缓冲，结构结束后把其JSON文本脱敏后作为字符串写出
+     */
+    private static final class MaskingJsonGenerator extends JsonGeneratorDelegate {
+
+        private final JsonFactory factory;
+        private final JsonGenerator output;
+        private final KeywordMatcher fieldMatcher;
+        private final UnaryOperator<String> valueMasker;
+
+        private boolean maskNext;
+        private StringWriter captured;
+        private int capturedDepth;
+
+        private MaskingJsonGenerator(JsonFactory factory, JsonGenerator output, KeywordMatcher fieldMatcher,
+                                     UnaryOperator<String> valueMasker) {
+            super(output, false);
+            this.factory = factory;
+            this.output = output;
+            this.fieldMatcher = fieldMatcher;
+            this.valueMasker = valueMasker;
+        }
+
+        // ---------- 字段名 ----------
+
+        @Override
+        public void writeFieldName(String name) throws IOException {
+            super.writeFieldName(name);
+            maskNext = captured == null && fieldMatcher.containsAny(name);
+        }
+
+        @Override
+        public void writeFieldName(SerializableString name) throws IOException {
+            super.writeFieldName(name);
+            maskNext = captured == null && fieldMatcher.containsAny(name.getValue());
+        }
+
+        // ---------- 对象和数组 ----------
+
+        @Override
+        public void writeStartObject() throws IOException {
+            beforeStructStart();
+            super.writeStartObject();
+        }
+
+        @Override
+        public void writeStartObject(Object forValue) throws IOException {
+            beforeStructStart();
+            super.writeStartObject(forValue);
+        }
+
+        @Override
+        public void writeStartObject(Object forValue, int size) throws IOException {
+            beforeStructStart();
+            super.writeStartObject(forValue, size);
+        }
+
+        @Override
+        public void writeStartArray() throws IOException {
+            beforeStructStart();
+            super.writeStartArray();
+        }
+
+        @Override
+        public void writeStartArray(Object forValue) throws IOException {
+            beforeStructStart();
+            super.writeStartArray(forValue);
+        }
+
+        @Override
+        public void writeStartArray(Object forValue, int size) throws IOException {
+            beforeStructStart();
+            super.writeStartArray(forValue, size);
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            super.writeEndObject();
+            afterStructEnd();
+        }
+
+        @Override
+        public void writeEndArray() throws IOException {
+            super.writeEndArray();
+            afterStructEnd();
+        }
+
+        // ---------- 标量 ----------
+
+        @Override
+        public void writeString(String text) throws IOException {
+            if (maskNext && text != null) {
+                writeMasked(text);
+            } else {
+                super.writeString(text);
+            }
+        }
+
+        @Override
+        public void writeString(char[] text, int offset, int len) throws IOException {
+            if (maskNext) {
+                writeMasked(new String(text, offset, len));
+            } else {
+                super.writeString(text, offset, len);
+            }
+        }
+
+        @Override
+        public void writeString(SerializableString text) throws IOException {
+            if (maskNext) {
+                writeMasked(text.getValue());
+            } else {
+                super.writeString(text);
+            }
+        }
+
+        @Override
+        public void writeNumber(short v) throws IOException {
+            if (maskNext) {
+                writeMasked(String.valueOf(v));
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(int v) throws IOException {
+            if (maskNext) {
+                writeMasked(String.valueOf(v));
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(long v) throws IOException {
+            if (maskNext) {
+                writeMasked(String.valueOf(v));
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(BigInteger v) throws IOException {
+            if (maskNext && v != null) {
+                writeMasked(v.toString());
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(double v) throws IOException {
+            if (maskNext) {
+                writeMasked(String.valueOf(v));
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(float v) throws IOException {
+            if (maskNext) {
+                writeMasked(String.valueOf(v));
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(BigDecimal v) throws IOException {
+            if (maskNext && v != null) {
+                writeMasked(v.toString());
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(String encodedValue) throws IOException {
+            if (maskNext && encodedValue != null) {
+                writeMasked(encodedValue);
+            } else {
+                super.writeNumber(encodedValue);
+            }
+        }
+
+        @Override
+        public void writeBoolean(boolean state) throws IOException {
+            if (maskNext) {
+                writeMasked(String.valueOf(state));
+            } else {
+                super.writeBoolean(state);
+            }
+        }
+
+        @Override
+        public void writeNull() throws IOException {
+            maskNext = false;
+            super.writeNull();
+        }
+
+        // ---------- 内部方法 ----------
+
+        private void writeMasked(String text) throws IOException {
+            maskNext = false;
+            delegate.writeString(valueMasker.apply(text));
+        }
+
+        private void beforeStructStart() throws IOException {
+            if (captured != null) {
+                capturedDepth++;
+            } else if (maskNext) {
+                // 敏感字段的值是对象或数组：改为写入缓冲，结构结束后整体脱敏
+                maskNext = false;
+                captured = new StringWriter();
+                capturedDepth = 1;
+                delegate = factory.createGenerator(captured);
+            }
+        }
+
+        private void afterStructEnd() throws IOException {
+            if (captured == null || --capturedDepth > 0) {
+                return;
+            }
+            delegate.close();
+            String json = captured.toString();
+            captured = null;
+            delegate = output;
+            delegate.writeString(valueMasker.apply(json));
+        }
+    }
+}
@@ -28,11 +28,14 @@ import org.flowable.task.api.Task;
 import org.flowable.task.api.history.HistoricTaskInstance;
 import org.flowable.identitylink.api.IdentityLink;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
@@ -44,6 +47,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -77,6 +81,16 @@ public class TaskManagerComponent {
     @Autowired
     private AdminCenterClient adminCenterClient;
     
+    @Autowired(required = false)
+    private NotificationManagerComponent notificationManager;
+    
+    // 多实例部署时任务到期定时器按分区划分
+    @Autowired(required = false)
+    private HorizontalScalingComponent scalingComponent;
+    
+    @Value("${workflow.task.overdue-batch-size:200}")
+    private int overdueBatchSize = 200;
+    
     /**
      * 查询用户的待办任务（包括直接分配、委托、认领的任务）
      * 支持多维度任务分配类型
@@ -1512,6 +1526,51 @@ public class TaskManagerComponent {
         }
     }
     
+    /**
+     * 任务到期定时器：为已过期的任务发送一次超时通知
+     * 
+     * 各节点只加载自己分区内的任务；每个任务单独保存通知时间，
+     * 发送失败或保存冲突的任务在下一轮重试
+     */
+    @Scheduled(fixedDelayString = "${workflow.task.overdue-check-delay:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void notifyOverdueTasks() {
+        if (notificationManager == null) {
+            return;
+        }
+        int partitionCount = scalingComponent != null ? scalingComponent.getPartitionCount() : 1;
+        Set<Integer> partitions = scalingComponent != null ? scalingComponent.getOwnedPartitions() : Set.of(0);
+        if (partitions.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<ExtendedTaskInfo> overdueTasks;
+        try {
+            overdueTasks = extendedTaskInfoRepository
+                .findOverdueTasksToNotify(now, partitionCount, partitions, overdueBatchSize);
+        } catch (Exception e) {
+            log.error("查询过期任务失败: {}", e.getMessage(), e);
+            return;
+        }
+        
+        int notified = 0;
+        for (ExtendedTaskInfo task : overdueTasks) {
+            try {
+                notificationManager.publishTaskOverdueEvent(task.getTaskId(), task.getTaskName(),
+                    task.getCurrentAssignee(), task.getProcessInstanceId(), task.getDueDate());
+                task.setOverdueNotifiedTime(now);
+                extendedTaskInfoRepository.save(task);
+                notified++;
+            } catch (Exception e) {
+                log.warn("发送任务超时通知失败: taskId={}, error={}", task.getTaskId(), e.getMessage());
+            }
+        }
+        if (notified > 0) {
+            log.info("已发送{}个任务超时通知", notified);
+        }
+    }
+    
     /**
      * 查询高优先级任务
      */
@@ -0,0 +1,163 @@
+package com.workflow.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.messaging.config.KafkaTopics;
+import com.platform.messaging.event.BaseEvent;
+import com.platform.messaging.event.ProcessEvent;
+import com.platform.messaging.event.TaskEvent;
+import com.platform.messaging.event.WorkflowEngineEvent;
+import com.workflow.component.NotificationManagerComponent.WorkflowEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 工作流事件转换器
+ *
+ * 在引擎内部的WorkflowEvent和platform-messaging的Kafka事件之间转换：
+ * - PROCESS_* 事件转换为ProcessEvent，按流程实例ID分区
+ * - TASK_* 事件转换为TaskEvent，按任务ID分区
+ * - 其他事件转换为WorkflowEngineEvent
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkflowEventConverter {
+
+    private static final String SOURCE_SERVICE = "workflow-engine";
+    private static final String PROCESS_PREFIX = "PROCESS_";
+    private static final String TASK_PREFIX = "TASK_";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 转换为平台事件，发送到事件类型对应的主题
+     */
+    public BaseEvent toPlatformEvent(WorkflowEvent event) {
+        String eventType = event.getEventType();
+        Map<String, Object> data = event.getEventData();
+
+        ProcessEvent.ProcessEventType processType = parseEnum(ProcessEvent.ProcessEventType.class, eventType, PROCESS_PREFIX);
+        if (processType != null) {
+            return ProcessEvent.builder()
+                    .eventId(event.getEventId())
+                    .eventType(eventType)
+                    .timestamp(event.getTimestamp())
+                    .sourceService(SOURCE_SERVICE)
+                    .processInstanceId(event.getSourceId())
+                    .processDefinitionKey(asString(data.get("processDefinitionKey")))
+                    .businessKey(asString(data.get("businessKey")))
+                    .initiatorId(asString(data.get("startUserId")))
+                    .processEventType(processType)
+                    .build();
+        }
+
+        TaskEvent.TaskEventType taskType = parseEnum(TaskEvent.TaskEventType.class, eventType, TASK_PREFIX);
+        if (taskType != null) {
+            return TaskEvent.builder()
+                    .eventId(event.getEventId())
+                    .eventType(eventType)
+                    .timestamp(event.getTimestamp())
+                    .sourceService(SOURCE_SERVICE)
+                    .taskId(event.getSourceId())
+                    .taskName(asString(data.get("taskName")))
+                    .assignee(asString(data.get("assignee")))
+                    .processInstanceId(asString(data.get("processInstanceId")))
+                    .dueDate(data.get("dueDate") instanceof LocalDateTime dueDate ? dueDate : null)
+                    .taskEventType(taskType)
+                    .build();
+        }
+
+        return toTopicEvent(event, KafkaTopics.WORKFLOW_EVENTS, event.getSourceId());
+    }
+
+    /**
+     * 转换为发送到指定主题的通用引擎事件
+     */
+    public WorkflowEngineEvent toTopicEvent(WorkflowEvent event, String topic, String key) {
+        return WorkflowEngineEvent.builder()
+                .eventId(event.getEventId())
+                .eventType(event.getEventType())
+                .timestamp(event.getTimestamp())
+                .sourceService(SOURCE_SERVICE)
+                .targetTopic(resolveTopic(topic))
+                .partitionKey(key != null ? key : event.getSourceId())
+                .sourceId(event.getSourceId())
+                .sourceType(event.getSourceType())
+                .payload(event.getEventData())
+                .build();
+    }
+
+    /**
+     * 从Kafka消息体还原WorkflowEvent
+     */
+    public WorkflowEvent fromPayload(String payload) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(payload);
+
+        String eventId = text(node, "eventId");
+        String eventType = text(node, "eventType");
+        LocalDateTime timestamp = node.hasNonNull("timestamp")
+                ? objectMapper.treeToValue(node.get("timestamp"), LocalDateTime.class)
+                : null;
+
+        if (node.hasNonNull("payload")) {
+            Map<String, Object> data = objectMapper.convertValue(node.get("payload"), new TypeReference<>() {});
+            return new WorkflowEvent(eventId, eventType, text(node, "sourceId"), text(node, "sourceType"), data, timestamp);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().isNull()) {
+                data.put(field.getKey(), objectMapper.convertValue(field.getValue(), Object.class));
+            }
+        }
+
+        if (node.hasNonNull("taskId")) {
+            return new WorkflowEvent(eventId, eventType, text(node, "taskId"), "TASK", data, timestamp);
+        }
+        return new WorkflowEvent(eventId, eventType, text(node, "processInstanceId"), "PROCESS_INSTANCE", data, timestamp);
+    }
+
+    /**
+     * 将调用方的简短主题名转换为Kafka主题名
+     */
+    public static String resolveTopic(String topic) {
+        if (topic == null || topic.isEmpty()) {
+            return KafkaTopics.WORKFLOW_EVENTS;
+        }
+        if (topic.startsWith("platform.")) {
+            return topic;
+        }
+        return KafkaTopics.WORKFLOW_TOPIC_PREFIX + topic.replace(':', '.');
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String eventType, String prefix) {
+        if (eventType == null || !eventType.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, eventType.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
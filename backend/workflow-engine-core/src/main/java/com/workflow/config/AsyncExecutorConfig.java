@@ -0,0 +1,27 @@
+package com.workflow.config;
+
+import com.workflow.component.ManagedExecutorRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Spring @Async 执行器配置
+ * 使用受管IO线程池的共享视图，避免 @Async 方法各自创建无界线程池
+ */
+@Configuration
+public class AsyncExecutorConfig implements AsyncConfigurer {
+
+    private final ObjectProvider<ManagedExecutorRegistry> executorRegistry;
+
+    public AsyncExecutorConfig(ObjectProvider<ManagedExecutorRegistry> executorRegistry) {
+        this.executorRegistry = executorRegistry;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return executorRegistry.getObject().io().sharedView("spring-async");
+    }
+}
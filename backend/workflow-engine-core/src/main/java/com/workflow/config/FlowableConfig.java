@@ -1,10 +1,15 @@
 package com.workflow.config;
 
+import com.workflow.component.ManagedExecutor;
+import com.workflow.component.ManagedExecutorRegistry;
 import com.workflow.listener.TaskAssignmentListener;
 import org.flowable.common.engine.api.delegate.event.FlowableEngineEventType;
+import org.flowable.common.engine.impl.async.DefaultAsyncTaskExecutor;
 import org.flowable.spring.SpringProcessEngineConfiguration;
 import org.flowable.spring.boot.EngineConfigurationConfigurer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,7 +20,7 @@ import java.util.Map;
 
 /**
  * Flowable 引擎配置
- * 注册自定义事件监听器
+ * 注册自定义事件监听器，可选地让异步作业共用受管线程池
  */
 @Configuration
 public class FlowableConfig {
@@ -23,6 +28,12 @@ public class FlowableConfig {
     @Autowired
     private TaskAssignmentListener taskAssignmentListener;
 
+    @Autowired
+    private ObjectProvider<ManagedExecutorRegistry> executorRegistry;
+
+    @Value("${workflow.executor.share-with-flowable:false}")
+    private boolean shareExecutorWithFlowable;
+
     @Bean
     public EngineConfigurationConfigurer<SpringProcessEngineConfiguration> customProcessEngineConfigurer() {
         return processEngineConfiguration -> {
@@ -33,6 +44,15 @@ public class FlowableConfig {
                     Collections.singletonList(taskAssignmentListener));
             
             processEngineConfiguration.setTypedEventListeners(typedListeners);
+
+            // 异步作业共用受管IO线程池，队列满时作业被拒绝并解锁，由后续获取周期重试
+            if (shareExecutorWithFlowable) {
+                ManagedExecutor ioExecutor = executorRegistry.getObject().io();
+                DefaultAsyncTaskExecutor taskExecutor = new DefaultAsyncTaskExecutor();
+                taskExecutor.setExecutorService(ioExecutor.sharedView("flowable-async"));
+                taskExecutor.setThreadPoolQueue(ioExecutor.getQueue());
+                processEngineConfiguration.setAsyncTaskExecutor(taskExecutor);
+            }
         };
     }
 }
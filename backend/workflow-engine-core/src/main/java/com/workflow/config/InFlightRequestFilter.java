@@ -0,0 +1,42 @@
+package com.workflow.config;
+
+import com.workflow.component.GracefulDrainComponent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 进行中请求计数过滤器
+ * 优雅下线时据此等待已进入的请求处理完成，健康检查请求不计入
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    private final GracefulDrainComponent drainComponent;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        drainComponent.requestStarted();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            drainComponent.requestFinished();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.workflow.config;
+
+import com.workflow.component.GracefulDrainComponent;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring @Scheduled 调度器配置
+ * 每次定时任务执行都计入优雅下线的作业计数，排空时等待执行中的定时任务完成
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer drainAwareTaskSchedulerCustomizer(GracefulDrainComponent drainComponent) {
+        return scheduler -> scheduler.setTaskDecorator(task -> () -> drainComponent.runJob(task));
+    }
+}
@@ -0,0 +1,121 @@
+package com.workflow.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workflow.component.DataTableManagerComponent;
+import com.workflow.dto.request.DataTableQueryRequest;
+import com.workflow.dto.response.ApiResponse;
+import com.workflow.dto.response.DataTableQueryResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * 数据表控制器
+ *
+ * 提供数据表分页查询、流式导出和表元数据缓存管理的RESTful API接口
+ *
+ * @author Workflow Engine
+ * @version 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/data-tables")
+@RequiredArgsConstructor
+@Tag(name = "数据表", description = "数据表查询和导出API")
+public class DataTableController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final DataTableManagerComponent dataTableManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 分页查询数据表记录
+     *
+     * 设置keysetValue时按游标分页，下一页游标从结果的nextKeysetValue取得；
+     * 设置windowTotalCount时总数与数据在同一查询中返回
+     */
+    @PostMapping("/query")
+    @Operation(summary = "查询数据表记录", description = "支持偏移分页、游标分页和窗口函数总数")
+    public ResponseEntity<ApiResponse<DataTableQueryResult>> queryTable(
+            @RequestBody DataTableQueryRequest request) {
+
+        DataTableQueryResult result = dataTableManager.queryTable(request);
+        if (!result.isSuccess()) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("DATA_TABLE_QUERY_FAILED", result.getErrorMessage()));
+        }
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    /**
+     * 流式导出数据表记录
+     *
+     * 响应为NDJSON：第一行是列名数组，之后每行一个值数组，数据边读边写，不在内存中汇总
+     */
+    @PostMapping("/export")
+    @Operation(summary = "导出数据表记录", description = "按数据库游标流式输出NDJSON，首行为列名")
+    public ResponseEntity<StreamingResponseBody> exportTable(@RequestBody DataTableQueryRequest request) {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            try {
+                long rows = dataTableManager.streamTable(request, new DataTableManagerComponent.RowStreamHandler() {
+                    @Override
+                    public void onColumns(List<String> columns) {
+                        writeLine(generator, columns);
+                    }
+
+                    @Override
+                    public void onRow(Object[] values) {
+                        writeLine(generator, values);
+                    }
+                });
+                log.info("Exported {} rows from data table {}", rows, request.getTableName());
+            } catch (UncheckedIOException e) {
+                // 客户端断开连接
+                log.warn("Data table export aborted: tableName={}, error={}", request.getTableName(), e.getMessage());
+            } finally {
+                generator.close();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    /**
+     * 清除表元数据缓存
+     *
+     * 表结构变更（新增表、增删字段）后调用，使字段校验立即使用新结构
+     */
+    @DeleteMapping("/metadata-cache")
+    @Operation(summary = "清除表元数据缓存", description = "表结构变更后清除字段元数据缓存")
+    public ResponseEntity<ApiResponse<Void>> evictTableMetadata(
+            @Parameter(description = "表名，为空时清除全部")
+            @RequestParam(value = "tableName", required = false) String tableName) {
+
+        dataTableManager.evictTableMetadata(tableName);
+        return ResponseEntity.ok(ApiResponse.success(null));
+    }
+
+    private void writeLine(JsonGenerator generator, Object value) {
+        try {
+            generator.writeObject(value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
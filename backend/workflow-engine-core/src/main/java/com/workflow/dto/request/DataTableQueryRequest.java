@@ -57,6 +57,31 @@ public class DataTableQueryRequest {
      */
     private Integer limit;
     
+    /**
+     * 游标分页：上一页最后一行的排序字段值，设置后按排序字段定位下一页，不能与offset同时使用
+     */
+    private Object keysetValue;
+    
+    /**
+     * 游标分页的第二排序字段（通常为主键），排序字段不唯一时用于避免漏行
+     */
+    private String tieBreakerField;
+    
+    /**
+     * 上一页最后一行的第二排序字段值
+     */
+    private Object tieBreakerValue;
+    
+    /**
+     * 是否在同一查询中用窗口函数返回总数，避免单独的COUNT查询
+     */
+    private Boolean windowTotalCount;
+    
+    /**
+     * 按该用户的行级权限策略过滤，过滤条件合并到WHERE子句；为空时不过滤
+     */
+    private String accessUser;
+    
     /**
      * 连接条件（用于多表查询）
      */
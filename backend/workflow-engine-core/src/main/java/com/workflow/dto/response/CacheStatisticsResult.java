@@ -57,6 +57,21 @@ public class CacheStatisticsResult {
      */
     private Double averageTtl;
     
+    /**
+     * 合并到进行中加载的未命中次数
+     */
+    private Long coalescedLoadCount;
+    
+    /**
+     * 过期前提前刷新次数
+     */
+    private Long earlyRefreshCount;
+    
+    /**
+     * 返回过期旧值并后台刷新的次数
+     */
+    private Long staleServedCount;
+    
     /**
      * 统计时间
      */
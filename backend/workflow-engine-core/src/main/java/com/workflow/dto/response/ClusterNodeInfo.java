@@ -51,6 +51,26 @@ public class ClusterNodeInfo {
      */
     private long activeConnections;
     
+    /**
+     * CPU使用率（0-1，指数加权平均）
+     */
+    private double cpuLoad;
+    
+    /**
+     * 堆内存使用率（0-1，指数加权平均）
+     */
+    private double heapUsage;
+    
+    /**
+     * 执行器队列深度（指数加权平均）
+     */
+    private long queueDepth;
+    
+    /**
+     * 任务处理耗时P95（毫秒，指数加权平均）
+     */
+    private long p95LatencyMs;
+    
     /**
      * 启动时间
      */
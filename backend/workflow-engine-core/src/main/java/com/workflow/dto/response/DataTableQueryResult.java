@@ -52,6 +52,16 @@ public class DataTableQueryResult {
      */
     private Integer pageSize;
     
+    /**
+     * 游标分页：下一页请求使用的排序字段值
+     */
+    private Object nextKeysetValue;
+    
+    /**
+     * 游标分页：下一页请求使用的第二排序字段值
+     */
+    private Object nextTieBreakerValue;
+    
     /**
      * 执行的SQL语句（调试用）
      */
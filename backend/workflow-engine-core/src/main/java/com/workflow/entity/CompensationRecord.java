@@ -0,0 +1,104 @@
+package com.workflow.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 补偿事务记录实体
+ * 持久化流程实例的补偿步骤及其执行检查点，节点重启后可从中断处继续执行补偿计划
+ */
+@Entity
+@Table(name = "wf_compensation_records", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_compensation_process_seq", columnNames = {"process_instance_id", "sequence_number"})
+}, indexes = {
+    @Index(name = "idx_compensation_status_started", columnList = "status, startedTime")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompensationRecord {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /**
+     * 流程实例ID
+     */
+    @Column(nullable = false, length = 64)
+    private String processInstanceId;
+
+    /**
+     * 活动ID
+     */
+    @Column(nullable = false, length = 255)
+    private String activityId;
+
+    /**
+     * 补偿类型（ROLLBACK_VARIABLES/CANCEL_TASK/TERMINATE_PROCESS/CUSTOM）
+     */
+    @Column(nullable = false, length = 50)
+    private String compensationType;
+
+    /**
+     * 补偿数据（JSON格式）
+     */
+    @Column(columnDefinition = "TEXT")
+    private String compensationData;
+
+    /**
+     * 流程实例内的注册顺序
+     */
+    @Column(nullable = false)
+    private Long sequenceNumber;
+
+    /**
+     * 依赖的活动ID（逗号分隔）；为空表示依赖前一个注册的步骤
+     */
+    @Column(columnDefinition = "TEXT")
+    private String dependsOn;
+
+    /**
+     * 是否为独立步骤（不依赖任何步骤，可与其他步骤并行补偿）
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean independent = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CompensationStatus status;
+
+    @Column(length = 2000)
+    private String errorMessage;
+
+    /**
+     * 执行节点ID
+     */
+    @Column(length = 100)
+    private String executorNode;
+
+    @Column(nullable = false)
+    private LocalDateTime registeredTime;
+
+    /**
+     * 开始执行时间，RUNNING状态超过租约时间视为节点中断
+     */
+    private LocalDateTime startedTime;
+
+    private LocalDateTime executedTime;
+
+    public enum CompensationStatus {
+        REGISTERED,   // 已注册，尚未开始补偿
+        SCHEDULED,    // 已纳入补偿计划，等待执行
+        RUNNING,      // 执行中
+        COMPENSATED,  // 补偿成功
+        FAILED        // 补偿失败
+    }
+}
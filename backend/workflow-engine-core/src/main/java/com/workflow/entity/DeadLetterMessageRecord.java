@@ -0,0 +1,58 @@
+package com.workflow.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 死信消息实体
+ * 超过最大重试次数的异常记录进入死信队列，持久化以便重启后继续人工处理
+ */
+@Entity
+@Table(name = "wf_dead_letter_messages", indexes = {
+    @Index(name = "idx_dead_letter_exception", columnList = "exceptionRecordId"),
+    @Index(name = "idx_dead_letter_processed", columnList = "processed, createdTime")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterMessageRecord {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(length = 64)
+    private String exceptionRecordId;
+
+    @Column(length = 64)
+    private String processInstanceId;
+
+    @Column(length = 64)
+    private String taskId;
+
+    @Column(length = 1000)
+    private String reason;
+
+    private Integer totalRetryAttempts;
+
+    @Column(nullable = false)
+    private LocalDateTime createdTime;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean processed = false;
+
+    private LocalDateTime processedTime;
+
+    @Column(length = 64)
+    private String processedBy;
+
+    @Column(columnDefinition = "TEXT")
+    private String processedNote;
+}
@@ -153,6 +153,13 @@ public class ExtendedTaskInfo {
     @Column(name = "due_date")
     private LocalDateTime dueDate;
 
+    /**
+     * 超时通知发送时间
+     * 任务到期定时器发送一次超时通知后记录，未发送时为空
+     */
+    @Column(name = "overdue_notified_time")
+    private LocalDateTime overdueNotifiedTime;
+
     /**
      * 任务状态
      * CREATED - 已创建
@@ -0,0 +1,85 @@
+package com.workflow.listener;
+
+import com.platform.messaging.config.KafkaTopics;
+import com.platform.messaging.consumer.KeyOrderedBatchProcessor;
+import com.workflow.component.NotificationManagerComponent;
+import com.workflow.component.NotificationManagerComponent.WorkflowEvent;
+import com.workflow.component.WorkflowEventConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 工作流事件Kafka批量监听器
+ *
+ * 批量消费流程、任务和自定义引擎主题的事件，分发给通过
+ * NotificationManagerComponent.registerKafkaConsumer注册的消费者。
+ * 每个分区一个消费线程，批内按分区+键并行处理（同一键保持顺序），
+ * 整批处理完成后提交一次偏移量。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowEventKafkaListener {
+
+    private final NotificationManagerComponent notificationManager;
+    private final WorkflowEventConverter workflowEventConverter;
+    private final KeyOrderedBatchProcessor keyOrderedBatchProcessor;
+
+    /**
+     * 消费流程和任务事件
+     */
+    @KafkaListener(
+            id = "workflow-lifecycle-events",
+            topics = {KafkaTopics.PROCESS_EVENTS, KafkaTopics.TASK_EVENTS},
+            groupId = "${workflow.events.consumer.group-id:workflow-engine-events}",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            concurrency = "${workflow.events.consumer.concurrency:3}"
+    )
+    public void onLifecycleEvents(List<ConsumerRecord<String, String>> records) {
+        dispatch(records);
+    }
+
+    /**
+     * 消费通过sendKafkaMessage发送的自定义引擎主题
+     * 不含重试主题和死信主题，它们由死信处理器和重试转发器消费
+     */
+    @KafkaListener(
+            id = "workflow-custom-events",
+            topicPattern = KafkaTopics.WORKFLOW_TOPIC_PATTERN,
+            groupId = "${workflow.events.consumer.group-id:workflow-engine-events}",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            concurrency = "${workflow.events.consumer.concurrency:3}"
+    )
+    public void onCustomEvents(List<ConsumerRecord<String, String>> records) {
+        dispatch(records);
+    }
+
+    private void dispatch(List<ConsumerRecord<String, String>> records) {
+        log.debug("收到Kafka事件批次: size={}", records.size());
+        // 失败时处理器抛出BatchListenerFailedException，从最早失败的记录开始重试
+        keyOrderedBatchProcessor.process(records, this::dispatchRecord);
+    }
+
+    private void dispatchRecord(ConsumerRecord<String, String> record) {
+        if (!notificationManager.hasKafkaConsumers(record.topic())) {
+            return;
+        }
+
+        WorkflowEvent event;
+        try {
+            event = workflowEventConverter.fromPayload(record.value());
+        } catch (Exception e) {
+            // 无法解析的消息重试也无法成功，跳过
+            log.error("解析Kafka事件失败，跳过: topic={}, partition={}, offset={}, error={}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return;
+        }
+
+        notificationManager.dispatchKafkaMessage(record.topic(), event);
+    }
+}
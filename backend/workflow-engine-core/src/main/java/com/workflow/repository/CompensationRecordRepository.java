@@ -0,0 +1,60 @@
+package com.workflow.repository;
+
+import com.workflow.entity.CompensationRecord;
+import com.workflow.entity.CompensationRecord.CompensationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 补偿事务记录数据访问层
+ */
+@Repository
+public interface CompensationRecordRepository extends JpaRepository<CompensationRecord, String> {
+
+    /**
+     * 按注册顺序查询流程实例的补偿步骤（走 processInstanceId + sequenceNumber 索引）
+     */
+    List<CompensationRecord> findByProcessInstanceIdOrderBySequenceNumberAsc(String processInstanceId);
+
+    /**
+     * 按状态查询流程实例的补偿步骤
+     */
+    List<CompensationRecord> findByProcessInstanceIdAndStatusInOrderBySequenceNumberAsc(
+            String processInstanceId, Collection<CompensationStatus> statuses);
+
+    /**
+     * 下一个注册顺序号（数据库序列，全局递增，并发注册不会取到相同的值）
+     */
+    @Query(value = "SELECT nextval('wf_compensation_sequence')", nativeQuery = true)
+    long nextSequenceNumber();
+
+    /**
+     * 认领补偿步骤，只有一个节点能把步骤置为RUNNING；超过租约的RUNNING步骤可被重新认领
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CompensationRecord c SET c.status = 'RUNNING', c.startedTime = :now, c.executorNode = :node " +
+           "WHERE c.id = :id AND (c.status IN ('REGISTERED', 'SCHEDULED') " +
+           "OR (c.status = 'RUNNING' AND c.startedTime < :staleBefore))")
+    int claim(@Param("id") String id, @Param("node") String node,
+              @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * 查询中断的补偿计划（有待执行或超过租约仍在执行的步骤）
+     */
+    @Query("SELECT DISTINCT c.processInstanceId FROM CompensationRecord c WHERE c.status = 'SCHEDULED' " +
+           "OR (c.status = 'RUNNING' AND c.startedTime < :staleBefore)")
+    List<String> findInterruptedPlans(@Param("staleBefore") LocalDateTime staleBefore);
+
+    long countByStatus(CompensationStatus status);
+
+    long countByStatusIn(Collection<CompensationStatus> statuses);
+}
@@ -0,0 +1,33 @@
+package com.workflow.repository;
+
+import com.workflow.entity.DeadLetterMessageRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 死信消息数据访问层
+ */
+@Repository
+public interface DeadLetterMessageRepository extends JpaRepository<DeadLetterMessageRecord, String> {
+
+    List<DeadLetterMessageRecord> findAllByOrderByCreatedTimeDesc();
+
+    List<DeadLetterMessageRecord> findByProcessedFalseOrderByCreatedTimeDesc();
+
+    long countByProcessedTrue();
+
+    /**
+     * 删除已处理且超过保留期的死信消息
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DeadLetterMessageRecord d WHERE d.processed = true AND d.processedTime < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
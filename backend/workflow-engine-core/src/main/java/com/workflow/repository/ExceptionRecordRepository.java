@@ -5,12 +5,17 @@ import com.workflow.entity.ExceptionRecord.ExceptionSeverity;
 import com.workflow.entity.ExceptionRecord.ExceptionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,6 +24,13 @@ import java.util.List;
 @Repository
 public interface ExceptionRecordRepository extends JpaRepository<ExceptionRecord, String> {
     
+    /**
+     * 记录所属分区的 SQL 表达式，与 HorizontalScalingComponent.getPartition 计算方式一致：
+     * id 的 MD5 前4字节作为无符号整数对分区数取模
+     */
+    String PARTITION_OF_ID = "MOD(CAST(CAST('x' || LPAD(SUBSTR(MD5(e.id), 1, 8), 16, '0') AS BIT(64)) AS BIGINT), "
+            + ":partitionCount)";
+    
     /**
      * 根据流程实例ID查询异常记录
      */
@@ -53,6 +65,41 @@ public interface ExceptionRecordRepository extends JpaRepository<ExceptionRecord
            "ORDER BY e.severity DESC, e.occurredTime ASC")
     List<ExceptionRecord> findPendingRetryExceptions(@Param("now") LocalDateTime now);
     
+    /**
+     * 查询指定分区内待重试的异常记录，各节点只取自己负责的分区
+     */
+    @Query(value = "SELECT e.* FROM wf_exception_records e WHERE e.status = 'PENDING' " +
+           "AND e.retry_count < e.max_retry_count " +
+           "AND (e.next_retry_time IS NULL OR e.next_retry_time <= :now) " +
+           "AND " + PARTITION_OF_ID + " IN (:partitions) " +
+           "ORDER BY e.severity DESC, e.occurred_time ASC", nativeQuery = true)
+    List<ExceptionRecord> findPendingRetryExceptionsInPartitions(
+            @Param("now") LocalDateTime now,
+            @Param("partitionCount") int partitionCount,
+            @Param("partitions") Collection<Integer> partitions);
+    
+    /**
+     * 认领到期的待重试异常记录（FOR UPDATE SKIP LOCKED）
+     * 包括租约已过期的PROCESSING记录（认领节点崩溃后由其他节点接管）
+     * 未设置下次重试时间的记录立即可重试，排在最前（PostgreSQL 升序默认把NULL排在最后）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM ExceptionRecord e WHERE e.resolved = false " +
+           "AND e.retryCount < e.maxRetryCount " +
+           "AND ((e.status = 'PENDING' AND (e.nextRetryTime IS NULL OR e.nextRetryTime <= :now)) " +
+           "OR (e.status = 'PROCESSING' AND e.nextRetryTime <= :now)) " +
+           "ORDER BY e.nextRetryTime ASC NULLS FIRST")
+    List<ExceptionRecord> claimDueRetryExceptions(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * 查询最早的下次重试时间
+     */
+    @Query("SELECT MIN(e.nextRetryTime) FROM ExceptionRecord e WHERE e.resolved = false " +
+           "AND e.retryCount < e.maxRetryCount " +
+           "AND e.status IN ('PENDING', 'PROCESSING') AND e.nextRetryTime IS NOT NULL")
+    LocalDateTime findEarliestNextRetryTime();
+    
     /**
      * 根据时间范围查询异常记录
      */
@@ -97,6 +144,19 @@ public interface ExceptionRecordRepository extends JpaRepository<ExceptionRecord
            "ORDER BY e.severity DESC, e.occurredTime ASC")
     List<ExceptionRecord> findExceptionsNeedingAlert();
     
+    /**
+     * 查询指定分区内需要发送告警的异常
+     */
+    @Query(value = "SELECT e.* FROM wf_exception_records e WHERE e.alert_sent = false " +
+           "AND e.severity IN ('CRITICAL', 'HIGH') " +
+           "AND e.resolved = false " +
+           "AND " + PARTITION_OF_ID + " IN (:partitions) " +
+           "ORDER BY e.severity DESC, e.occurred_time ASC LIMIT :limit", nativeQuery = true)
+    List<ExceptionRecord> findExceptionsNeedingAlertInPartitions(
+            @Param("partitionCount") int partitionCount,
+            @Param("partitions") Collection<Integer> partitions,
+            @Param("limit") int limit);
+    
     /**
      * 根据流程定义Key统计异常
      */
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -146,6 +147,26 @@ public interface ExtendedTaskInfoRepository extends JpaRepository<ExtendedTaskIn
            "AND t.status != 'COMPLETED' AND t.isDeleted = false")
     List<ExtendedTaskInfo> findOverdueTasks(@Param("currentTime") LocalDateTime currentTime);
 
+    /**
+     * 任务所属分区的 SQL 表达式，与 HorizontalScalingComponent.getPartition 计算方式一致
+     */
+    String PARTITION_OF_TASK_ID = "MOD(CAST(CAST('x' || LPAD(SUBSTR(MD5(t.task_id), 1, 8), 16, '0') AS BIT(64)) AS BIGINT), "
+            + ":partitionCount)";
+
+    /**
+     * 查询指定分区内已过期且尚未发送超时通知的任务
+     */
+    @Query(value = "SELECT t.* FROM wf_extended_task_info t WHERE t.due_date < :currentTime " +
+           "AND t.status != 'COMPLETED' AND t.is_deleted = false AND t.overdue_notified_time IS NULL " +
+           "AND " + PARTITION_OF_TASK_ID + " IN (:partitions) " +
+           "ORDER BY t.due_date LIMIT :limit", nativeQuery = true)
+    List<ExtendedTaskInfo> findOverdueTasksToNotify(
+        @Param("currentTime") LocalDateTime currentTime,
+        @Param("partitionCount") int partitionCount,
+        @Param("partitions") Collection<Integer> partitions,
+        @Param("limit") int limit
+    );
+
     /**
      * 查询即将过期的任务（指定时间范围内）
      */
@@ -0,0 +1,18 @@
+-- =====================================================
+-- Transactional outbox for platform events
+-- =====================================================
+-- Events published through OutboxEventPublisher are written to this table in
+-- the same transaction as the business change, then forwarded to Kafka by
+-- OutboxRelay and deleted once the broker has acknowledged them.
+
+CREATE TABLE IF NOT EXISTS sys_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(64) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    event_key VARCHAR(255),
+    event_type VARCHAR(100),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_sys_event_outbox_created_at ON sys_event_outbox(created_at);
@@ -0,0 +1,50 @@
+-- =====================================================
+-- Dead letter store for Kafka records
+-- =====================================================
+-- Records that exhausted all retry tiers are consumed from the *.dlt topics
+-- by DeadLetterHandler and stored here for querying and replay.
+-- The table is range partitioned by month on failed_at; old partitions can be
+-- detached or dropped without touching recent data.
+
+CREATE TABLE IF NOT EXISTS sys_dead_letter (
+    id BIGSERIAL,
+    source_topic VARCHAR(255) NOT NULL,
+    source_partition INTEGER,
+    source_offset BIGINT,
+    dlt_topic VARCHAR(255) NOT NULL,
+    dlt_partition INTEGER NOT NULL,
+    dlt_offset BIGINT NOT NULL,
+    record_key VARCHAR(255),
+    payload TEXT,
+    headers JSONB,
+    exception_class VARCHAR(500),
+    exception_message TEXT,
+    stack_trace TEXT,
+    retry_attempts INTEGER NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL DEFAULT 'NEW',
+    replay_count INTEGER NOT NULL DEFAULT 0,
+    failed_at TIMESTAMP NOT NULL,
+    replayed_at TIMESTAMP,
+    PRIMARY KEY (id, failed_at),
+    CONSTRAINT uk_sys_dead_letter_dlt_position UNIQUE (dlt_topic, dlt_partition, dlt_offset, failed_at)
+) PARTITION BY RANGE (failed_at);
+
+CREATE TABLE IF NOT EXISTS sys_dead_letter_default PARTITION OF sys_dead_letter DEFAULT;
+
+-- Monthly partitions for the current month and the next twelve
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..12 LOOP
+        month_start := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::DATE;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF sys_dead_letter FOR VALUES FROM (%L) TO (%L)',
+            'sys_dead_letter_' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE);
+    END LOOP;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_sys_dead_letter_topic_status ON sys_dead_letter(source_topic, status, failed_at);
+CREATE INDEX IF NOT EXISTS idx_sys_dead_letter_status ON sys_dead_letter(status, failed_at);
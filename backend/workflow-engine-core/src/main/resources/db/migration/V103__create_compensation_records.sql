@@ -0,0 +1,45 @@
+-- =====================================================
+-- Durable compensation registry and dead letter messages
+-- =====================================================
+-- Compensation steps registered by RetryAndCompensationComponent survive
+-- restarts. Step status doubles as the execution checkpoint: SCHEDULED steps
+-- and RUNNING steps past their lease are resumed by another node.
+
+CREATE TABLE IF NOT EXISTS wf_compensation_records (
+    id VARCHAR(64) PRIMARY KEY,
+    process_instance_id VARCHAR(64) NOT NULL,
+    activity_id VARCHAR(255) NOT NULL,
+    compensation_type VARCHAR(50) NOT NULL,
+    compensation_data TEXT,
+    sequence_number BIGINT NOT NULL,
+    depends_on TEXT,
+    independent BOOLEAN NOT NULL DEFAULT false,
+    status VARCHAR(20) NOT NULL,
+    error_message VARCHAR(2000),
+    executor_node VARCHAR(100),
+    registered_time TIMESTAMP NOT NULL,
+    started_time TIMESTAMP,
+    executed_time TIMESTAMP,
+    CONSTRAINT wf_compensation_records_status_check
+        CHECK (status IN ('REGISTERED', 'SCHEDULED', 'RUNNING', 'COMPENSATED', 'FAILED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_compensation_process_seq ON wf_compensation_records(process_instance_id, sequence_number);
+CREATE INDEX IF NOT EXISTS idx_compensation_status_started ON wf_compensation_records(status, started_time);
+
+CREATE TABLE IF NOT EXISTS wf_dead_letter_messages (
+    id VARCHAR(64) PRIMARY KEY,
+    exception_record_id VARCHAR(64),
+    process_instance_id VARCHAR(64),
+    task_id VARCHAR(64),
+    reason VARCHAR(1000),
+    total_retry_attempts INTEGER,
+    created_time TIMESTAMP NOT NULL,
+    processed BOOLEAN NOT NULL DEFAULT false,
+    processed_time TIMESTAMP,
+    processed_by VARCHAR(64),
+    processed_note TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_dead_letter_exception ON wf_dead_letter_messages(exception_record_id);
+CREATE INDEX IF NOT EXISTS idx_dead_letter_processed ON wf_dead_letter_messages(processed, created_time);
@@ -0,0 +1,24 @@
+-- =====================================================
+-- Unique compensation step order
+-- =====================================================
+-- Sequence numbers were computed as MAX(sequence_number) + 1, so two concurrent
+-- registrations for the same process instance could get the same number. They
+-- now come from a database sequence, and the pair is unique per instance.
+
+CREATE SEQUENCE IF NOT EXISTS wf_compensation_sequence;
+
+SELECT setval('wf_compensation_sequence',
+              COALESCE((SELECT MAX(sequence_number) FROM wf_compensation_records), 0) + 1, false);
+
+-- Existing duplicates (all but the first of each pair) are renumbered after the current steps
+UPDATE wf_compensation_records r
+SET sequence_number = nextval('wf_compensation_sequence')
+WHERE EXISTS (SELECT 1 FROM wf_compensation_records o
+              WHERE o.process_instance_id = r.process_instance_id
+                AND o.sequence_number = r.sequence_number
+                AND o.id < r.id);
+
+DROP INDEX IF EXISTS idx_compensation_process_seq;
+
+ALTER TABLE wf_compensation_records
+    ADD CONSTRAINT uk_compensation_process_seq UNIQUE (process_instance_id, sequence_number);
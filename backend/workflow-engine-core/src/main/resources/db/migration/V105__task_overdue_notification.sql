@@ -0,0 +1,15 @@
+-- =====================================================
+-- Task due-date timer
+-- =====================================================
+-- The due-date timer sends one TASK_OVERDUE notification per task and records
+-- when it did, so each engine node can sweep its own partition of tasks.
+
+ALTER TABLE wf_extended_task_info ADD COLUMN IF NOT EXISTS overdue_notified_time TIMESTAMP;
+
+-- Tasks already overdue before the timer existed are not notified retroactively
+UPDATE wf_extended_task_info
+SET overdue_notified_time = CURRENT_TIMESTAMP
+WHERE due_date < CURRENT_TIMESTAMP AND status <> 'COMPLETED' AND is_deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_task_overdue_pending ON wf_extended_task_info(due_date)
+    WHERE overdue_notified_time IS NULL AND is_deleted = false AND status <> 'COMPLETED';
@@ -0,0 +1,326 @@
+package com.workflow.component;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 集群通知总线单元测试
+ * 使用内存传输层模拟Redis Stream，验证跨节点路由、确认和重投
+ */
+@DisplayName("集群通知总线测试")
+class ClusterNotificationBusTest {
+
+    /**
+     * 内存传输层实现，模拟消费者组的未确认消息语义
+     */
+    private static class InMemoryTransport implements NotificationStreamTransport {
+        private final Map<String, Map<String, Long>> presence = new ConcurrentHashMap<>();
+        private final Map<String, List<StreamEntry>> inboxes = new ConcurrentHashMap<>();
+        private final Map<String, Integer> cursors = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, StreamEntry>> pending = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> deleted = new ConcurrentHashMap<>();
+        private final Map<String, String> claims = new ConcurrentHashMap<>();
+        private long sequence = 0;
+
+        @Override
+        public void markPresent(String userId, String nodeId, Duration ttl) {
+            presence.computeIfAbsent(userId, k -> new ConcurrentHashMap<>())
+                    .put(nodeId, System.currentTimeMillis() + ttl.toMillis());
+        }
+
+        @Override
+        public void clearPresence(String userId, String nodeId) {
+            Map<String, Long> nodes = presence.get(userId);
+            if (nodes != null) {
+                nodes.remove(nodeId);
+            }
+        }
+
+        @Override
+        public Set<String> findPresentNodes(String userId) {
+            long now = System.currentTimeMillis();
+            Set<String> nodes = new HashSet<>();
+            presence.getOrDefault(userId, Map.of()).forEach((node, expiresAt) -> {
+                if (expiresAt > now) {
+                    nodes.add(node);
+                }
+            });
+            return nodes;
+        }
+
+        @Override
+        public synchronized String append(String nodeId, Map<String, String> fields) {
+            String id = String.valueOf(++sequence);
+            inboxes.computeIfAbsent(nodeId, k -> new CopyOnWriteArrayList<>()).add(new StreamEntry(id, new HashMap<>(fields)));
+            return id;
+        }
+
+        @Override
+        public synchronized List<StreamEntry> read(String nodeId, int count, Duration block, boolean pendingOnly) {
+            Map<String, StreamEntry> nodePending = pending.computeIfAbsent(nodeId, k -> new LinkedHashMap<>());
+            if (pendingOnly) {
+                return new ArrayList<>(nodePending.values()).subList(0, Math.min(count, nodePending.size()));
+            }
+            List<StreamEntry> inbox = inboxes.getOrDefault(nodeId, List.of());
+            int cursor = cursors.getOrDefault(nodeId, 0);
+            List<StreamEntry> result = new ArrayList<>();
+            while (cursor < inbox.size() && result.size() < count) {
+                StreamEntry entry = inbox.get(cursor++);
+                nodePending.put(entry.id(), entry);
+                result.add(entry);
+            }
+            cursors.put(nodeId, cursor);
+            return result;
+        }
+
+        @Override
+        public synchronized void acknowledge(String nodeId, List<String> entryIds) {
+            Map<String, StreamEntry> nodePending = pending.get(nodeId);
+            if (nodePending != null) {
+                entryIds.forEach(nodePending::remove);
+            }
+            // 与Redis实现一致，确认后删除消息
+            remove(nodeId, entryIds);
+        }
+
+        @Override
+        public Set<String> findInboxNodes() {
+            return new HashSet<>(inboxes.keySet());
+        }
+
+        @Override
+        public boolean claimInbox(String nodeId, String claimant, Duration ttl) {
+            String owner = claims.putIfAbsent(nodeId, claimant);
+            return owner == null || owner.equals(claimant);
+        }
+
+        @Override
+        public synchronized List<StreamEntry> range(String nodeId, String afterId, int count) {
+            Set<String> nodeDeleted = deleted.getOrDefault(nodeId, Set.of());
+            long after = afterId != null ? Long.parseLong(afterId) : 0L;
+            List<StreamEntry> result = new ArrayList<>();
+            for (StreamEntry entry : inboxes.getOrDefault(nodeId, List.of())) {
+                if (result.size() >= count) {
+                    break;
+                }
+                if (Long.parseLong(entry.id()) > after && !nodeDeleted.contains(entry.id())) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized void remove(String nodeId, List<String> entryIds) {
+            deleted.computeIfAbsent(nodeId, k -> new HashSet<>()).addAll(entryIds);
+        }
+
+        @Override
+        public synchronized boolean deleteInboxIfEmpty(String nodeId) {
+            if (!range(nodeId, null, 1).isEmpty()) {
+                return false;
+            }
+            inboxes.remove(nodeId);
+            cursors.remove(nodeId);
+            pending.remove(nodeId);
+            deleted.remove(nodeId);
+            return true;
+        }
+
+        int inboxSize(String nodeId) {
+            return inboxes.getOrDefault(nodeId, List.of()).size();
+        }
+
+        int pendingSize(String nodeId) {
+            return pending.getOrDefault(nodeId, Map.of()).size();
+        }
+    }
+
+    private InMemoryTransport transport;
+    private ClusterNotificationBus nodeA;
+    private ClusterNotificationBus nodeB;
+    private List<String> deliveredOnB;
+    private Set<String> deadNodes;
+
+    @BeforeEach
+    void setUp() {
+        transport = new InMemoryTransport();
+        deadNodes = ConcurrentHashMap.newKeySet();
+        nodeA = createBus("node-a");
+        nodeB = createBus("node-b");
+
+        deliveredOnB = new CopyOnWriteArrayList<>();
+        nodeA.registerLocalDelivery((userId, message) -> false);
+        nodeB.registerLocalDelivery((userId, message) -> deliveredOnB.add(userId + ":" + message));
+    }
+
+    private ClusterNotificationBus createBus(String nodeId) {
+        HorizontalScalingComponent scalingComponent = mock(HorizontalScalingComponent.class);
+        when(scalingComponent.getNodeId()).thenReturn(nodeId);
+        when(scalingComponent.isNodeAlive(anyString()))
+                .thenAnswer(invocation -> !deadNodes.contains(invocation.<String>getArgument(0)));
+        return new ClusterNotificationBus(transport, scalingComponent);
+    }
+
+    @Test
+    @DisplayName("通知应路由到持有用户会话的节点并由该节点投递")
+    void publish_shouldRouteToNodeHoldingSession() {
+        nodeB.userConnected("user-1");
+
+        int routed = nodeA.publish("user-1", "event-1", "任务已分配");
+
+        assertThat(routed).isEqualTo(1);
+        assertThat(transport.inboxSize("node-b")).isEqualTo(1);
+        assertThat(transport.inboxSize("node-a")).isZero();
+
+        nodeB.pollOnce(null, false);
+
+        assertThat(deliveredOnB).containsExactly("user-1:任务已分配");
+        assertThat(transport.pendingSize("node-b")).isZero();
+        assertThat(nodeB.getStatistics().get("delivered")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("用户不在线时不应写入任何收件箱")
+    void publish_offlineUser_shouldNotRoute() {
+        int routed = nodeA.publish("user-offline", "event-1", "消息");
+
+        assertThat(routed).isZero();
+        assertThat(transport.inboxSize("node-a")).isZero();
+        assertThat(transport.inboxSize("node-b")).isZero();
+    }
+
+    @Test
+    @DisplayName("本节点会话不经过集群总线")
+    void publish_localOnlyUser_shouldNotRoute() {
+        nodeA.userConnected("user-1");
+
+        assertThat(nodeA.publish("user-1", "event-1", "消息")).isZero();
+        assertThat(transport.inboxSize("node-a")).isZero();
+    }
+
+    @Test
+    @DisplayName("投递失败的消息不确认，下一轮重投")
+    void pollOnce_deliveryFailure_shouldRedeliverPending() {
+        nodeB.userConnected("user-1");
+        nodeB.registerLocalDelivery((userId, message) -> {
+            throw new IllegalStateException("session closed");
+        });
+        nodeA.publish("user-1", "event-1", "消息");
+
+        nodeB.pollOnce(null, false);
+        assertThat(transport.pendingSize("node-b")).isEqualTo(1);
+
+        nodeB.registerLocalDelivery((userId, message) -> deliveredOnB.add(message));
+        nodeB.pollOnce(null, true);
+
+        assertThat(deliveredOnB).containsExactly("消息");
+        assertThat(transport.pendingSize("node-b")).isZero();
+        assertThat(nodeB.getStatistics().get("redelivered")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("用户迁移到其他节点时应转发消息")
+    void pollOnce_userMoved_shouldForward() {
+        ClusterNotificationBus nodeC = createBus("node-c");
+        List<String> deliveredOnC = new ArrayList<>();
+        nodeC.registerLocalDelivery((userId, message) -> deliveredOnC.add(message));
+
+        nodeB.userConnected("user-1");
+        nodeA.publish("user-1", "event-1", "消息");
+
+        // 消费前用户从B断开并连接到C
+        nodeB.userDisconnected("user-1");
+        nodeC.userConnected("user-1");
+
+        nodeB.pollOnce(null, false);
+        nodeC.pollOnce(null, false);
+
+        assertThat(deliveredOnB).isEmpty();
+        assertThat(deliveredOnC).containsExactly("消息");
+        assertThat(nodeB.getStatistics().get("forwarded")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("停止总线时应清除本节点的在线状态")
+    void stop_shouldClearPresence() {
+        nodeB.userConnected("user-1");
+        assertThat(transport.findPresentNodes("user-1")).containsExactly("node-b");
+
+        nodeB.stop();
+
+        assertThat(transport.findPresentNodes("user-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("节点崩溃后其未确认和未读取的消息应由存活节点接管并投递")
+    void recoverDeadInboxes_crashedConsumer_shouldRedeliverUnackedMessages() {
+        ClusterNotificationBus nodeC = createBus("node-c");
+        List<String> deliveredOnC = new ArrayList<>();
+        nodeC.registerLocalDelivery((userId, message) -> deliveredOnC.add(message));
+
+        nodeB.userConnected("user-1");
+        nodeA.publish("user-1", "event-1", "消息1");
+
+        // B读取后在确认前崩溃，之后路由到B的消息不会再被读取
+        nodeB.registerLocalDelivery((userId, message) -> {
+            throw new IllegalStateException("node crashed");
+        });
+        nodeB.pollOnce(null, false);
+        nodeA.publish("user-1", "event-2", "消息2");
+        assertThat(transport.pendingSize("node-b")).isEqualTo(1);
+        deadNodes.add("node-b");
+
+        // 用户重连到C，B的在线状态尚未过期
+        nodeC.userConnected("user-1");
+        assertThat(transport.findPresentNodes("user-1")).contains("node-b", "node-c");
+
+        assertThat(nodeA.recoverDeadInboxes()).isEqualTo(2);
+        nodeC.pollOnce(null, false);
+
+        assertThat(deliveredOnC).containsExactly("消息1", "消息2");
+        assertThat(transport.findInboxNodes()).doesNotContain("node-b");
+        assertThat(nodeA.getStatistics().get("recovered")).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("用户尚未重连时保留下线节点的消息，重连后由接管节点投递")
+    void recoverDeadInboxes_userNotReconnected_shouldRetainUntilReconnect() {
+        List<String> deliveredOnA = new ArrayList<>();
+        nodeA.registerLocalDelivery((userId, message) -> deliveredOnA.add(message));
+
+        nodeB.userConnected("user-1");
+        nodeA.publish("user-1", "event-1", "消息");
+        deadNodes.add("node-b");
+
+        assertThat(nodeA.recoverDeadInboxes()).isZero();
+        assertThat(transport.findInboxNodes()).contains("node-b");
+
+        nodeA.userConnected("user-1");
+
+        assertThat(nodeA.recoverDeadInboxes()).isEqualTo(1);
+        assertThat(deliveredOnA).containsExactly("消息");
+        assertThat(transport.findInboxNodes()).doesNotContain("node-b");
+    }
+
+    @Test
+    @DisplayName("存活节点的收件箱不应被接管")
+    void recoverDeadInboxes_aliveNode_shouldNotTakeOver() {
+        nodeB.userConnected("user-1");
+        nodeA.publish("user-1", "event-1", "消息");
+
+        assertThat(nodeA.recoverDeadInboxes()).isZero();
+
+        nodeB.pollOnce(null, false);
+        assertThat(deliveredOnB).containsExactly("user-1:消息");
+    }
+}
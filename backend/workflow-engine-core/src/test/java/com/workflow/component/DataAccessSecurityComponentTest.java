@@ -3,17 +3,33 @@ package com.workflow.component;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.workflow.component.DataAccessSecurityComponent.*;
+import com.workflow.exception.WorkflowBusinessException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -39,6 +55,9 @@ class DataAccessSecurityComponentTest {
     @Mock(lenient = true)
     private HashOperations<String, Object, Object> hashOperations;
     
+    @Mock(lenient = true)
+    private StreamOperations<String, String, String> streamOperations;
+    
     @Mock(lenient = true)
     private AuditManagerComponent auditManagerComponent;
     
@@ -54,6 +73,7 @@ class DataAccessSecurityComponentTest {
         objectMapper.registerModule(new JavaTimeModule());
         when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
         when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        lenient().doReturn(streamOperations).when(stringRedisTemplate).opsForStream();
         
         dataAccessSecurity = new DataAccessSecurityComponent(
                 stringRedisTemplate, objectMapper, auditManagerComponent, securityManagerComponent);
@@ -189,6 +209,94 @@ class DataAccessSecurityComponentTest {
             assertThat(result.getPolicyId()).isEqualTo("policy-001");
         }
 
+        @Test
+        @DisplayName("复合条件表达式编译后按行求值")
+        void checkRowAccess_CompoundCondition() {
+            // Given
+            DataAccessSecurityComponent.RowLevelPolicy policy = new DataAccessSecurityComponent.RowLevelPolicy();
+            policy.setPolicyId("policy-002");
+            policy.setTableName("orders");
+            policy.setConditionExpression("(owner_id = ${username} OR status IN ('PUBLIC', 'SHARED')) AND amount < 1000");
+            policy.setEnabled(true);
+            dataAccessSecurity.defineRowLevelPolicy(policy);
+
+            when(securityManagerComponent.getUserRoles("user1")).thenReturn(Set.of("USER"));
+
+            // When & Then
+            assertThat(dataAccessSecurity.checkRowAccess("user1", "orders",
+                    Map.of("owner_id", "user1", "status", "PRIVATE", "amount", 10)).isAllowed()).isTrue();
+            assertThat(dataAccessSecurity.checkRowAccess("user1", "orders",
+                    Map.of("owner_id", "other", "status", "SHARED", "amount", 999.5)).isAllowed()).isTrue();
+            assertThat(dataAccessSecurity.checkRowAccess("user1", "orders",
+                    Map.of("owner_id", "other", "status", "PRIVATE", "amount", 10)).isAllowed()).isFalse();
+            assertThat(dataAccessSecurity.checkRowAccess("user1", "orders",
+                    Map.of("owner_id", "user1", "status", "PRIVATE", "amount", 5000L)).isAllowed()).isFalse();
+        }
+
+        @Test
+        @DisplayName("无效条件表达式拒绝定义")
+        void defineRowLevelPolicy_InvalidConditionRejected() {
+            // Given
+            DataAccessSecurityComponent.RowLevelPolicy policy = new DataAccessSecurityComponent.RowLevelPolicy();
+            policy.setPolicyId("policy-bad");
+            policy.setTableName("orders");
+            policy.setConditionExpression("owner_id = ${password}");
+            policy.setEnabled(true);
+
+            // When & Then
+            assertThatThrownBy(() -> dataAccessSecurity.defineRowLevelPolicy(policy))
+                    .isInstanceOf(WorkflowBusinessException.class);
+            verify(valueOperations, never()).set(anyString(), anyString(), any(java.time.Duration.class));
+        }
+
+        @Test
+        @DisplayName("批量过滤只保留可访问的行")
+        void filterAccessibleRows_KeepsAllowedRows() {
+            // Given
+            DataAccessSecurityComponent.RowLevelPolicy policy = new DataAccessSecurityComponent.RowLevelPolicy();
+            policy.setPolicyId("policy-001");
+            policy.setTableName("orders");
+            policy.setConditionExpression("owner_id = ${username}");
+            policy.setEnabled(true);
+            dataAccessSecurity.defineRowLevelPolicy(policy);
+
+            when(securityManagerComponent.getUserRoles("user1")).thenReturn(Set.of("USER"));
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                rows.add(Map.of("id", i, "owner_id", i % 4 == 0 ? "user1" : "other"));
+            }
+
+            // When
+            List<Map<String, Object>> accessible = dataAccessSecurity.filterAccessibleRows("user1", "orders", rows);
+
+            // Then
+            assertThat(accessible).hasSize(25).allMatch(row -> "user1".equals(row.get("owner_id")));
+            verify(securityManagerComponent, times(1)).getUserRoles("user1");
+        }
+
+        @Test
+        @DisplayName("生成参数化行级过滤条件")
+        void generateRowFilter_IsParameterised() {
+            // Given
+            DataAccessSecurityComponent.RowLevelPolicy policy = new DataAccessSecurityComponent.RowLevelPolicy();
+            policy.setPolicyId("policy-001");
+            policy.setTableName("orders");
+            policy.setConditionExpression("owner_id = ${username} OR status = 'PUBLIC'");
+            policy.setEnabled(true);
+            dataAccessSecurity.defineRowLevelPolicy(policy);
+
+            when(securityManagerComponent.getUserRoles("o'brien")).thenReturn(Set.of("USER"));
+
+            // When
+            DataAccessSecurityComponent.RowFilter filter = dataAccessSecurity.generateRowFilter("o'brien", "orders");
+            String inlined = dataAccessSecurity.generateRowFilterCondition("o'brien", "orders");
+
+            // Then
+            assertThat(filter.getSql()).isEqualTo("((owner_id = ? OR status = ?))");
+            assertThat(filter.getParams()).containsExactly("o'brien", "PUBLIC");
+            assertThat(inlined).contains("owner_id = 'o''brien'");
+        }
+
         @Test
         @DisplayName("生成行级过滤条件 - 无策略返回1=1")
         void generateRowFilterCondition_NoPolicyReturnsNoFilter() {
@@ -223,6 +331,87 @@ class DataAccessSecurityComponentTest {
         }
     }
 
+    // ==================== 行级条件空值一致性测试 ====================
+
+    @Nested
+    @DisplayName("行级条件内存求值与SQL下推一致性测试")
+    class RowPolicyNullParityTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "NOT region = 'EAST'",
+                "NOT (region = 'EAST' AND owner_id = ${username})",
+                "region NOT IN ('EAST', 'WEST')",
+                "NOT region IS NULL",
+                "NOT (region <> 'EAST' OR amount > 100)",
+                "NOT NOT region = 'EAST'",
+                "owner_id = ${username} OR NOT amount >= 100"
+        })
+        @DisplayName("字段为NULL时内存求值与SQL过滤结果一致")
+        void nullColumns_ShouldGiveSameResultInMemoryAndInSql(String expression) throws Exception {
+            // Given
+            RowPolicyExpression condition = RowPolicyExpression.compile(expression);
+            Map<String, Object> variables = RowPolicyExpression.variablesFor("user1");
+            List<Map<String, Object>> rows = new ArrayList<>();
+            String[] regions = {"EAST", "WEST", null};
+            String[] owners = {"user1", "other", null};
+            Integer[] amounts = {50, 150, null};
+            for (String region : regions) {
+                for (String owner : owners) {
+                    for (Integer amount : amounts) {
+                        Map<String, Object> row = new HashMap<>();
+                        row.put("id", rows.size());
+                        row.put("region", region);
+                        row.put("owner_id", owner);
+                        row.put("amount", amount);
+                        rows.add(row);
+                    }
+                }
+            }
+
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:row_policy_" + UUID.randomUUID())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE orders (id INT PRIMARY KEY, region VARCHAR(16), "
+                            + "owner_id VARCHAR(16), amount INT)");
+                }
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO orders VALUES (?, ?, ?, ?)")) {
+                    for (Map<String, Object> row : rows) {
+                        insert.setObject(1, row.get("id"));
+                        insert.setObject(2, row.get("region"));
+                        insert.setObject(3, row.get("owner_id"));
+                        insert.setObject(4, row.get("amount"));
+                        insert.executeUpdate();
+                    }
+                }
+
+                // When
+                StringBuilder sql = new StringBuilder("SELECT id FROM orders WHERE ");
+                List<Object> params = new ArrayList<>();
+                condition.appendSql(sql, params, variables);
+                Set<Integer> selected = new HashSet<>();
+                try (PreparedStatement query = connection.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < params.size(); i++) {
+                        query.setObject(i + 1, params.get(i));
+                    }
+                    try (ResultSet resultSet = query.executeQuery()) {
+                        while (resultSet.next()) {
+                            selected.add(resultSet.getInt(1));
+                        }
+                    }
+                }
+
+                // Then
+                Set<Integer> accepted = new HashSet<>();
+                for (Map<String, Object> row : rows) {
+                    if (condition.test(row, variables)) {
+                        accepted.add((Integer) row.get("id"));
+                    }
+                }
+                assertThat(selected).as(sql.toString()).isEqualTo(accepted);
+            }
+        }
+    }
+
     // ==================== 列级权限测试 ====================
 
     @Nested
@@ -482,11 +671,37 @@ class DataAccessSecurityComponentTest {
             assertThat(masked).contains("te***@example.com");
         }
 
+        @Test
+        @DisplayName("单遍脱敏按数字串长度区分身份证、银行卡和手机号")
+        void autoMaskSensitiveData_DistinguishesDigitRuns() {
+            // Given
+            String text = "身份证110101199001011234 卡号6222021234567890123 手机13812345678";
+
+            // When
+            String masked = dataAccessSecurity.autoMaskSensitiveData(text);
+
+            // Then
+            assertThat(masked).isEqualTo("身份证110101********1234 卡号6222 **** **** 0123 手机138****5678");
+        }
+
+        @Test
+        @DisplayName("不含敏感数据的文本原样返回")
+        void autoMaskSensitiveData_NoSensitiveDataReturnsSameInstance() {
+            // Given
+            String text = "订单编号 20240101 已审批通过";
+
+            // When
+            String masked = dataAccessSecurity.autoMaskSensitiveData(text);
+
+            // Then
+            assertThat(masked).isSameAs(text);
+        }
+
         @Test
         @DisplayName("匿名化数据")
         void anonymizeData_Success() {
             // Given
-            when(securityManagerComponent.hashPassword(anyString())).thenReturn("abcdef1234567890abcdef");
+            when(securityManagerComponent.digest(anyString())).thenReturn("abcdef1234567890abcdef");
             when(securityManagerComponent.encryptData(anyString())).thenReturn("encrypted_data");
 
             // When
@@ -538,8 +753,9 @@ class DataAccessSecurityComponentTest {
             dataAccessSecurity.recordSecurityEvent(username, eventType, description);
 
             // Then
-            verify(valueOperations).set(anyString(), anyString(), any(java.time.Duration.class));
-            verify(valueOperations).increment(anyString());
+            verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(),
+                    any(), any(), any(), any(), any(), any(), any());
+            verify(valueOperations, never()).increment(anyString());
         }
 
         @Test
@@ -557,10 +773,70 @@ class DataAccessSecurityComponentTest {
             dataAccessSecurity.recordSecurityEvent(username, eventType, description, ipAddress, resource, details);
 
             // Then
-            verify(valueOperations).set(anyString(), anyString(), any(java.time.Duration.class));
+            verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(),
+                    any(), any(), any(), any(), any(), any(), any());
             verify(auditManagerComponent).recordAuditLog(any(), any(), anyString(), anyString(), anyString());
         }
 
+        @Test
+        @DisplayName("同一事件类型的规则窗口合并到一次脚本调用")
+        void recordSecurityEvent_PassesRuleWindows() {
+            // Given
+            dataAccessSecurity.defineAlertRule(alertRule("rule-10", "LOGIN_FAILED", 5, 10));
+            dataAccessSecurity.defineAlertRule(alertRule("rule-30", "LOGIN_FAILED", 20, 30));
+            dataAccessSecurity.defineAlertRule(alertRule("rule-other", "PERMISSION_DENIED", 5, 60));
+
+            // When
+            dataAccessSecurity.recordSecurityEvent("user1", "LOGIN_FAILED", "登录失败");
+
+            // Then
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+            ArgumentCaptor<Object> retain = ArgumentCaptor.forClass(Object.class);
+            ArgumentCaptor<Object> windows = ArgumentCaptor.forClass(Object.class);
+            verify(stringRedisTemplate).execute(any(RedisScript.class), keys.capture(),
+                    any(), eq("LOGIN_FAILED"), any(), any(), any(), retain.capture(), windows.capture());
+            assertThat(keys.getValue()).contains("security:event:stream", "security:event:bucket:LOGIN_FAILED:user1",
+                    "security:event:stream:type:LOGIN_FAILED", "security:event:stream:user:user1");
+            assertThat(retain.getValue()).isEqualTo("30");
+            assertThat(String.valueOf(windows.getValue()).split(",")).containsExactlyInAnyOrder("10", "30");
+        }
+
+        @Test
+        @DisplayName("窗口计数达到阈值时只告警一次")
+        void recordSecurityEvent_AlertsOnceWhenThresholdReached() {
+            // Given
+            dataAccessSecurity.defineAlertRule(alertRule("rule-10", "LOGIN_FAILED", 3, 10));
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(),
+                    any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(2L), List.of(3L), List.of(4L));
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                dataAccessSecurity.recordSecurityEvent("user1", "LOGIN_FAILED", "登录失败");
+            }
+
+            // Then
+            verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class),
+                    argThat(keys -> keys.contains("security:alert:stream")), any(), eq("HIGH"), any(), any());
+        }
+
+        @Test
+        @DisplayName("停用的规则不参与计数")
+        void recordSecurityEvent_DisabledRuleIgnored() {
+            // Given
+            DataAccessSecurityComponent.AlertRule rule = alertRule("rule-10", "LOGIN_FAILED", 1, 10);
+            rule.setEnabled(false);
+            dataAccessSecurity.defineAlertRule(rule);
+
+            // When
+            dataAccessSecurity.recordSecurityEvent("user1", "LOGIN_FAILED", "登录失败");
+
+            // Then
+            verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(),
+                    any(), any(), any(), any(), any(), eq("0"), eq(""));
+        }
+
         @Test
         @DisplayName("初始化默认告警规则")
         void initializeDefaultAlertRules_Success() {
@@ -572,6 +848,19 @@ class DataAccessSecurityComponentTest {
         }
     }
 
+    private static DataAccessSecurityComponent.AlertRule alertRule(String ruleId, String eventType,
+                                                                   int threshold, int windowMinutes) {
+        DataAccessSecurityComponent.AlertRule rule = new DataAccessSecurityComponent.AlertRule();
+        rule.setRuleId(ruleId);
+        rule.setRuleName(ruleId);
+        rule.setEventType(eventType);
+        rule.setThreshold(threshold);
+        rule.setTimeWindowMinutes(windowMinutes);
+        rule.setSeverity("HIGH");
+        rule.setEnabled(true);
+        return rule;
+    }
+
     // ==================== 安全事件查询测试 ====================
 
     @Nested
@@ -623,6 +912,141 @@ class DataAccessSecurityComponentTest {
             assertThat(stats).containsKey("securityScore");
             assertThat(stats.get("securityScore")).isEqualTo(100); // 无事件时满分
         }
+
+        @Test
+        @DisplayName("安全监控统计汇总小时统计桶")
+        @SuppressWarnings("unchecked")
+        void getSecurityMonitoringStats_SumsHourBuckets() {
+            // Given
+            when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                    .thenReturn(List.of(Map.of("LOGIN_FAILED", "60"), Map.of("LOGIN_FAILED", "2", "PERMISSION_DENIED", "5")))
+                    .thenReturn(List.of(Map.of("HIGH", "1")));
+            LocalDateTime endTime = LocalDateTime.now();
+
+            // When
+            Map<String, Object> stats = dataAccessSecurity.getSecurityMonitoringStats(endTime.minusHours(1), endTime);
+
+            // Then
+            assertThat((Map<String, Long>) stats.get("eventCounts"))
+                    .containsEntry("LOGIN_FAILED", 62L)
+                    .containsEntry("PERMISSION_DENIED", 5L)
+                    .containsEntry("SUSPICIOUS_ACTIVITY", 0L);
+            assertThat((Map<String, Long>) stats.get("alertCounts")).containsEntry("HIGH", 1L);
+            assertThat(stats.get("securityScore")).isEqualTo(80);
+            verify(stringRedisTemplate, never()).keys(anyString());
+        }
+
+        @Test
+        @DisplayName("指定用户时从用户索引流查询安全事件")
+        void querySecurityEvents_ReadsUserIndex() throws Exception {
+            // Given
+            String mine = objectMapper.writeValueAsString(securityEvent("e2", "LOGIN_FAILED", "user1"));
+            String otherType = objectMapper.writeValueAsString(securityEvent("e1", "PERMISSION_DENIED", "user1"));
+            when(stringRedisTemplate.execute(any(RedisScript.class),
+                    eq(List.of("security:event:stream", "security:event:stream:user:user1")),
+                    any(), any(), any(), any()))
+                    .thenReturn(List.of("1700000000002-0", mine, "1700000000001-0", otherType,
+                            "1700000000000-0", ""));
+
+            // When
+            List<DataAccessSecurityComponent.SecurityEvent> events =
+                    dataAccessSecurity.querySecurityEvents("LOGIN_FAILED", "user1", null, null, 100);
+
+            // Then
+            assertThat(events).extracting(DataAccessSecurityComponent.SecurityEvent::getEventId).containsExactly("e2");
+            verify(streamOperations, never()).reverseRange(anyString(), any(Range.class), any(Limit.class));
+            verify(stringRedisTemplate, never()).keys(anyString());
+        }
+
+        @Test
+        @DisplayName("只指定事件类型时从类型索引流查询")
+        void querySecurityEvents_ReadsTypeIndex() throws Exception {
+            // Given
+            String event = objectMapper.writeValueAsString(securityEvent("e1", "LOGIN_FAILED", "user2"));
+            when(stringRedisTemplate.execute(any(RedisScript.class),
+                    eq(List.of("security:event:stream", "security:event:stream:type:LOGIN_FAILED")),
+                    any(), any(), any(), any()))
+                    .thenReturn(List.of("1700000000001-0", event));
+
+            // When
+            List<DataAccessSecurityComponent.SecurityEvent> events =
+                    dataAccessSecurity.querySecurityEvents("LOGIN_FAILED", null, null, null, 100);
+
+            // Then
+            assertThat(events).extracting(DataAccessSecurityComponent.SecurityEvent::getEventId).containsExactly("e1");
+        }
+
+        @Test
+        @DisplayName("无过滤条件时从事件流查询")
+        @SuppressWarnings("unchecked")
+        void querySecurityEvents_ReadsStream() throws Exception {
+            // Given
+            List<MapRecord<String, String, String>> records = List.of(
+                    StreamRecords.newRecord().in("security:event:stream").withId("1700000000002-0")
+                            .ofMap(Map.of("event", objectMapper.writeValueAsString(
+                                    securityEvent("e2", "LOGIN_FAILED", "user1")))),
+                    StreamRecords.newRecord().in("security:event:stream").withId("1700000000001-0")
+                            .ofMap(Map.of("event", objectMapper.writeValueAsString(
+                                    securityEvent("e1", "PERMISSION_DENIED", "user2")))));
+            when(streamOperations.reverseRange(eq("security:event:stream"), any(Range.class), any(Limit.class)))
+                    .thenReturn(records);
+
+            // When
+            List<DataAccessSecurityComponent.SecurityEvent> events =
+                    dataAccessSecurity.querySecurityEvents(null, null, null, null, 100);
+
+            // Then
+            assertThat(events).extracting(DataAccessSecurityComponent.SecurityEvent::getEventId)
+                    .containsExactly("e2", "e1");
+        }
+
+        @Test
+        @DisplayName("过滤查询分页读完整个时间范围，不在固定条数处截断")
+        @SuppressWarnings("unchecked")
+        void getAlerts_PagesUntilRangeCovered() throws Exception {
+            // Given：30 页低级别告警之后才有一条高级别告警
+            String low = objectMapper.writeValueAsString(Map.of("alertId", "low", "severity", "LOW"));
+            String high = objectMapper.writeValueAsString(Map.of("alertId", "high", "severity", "HIGH"));
+            List<List<MapRecord<String, String, String>>> pages = new ArrayList<>();
+            long id = 1_700_000_100_000L;
+            for (int page = 0; page < 30; page++) {
+                List<MapRecord<String, String, String>> records = new ArrayList<>();
+                // 每页第一条是上一页的最后一条
+                if (page > 0) {
+                    records.add(alertRecord(id + 1, low));
+                }
+                while (records.size() < 500) {
+                    records.add(alertRecord(id--, low));
+                }
+                pages.add(records);
+            }
+            pages.add(List.of(alertRecord(id + 1, low), alertRecord(id, high)));
+            Iterator<List<MapRecord<String, String, String>>> iterator = pages.iterator();
+            when(streamOperations.reverseRange(eq("security:alert:stream"), any(Range.class), any(Limit.class)))
+                    .thenAnswer(invocation -> iterator.hasNext() ? iterator.next() : List.of());
+
+            // When
+            List<Map<String, Object>> alerts = dataAccessSecurity.getAlerts("HIGH", null, null, 10);
+
+            // Then
+            assertThat(alerts).extracting(alert -> alert.get("alertId")).containsExactly("high");
+            verify(streamOperations, times(31)).reverseRange(eq("security:alert:stream"), any(Range.class), any(Limit.class));
+        }
+
+        private DataAccessSecurityComponent.SecurityEvent securityEvent(String eventId, String eventType,
+                                                                        String username) {
+            DataAccessSecurityComponent.SecurityEvent event = new DataAccessSecurityComponent.SecurityEvent();
+            event.setEventId(eventId);
+            event.setEventType(eventType);
+            event.setUsername(username);
+            event.setEventTime(LocalDateTime.now());
+            return event;
+        }
+
+        private MapRecord<String, String, String> alertRecord(long millis, String alertJson) {
+            return StreamRecords.newRecord().in("security:alert:stream").withId(millis + "-0")
+                    .ofMap(Map.of("alert", alertJson));
+        }
     }
 
     // ==================== RowAccessResult 测试 ====================
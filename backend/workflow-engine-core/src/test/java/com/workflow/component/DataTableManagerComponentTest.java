@@ -11,10 +11,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
@@ -711,4 +718,208 @@ class DataTableManagerComponentTest {
         assertThat(result.getData()).hasSize(1000);
         assertThat(endTime - startTime).isLessThan(5000); // 应该在5秒内完成
     }
-}
\ No newline at end of file
+
+    // ==================== 分页与流式查询测试 ====================
+
+    @Test
+    void testQueryTable_WindowTotalCount() {
+        // Given
+        queryRequest.setWindowTotalCount(true);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(new HashMap<>(Map.of("id", 1L, "name", "记录1", "_total_count", 42L)));
+        rows.add(new HashMap<>(Map.of("id", 2L, "name", "记录2", "_total_count", 42L)));
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(rows);
+
+        // When
+        DataTableQueryResult result = dataTableManagerComponent.queryTable(queryRequest);
+
+        // Then
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTotalCount()).isEqualTo(42L);
+        assertThat(result.getData()).allSatisfy(row -> assertThat(row).doesNotContainKey("_total_count"));
+        assertThat(result.getExecutedSql()).contains("COUNT(*) OVER() AS _total_count");
+        verify(jdbcTemplate, never()).queryForObject(anyString(), any(Object[].class), eq(Long.class));
+    }
+
+    @Test
+    void testQueryTable_KeysetPagination() {
+        // Given
+        DataTableQueryRequest keysetRequest = DataTableQueryRequest.builder()
+                .tableName("test_table")
+                .whereConditions(Map.of("status", "ACTIVE"))
+                .orderBy("created_time")
+                .orderDirection("DESC")
+                .tieBreakerField("id")
+                .keysetValue("2024-01-02")
+                .tieBreakerValue(20L)
+                .limit(2)
+                .build();
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+                .thenReturn(Arrays.asList(
+                        Map.of("id", 19L, "created_time", "2024-01-02"),
+                        Map.of("id", 7L, "created_time", "2024-01-01")));
+        when(jdbcTemplate.queryForObject(anyString(), any(Object[].class), eq(Long.class))).thenReturn(10L);
+
+        // When
+        DataTableQueryResult result = dataTableManagerComponent.queryTable(keysetRequest);
+
+        // Then
+        assertThat(result.getExecutedSql()).isEqualTo("SELECT * FROM test_table WHERE status = ? "
+                + "AND (created_time, id) < (?, ?) ORDER BY created_time DESC, id DESC LIMIT ?");
+        assertThat(result.getExecutedSql()).doesNotContain("OFFSET");
+        assertThat(result.getNextKeysetValue()).isEqualTo("2024-01-01");
+        assertThat(result.getNextTieBreakerValue()).isEqualTo(7L);
+        assertThat(result.getCurrentPage()).isNull();
+        verify(jdbcTemplate).queryForList(anyString(), eq("ACTIVE"), eq("2024-01-02"), eq(20L), eq(2));
+    }
+
+    @Test
+    void testQueryTable_KeysetWithoutOrderBy() {
+        // Given
+        queryRequest.setOrderBy(null);
+        queryRequest.setKeysetValue(10L);
+
+        // When & Then
+        assertThatThrownBy(() -> dataTableManagerComponent.queryTable(queryRequest))
+                .isInstanceOf(WorkflowValidationException.class);
+    }
+
+    @Test
+    void testQueryTable_ReusesStatementShape() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(new ArrayList<>());
+        when(jdbcTemplate.queryForObject(anyString(), any(Object[].class), eq(Long.class))).thenReturn(0L);
+
+        // When
+        DataTableQueryResult first = dataTableManagerComponent.queryTable(queryRequest);
+        queryRequest.setWhereConditions(Map.of("status", "INACTIVE"));
+        queryRequest.setOffset(10);
+        DataTableQueryResult second = dataTableManagerComponent.queryTable(queryRequest);
+
+        // Then
+        assertThat(second.getExecutedSql()).isEqualTo(first.getExecutedSql());
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(dataTableManagerComponent, "statementCache")).hasSize(2);
+        verify(jdbcTemplate).queryForList(anyString(), eq("INACTIVE"), eq(10), eq(10));
+    }
+
+    @Test
+    void testQueryTable_UnknownColumnFromMetadata() {
+        // Given
+        when(jdbcTemplate.query(contains("information_schema"), any(ResultSetExtractor.class), eq("test_table")))
+                .thenReturn(Set.of("id", "name"));
+
+        // When & Then
+        assertThatThrownBy(() -> dataTableManagerComponent.queryTable(queryRequest))
+                .isInstanceOf(WorkflowValidationException.class);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        assertThat(dataTableManagerComponent.deleteRecord(deleteRequest).isSuccess()).isTrue();
+    }
+
+    @Test
+    void testStreamTable_PassesColumnsOnce() throws Exception {
+        // Given
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("id");
+        when(metaData.getColumnLabel(2)).thenReturn("name");
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getObject(1)).thenReturn(1L, 2L);
+        when(resultSet.getObject(2)).thenReturn("记录1", "记录2");
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(ResultSetExtractor.class)))
+                .thenAnswer(invocation -> ((ResultSetExtractor<?>) invocation.getArgument(1)).extractData(resultSet));
+
+        List<List<String>> columnEvents = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+
+        // When
+        long count = dataTableManagerComponent.streamTable(queryRequest, new DataTableManagerComponent.RowStreamHandler() {
+            @Override
+            public void onColumns(List<String> columns) {
+                columnEvents.add(columns);
+            }
+
+            @Override
+            public void onRow(Object[] values) {
+                rows.add(values);
+            }
+        });
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(columnEvents).containsExactly(List.of("id", "name"));
+        assertThat(rows).containsExactly(new Object[]{1L, "记录1"}, new Object[]{2L, "记录2"});
+    }
+
+    @Test
+    void testQueryTable_ReloadsCachedMetadataMissingColumn() throws Exception {
+        // Given: 缓存的元数据早于新增status字段的DDL
+        when(jdbcTemplate.query(contains("information_schema"), any(ResultSetExtractor.class), eq("test_table")))
+                .thenReturn(Set.of("id", "name"))
+                .thenReturn(Set.of("id", "name", "status"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(new ArrayList<>());
+        when(jdbcTemplate.queryForObject(anyString(), any(Object[].class), eq(Long.class))).thenReturn(0L);
+        assertThat(dataTableManagerComponent.deleteRecord(deleteRequest).isSuccess()).isTrue();
+        Thread.sleep(5);
+
+        // When
+        DataTableQueryResult result = dataTableManagerComponent.queryTable(queryRequest);
+
+        // Then
+        assertThat(result.isSuccess()).isTrue();
+        verify(jdbcTemplate, times(2)).query(contains("information_schema"), any(ResultSetExtractor.class), eq("test_table"));
+    }
+
+    @Test
+    void testQueryTable_BadSqlGrammarEvictsMetadata() {
+        // Given
+        when(jdbcTemplate.query(contains("information_schema"), any(ResultSetExtractor.class), eq("test_table")))
+                .thenReturn(Set.of("id", "name", "status"));
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+                .thenThrow(new BadSqlGrammarException("query", "SELECT", new SQLException("column \"status\" does not exist")));
+
+        // When
+        DataTableQueryResult result = dataTableManagerComponent.queryTable(queryRequest);
+        dataTableManagerComponent.queryTable(queryRequest);
+
+        // Then: 每次失败后下一次校验都重新读取元数据
+        assertThat(result.isSuccess()).isFalse();
+        verify(jdbcTemplate, times(2)).query(contains("information_schema"), any(ResultSetExtractor.class), eq("test_table"));
+    }
+
+    @Test
+    void testQueryTable_PushesRowFilterIntoWhere() {
+        // Given
+        DataAccessSecurityComponent dataAccessSecurity = mock(DataAccessSecurityComponent.class);
+        ReflectionTestUtils.setField(dataTableManagerComponent, "dataAccessSecurity", dataAccessSecurity);
+        when(dataAccessSecurity.generateRowFilter("user1", "test_table"))
+                .thenReturn(new DataAccessSecurityComponent.RowFilter("(owner_id = ?)", List.of("user1")));
+        queryRequest.setAccessUser("user1");
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(new ArrayList<>());
+        when(jdbcTemplate.queryForObject(anyString(), any(Object[].class), eq(Long.class))).thenReturn(0L);
+
+        // When
+        DataTableQueryResult result = dataTableManagerComponent.queryTable(queryRequest);
+
+        // Then
+        assertThat(result.getExecutedSql()).contains("WHERE status = ? AND ((owner_id = ?))");
+        verify(jdbcTemplate).queryForList(anyString(), eq("ACTIVE"), eq("user1"), eq(10), eq(0));
+        verify(jdbcTemplate).queryForObject(contains("SELECT COUNT(*) FROM test_table WHERE status = ? AND ((owner_id = ?))"),
+                eq(new Object[]{"ACTIVE", "user1"}), eq(Long.class));
+    }
+
+    @Test
+    void testQueryTable_AccessUserWithoutSecurityComponentFails() {
+        // Given
+        queryRequest.setAccessUser("user1");
+
+        // When
+        DataTableQueryResult result = dataTableManagerComponent.queryTable(queryRequest);
+
+        // Then
+        assertThat(result.isSuccess()).isFalse();
+        verify(jdbcTemplate, never()).queryForList(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,201 @@
+package com.workflow.component;
+
+import org.flowable.engine.ProcessEngine;
+import org.flowable.engine.ProcessEngineConfiguration;
+import org.flowable.job.service.impl.asyncexecutor.AsyncExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 优雅下线组件单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("优雅下线组件测试")
+class GracefulDrainComponentTest {
+
+    @Mock(lenient = true)
+    private HorizontalScalingComponent scalingComponent;
+
+    @Mock(lenient = true)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock(lenient = true)
+    private ObjectProvider<ProcessEngine> processEngineProvider;
+
+    private GracefulDrainComponent drainComponent;
+
+    @BeforeEach
+    void setUp() {
+        when(scalingComponent.getNodeId()).thenReturn("node-1");
+        drainComponent = new GracefulDrainComponent(scalingComponent, eventPublisher, processEngineProvider);
+        ReflectionTestUtils.setField(drainComponent, "pollIntervalMs", 10L);
+    }
+
+    @Test
+    @DisplayName("无进行中工作时应立即排空并交出领导权")
+    void drain_shouldCompleteImmediatelyWhenIdle() {
+        // When
+        Map<String, Object> result = drainComponent.drain(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(result.get("drained")).isEqualTo(true);
+        assertThat(drainComponent.getState()).isEqualTo(GracefulDrainComponent.DrainState.DRAINED);
+        assertThat(publishedReadiness()).isEqualTo(ReadinessState.REFUSING_TRAFFIC);
+        verify(scalingComponent).prepareForHotDeploy();
+    }
+
+    @Test
+    @DisplayName("应等待进行中的请求完成后再交出领导权")
+    void drain_shouldWaitForInFlightRequests() throws Exception {
+        // Given
+        drainComponent.requestStarted();
+        Thread finisher = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            drainComponent.requestFinished();
+        });
+        finisher.start();
+
+        // When
+        Map<String, Object> result = drainComponent.drain(Duration.ofSeconds(5));
+        finisher.join();
+
+        // Then
+        assertThat(result.get("drained")).isEqualTo(true);
+        assertThat((Long) result.get("elapsedMs")).isGreaterThanOrEqualTo(90L);
+        assertThat(result.get("remainingRequests")).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("应等待执行中的后台作业完成")
+    void drain_shouldWaitForRunningJobs() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        Thread job = new Thread(() -> drainComponent.runJob(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        job.start();
+        started.await();
+
+        // When
+        Map<String, Object> result = drainComponent.drain(Duration.ofSeconds(5));
+        job.join();
+
+        // Then
+        assertThat(result.get("drained")).isEqualTo(true);
+        assertThat((Long) result.get("elapsedMs")).isGreaterThanOrEqualTo(50L);
+        assertThat(result.get("remainingJobs")).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("默认排空超时应取配置值")
+    void drain_shouldUseConfiguredTimeout() {
+        // Given
+        ReflectionTestUtils.setField(drainComponent, "drainTimeoutSeconds", 0L);
+        drainComponent.jobStarted();
+
+        // When
+        Map<String, Object> result = drainComponent.drain();
+
+        // Then
+        assertThat(result.get("drained")).isEqualTo(false);
+        assertThat(result.get("remainingJobs")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("超过截止时间仍有请求时应报告未排空但继续交接")
+    void drain_shouldGiveUpAtDeadline() {
+        // Given
+        drainComponent.requestStarted();
+
+        // When
+        Map<String, Object> result = drainComponent.drain(Duration.ofMillis(50));
+
+        // Then
+        assertThat(result.get("drained")).isEqualTo(false);
+        assertThat(result.get("remainingRequests")).isEqualTo(1);
+        verify(scalingComponent).prepareForHotDeploy();
+    }
+
+    @Test
+    @DisplayName("排空时应停止Flowable作业获取")
+    void drain_shouldStopFlowableJobAcquisition() {
+        // Given
+        ProcessEngine processEngine = mock(ProcessEngine.class);
+        ProcessEngineConfiguration configuration = mock(ProcessEngineConfiguration.class);
+        AsyncExecutor asyncExecutor = mock(AsyncExecutor.class);
+        when(processEngineProvider.getIfAvailable()).thenReturn(processEngine);
+        when(processEngine.getProcessEngineConfiguration()).thenReturn(configuration);
+        when(configuration.getAsyncExecutor()).thenReturn(asyncExecutor);
+        when(asyncExecutor.isActive()).thenReturn(true);
+
+        // When
+        Map<String, Object> result = drainComponent.drain(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(result.get("drained")).isEqualTo(true);
+        verify(asyncExecutor, timeout(1000)).shutdown();
+    }
+
+    @Test
+    @DisplayName("重复排空应返回上次结果")
+    void drain_shouldBeIdempotent() {
+        // Given
+        Map<String, Object> first = drainComponent.drain(Duration.ofSeconds(5));
+
+        // When
+        Map<String, Object> second = drainComponent.drain(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(second).isSameAs(first);
+        verify(scalingComponent, times(1)).prepareForHotDeploy();
+    }
+
+    @Test
+    @DisplayName("恢复后应重新上线并接收流量")
+    void resume_shouldReregisterAndAcceptTraffic() {
+        // Given
+        drainComponent.drain(Duration.ofSeconds(5));
+        clearInvocations(eventPublisher);
+
+        // When
+        drainComponent.resume();
+
+        // Then
+        assertThat(drainComponent.isDraining()).isFalse();
+        assertThat(publishedReadiness()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        verify(scalingComponent).completeHotDeploy();
+    }
+
+    private Object publishedReadiness() {
+        ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        return ((AvailabilityChangeEvent<?>) captor.getValue()).getState();
+    }
+}
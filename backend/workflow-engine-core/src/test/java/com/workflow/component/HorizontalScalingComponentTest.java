@@ -8,15 +8,19 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,12 +45,17 @@ class HorizontalScalingComponentTest {
 
     private HorizontalScalingComponent scalingComponent;
 
+    private static final List<String> LEADER_KEYS =
+            List.of("workflow:cluster:leader", "workflow:cluster:leader:epoch");
+
     @BeforeEach
     void setUp() {
         when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
         when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
         
         scalingComponent = new HorizontalScalingComponent(stringRedisTemplate);
+        // 测试中不启动后台协调线程
+        ReflectionTestUtils.setField(scalingComponent, "coordinationEnabled", false);
         // 手动调用init方法初始化节点信息
         scalingComponent.init();
     }
@@ -106,7 +115,8 @@ class HorizontalScalingComponentTest {
         @DisplayName("获取领导权应该成功")
         void tryAcquireLeadership_shouldSucceed() {
             // Given
-            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+            when(stringRedisTemplate.execute(any(RedisScript.class), eq(LEADER_KEYS), any(), any()))
+                    .thenReturn(5L);
 
             // When
             boolean acquired = scalingComponent.tryAcquireLeadership();
@@ -114,37 +124,175 @@ class HorizontalScalingComponentTest {
             // Then
             assertThat(acquired).isTrue();
             assertThat(scalingComponent.isCurrentNodeLeader()).isTrue();
+            assertThat(scalingComponent.getLeaderEpoch()).isEqualTo(5L);
         }
 
         @Test
         @DisplayName("获取领导权失败时应该返回false")
         void tryAcquireLeadership_shouldFailWhenAlreadyTaken() {
             // Given
-            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
-            when(valueOperations.get(anyString())).thenReturn("other-node");
+            when(stringRedisTemplate.execute(any(RedisScript.class), eq(LEADER_KEYS), any(), any()))
+                    .thenReturn(0L);
 
             // When
             boolean acquired = scalingComponent.tryAcquireLeadership();
 
             // Then
             assertThat(acquired).isFalse();
+            assertThat(scalingComponent.getLeaderEpoch()).isZero();
         }
 
         @Test
         @DisplayName("释放领导权应该成功")
         void releaseLeadership_shouldSucceed() {
             // Given
-            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+            when(stringRedisTemplate.execute(any(RedisScript.class), eq(LEADER_KEYS), any(), any()))
+                    .thenReturn(2L);
             scalingComponent.tryAcquireLeadership();
             
-            when(valueOperations.get(anyString())).thenReturn(scalingComponent.getNodeId());
-            when(stringRedisTemplate.delete(anyString())).thenReturn(true);
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any())).thenReturn(1L);
 
             // When
             scalingComponent.releaseLeadership();
 
             // Then
             assertThat(scalingComponent.isCurrentNodeLeader()).isFalse();
+            verify(stringRedisTemplate).execute(any(RedisScript.class),
+                    eq(List.of("workflow:cluster:leader")),
+                    eq(scalingComponent.getNodeId() + ":2"));
+        }
+
+        @Test
+        @DisplayName("领导权变更应该通知回调")
+        void leadershipChange_shouldNotifyListeners() {
+            // Given
+            List<Boolean> changes = new ArrayList<>();
+            scalingComponent.addLeadershipListener(changes::add);
+            when(stringRedisTemplate.execute(any(RedisScript.class), eq(LEADER_KEYS), any(), any()))
+                    .thenReturn(1L, 1L, 0L);
+
+            // When
+            scalingComponent.tryAcquireLeadership();
+            scalingComponent.tryAcquireLeadership();
+            scalingComponent.tryAcquireLeadership();
+
+            // Then
+            assertThat(changes).containsExactly(true, false);
+        }
+
+        @Test
+        @DisplayName("获取当前领导者应该去掉任期后缀")
+        void getCurrentLeader_shouldStripEpoch() {
+            // Given
+            when(valueOperations.get("workflow:cluster:leader")).thenReturn("node-1:12");
+
+            // When
+            String leader = scalingComponent.getCurrentLeader();
+
+            // Then
+            assertThat(leader).isEqualTo("node-1");
+        }
+    }
+
+    @Nested
+    @DisplayName("工作分区测试")
+    class PartitionTests {
+
+        @Test
+        @DisplayName("单节点应该负责全部分区")
+        void singleNode_shouldOwnAllPartitions() {
+            // Given - setUp中成员为空，按单节点处理
+
+            // Then
+            assertThat(scalingComponent.getOwnedPartitions()).hasSize(scalingComponent.getPartitionCount());
+            assertThat(scalingComponent.isOwnedByCurrentNode("any-key")).isTrue();
+        }
+
+        @Test
+        @DisplayName("初始分区应该按配置的分区数分配")
+        void initialPartitions_shouldFollowConfiguredCount() {
+            // Given
+            HorizontalScalingComponent configured = new HorizontalScalingComponent(stringRedisTemplate);
+            ReflectionTestUtils.setField(configured, "coordinationEnabled", false);
+            ReflectionTestUtils.setField(configured, "partitionCount", 16);
+
+            // When
+            configured.init();
+
+            // Then
+            assertThat(configured.getOwnedPartitions()).hasSize(16).allMatch(p -> p >= 0 && p < 16);
+        }
+
+        @Test
+        @DisplayName("分区计算应该与数据库中的分区表达式一致")
+        void partition_shouldMatchDatabaseExpression() {
+            // MD5('abc') 前4字节为 0x90015098，即 2415980696
+            assertThat(scalingComponent.getPartition("abc")).isEqualTo((int) (2415980696L % 64));
+        }
+
+        @Test
+        @DisplayName("多个节点应该不重叠地划分全部分区")
+        void multipleNodes_shouldSplitPartitionsWithoutOverlap() {
+            // Given
+            String self = scalingComponent.getNodeId();
+            List<String> nodeIds = List.of(self, "node-a", "node-b");
+
+            // When
+            Set<Integer> union = new HashSet<>();
+            int total = 0;
+            for (String id : nodeIds) {
+                HorizontalScalingComponent view = new HorizontalScalingComponent(stringRedisTemplate);
+                ReflectionTestUtils.setField(view, "nodeId", id);
+                view.rebalancePartitions(nodes(nodeIds));
+                union.addAll(view.getOwnedPartitions());
+                total += view.getOwnedPartitions().size();
+            }
+
+            // Then
+            assertThat(total).isEqualTo(scalingComponent.getPartitionCount());
+            assertThat(union).hasSize(scalingComponent.getPartitionCount());
+        }
+
+        @Test
+        @DisplayName("节点加入时只迁移部分分区并通知回调")
+        void nodeJoin_shouldMoveOnlySomePartitions() {
+            // Given
+            String self = scalingComponent.getNodeId();
+            scalingComponent.rebalancePartitions(nodes(List.of(self, "node-a")));
+            Set<Integer> before = new HashSet<>(scalingComponent.getOwnedPartitions());
+            List<Set<Integer>> changes = new ArrayList<>();
+            scalingComponent.addPartitionListener(changes::add);
+
+            // When
+            scalingComponent.rebalancePartitions(nodes(List.of(self, "node-a", "node-b")));
+
+            // Then
+            Set<Integer> after = scalingComponent.getOwnedPartitions();
+            assertThat(before).containsAll(after);
+            assertThat(changes).hasSizeLessThanOrEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("下线中的节点不负责任何分区")
+        void drainingNode_shouldOwnNoPartitions() {
+            // Given
+            String self = scalingComponent.getNodeId();
+            List<ClusterNodeInfo> members = nodes(List.of(self, "node-a"));
+            members.get(0).setStatus("DRAINING");
+
+            // When
+            scalingComponent.rebalancePartitions(members);
+
+            // Then
+            assertThat(scalingComponent.getOwnedPartitions()).isEmpty();
+        }
+
+        private List<ClusterNodeInfo> nodes(List<String> ids) {
+            List<ClusterNodeInfo> nodes = new ArrayList<>();
+            for (String id : ids) {
+                nodes.add(ClusterNodeInfo.builder().nodeId(id).status("FOLLOWER").build());
+            }
+            return nodes;
         }
     }
 
@@ -189,6 +337,66 @@ class HorizontalScalingComponentTest {
             assertThat(result.getMessage()).contains("没有可用的节点");
         }
 
+        @Test
+        @DisplayName("选择节点应该只读取本地成员视图")
+        void selectBestNode_shouldUseLocalViewWithoutRedis() {
+            // Given
+            scalingComponent.onMembershipMessage("node-1|host1|8080|FOLLOWER|0.9000|100|10|"
+                    + LocalDateTime.now() + "|" + LocalDateTime.now() + "|0.9000|0.5000|80|900");
+            scalingComponent.onMembershipMessage("node-2|host2|8080|FOLLOWER|0.1000|50|5|"
+                    + LocalDateTime.now() + "|" + LocalDateTime.now() + "|0.1000|0.2000|2|50");
+            clearInvocations(hashOperations, valueOperations);
+
+            // When
+            LoadBalancingResult result = scalingComponent.selectBestNode("USER_TASK");
+
+            // Then
+            assertThat(result.getSelectedNodeId()).isEqualTo("node-2");
+            verifyNoInteractions(hashOperations, valueOperations);
+        }
+
+        @Test
+        @DisplayName("下线中和已离线的节点不参与路由")
+        void selectBestNode_shouldSkipDrainingAndOfflineNodes() {
+            // Given
+            String now = LocalDateTime.now().toString();
+            scalingComponent.onMembershipMessage("node-1|host1|8080|FOLLOWER|0.1|1|1|" + now + "|" + now);
+            scalingComponent.onMembershipMessage("node-2|host2|8080|DRAINING|0.0|1|1|" + now + "|" + now);
+            scalingComponent.onMembershipMessage("node-3|host3|8080|FOLLOWER|0.0|1|1|" + now + "|" + now);
+            scalingComponent.onMembershipMessage("node-3|host3|8080|OFFLINE|0.0|1|1|" + now + "|" + now);
+
+            // When
+            Set<String> selected = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                selected.add(scalingComponent.selectBestNode("USER_TASK").getSelectedNodeId());
+            }
+
+            // Then
+            assertThat(selected).containsExactly("node-1");
+        }
+
+        @Test
+        @DisplayName("两次随机选择应该偏向低负载节点")
+        void selectBestNode_shouldPreferLessLoadedNodes() {
+            // Given
+            String now = LocalDateTime.now().toString();
+            for (int i = 0; i < 5; i++) {
+                double load = i == 0 ? 0.05 : 0.9;
+                scalingComponent.onMembershipMessage("node-" + i + "|host|8080|FOLLOWER|" + load + "|1|1|" + now + "|" + now);
+            }
+
+            // When
+            int hits = 0;
+            for (int i = 0; i < 1000; i++) {
+                if ("node-0".equals(scalingComponent.selectBestNode("USER_TASK").getSelectedNodeId())) {
+                    hits++;
+                }
+            }
+
+            // Then - 被抽中的两个节点里包含node-0的概率为40%，明显高于均匀分配的20%
+            assertThat(hits).isGreaterThan(300);
+        }
+
         @Test
         @DisplayName("获取负载均衡统计")
         void getLoadBalancingStatistics_shouldReturnStats() {
@@ -208,46 +416,103 @@ class HorizontalScalingComponentTest {
     class DistributedLockTests {
 
         @Test
-        @DisplayName("获取任务锁应该成功")
+        @DisplayName("获取任务锁应该成功并返回防护令牌")
         void acquireTaskLock_shouldSucceed() {
             // Given
-            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                    .thenReturn(List.of(7L));
 
             // When
             boolean acquired = scalingComponent.acquireTaskLock("task-123", 30000);
 
             // Then
             assertThat(acquired).isTrue();
+            assertThat(scalingComponent.getTaskLockFencingToken("task-123")).isEqualTo(7L);
+        }
+
+        @Test
+        @DisplayName("获取任务锁时防护计数器应设置过期时间并以时间为起点")
+        void acquireTaskLock_shouldExpireAndSeedFenceCounter() {
+            // Given
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                    .thenReturn(List.of(7L));
+            long before = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+            // When
+            scalingComponent.acquireTaskLock("task-123", 30000);
+
+            // Then
+            ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+            verify(stringRedisTemplate).execute(any(RedisScript.class),
+                    eq(List.of("workflow:cluster:lock:task:task-123", "workflow:cluster:lock:fence:task-123")),
+                    args.capture(), args.capture(), args.capture(), args.capture());
+            assertThat(args.getAllValues().get(2)).isEqualTo("604800000");
+            assertThat(Long.parseLong((String) args.getAllValues().get(3))).isGreaterThanOrEqualTo(before);
         }
 
         @Test
         @DisplayName("获取已被锁定的任务锁应该失败")
         void acquireTaskLock_shouldFailWhenAlreadyLocked() {
             // Given
-            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                    .thenReturn(List.of(0L));
 
             // When
             boolean acquired = scalingComponent.acquireTaskLock("task-123", 30000);
 
             // Then
             assertThat(acquired).isFalse();
+            assertThat(scalingComponent.getTaskLockFencingToken("task-123")).isEqualTo(-1L);
         }
 
         @Test
         @DisplayName("释放任务锁应该成功")
         void releaseTaskLock_shouldSucceed() {
             // Given
-            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                    .thenReturn(List.of(3L));
             scalingComponent.acquireTaskLock("task-123", 30000);
             
-            when(valueOperations.get(anyString())).thenReturn(scalingComponent.getNodeId());
-            when(stringRedisTemplate.delete(anyString())).thenReturn(true);
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any())).thenReturn(1L);
 
             // When
             boolean released = scalingComponent.releaseTaskLock("task-123");
 
             // Then
             assertThat(released).isTrue();
+            verify(stringRedisTemplate).execute(any(RedisScript.class),
+                    eq(List.of("workflow:cluster:lock:task:task-123")),
+                    eq(scalingComponent.getNodeId() + ":3"));
+            verify(stringRedisTemplate, never()).delete(anyString());
+        }
+
+        @Test
+        @DisplayName("锁被其他节点接管后释放应该失败且不删除")
+        void releaseTaskLock_shouldFailWhenTakenOver() {
+            // Given
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                    .thenReturn(List.of(3L));
+            scalingComponent.acquireTaskLock("task-123", 30000);
+            
+            when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any())).thenReturn(0L);
+
+            // When
+            boolean released = scalingComponent.releaseTaskLock("task-123");
+
+            // Then
+            assertThat(released).isFalse();
+            verify(stringRedisTemplate, never()).delete(anyString());
+        }
+
+        @Test
+        @DisplayName("未持有的任务锁不能续期")
+        void extendTaskLock_shouldFailWhenNotHeld() {
+            // When
+            boolean extended = scalingComponent.extendTaskLock("task-123", 30000);
+
+            // Then
+            assertThat(extended).isFalse();
+            verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
         }
 
         @Test
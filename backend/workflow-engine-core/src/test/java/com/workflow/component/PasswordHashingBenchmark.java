@@ -0,0 +1,119 @@
+package com.workflow.component;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 口令哈希成本标定
+ *
+ * 1. 逐个成本因子测量单次 bcrypt 校验耗时，给出不超过目标登录耗时的最大成本因子，
+ *    即 workflow.security.password.bcrypt-cost 的建议值
+ * 2. 用该成本因子模拟登录高峰：大量并发校验经有界校验线程池执行，
+ *    输出排队后的 p50/p99 耗时和被拒绝的比例
+ *
+ * 不在默认测试中运行（类名不匹配 surefire includes），需在目标硬件上运行：
+ * mvn -pl backend/workflow-engine-core test -Dtest=PasswordHashingBenchmark
+ * 可选：-Dbenchmark.targetMillis=250 -Dbenchmark.burst=200 -Dbenchmark.queueCapacity=200
+ */
+@Tag("benchmark")
+class PasswordHashingBenchmark {
+
+    private static final long TARGET_MILLIS = Long.getLong("benchmark.targetMillis", 250);
+    private static final int BURST = Integer.getInteger("benchmark.burst", 200);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("benchmark.queueCapacity", 200);
+    private static final int SAMPLES = 5;
+
+    private static final String PASSWORD = "Correct-Horse-Battery-Staple-42";
+
+    @Test
+    void calibrateCostAndSimulateLoginBurst() throws Exception {
+        int recommended = PasswordHasher.MIN_COST;
+        for (int cost = 8; cost <= 16; cost++) {
+            String hash = PasswordHasher.hash(PASSWORD, cost);
+            PasswordHasher.matches(PASSWORD, hash);
+            long[] samples = new long[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                long start = System.nanoTime();
+                assertThat(PasswordHasher.matches(PASSWORD, hash)).isTrue();
+                samples[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(samples);
+            double medianMillis = samples[SAMPLES / 2] / 1_000_000d;
+            System.out.printf("cost=%-2d verify median %8.1f ms%n", cost, medianMillis);
+            if (medianMillis > TARGET_MILLIS) {
+                break;
+            }
+            recommended = cost;
+        }
+        System.out.printf("recommended workflow.security.password.bcrypt-cost=%d (target %d ms)%n",
+                recommended, TARGET_MILLIS);
+
+        simulateBurst(recommended);
+    }
+
+    private void simulateBurst(int cost) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ManagedExecutor verifyPool = new ManagedExecutor("password-verify-bench", threads, threads,
+                QUEUE_CAPACITY, ManagedExecutor.RejectionPolicy.ABORT);
+        // 模拟请求线程：数量远多于校验线程
+        ExecutorService requestThreads = Executors.newFixedThreadPool(Math.min(BURST, 200));
+        String hash = PasswordHasher.hash(PASSWORD, cost);
+        AtomicInteger rejected = new AtomicInteger();
+        long[] latencies = new long[BURST];
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int i = 0; i < BURST; i++) {
+                int index = i;
+                requests.add(requestThreads.submit(() -> {
+                    startGate.await();
+                    long start = System.nanoTime();
+                    try {
+                        verifyPool.submit(() -> PasswordHasher.matches(PASSWORD, hash)).get();
+                        latencies[index] = System.nanoTime() - start;
+                    } catch (RejectedExecutionException e) {
+                        rejected.incrementAndGet();
+                        latencies[index] = -1;
+                    }
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            startGate.countDown();
+            for (Future<?> request : requests) {
+                request.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long[] completed = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+            System.out.printf("burst=%d threads=%d queue=%d: %.0f logins/s, p50 %.1f ms, p99 %.1f ms, rejected %d%n",
+                    BURST, threads, QUEUE_CAPACITY, completed.length / (elapsed / 1_000_000_000d),
+                    percentileMillis(completed, 0.50), percentileMillis(completed, 0.99), rejected.get());
+        } finally {
+            requestThreads.shutdownNow();
+            verifyPool.shutdownNow();
+            verifyPool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000d;
+    }
+}
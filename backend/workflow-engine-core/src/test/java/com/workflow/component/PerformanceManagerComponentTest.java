@@ -25,13 +25,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -151,6 +159,165 @@ class PerformanceManagerComponentTest {
             verify(valueOperations).set(anyString(), anyString(), any(Duration.class));
         }
 
+        @Test
+        @DisplayName("并发未命中时只执行一次加载")
+        void getFromCacheOrLoad_shouldCoalesceConcurrentMisses() throws Exception {
+            // Given
+            when(valueOperations.get(anyString())).thenReturn(null);
+            CountDownLatch loaderStarted = new CountDownLatch(1);
+            CountDownLatch releaseLoader = new CountDownLatch(1);
+            AtomicInteger loads = new AtomicInteger();
+            Supplier<String> loader = () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                try {
+                    releaseLoader.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "loaded";
+            };
+            ExecutorService callers = Executors.newFixedThreadPool(4);
+
+            try {
+                // When
+                List<Future<String>> results = new ArrayList<>();
+                results.add(callers.submit(() -> performanceManager.getFromCacheOrLoad("hot-key", String.class, loader, 300)));
+                assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+                for (int i = 0; i < 3; i++) {
+                    results.add(callers.submit(() -> performanceManager.getFromCacheOrLoad("hot-key", String.class, loader, 300)));
+                }
+                AtomicLong coalesced = (AtomicLong) ReflectionTestUtils.getField(performanceManager, "coalescedLoadCount");
+                long deadline = System.currentTimeMillis() + 5000;
+                while (coalesced.get() < 3 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                releaseLoader.countDown();
+
+                // Then
+                for (Future<String> result : results) {
+                    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+                }
+                assertThat(loads.get()).isEqualTo(1);
+                assertThat(coalesced.get()).isEqualTo(3);
+                verify(valueOperations, times(1)).set(anyString(), anyString(), any(Duration.class));
+            } finally {
+                callers.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("逻辑过期后返回旧值并在后台刷新")
+        void getFromCacheOrLoad_shouldServeStaleAndRefresh() {
+            // Given
+            long expiredAt = System.currentTimeMillis() - 1000;
+            when(valueOperations.get(contains("stale-key"))).thenReturn("xf1|20|" + expiredAt + "|\"old\"");
+
+            // When
+            String result = performanceManager.getFromCacheOrLoad("stale-key", String.class, () -> "new", 300, 60);
+
+            // Then
+            assertThat(result).isEqualTo("old");
+            verify(valueOperations, timeout(2000)).set(contains("stale-key"), contains("\"new\""), eq(Duration.ofSeconds(360)));
+            assertThat(performanceManager.getCache("stale-key", String.class)).isEqualTo("old");
+        }
+
+        @Test
+        @DisplayName("默认读取不返回过期值，同步重新加载")
+        void getFromCacheOrLoad_shouldNotServeStaleByDefault() {
+            // Given
+            long expiredAt = System.currentTimeMillis() - 1000;
+            when(valueOperations.get(contains("strict-key"))).thenReturn("xf1|20|" + expiredAt + "|\"old\"");
+
+            // When
+            String result = performanceManager.getFromCacheOrLoad("strict-key", String.class, () -> "new", 300);
+
+            // Then
+            assertThat(result).isEqualTo("new");
+            verify(valueOperations).set(contains("strict-key"), contains("\"new\""), eq(Duration.ofSeconds(300)));
+        }
+
+        @Test
+        @DisplayName("允许旧值的读取在配置窗口内返回旧值")
+        void getFromCacheOrLoadAllowingStale_shouldServeStale() {
+            // Given
+            long expiredAt = System.currentTimeMillis() - 1000;
+            when(valueOperations.get(contains("stale-key"))).thenReturn("xf1|20|" + expiredAt + "|\"old\"");
+
+            // When
+            String result = performanceManager.getFromCacheOrLoadAllowingStale("stale-key", String.class, () -> "new", 300);
+
+            // Then
+            assertThat(result).isEqualTo("old");
+            verify(valueOperations, timeout(2000)).set(contains("stale-key"), contains("\"new\""), eq(Duration.ofSeconds(330)));
+        }
+
+        @Test
+        @DisplayName("接近过期且加载较慢的值应在后台提前刷新")
+        void getFromCacheOrLoad_shouldRefreshEarlyNearExpiry() {
+            // Given
+            long expiresAt = System.currentTimeMillis() + 1000;
+            when(valueOperations.get(contains("hot-key"))).thenReturn("xf1|1000000000|" + expiresAt + "|\"current\"");
+
+            // When
+            String result = performanceManager.getFromCacheOrLoad("hot-key", String.class, () -> "refreshed", 300);
+
+            // Then
+            assertThat(result).isEqualTo("current");
+            verify(valueOperations, timeout(2000)).set(contains("hot-key"), contains("\"refreshed\""), any(Duration.class));
+            assertThat(((AtomicLong) ReflectionTestUtils.getField(performanceManager, "earlyRefreshCount")).get()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("远离过期的值不会提前刷新")
+        void getFromCacheOrLoad_shouldNotRefreshFarFromExpiry() {
+            // Given
+            long expiresAt = System.currentTimeMillis() + 300_000;
+            when(valueOperations.get(contains("cold-key"))).thenReturn("xf1|5|" + expiresAt + "|\"current\"");
+
+            // When
+            for (int i = 0; i < 100; i++) {
+                assertThat(performanceManager.getFromCacheOrLoad("cold-key", String.class, () -> "refreshed", 300))
+                        .isEqualTo("current");
+            }
+
+            // Then
+            verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+        }
+
+        @Test
+        @DisplayName("等待并发加载超时后自行加载")
+        void getFromCacheOrLoad_shouldStopWaitingForStuckLoad() throws Exception {
+            // Given
+            ReflectionTestUtils.setField(performanceManager, "loadWaitMs", 100L);
+            when(valueOperations.get(anyString())).thenReturn(null);
+            CountDownLatch loading = new CountDownLatch(1);
+            CountDownLatch stuck = new CountDownLatch(1);
+            ExecutorService caller = Executors.newSingleThreadExecutor();
+
+            try {
+                caller.submit(() -> performanceManager.getFromCacheOrLoad("slow-key", String.class, () -> {
+                    loading.countDown();
+                    try {
+                        stuck.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "stuck";
+                }, 300));
+                assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+                // When
+                String result = performanceManager.getFromCacheOrLoad("slow-key", String.class, () -> "direct", 300);
+
+                // Then
+                assertThat(result).isEqualTo("direct");
+            } finally {
+                stuck.countDown();
+                caller.shutdownNow();
+            }
+        }
+
         @Test
         @DisplayName("设置缓存成功")
         void setCache_success() {
@@ -422,6 +589,79 @@ class PerformanceManagerComponentTest {
             // Then - 验证不抛出异常
             assertThat(true).isTrue();
         }
+
+        @Test
+        @DisplayName("完成超过TTL的异步操作应自动清理")
+        void evictExpiredOperations_shouldRemoveCompletedOperations() throws Exception {
+            // Given
+            ReflectionTestUtils.setField(performanceManager, "operationTtlSeconds", 0L);
+            String operationId = "async-ttl-op";
+            performanceManager.executeAsync(operationId, () -> "result").get(5, TimeUnit.SECONDS);
+            assertThat(performanceManager.getAsyncOperationStatus(operationId))
+                    .isEqualTo(AsyncOperationResult.OperationStatus.COMPLETED);
+
+            // When
+            int removed = performanceManager.evictExpiredOperations();
+
+            // Then
+            assertThat(removed).isEqualTo(1);
+            assertThat(performanceManager.getAsyncOperationStatus(operationId)).isNull();
+        }
+
+        @Test
+        @DisplayName("CPU和IO线程池应分别统计")
+        void getExecutorStatistics_shouldReportBothPools() throws Exception {
+            // Given
+            performanceManager.executeAsync("cpu-op", () -> 1 + 1, ManagedExecutorRegistry.ExecutorType.CPU)
+                    .get(5, TimeUnit.SECONDS);
+            performanceManager.executeAsync("io-op", () -> "io").get(5, TimeUnit.SECONDS);
+
+            // When
+            Map<String, Object> stats = performanceManager.getExecutorStatistics();
+
+            // Then
+            assertThat(stats).containsKeys("cpu", "io", "trackedOperations");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> cpu = (Map<String, Object>) stats.get("cpu");
+            assertThat((Long) cpu.get("submitted")).isEqualTo(1L);
+            assertThat(cpu).containsKeys("queueDepth", "activeCount", "avgWaitMs", "rejected");
+        }
+
+        @Test
+        @DisplayName("IO线程池已满时应返回失败结果而不是无限排队")
+        void executeAsync_shouldFailFastWhenPoolIsFull() throws Exception {
+            // Given - 单线程、单队列位置的IO线程池
+            ManagedExecutorRegistry registry = new ManagedExecutorRegistry();
+            ReflectionTestUtils.setField(registry, "ioCoreSize", 1);
+            ReflectionTestUtils.setField(registry, "ioMaxSize", 1);
+            ReflectionTestUtils.setField(registry, "ioQueueCapacity", 1);
+            ReflectionTestUtils.setField(performanceManager, "executorRegistry", registry);
+            CountDownLatch release = new CountDownLatch(1);
+            Supplier<String> blocking = () -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "done";
+            };
+
+            try {
+                performanceManager.executeAsync("running", blocking);
+                performanceManager.executeAsync("queued", blocking);
+
+                // When
+                AsyncOperationResult<String> rejected = performanceManager
+                        .executeAsync("rejected", blocking).get(1, TimeUnit.SECONDS);
+
+                // Then
+                assertThat(rejected.getStatus()).isEqualTo(AsyncOperationResult.OperationStatus.FAILED);
+                assertThat(registry.io().getRejectedCount()).isEqualTo(1L);
+            } finally {
+                release.countDown();
+                registry.shutdown();
+            }
+        }
     }
 
     @Nested
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -306,6 +307,90 @@ class RetryAndCompensationComponentTest {
             // Then
             assertThat(transactions).hasSize(2);
         }
+
+        @Test
+        @DisplayName("未声明依赖的步骤按注册倒序逐个执行")
+        void executeCompensation_chainShouldRunInReverseOrder() {
+            retryComponent.registerCompensation("proc-123", "activity-1", "CUSTOM", null);
+            retryComponent.registerCompensation("proc-123", "activity-2", "CUSTOM", null);
+            retryComponent.registerCompensation("proc-123", "activity-3", "CUSTOM", null);
+
+            List<Map<String, Object>> results = retryComponent.executeCompensation("proc-123");
+
+            assertThat(results).extracting(r -> r.get("activityId"))
+                    .containsExactly("activity-3", "activity-2", "activity-1");
+            assertThat(retryComponent.getCompensationTransactions("proc-123", false)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("独立步骤归入同一波次，依赖方先于被依赖方补偿")
+        void buildCompensationWaves_shouldGroupIndependentSteps() {
+            RetryAndCompensationComponent.CompensationTransaction reserve = retryComponent.registerCompensation(
+                    "proc-123", "reserve", "CUSTOM", null, Set.of());
+            RetryAndCompensationComponent.CompensationTransaction notify = retryComponent.registerCompensation(
+                    "proc-123", "notify", "CUSTOM", null, Set.of());
+            RetryAndCompensationComponent.CompensationTransaction charge = retryComponent.registerCompensation(
+                    "proc-123", "charge", "CUSTOM", null, Set.of("reserve"));
+
+            List<List<RetryAndCompensationComponent.CompensationTransaction>> waves =
+                    retryComponent.buildCompensationWaves(List.of(reserve, notify, charge));
+
+            assertThat(waves).hasSize(2);
+            assertThat(waves.get(0)).containsExactlyInAnyOrder(charge, notify);
+            assertThat(waves.get(1)).containsExactly(reserve);
+        }
+
+        @Test
+        @DisplayName("已执行的步骤不会被重复补偿")
+        void executeCompensation_shouldSkipExecutedSteps() {
+            retryComponent.registerCompensation("proc-123", "activity-1", "CUSTOM", null, Set.of());
+            retryComponent.registerCompensation("proc-123", "activity-2", "CUSTOM", null, Set.of());
+
+            assertThat(retryComponent.executeCompensation("proc-123")).hasSize(2);
+            assertThat(retryComponent.executeCompensation("proc-123")).isEmpty();
+            assertThat(retryComponent.getRetryStatistics())
+                    .containsEntry("compensationExecuted", 2L)
+                    .containsEntry("compensationSuccessful", 2L);
+        }
+    }
+
+    @Nested
+    @DisplayName("定时重试分区测试")
+    class ScheduledRetryPartitionTests {
+
+        @Test
+        @DisplayName("定时重试应该只查询本节点负责的分区")
+        void scheduledRetry_shouldQueryOwnedPartitionsOnly() {
+            // Given
+            HorizontalScalingComponent scaling = mock(HorizontalScalingComponent.class);
+            when(scaling.getOwnedPartitions()).thenReturn(Set.of(1, 5));
+            when(scaling.getPartitionCount()).thenReturn(16);
+            ReflectionTestUtils.setField(retryComponent, "scalingComponent", scaling);
+            when(exceptionRecordRepository.findPendingRetryExceptionsInPartitions(any(), eq(16), eq(Set.of(1, 5))))
+                    .thenReturn(new ArrayList<>());
+
+            // When
+            retryComponent.scheduledRetryExecution();
+
+            // Then
+            verify(exceptionRecordRepository).findPendingRetryExceptionsInPartitions(any(), eq(16), eq(Set.of(1, 5)));
+            verify(exceptionRecordRepository, never()).findPendingRetryExceptions(any());
+        }
+
+        @Test
+        @DisplayName("未分配分区的节点不应该查询")
+        void scheduledRetry_withoutPartitionsShouldSkip() {
+            // Given
+            HorizontalScalingComponent scaling = mock(HorizontalScalingComponent.class);
+            when(scaling.getOwnedPartitions()).thenReturn(Set.of());
+            ReflectionTestUtils.setField(retryComponent, "scalingComponent", scaling);
+
+            // When
+            retryComponent.scheduledRetryExecution();
+
+            // Then
+            verifyNoInteractions(exceptionRecordRepository);
+        }
     }
 
     @Nested
@@ -0,0 +1,187 @@
+package com.workflow.component;
+
+import com.workflow.entity.ExceptionRecord;
+import com.workflow.entity.ExceptionRecord.ExceptionStatus;
+import com.workflow.repository.ExceptionRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 分片并行重试调度器单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("重试调度器测试")
+class RetrySchedulerTest {
+
+    @Mock(lenient = true)
+    private ExceptionRecordRepository exceptionRecordRepository;
+
+    @Mock(lenient = true)
+    private RetryAndCompensationComponent retryComponent;
+
+    @Mock(lenient = true)
+    private PlatformTransactionManager transactionManager;
+
+    @Mock(lenient = true)
+    private GracefulDrainComponent drainComponent;
+
+    private RetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new RetryScheduler(exceptionRecordRepository, retryComponent, transactionManager, drainComponent);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    private ExceptionRecord record(String id) {
+        ExceptionRecord record = new ExceptionRecord();
+        record.setId(id);
+        record.setStatus(ExceptionStatus.PENDING);
+        record.setRetryCount(0);
+        record.setMaxRetryCount(3);
+        record.setResolved(false);
+        record.setNextRetryTime(LocalDateTime.now().minusMinutes(1));
+        return record;
+    }
+
+    @Test
+    @DisplayName("认领的记录应标记为处理中并设置租约")
+    void dispatchDue_shouldClaimWithLease() {
+        List<ExceptionRecord> claimed = List.of(record("r1"), record("r2"));
+        when(exceptionRecordRepository.claimDueRetryExceptions(any(), any(Pageable.class)))
+                .thenReturn(claimed)
+                .thenReturn(List.of());
+        when(retryComponent.executeRetry(anyString()))
+                .thenAnswer(inv -> new RetryAndCompensationComponent.RetryResult(
+                        inv.getArgument(0), true, 1, "重试成功", null, false));
+
+        int dispatched = scheduler.dispatchDue();
+
+        assertThat(dispatched).isEqualTo(2);
+        assertThat(claimed).allSatisfy(r -> {
+            assertThat(r.getStatus()).isEqualTo(ExceptionStatus.PROCESSING);
+            assertThat(r.getNextRetryTime()).isAfter(LocalDateTime.now().plusSeconds(60));
+        });
+        verify(retryComponent, timeout(2000)).executeRetry("r1");
+        verify(retryComponent, timeout(2000)).executeRetry("r2");
+    }
+
+    @Test
+    @DisplayName("每条记录单独执行，一条失败不影响其他记录")
+    void dispatchDue_failureShouldNotBlockOthers() {
+        when(exceptionRecordRepository.claimDueRetryExceptions(any(), any(Pageable.class)))
+                .thenReturn(List.of(record("bad"), record("good")))
+                .thenReturn(List.of());
+        Set<String> executed = ConcurrentHashMap.newKeySet();
+        when(retryComponent.executeRetry(anyString())).thenAnswer(inv -> {
+            String id = inv.getArgument(0);
+            executed.add(id);
+            if ("bad".equals(id)) {
+                throw new RuntimeException("执行重试失败");
+            }
+            return new RetryAndCompensationComponent.RetryResult(id, true, 1, "重试成功", null, false);
+        });
+
+        scheduler.dispatchDue();
+
+        verify(retryComponent, timeout(2000).times(2)).executeRetry(anyString());
+        assertThat(executed).containsExactlyInAnyOrder("bad", "good");
+        await(() -> (Long) scheduler.getStatistics().get("succeeded") == 1L
+                && (Long) scheduler.getStatistics().get("failed") == 1L);
+    }
+
+    @Test
+    @DisplayName("认领数量不超过工作线程容量")
+    void dispatchDue_shouldRespectCapacity() {
+        List<Integer> requested = new ArrayList<>();
+        when(exceptionRecordRepository.claimDueRetryExceptions(any(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    Pageable pageable = inv.getArgument(1);
+                    requested.add(pageable.getPageSize());
+                    return List.of();
+                });
+
+        scheduler.dispatchDue();
+
+        // 默认4个工作线程，最多8个许可
+        assertThat(requested).containsExactly(8);
+    }
+
+    @Test
+    @DisplayName("重试失败后应按下次重试时间安排唤醒")
+    void failedRetry_shouldScheduleNextWakeUp() {
+        LocalDateTime next = LocalDateTime.now().plusMinutes(5);
+        when(exceptionRecordRepository.claimDueRetryExceptions(any(), any(Pageable.class)))
+                .thenReturn(List.of(record("r1")))
+                .thenReturn(List.of());
+        when(retryComponent.executeRetry("r1")).thenReturn(
+                new RetryAndCompensationComponent.RetryResult("r1", false, 1, "第1次重试失败", next, false));
+
+        scheduler.dispatchDue();
+
+        await(() -> scheduler.getStatistics().get("nextWakeUp") != null);
+    }
+
+    @Test
+    @DisplayName("执行中的重试应计入排空等待的作业")
+    void runningRetry_shouldBeCountedAsDrainJob() {
+        when(exceptionRecordRepository.claimDueRetryExceptions(any(), any(Pageable.class)))
+                .thenReturn(List.of(record("r1")))
+                .thenReturn(List.of());
+        when(retryComponent.executeRetry("r1")).thenReturn(
+                new RetryAndCompensationComponent.RetryResult("r1", true, 1, "重试成功", null, false));
+
+        scheduler.dispatchDue();
+
+        verify(drainComponent).jobStarted();
+        verify(drainComponent, timeout(2000)).jobFinished();
+    }
+
+    @Test
+    @DisplayName("排空中的节点不再认领记录")
+    void dispatchDue_shouldNotClaimWhileDraining() {
+        when(drainComponent.isDraining()).thenReturn(true);
+
+        int dispatched = scheduler.dispatchDue();
+
+        assertThat(dispatched).isZero();
+        verify(exceptionRecordRepository, never()).claimDueRetryExceptions(any(), any(Pageable.class));
+    }
+
+    private void await(java.util.function.BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("条件未在超时时间内满足");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
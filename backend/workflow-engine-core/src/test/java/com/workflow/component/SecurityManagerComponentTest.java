@@ -18,6 +18,7 @@ import org.springframework.data.redis.core.HashOperations;
 import org.springframework.core.env.Environment;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -61,6 +62,8 @@ class SecurityManagerComponentTest {
         when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
         
         securityManager = new SecurityManagerComponent(stringRedisTemplate, objectMapper, auditManagerComponent, environment);
+        // 测试中使用最小成本因子，避免每次哈希耗时数百毫秒
+        ReflectionTestUtils.setField(securityManager, "passwordHashCost", 4);
         securityManager.initializeDefaultRolePermissions();
     }
 
@@ -113,6 +116,38 @@ class SecurityManagerComponentTest {
             assertThat(result.getMessage()).contains("用户名或密码错误");
         }
 
+        @Test
+        @DisplayName("旧版SHA-256口令登录成功后升级为bcrypt")
+        void authenticate_legacyHash_rehashedOnLogin() {
+            String key = "security:user:alice:password";
+            when(valueOperations.get(key)).thenReturn(securityManager.digest("alice-pass"));
+            AuthenticationRequest request = new AuthenticationRequest();
+            request.setUsername("alice");
+            request.setPassword("alice-pass");
+            request.setIpAddress("127.0.0.1");
+            
+            AuthenticationResult result = securityManager.authenticate(request);
+            
+            assertThat(result.isSuccess()).isTrue();
+            verify(valueOperations, timeout(2000)).set(eq(key), startsWith("$2a$04$"));
+        }
+
+        @Test
+        @DisplayName("当前成本的bcrypt口令登录不重新哈希")
+        void authenticate_currentHash_notRehashed() {
+            String key = "security:user:bob:password";
+            when(valueOperations.get(key)).thenReturn(securityManager.hashPassword("bob-pass"));
+            AuthenticationRequest request = new AuthenticationRequest();
+            request.setUsername("bob");
+            request.setPassword("bob-pass");
+            request.setIpAddress("127.0.0.1");
+            
+            AuthenticationResult result = securityManager.authenticate(request);
+            
+            assertThat(result.isSuccess()).isTrue();
+            verify(valueOperations, after(200).never()).set(eq(key), anyString());
+        }
+
         @Test
         @DisplayName("不存在用户认证失败")
         void authenticate_nonExistentUser_failure() {
@@ -287,6 +322,56 @@ class SecurityManagerComponentTest {
             // 这里测试的是权限检查逻辑正常工作
             assertThat(result).isNotNull();
         }
+
+        @Test
+        @DisplayName("重复权限检查只读取一次用户角色")
+        void checkPermission_repeatedChecks_readRolesOnce() {
+            when(valueOperations.get("security:user:alice:roles")).thenReturn("[\"MANAGER\"]");
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(securityManager.isPermitted("alice", "TASK", "COMPLETE")).isTrue();
+            }
+            assertThat(securityManager.hasRole("alice", "MANAGER")).isTrue();
+            PermissionCheckResult result = securityManager.checkPermission("alice", "USER", "VIEW");
+
+            assertThat(result.isAllowed()).isTrue();
+            assertThat(result.getGrantedByRole()).isEqualTo("MANAGER");
+            verify(valueOperations, times(1)).get("security:user:alice:roles");
+        }
+
+        @Test
+        @DisplayName("角色权限变更后权限索引失效")
+        void checkPermission_rolePermissionsChanged_indexRebuilt() {
+            assertThat(securityManager.isPermitted("user", "REPORT", "EXPORT")).isFalse();
+
+            securityManager.defineRolePermissions("USER", Set.of("REPORT:*"));
+
+            assertThat(securityManager.isPermitted("user", "REPORT", "EXPORT")).isTrue();
+            assertThat(securityManager.isPermitted("user", "TASK", "VIEW")).isFalse();
+        }
+
+        @Test
+        @DisplayName("角色分配后权限索引失效")
+        void assignRole_invalidatesPermissionIndex() {
+            assertThat(securityManager.hasRole("bob", "MANAGER")).isFalse();
+            when(valueOperations.get("security:user:bob:roles")).thenReturn("[\"USER\"]", "[\"USER\",\"MANAGER\"]");
+
+            boolean assigned = securityManager.assignRole(RoleAssignmentRequest.builder()
+                    .username("bob").role("MANAGER").operator("admin").build());
+
+            assertThat(assigned).isTrue();
+            assertThat(securityManager.hasRole("bob", "MANAGER")).isTrue();
+        }
+
+        @Test
+        @DisplayName("资源名包含冒号时与整串匹配一致")
+        void checkPermission_resourceContainingColon() {
+            securityManager.defineRolePermissions("USER", Set.of("FORM:leave:SUBMIT"));
+
+            assertThat(securityManager.isPermitted("user", "FORM:leave", "SUBMIT")).isTrue();
+            assertThat(securityManager.isPermitted("user", "FORM", "leave:SUBMIT")).isTrue();
+            assertThat(securityManager.isPermitted("user", "FORM", "SUBMIT")).isFalse();
+        }
     }
 
     @Nested
@@ -320,15 +405,35 @@ class SecurityManagerComponentTest {
         }
 
         @Test
-        @DisplayName("密码哈希一致性")
-        void hashPassword_consistency() {
+        @DisplayName("密码哈希加盐，同一密码每次结果不同且都能验证")
+        void hashPassword_salted() {
             String password = "testPassword123";
             
             String hash1 = securityManager.hashPassword(password);
             String hash2 = securityManager.hashPassword(password);
             
-            assertThat(hash1).isEqualTo(hash2);
-            assertThat(hash1).isNotEqualTo(password);
+            assertThat(hash1).isNotEqualTo(hash2);
+            assertThat(hash1).isNotEqualTo(password).startsWith("$2a$04$");
+            assertThat(securityManager.verifyPassword(password, hash1)).isTrue();
+            assertThat(securityManager.verifyPassword(password, hash2)).isTrue();
+        }
+
+        @Test
+        @DisplayName("兼容旧版无盐SHA-256哈希")
+        void verifyPassword_legacyHash() {
+            String legacy = securityManager.digest("testPassword123");
+            
+            assertThat(securityManager.verifyPassword("testPassword123", legacy)).isTrue();
+            assertThat(securityManager.verifyPassword("testPassword123", legacy.toUpperCase())).isTrue();
+            assertThat(securityManager.verifyPassword("wrongPassword", legacy)).isFalse();
+            assertThat(securityManager.verifyPassword("testPassword123", "not-a-hash")).isFalse();
+        }
+
+        @Test
+        @DisplayName("摘要保持确定性")
+        void digest_consistency() {
+            assertThat(securityManager.digest("payload")).isEqualTo(securityManager.digest("payload"))
+                    .hasSize(64);
         }
 
         @Test
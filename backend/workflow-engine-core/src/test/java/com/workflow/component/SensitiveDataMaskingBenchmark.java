@@ -0,0 +1,146 @@
+package com.workflow.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 敏感数据脱敏JMH基准：逐模式扫描 vs 单遍扫描，Map往返 vs 写出时脱敏
+ *
+ * 不在默认测试中运行（类名不匹配 surefire includes），运行方式：
+ * mvn -pl backend/workflow-engine-core test-compile exec:exec -Dexec.executable=java
+ *     -Dexec.classpathScope=test -Dexec.args="-cp %classpath org.openjdk.jmh.Main SensitiveDataMaskingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensitiveDataMaskingBenchmark {
+
+    // 改造前的逐模式实现，作为对照
+    private static final Map<String, Pattern> PER_PATTERN = new HashMap<>();
+
+    static {
+        PER_PATTERN.put("PHONE", Pattern.compile("1[3-9]\\d{9}"));
+        PER_PATTERN.put("ID_CARD", Pattern.compile("\\d{17}[\\dXx]"));
+        PER_PATTERN.put("EMAIL", Pattern.compile("[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}"));
+        PER_PATTERN.put("BANK_CARD", Pattern.compile("\\d{16,19}"));
+        PER_PATTERN.put("PASSWORD", Pattern.compile("(?i)(password|pwd|secret|key)"));
+    }
+
+    private static final Set<String> SENSITIVE_FIELDS = Set.of(
+            "password", "token", "secret", "key", "credential",
+            "ssn", "idCard", "phone", "email", "bankAccount");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final KeywordMatcher fieldMatcher = KeywordMatcher.of(SENSITIVE_FIELDS);
+
+    private List<String> texts;
+    private Map<String, Object> payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        texts = List.of(
+                "流程 order-approval 第3步已由部门经理审批通过，备注：同意",
+                "联系人张三，电话13812345678，邮箱zhangsan@example.com",
+                "退款至银行卡6222021234567890123，身份证110101199001011234",
+                "重置 password 后请使用新的口令登录");
+
+        payload = new LinkedHashMap<>();
+        payload.put("processInstanceId", "proc-20240101-0001");
+        payload.put("applicant", Map.of("name", "张三", "phone", "13812345678", "email", "zhangsan@example.com"));
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(Map.of("sku", "SKU-" + i, "amount", 12.5 * i, "remark", "第" + i + "项"));
+        }
+        payload.put("items", items);
+        payload.put("apiToken", "jwt-token-xyz");
+
+        String masked = jsonMaskedWrite();
+        if (masked.contains("13812345678") || masked.contains("jwt-token-xyz")) {
+            throw new IllegalStateException("脱敏结果仍包含敏感数据: " + masked);
+        }
+    }
+
+    // ==================== 文本脱敏 ====================
+
+    @Benchmark
+    public void textPerPattern(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(perPatternMask(text));
+        }
+    }
+
+    @Benchmark
+    public void textSinglePass(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(SensitiveDataMasker.maskText(text, (type, match) -> "*"));
+        }
+    }
+
+    // ==================== JSON脱敏 ====================
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String jsonMapRoundTrip() throws Exception {
+        Map<String, Object> map = objectMapper.readValue(objectMapper.writeValueAsString(payload), Map.class);
+        maskFields(map);
+        return objectMapper.writeValueAsString(map);
+    }
+
+    @Benchmark
+    public String jsonMaskedWrite() throws Exception {
+        return SensitiveDataMasker.writeMaskedJson(objectMapper, payload, fieldMatcher, value -> "****");
+    }
+
+    // ==================== 对照实现 ====================
+
+    private static String perPatternMask(String data) {
+        String result = data;
+        for (Map.Entry<String, Pattern> entry : PER_PATTERN.entrySet()) {
+            if (entry.getValue().matcher(result).find()) {
+                result = entry.getValue().matcher(result).replaceAll(match -> "*");
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void maskFields(Map<String, Object> dataMap) {
+        for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
+            String key = entry.getKey().toLowerCase();
+            Object value = entry.getValue();
+            if (SENSITIVE_FIELDS.stream().anyMatch(key::contains) && value != null) {
+                entry.setValue("****");
+            } else if (value instanceof Map) {
+                maskFields((Map<String, Object>) value);
+            } else if (value instanceof List) {
+                for (Object item : (List<?>) value) {
+                    if (item instanceof Map) {
+                        maskFields((Map<String, Object>) item);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -9,11 +9,13 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -27,9 +29,12 @@ import static org.assertj.core.api.Assertions.*;
  */
 @SpringBootTest
 @ActiveProfiles("test")
+@EmbeddedKafka(partitions = 1, topics = EventNotificationTriggerProperties.KAFKA_TEST_TOPIC)
 @DisplayName("事件通知触发准确性属性测试")
 class EventNotificationTriggerProperties {
 
+    static final String KAFKA_TEST_TOPIC = "platform.workflow.test-topic";
+
     @Autowired
     private NotificationManagerComponent notificationManager;
 
@@ -329,21 +334,19 @@ class EventNotificationTriggerProperties {
 
     @Test
     @DisplayName("属性: Kafka消息发送和消费正确")
-    void property_kafkaMessageSendAndConsumeCorrect() {
+    void property_kafkaMessageSendAndConsumeCorrect() throws InterruptedException {
         // Given: 注册Kafka消费者
-        AtomicInteger consumedCount = new AtomicInteger(0);
-        notificationManager.registerKafkaConsumer("test-topic", event -> {
-            consumedCount.incrementAndGet();
-        });
+        CountDownLatch consumed = new CountDownLatch(1);
+        notificationManager.registerKafkaConsumer(KAFKA_TEST_TOPIC, event -> consumed.countDown());
 
         // When: 发送Kafka消息
         WorkflowEvent event = new WorkflowEvent(
                 "TEST_EVENT", "source-001", "TEST", Map.of("key", "value"));
-        NotificationResult result = notificationManager.sendKafkaMessage("test-topic", "key-001", event);
+        NotificationResult result = notificationManager.sendKafkaMessage(KAFKA_TEST_TOPIC, "key-001", event);
 
-        // Then: 消息发送成功，消费者被触发
+        // Then: 消息发送成功，消费者经嵌入式Kafka异步消费后被触发
         assertThat(result.isSuccess()).isTrue();
-        assertThat(consumedCount.get()).isEqualTo(1);
+        assertThat(consumed.await(30, TimeUnit.SECONDS)).isTrue();
     }
 
     @Test